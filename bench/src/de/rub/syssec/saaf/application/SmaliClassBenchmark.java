@@ -0,0 +1,80 @@
+package de.rub.syssec.saaf.application;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.rub.syssec.saaf.bench.Corpus;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+/**
+ * Storing trimmed lines in a {@link CodeArena}, parsing whole classes and
+ * building the basic blocks of methods, once for the whole corpus. Classes
+ * are parsed eagerly and lazily, see {@link ConfigKeys#ANALYSIS_PARSE_LAZY}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SmaliClassBenchmark {
+
+	private List<File> files;
+	private List<byte[]> contents;
+	private List<byte[]> lines;
+	private List<MethodInterface> methods;
+	private ApplicationInterface app;
+
+	@Param({ "false", "true" })
+	public boolean lazy;
+
+	@Setup
+	public void setUp() throws Exception {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, lazy);
+		Corpus corpus = Corpus.load();
+		files = corpus.getFiles();
+		contents = corpus.getContents();
+		lines = corpus.getLines();
+		app = new MockApplication();
+		methods = new ArrayList<MethodInterface>();
+		for (int i = 0; i < files.size(); i++) {
+			methods.addAll(new SmaliClass(files.get(i), contents.get(i), app, i).getMethods());
+		}
+	}
+
+	@Benchmark
+	public void fillArena(Blackhole bh) {
+		CodeArena arena = new CodeArena(0);
+		for (byte[] line : lines) {
+			arena.add(line, 0, line.length);
+		}
+		bh.consume(arena);
+	}
+
+	@Benchmark
+	public void parseSmaliClass(Blackhole bh) throws Exception {
+		for (int i = 0; i < files.size(); i++) {
+			bh.consume(new SmaliClass(files.get(i), contents.get(i), app, i));
+		}
+	}
+
+	@Benchmark
+	public void generateBBs(Blackhole bh) throws Exception {
+		for (MethodInterface m : methods) {
+			m.generateBBs();
+			bh.consume(m.getBasicBlocks());
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package de.rub.syssec.saaf.application.instructions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.rub.syssec.saaf.bench.Corpus;
+import de.rub.syssec.saaf.misc.ByteUtils;
+
+/**
+ * Splitting instructions and looking up their opcodes, once for all
+ * instructions of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InstructionBenchmark {
+
+	/**
+	 * The trimmed lines which contain an instruction.
+	 */
+	private List<byte[]> instructions;
+	/**
+	 * The opcodes of these instructions.
+	 */
+	private List<byte[]> opcodes;
+	/**
+	 * The register lists of all invokes, eg, "{v0 .. v5}".
+	 */
+	private List<byte[]> parameters;
+
+	@Setup
+	public void setUp() throws IOException {
+		instructions = new ArrayList<byte[]>();
+		opcodes = new ArrayList<byte[]>();
+		parameters = new ArrayList<byte[]>();
+		for (byte[] line : Corpus.load().getLines()) {
+			line = new String(line, "UTF-8").trim().getBytes("UTF-8");
+			if (line.length == 0 || line[0] == '.' || line[0] == ':' || line[0] == '#') {
+				continue;
+			}
+			instructions.add(line);
+			int space = ByteUtils.indexOf(line, ' ');
+			opcodes.add(space < 0 ? line : ByteUtils.subbytes(line, 0, space));
+			int open = ByteUtils.indexOf(line, '{');
+			int close = ByteUtils.indexOf(line, '}');
+			if (open >= 0 && close > open) {
+				parameters.add(ByteUtils.subbytes(line, open, close + 1));
+			}
+		}
+	}
+
+	@Benchmark
+	public void split(Blackhole bh) {
+		for (byte[] line : instructions) {
+			bh.consume(Instruction.split(line));
+		}
+	}
+
+	@Benchmark
+	public void parseRegisters(Blackhole bh) {
+		for (byte[] p : parameters) {
+			bh.consume(Registers.parseList(p));
+		}
+	}
+
+	@Benchmark
+	public void getType(Blackhole bh) {
+		for (byte[] opcode : opcodes) {
+			bh.consume(InstructionMap.getType(opcode));
+		}
+	}
+}
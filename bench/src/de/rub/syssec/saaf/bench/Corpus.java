@@ -0,0 +1,107 @@
+package de.rub.syssec.saaf.bench;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SMALI files the benchmarks run on. They are read from the directory
+ * given by the system property {@value #PROPERTY}, bench/corpus by default.
+ */
+public final class Corpus {
+
+	public static final String PROPERTY = "saaf.bench.corpus";
+
+	private final List<File> files = new ArrayList<File>();
+	private final List<byte[]> contents = new ArrayList<byte[]>();
+
+	private Corpus() {
+		/* use load() */
+	}
+
+	/**
+	 * @return all SMALI files of the corpus, sorted by path
+	 * @throws IOException if a file could not be read or there are none
+	 */
+	public static Corpus load() throws IOException {
+		File dir = new File(System.getProperty(PROPERTY, "bench/corpus"));
+		Corpus corpus = new Corpus();
+		collect(dir, corpus.files);
+		if (corpus.files.isEmpty()) {
+			throw new IOException("No SMALI files found in " + dir.getAbsolutePath());
+		}
+		Collections.sort(corpus.files);
+		for (File f : corpus.files) {
+			RandomAccessFile in = new RandomAccessFile(f, "r");
+			try {
+				byte[] content = new byte[(int) in.length()];
+				in.readFully(content);
+				corpus.contents.add(content);
+			} finally {
+				in.close();
+			}
+		}
+		return corpus;
+	}
+
+	private static void collect(File dir, List<File> files) {
+		File[] found = dir.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File f) {
+				return f.isDirectory() || f.getName().endsWith(".smali");
+			}
+		});
+		if (found == null) {
+			return;
+		}
+		for (File f : found) {
+			if (f.isDirectory()) {
+				collect(f, files);
+			} else {
+				files.add(f);
+			}
+		}
+	}
+
+	/**
+	 * @return the SMALI files
+	 */
+	public List<File> getFiles() {
+		return files;
+	}
+
+	/**
+	 * @return the content of the SMALI files, in the same order as {@link #getFiles()}
+	 */
+	public List<byte[]> getContents() {
+		return contents;
+	}
+
+	/**
+	 * @return all lines of all files as they are in the files, w/o line breaks
+	 */
+	public List<byte[]> getLines() {
+		List<byte[]> lines = new ArrayList<byte[]>();
+		for (byte[] content : contents) {
+			int start = 0;
+			for (int i = 0; i <= content.length; i++) {
+				if (i == content.length || content[i] == '\n') {
+					int end = i;
+					if (end > start && content[end - 1] == '\r') {
+						end--;
+					}
+					if (i < content.length || end > start) {
+						lines.add(Arrays.copyOfRange(content, start, end));
+					}
+					start = i + 1;
+				}
+			}
+		}
+		return lines;
+	}
+}
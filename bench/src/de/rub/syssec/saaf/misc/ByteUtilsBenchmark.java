@@ -0,0 +1,68 @@
+package de.rub.syssec.saaf.misc;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.rub.syssec.saaf.bench.Corpus;
+
+/**
+ * Reading lines and searching in them, once for the whole corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ByteUtilsBenchmark {
+
+	private static final byte[] PATTERN = "Landroid/telephony/SmsManager;->sendTextMessage".getBytes();
+
+	private List<byte[]> contents;
+	private List<byte[]> lines;
+
+	@Setup
+	public void setUp() throws IOException {
+		Corpus corpus = Corpus.load();
+		contents = corpus.getContents();
+		lines = corpus.getLines();
+	}
+
+	@Benchmark
+	public void parseLine(Blackhole bh) throws IOException {
+		for (byte[] content : contents) {
+			BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(content));
+			byte[] line;
+			while ((line = ByteUtils.parseLine(in, 256000)) != null) {
+				bh.consume(line);
+			}
+		}
+	}
+
+	@Benchmark
+	public void readLines(Blackhole bh) throws IOException {
+		for (byte[] content : contents) {
+			LineReader reader = new LineReader(content, 256000);
+			while (reader.next()) {
+				bh.consume(reader.getOffset());
+				bh.consume(reader.getLength());
+			}
+		}
+	}
+
+	@Benchmark
+	public void kmpIndexOf(Blackhole bh) {
+		for (byte[] line : lines) {
+			bh.consume(KMP.indexOf(line, PATTERN));
+		}
+	}
+}
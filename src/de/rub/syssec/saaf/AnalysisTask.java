@@ -35,7 +35,7 @@ public class AnalysisTask implements Runnable {
 	private boolean hasNonCriticalExceptions = false;
 	private boolean hasCriticalExceptions = false;
 	private Exception criticalException;
-	private final Application app;
+	private final File apk;
 
 	/**
 	 * New Thread to analyze one APK-file.
@@ -44,8 +44,25 @@ public class AnalysisTask implements Runnable {
 	 * @throws AnalysisException 
 	 */
 	public AnalysisTask(File apk) throws AnalysisException {
-		app = new Application(apk, false);
-		analysis = new Analysis(app);
+		this(apk, false);
+	}
+
+	/**
+	 * New Thread to analyze one APK-file.
+	 * 
+	 * If deferred is set, the Application and Analysis objects are not created
+	 * until a worker actually runs this task. This keeps queued tasks small
+	 * when a large number of APKs is fed into a pool.
+	 * 
+	 * @param apk A file pointing to an APK to be analyzed.
+	 * @param deferred create the Application and Analysis only in run()
+	 * @throws AnalysisException
+	 */
+	public AnalysisTask(File apk, boolean deferred) throws AnalysisException {
+		this.apk = apk;
+		if (!deferred) {
+			analysis = new Analysis(new Application(apk, false));
+		}
 	}
 
 	@Override
@@ -53,6 +70,9 @@ public class AnalysisTask implements Runnable {
 		Exception e = null;
 		
 		try { // Do not catch All exceptions otherwise things can get nasty! (Disk full etc)
+			if (analysis == null) {
+				analysis = new Analysis(new Application(apk, false));
+			}
 			analysis.run();
 			if (analysis.getNonCriticalExceptions().size() > 0) {
 				hasNonCriticalExceptions = true;
@@ -104,7 +124,16 @@ public class AnalysisTask implements Runnable {
 	}
 	
 	/**
-	 * The corresponding analysis object
+	 * The APK this task analyzes.
+	 * @return
+	 */
+	public File getApk() {
+		return apk;
+	}
+
+	/**
+	 * The corresponding analysis object. May be null for a deferred task
+	 * which was not run yet or failed to create its analysis.
 	 * @return
 	 */
 	public AnalysisInterface getAnalysis() {
@@ -16,17 +16,18 @@
  */
 package de.rub.syssec.saaf;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.misc.DirectoryWalker;
+import de.rub.syssec.saaf.misc.FileListReader;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.misc.config.ConfigKeys;
 
@@ -53,6 +54,9 @@ public class Headless {
 	 * --fileList, -fl        APKs found at given file location are analyzed.
 	 * --single-threaded, -st to deactivate MultiThreading
 	 *
+	 * If multithreading.streaming is set in saaf.conf, directories and file
+	 * lists are read lazily while the analyses are running.
+	 *
 	 * @param path      {fileLocation of an APK,
 	 *                  dir with several APKs in it,
 	 *                  file with several file paths to APKs}
@@ -70,6 +74,11 @@ public class Headless {
 			return 1;
 		}
 
+		if (CONFIG.getBooleanConfigValue(ConfigKeys.MULTITHREADING_STREAMING)
+				&& (path.isDirectory() || CONFIG.getBooleanConfigValue(ConfigKeys.USE_FILE_LIST))) {
+			return performStreamingAnalysis(path);
+		}
+
 		LinkedList<File> apks = new LinkedList<File>();
 		if        (path.isFile()      && !CONFIG.getBooleanConfigValue(ConfigKeys.USE_FILE_LIST)) {
 			apks = gatherApksFromPath(path);
@@ -121,52 +130,34 @@ public class Headless {
 	 */
 	private static LinkedList<File> gatherApksFromFileList(File fileList) {
 		LinkedList<File> apks = new LinkedList<File>();
-		String pathFileListPrefix = CONFIG.getConfigValue(ConfigKeys.FILE_LIST_PREFIX);
-		if (pathFileListPrefix == null) {
-			LOGGER.warn("No 'prefix' directory configured for fileList! If" +
-					"you want to use it, add 'path_fileList_prefix' to" +
-					"saaf.conf.");
-			pathFileListPrefix = "";
-		}
-		BufferedReader in = null;
 		try {
-			in = new BufferedReader(new FileReader(fileList));
-			String line = null;
-			while ((line = in.readLine()) != null) {
-				/**
-				 * HACK: Every File produced by Microsoft SQL ... Studio,
-				 * starts with the non printable Bytes EF BB BF. This is
-				 * only a BugFix to destroy these bytes.
-				 * 
-				 * FIXME: Is this sequence on EACH line or only at the first?
-				 */
-				byte [] a = new byte[]{
-						(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
-				line = line.replaceAll(new String(a), "");
-
-				File pathFileList = new File(pathFileListPrefix + File.separator +
-					line.replace("\\\\", "").replace("\\", File.separator));
-				if (!pathFileList.isFile() || !pathFileList.canRead()) {
-					LOGGER.error("Skipping non valid file: "+pathFileListPrefix);
-				} else {
-					apks.add(pathFileList);
-				}
+			FileListReader in = new FileListReader(fileList, getFileListPrefix());
+			while (in.hasNext()) {
+				apks.add(in.next());
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		finally {
-			if (in != null) {
-				try {
-					in.close();
-				} catch (Exception ignored) {
-				}
-			}
-		}
 		LOGGER.info("Read " + apks.size() + " files from FileList " + fileList);
 		return apks;
 	}
 
+	/**
+	 * The optional fileList_prefix configured in saaf.conf.
+	 *
+	 * @return the prefix or an empty string
+	 */
+	private static String getFileListPrefix() {
+		String pathFileListPrefix = CONFIG.getConfigValue(ConfigKeys.FILE_LIST_PREFIX);
+		if (pathFileListPrefix == null) {
+			LOGGER.warn("No 'prefix' directory configured for fileList! If" +
+					"you want to use it, add 'path_fileList_prefix' to" +
+					"saaf.conf.");
+			pathFileListPrefix = "";
+		}
+		return pathFileListPrefix;
+	}
+
 	/**
 	 * Analyze one or multiple APKs. Depending on the configuration this may
 	 * happen single- or multithreaded.
@@ -175,13 +166,7 @@ public class Headless {
 	 * @return 1 as exitCode if isAborted = true
 	 */
 	private static int performAnalysis(LinkedList<File> apks) {
-		// Initialize MultiThreading and queue
-		int corePoolSize = Runtime.getRuntime().availableProcessors();
-		if (corePoolSize > 1) corePoolSize--;
-		int numThreads = CONFIG.getIntConfigValue(ConfigKeys.MULTITHREADING_THREADS, corePoolSize);
-		if (!CONFIG.getBooleanConfigValue(ConfigKeys.MULTITHREADING_ENABLED)) { // multithreading is disabled
-			numThreads = 1;
-		}
+		int numThreads = getNumThreads();
 		// Create executor and submit jobs
 		SAAFThreadPoolExecutor executor = new SAAFThreadPoolExecutor(apks,
 				numThreads, numThreads, 5, TimeUnit.SECONDS);
@@ -189,6 +174,81 @@ public class Headless {
 	
 		// Tell the executor to shutdown afterwards
 		executor.shutdown();
+		return awaitAnalyses(executor);
+	}
+
+	/**
+	 * Analyze all APKs in a directory or file list while reading it. Only a
+	 * bounded number of APKs is queued at any time and their Application
+	 * objects are created once a worker starts on them.
+	 *
+	 * @param path directory or file list
+	 * @return 1 as exitCode if isAborted = true or nothing was analyzed
+	 */
+	private static int performStreamingAnalysis(File path) {
+		int numThreads = getNumThreads();
+		int window = CONFIG.getIntConfigValue(ConfigKeys.MULTITHREADING_STREAMING_WINDOW, numThreads);
+		Iterator<File> apks;
+		FileListReader fileList = null;
+		if (path.isDirectory()) {
+			apks = new DirectoryWalker(path,
+					CONFIG.getBooleanConfigValue(ConfigKeys.RECURSIVE_DIR_ANALYSIS));
+		} else {
+			try {
+				fileList = new FileListReader(path, getFileListPrefix());
+			} catch (IOException e) {
+				LOGGER.error("Could not open file list " + path, e);
+				return 1;
+			}
+			apks = fileList;
+		}
+
+		SAAFThreadPoolExecutor executor = new SAAFThreadPoolExecutor(
+				numThreads, numThreads, 5, TimeUnit.SECONDS, Math.max(1, window));
+		executor.allowCoreThreadTimeOut(true);
+		int submitted = 0;
+		try {
+			while (apks.hasNext() && executor.submitBlocking(apks.next())) {
+				submitted++;
+			}
+		} catch (InterruptedException e) {
+			LOGGER.error("Got interrupted while submitting analyses, no further APKs will be read.", e);
+		} finally {
+			if (fileList != null) {
+				fileList.close();
+			}
+		}
+		executor.shutdown();
+		LOGGER.info("Submitted " + submitted + " files from " + path);
+		if (submitted == 0) {
+			LOGGER.error("Found no APK to analyze!");
+		}
+		return awaitAnalyses(executor) == 0 && submitted > 0 ? 0 : 1;
+	}
+
+	/**
+	 * The number of worker threads to use, depending on the configuration.
+	 *
+	 * @return the number of threads
+	 */
+	private static int getNumThreads() {
+		// Initialize MultiThreading and queue
+		int corePoolSize = Runtime.getRuntime().availableProcessors();
+		if (corePoolSize > 1) corePoolSize--;
+		int numThreads = CONFIG.getIntConfigValue(ConfigKeys.MULTITHREADING_THREADS, corePoolSize);
+		if (!CONFIG.getBooleanConfigValue(ConfigKeys.MULTITHREADING_ENABLED)) { // multithreading is disabled
+			numThreads = 1;
+		}
+		return numThreads;
+	}
+
+	/**
+	 * Wait for an executor which was already shut down and print its statistics.
+	 *
+	 * @param executor the executor
+	 * @return 1 as exitCode if isAborted = true
+	 */
+	private static int awaitAnalyses(SAAFThreadPoolExecutor executor) {
 		boolean b = true;
 		try {
 			b = executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS); // timeout should not occur
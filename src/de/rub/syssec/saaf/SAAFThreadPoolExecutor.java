@@ -1,16 +1,22 @@
 package de.rub.syssec.saaf;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.analysis.StepStatistics;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
@@ -32,9 +38,15 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 	private int criticalExceptionCount = 0; // Caught critical exceptions
 	private int uncriticalExceptionCount = 0; // Caught uncritical exceptions from, eg, Program Slicing
 	private int analysisCount = 0;
-	private final int apkCount;
+	private final AtomicInteger apkCount = new AtomicInteger();
 	private boolean aborted = false;
-	private int skipped = 0;
+	private final AtomicInteger skipped = new AtomicInteger();
+	/**
+	 * Limits the number of submitted tasks which did not start yet in
+	 * streaming mode, null otherwise.
+	 */
+	private final Semaphore window;
+	private final StepStatistics statistics = createStatistics();
 
 	/**
 	 * A ThreadPoolExecutor which will automatically start all analyzes for all given files.
@@ -49,7 +61,8 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 			long keepAliveTime, TimeUnit unit) {
 		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, new ArrayBlockingQueue<Runnable>(apks.size()));
 		
-		apkCount = apks.size();
+		window = null;
+		apkCount.set(apks.size());
 		for (File apk : apks) { // submit jobs
 			try {
 				AnalysisTask aft = new AnalysisTask(apk);
@@ -57,15 +70,124 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 			}
 			catch (AnalysisException e) {
 				LOGGER.error("Could not generate Analysis object, skipping file: "+apk, e);
-				skipped++;
+				skipped.incrementAndGet();
 			}
 		}
 	}
 	
+	/**
+	 * A ThreadPoolExecutor for streaming mode. APKs are handed in one by one
+	 * through submitBlocking(File) and their Application and Analysis objects
+	 * are only created once a worker picks them up.
+	 * 
+	 * @param corePoolSize
+	 * @param maximumPoolSize
+	 * @param keepAliveTime
+	 * @param unit
+	 * @param queueSize how many tasks may wait for a free worker
+	 */
+	public SAAFThreadPoolExecutor(int corePoolSize, int maximumPoolSize,
+			long keepAliveTime, TimeUnit unit, int queueSize) {
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, new ArrayBlockingQueue<Runnable>(queueSize));
+		
+		// a permit is released once a worker took the task from the queue, so
+		// the queue is never full when a task is submitted
+		window = new Semaphore(queueSize);
+	}
+	
+	/**
+	 * Submit an APK in streaming mode. Blocks while the pool is busy and the
+	 * queue is full.
+	 * 
+	 * @param apk the file to analyze
+	 * @return false if the executor was shut down and the APK was not submitted
+	 * @throws InterruptedException
+	 */
+	public boolean submitBlocking(File apk) throws InterruptedException {
+		AnalysisTask aft;
+		try {
+			aft = createTask(apk);
+		}
+		catch (AnalysisException e) { // cannot happen for deferred tasks
+			LOGGER.error("Could not generate Analysis object, skipping file: "+apk, e);
+			apkCount.incrementAndGet();
+			skipped.incrementAndGet();
+			return true;
+		}
+		while (true) {
+			while (!window.tryAcquire(1, TimeUnit.SECONDS)) {
+				if (isShutdown()) {
+					return false;
+				}
+			}
+			// count before submitting, a worker may already log the APK
+			apkCount.incrementAndGet();
+			try {
+				this.submit(aft, aft); // ignore future
+				return true;
+			}
+			catch (RejectedExecutionException e) {
+				apkCount.decrementAndGet();
+				window.release();
+				if (isShutdown()) {
+					return false;
+				}
+				LOGGER.warn("The queue rejected "+apk+", submitting it again.");
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	/**
+	 * The task for an APK in streaming mode.
+	 * 
+	 * @param apk the file to analyze
+	 * @return a deferred task
+	 * @throws AnalysisException
+	 */
+	AnalysisTask createTask(File apk) throws AnalysisException {
+		return new AnalysisTask(apk, true);
+	}
+
+	/**
+	 * Tasks which are still queued are dropped and never executed. In
+	 * streaming mode their permits are released here, since beforeExecute()
+	 * is never called for them.
+	 */
+	@Override
+	public List<Runnable> shutdownNow() {
+		List<Runnable> dropped = super.shutdownNow();
+		if (window != null) {
+			window.release(dropped.size());
+		}
+		return dropped;
+	}
+	
+	/**
+	 * The statistics are always available through JMX and exported to a
+	 * file if configured.
+	 */
+	private static StepStatistics createStatistics() {
+		StepStatistics statistics = new StepStatistics();
+		statistics.register();
+		String file = Config.getInstance().getConfigValue(ConfigKeys.ANALYSIS_METRICS_FILE);
+		if (file != null && !file.isEmpty()) {
+			try {
+				statistics.exportTo(new File(file));
+			} catch (IOException e) {
+				LOGGER.error("Could not open the metrics file "+file, e);
+			}
+		}
+		return statistics;
+	}
+
 	@Override
 	protected synchronized void beforeExecute(Thread t, Runnable r) {
 		analysisCount++;
 		LOGGER.info("Beginning analysis "+analysisCount+" of "+apkCount);
+		if (window != null) {
+			window.release();
+		}
 		super.beforeExecute(t, r);
 	}
 	
@@ -82,22 +204,25 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 			try {
 				@SuppressWarnings("unchecked")
 				AnalysisTask at = ((FutureTask<AnalysisTask>) r).get();
+				if (at.getAnalysis() != null) {
+					statistics.record(at.getAnalysis());
+				}
 			   	if (at.hasNonCriticalExceptions()) {
 			   		uncriticalExceptionCount ++;
 			   	}
 			   	if (at.hasCriticalException()) {
 			   		errorOccured = true;
 			   		criticalExceptionCount++;
-					LOGGER.error("Analysis of `" + at.getAnalysis().getApp().getApplicationName()
+					LOGGER.error("Analysis of `" + at.getApk().getName()
 							+ " failed!\n\n", at.getCriticalException());
 			   	}
 			} catch (CancellationException e) {
 				LOGGER.warn("Analysis skipped!");
-				skipped++;
+				skipped.incrementAndGet();
 			}
 			catch (InterruptedException e) {
 				LOGGER.warn("Analysis interrupted!");
-				skipped++;
+				skipped.incrementAndGet();
 			}
 			catch (ExecutionException e) {
 				/*
@@ -110,7 +235,7 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 		
 		if (errorOccured && Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_QUIT_ON_ERROR)) {
 			LOGGER.error("An error occured and QUIT_ON_ERROR is set. Exiting!");
-			skipped += shutdownNow().size();
+			skipped.addAndGet(shutdownNow().size());
 			aborted = true;
 		}
 		else if (gotUncaughtException) { // We must exit on unforeseen happenings :) Disk full? OOM?
@@ -119,6 +244,12 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 		}
 	}
 	
+	@Override
+	protected void terminated() {
+		statistics.close();
+		super.terminated();
+	}
+
 	/**
 	 * Print some nice statistics.
 	 */
@@ -148,7 +279,7 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 			sb.append("\n#Analyses: ");
 			sb.append(analysisCount);
 			sb.append(cYellow);
-			if (skipped > 0) {
+			if (skipped.get() > 0) {
 				sb.append("\nSkipped APK analyses due to error: ");
 				sb.append(skipped);
 			}
@@ -167,6 +298,10 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 				sb.append(cYellow);
 				sb.append("\nNothing was persisted to the DB.");
 			}
+			if (statistics.getAnalyses() > 0) {
+				sb.append("\n\nTime spent per step.\n");
+				sb.append(statistics.getSummary());
+			}
 			sb.append("\n");
 			LOGGER.info(sb.toString());
 	}
@@ -176,7 +311,7 @@ class SAAFThreadPoolExecutor extends ThreadPoolExecutor {
 	 * @return true if each APK has a critical exception or aborted is set.
 	 */
 	public boolean hasNoSuccess() {
-		return (apkCount == criticalExceptionCount || aborted);
+		return (apkCount.get() == criticalExceptionCount || aborted);
 	}
 
 }
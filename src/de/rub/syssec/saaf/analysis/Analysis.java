@@ -62,6 +62,8 @@ import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.analysis.BTResultInterface;
 import de.rub.syssec.saaf.model.analysis.HResultInterface;
+import de.rub.syssec.saaf.model.analysis.SlicingProfileInterface;
+import de.rub.syssec.saaf.model.analysis.StepMetricsInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
 
 /**
@@ -92,6 +94,8 @@ public class Analysis implements AnalysisInterface {
 	private boolean changed;
 	private File reportFile = null;
 	private ProgressHandler progressHandler;
+	private final List<StepMetricsInterface> stepMetrics = new ArrayList<StepMetricsInterface>();
+	private List<SlicingProfileInterface> slicingProfiles = new ArrayList<SlicingProfileInterface>();
 
 	private static final Logger LOGGER = Logger.getLogger(Analysis.class);
 
@@ -171,6 +175,8 @@ public class Analysis implements AnalysisInterface {
 			handleCaughtException(e);
 		} catch (ArrayIndexOutOfBoundsException e) {
 			handleCaughtException(e);
+		} catch (IllegalStateException e) { // eg, the BBs of a lazily parsed method could not be generated
+			handleCaughtException(e);
 		}
 		finally {
 			if (status != Status.SKIPPED) {
@@ -231,16 +237,24 @@ public class Analysis implements AnalysisInterface {
 	@Override
 	public void doAnalysis() throws AnalysisException {
 		int done = 0;
+		boolean completed = true;
 		this.progressHandler.notifyMax(PROCESSING_STEPS.size());
-		for (Step step : ANALYSIS_STEPS) {
-			this.progressHandler.notifyProgress(step.getName());
-			if (!step.process(this))
-			{	
-				return;
+		if (Config.getInstance().getBooleanConfigValue(ConfigKeys.MULTITHREADING_STEPS)) {
+			completed = StepScheduler.getShared().run(ANALYSIS_STEPS, this, this.progressHandler);
+		}
+		else {
+			for (Step step : ANALYSIS_STEPS) {
+				this.progressHandler.notifyProgress(step.getName());
+				if (!step.process(this)) {
+					completed = false;
+					break;
+				}
+				this.progressHandler.notifyProgress(++done);
 			}
-			this.progressHandler.notifyProgress(++done);
 		}
-		this.progressHandler.notifyFinsihed();
+		if (completed) {
+			this.progressHandler.notifyFinsihed();
+		}
 	}
 
 	/**
@@ -453,6 +467,16 @@ public class Analysis implements AnalysisInterface {
 		return slicingResults;
 	}
 
+	@Override
+	public List<SlicingProfileInterface> getSlicingProfiles() {
+		return slicingProfiles;
+	}
+
+	@Override
+	public void setSlicingProfiles(List<SlicingProfileInterface> profiles) {
+		this.slicingProfiles = profiles;
+	}
+
 	@Override
 	public List<HResultInterface> getHResults() {
 		return heuristicResults;
@@ -537,6 +561,20 @@ public class Analysis implements AnalysisInterface {
 		this.reportFile=report;
 	}
 
+	@Override
+	public void addStepMetrics(StepMetricsInterface metrics) {
+		synchronized (stepMetrics) {
+			stepMetrics.add(metrics);
+		}
+	}
+
+	@Override
+	public List<StepMetricsInterface> getStepMetrics() {
+		synchronized (stepMetrics) {
+			return new ArrayList<StepMetricsInterface>(stepMetrics);
+		}
+	}
+
 	@Override
 	public void addNonCriticalException(Exception e) {
 		nonCriticalExceptions.add(new SAAFException(e.getMessage(), e, this));		
@@ -0,0 +1,220 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
+import de.rub.syssec.saaf.analysis.steps.ProgressHandler;
+import de.rub.syssec.saaf.analysis.steps.Step;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.analysis.AnalysisException;
+import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
+
+/**
+ * Runs the steps of an analysis concurrently where possible. A step is
+ * started as soon as all earlier steps it conflicts with have finished. Two
+ * steps conflict if one of them writes something the other one reads or
+ * writes, see {@link Step#getReads()} and {@link Step#getWrites()}.
+ *
+ * The steps of all analyses are run on one pool, so the number of threads
+ * does not grow with the number of APKs analyzed at the same time.
+ */
+public class StepScheduler {
+
+	private static final Logger LOGGER = Logger.getLogger(StepScheduler.class);
+
+	private static ExecutorService sharedPool;
+
+	private final ExecutorService pool;
+
+	/**
+	 * @param pool the pool to run the steps on
+	 */
+	public StepScheduler(ExecutorService pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @return a scheduler using the pool shared by all analyses
+	 */
+	public static StepScheduler getShared() {
+		return new StepScheduler(getSharedPool());
+	}
+
+	private static synchronized ExecutorService getSharedPool() {
+		if (sharedPool == null) {
+			int threads = Config.getInstance().getIntConfigValue(
+					ConfigKeys.MULTITHREADING_STEPS_THREADS,
+					Runtime.getRuntime().availableProcessors());
+			final AtomicInteger count = new AtomicInteger();
+			sharedPool = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "saaf-step-" + count.incrementAndGet());
+					// do not keep SAAF alive once all analyses are done
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return sharedPool;
+	}
+
+	/**
+	 * Runs the enabled steps and waits for them to finish. If a step returns
+	 * false, no further steps are started, but steps which are already
+	 * running are completed.
+	 *
+	 * @param steps the steps in the order they would run sequentially
+	 * @param analysis the analysis
+	 * @param progress notified when a step starts and finishes
+	 * @return false if a step returned false
+	 * @throws AnalysisException if a step threw one, other runtime exceptions are rethrown as they are
+	 */
+	public boolean run(List<Step> steps, final AnalysisInterface analysis,
+			ProgressHandler progress) throws AnalysisException {
+		List<Step> enabled = new ArrayList<Step>();
+		for (Step step : steps) {
+			if (step.isEnabled()) {
+				enabled.add(step);
+			}
+		}
+		List<List<Integer>> dependencies = getDependencies(enabled);
+		boolean[] started = new boolean[enabled.size()];
+		boolean[] finished = new boolean[enabled.size()];
+
+		CompletionService<Boolean> completion = new ExecutorCompletionService<Boolean>(pool);
+		Map<Future<Boolean>, Integer> running = new HashMap<Future<Boolean>, Integer>();
+		boolean proceed = true;
+		Throwable failure = null;
+		int done = 0;
+		try {
+			while (true) {
+				if (proceed && failure == null) {
+					for (int i = 0; i < enabled.size(); i++) {
+						if (!started[i] && allFinished(dependencies.get(i), finished)) {
+							final Step step = enabled.get(i);
+							progress.notifyProgress(step.getName());
+							LOGGER.debug("Starting step " + step.getName());
+							running.put(completion.submit(new Callable<Boolean>() {
+								@Override
+								public Boolean call() throws AnalysisException {
+									return step.process(analysis);
+								}
+							}), i);
+							started[i] = true;
+						}
+					}
+				}
+				if (running.isEmpty()) {
+					break;
+				}
+				Future<Boolean> result = completion.take();
+				int i = running.remove(result);
+				finished[i] = true;
+				try {
+					if (!result.get()) {
+						proceed = false;
+					}
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+					} else {
+						LOGGER.error("Step " + enabled.get(i).getName() + " failed as well", e.getCause());
+					}
+				}
+				progress.notifyProgress(++done);
+			}
+		} catch (InterruptedException e) {
+			for (Future<Boolean> f : running.keySet()) {
+				f.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new AnalysisException(e);
+		}
+
+		if (failure instanceof AnalysisException) {
+			throw (AnalysisException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new AnalysisException(failure);
+		}
+		return proceed;
+	}
+
+	/**
+	 * @return for each step the indexes of the earlier steps it has to wait for
+	 */
+	static List<List<Integer>> getDependencies(List<Step> steps) {
+		List<List<Integer>> dependencies = new ArrayList<List<Integer>>(steps.size());
+		for (int i = 0; i < steps.size(); i++) {
+			List<Integer> before = new ArrayList<Integer>();
+			for (int j = 0; j < i; j++) {
+				if (conflict(steps.get(j), steps.get(i))) {
+					before.add(j);
+				}
+			}
+			dependencies.add(Collections.unmodifiableList(before));
+		}
+		return dependencies;
+	}
+
+	private static boolean conflict(Step a, Step b) {
+		return intersects(a.getWrites(), b.getReads())
+				|| intersects(a.getWrites(), b.getWrites())
+				|| intersects(a.getReads(), b.getWrites());
+	}
+
+	private static boolean intersects(Set<AnalysisData> a, Set<AnalysisData> b) {
+		for (AnalysisData data : a) {
+			if (b.contains(data)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean allFinished(List<Integer> indexes, boolean[] finished) {
+		for (int i : indexes) {
+			if (!finished[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,235 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Formatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
+import de.rub.syssec.saaf.model.analysis.StepMetricsInterface;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
+import de.rub.syssec.saaf.model.application.Digest;
+
+/**
+ * Sums up the {@link StepMetricsInterface} of finished analyses per step. The sums
+ * are available through JMX and can be printed at the end of a run. The
+ * metrics of every step of every analysis may additionally be written to a
+ * CSV file.
+ */
+public class StepStatistics implements StepStatisticsMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(StepStatistics.class);
+
+	/**
+	 * The name this object is registered with at the platform MBean server.
+	 */
+	public static final String OBJECT_NAME = "de.rub.syssec.saaf:type=StepStatistics";
+
+	private static final String CSV_HEADER = "apk,sha1,step,wall_ms,cpu_ms,allocated_bytes,"
+			+ "classes,codelines,heuristic_results,slicing_results,proceed";
+
+	private static class Totals {
+		long invocations;
+		long wallTime;
+		long maxWallTime;
+		long cpuTime;
+		long allocatedBytes;
+	}
+
+	private final Map<String, Totals> totals = new LinkedHashMap<String, Totals>();
+	private int analyses = 0;
+	private PrintWriter export;
+
+	/**
+	 * Also write the metrics of every step to a CSV file.
+	 *
+	 * @param file the file, it is overwritten
+	 * @throws IOException if the file could not be opened
+	 */
+	public synchronized void exportTo(File file) throws IOException {
+		export = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), "UTF-8")));
+		export.println(CSV_HEADER);
+		export.flush();
+	}
+
+	/**
+	 * Make this object available through JMX. An object registered earlier,
+	 * eg, by a previous run in this JVM, is replaced.
+	 */
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			LOGGER.warn("Could not register step statistics with JMX", e);
+		}
+	}
+
+	/**
+	 * Add the metrics of a finished analysis.
+	 *
+	 * @param analysis the analysis
+	 */
+	public synchronized void record(AnalysisInterface analysis) {
+		analyses++;
+		for (StepMetricsInterface m : analysis.getStepMetrics()) {
+			Totals t = totals.get(m.getStep());
+			if (t == null) {
+				t = new Totals();
+				totals.put(m.getStep(), t);
+			}
+			t.invocations++;
+			t.wallTime += m.getWallTime();
+			t.maxWallTime = Math.max(t.maxWallTime, m.getWallTime());
+			t.cpuTime += Math.max(0, m.getCpuTime());
+			t.allocatedBytes += Math.max(0, m.getAllocatedBytes());
+			if (export != null) {
+				export.println(toCsv(analysis.getApp(), m));
+			}
+		}
+		if (export != null) {
+			export.flush();
+		}
+	}
+
+	/**
+	 * Close the CSV file, if any.
+	 */
+	public synchronized void close() {
+		if (export != null) {
+			export.close();
+			export = null;
+		}
+	}
+
+	private static String toCsv(ApplicationInterface app, StepMetricsInterface m) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(quote(app != null && app.getApkFile() != null ? app.getApkFile().getName() : ""));
+		sb.append(',');
+		String sha1 = app != null ? app.getMessageDigest(Digest.SHA1) : null;
+		sb.append(sha1 != null ? sha1 : "");
+		sb.append(',');
+		sb.append(quote(m.getStep()));
+		sb.append(',');
+		sb.append(m.getWallTime() / 1000000);
+		sb.append(',');
+		sb.append(m.getCpuTime() >= 0 ? m.getCpuTime() / 1000000 : -1);
+		sb.append(',');
+		sb.append(m.getAllocatedBytes());
+		sb.append(',');
+		sb.append(m.getClasses());
+		sb.append(',');
+		sb.append(m.getCodeLines());
+		sb.append(',');
+		sb.append(m.getHeuristicResults());
+		sb.append(',');
+		sb.append(m.getSlicingResults());
+		sb.append(',');
+		sb.append(m.isProceed());
+		return sb.toString();
+	}
+
+	private static String quote(String s) {
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0) {
+			return s;
+		}
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+
+	@Override
+	public synchronized int getAnalyses() {
+		return analyses;
+	}
+
+	@Override
+	public synchronized Map<String, Long> getInvocations() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, Totals> e : totals.entrySet()) {
+			map.put(e.getKey(), e.getValue().invocations);
+		}
+		return map;
+	}
+
+	@Override
+	public synchronized Map<String, Long> getWallTimeMillis() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, Totals> e : totals.entrySet()) {
+			map.put(e.getKey(), e.getValue().wallTime / 1000000);
+		}
+		return map;
+	}
+
+	@Override
+	public synchronized Map<String, Long> getMaxWallTimeMillis() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, Totals> e : totals.entrySet()) {
+			map.put(e.getKey(), e.getValue().maxWallTime / 1000000);
+		}
+		return map;
+	}
+
+	@Override
+	public synchronized Map<String, Long> getCpuTimeMillis() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, Totals> e : totals.entrySet()) {
+			map.put(e.getKey(), e.getValue().cpuTime / 1000000);
+		}
+		return map;
+	}
+
+	@Override
+	public synchronized Map<String, Long> getAllocatedBytes() {
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, Totals> e : totals.entrySet()) {
+			map.put(e.getKey(), e.getValue().allocatedBytes);
+		}
+		return map;
+	}
+
+	@Override
+	public synchronized String getSummary() {
+		Formatter f = new Formatter();
+		f.format("%-40s %6s %12s %12s %12s %12s%n", "Step", "Runs", "Wall [ms]",
+				"Max [ms]", "CPU [ms]", "Alloc [MB]");
+		for (Map.Entry<String, Totals> e : totals.entrySet()) {
+			Totals t = e.getValue();
+			f.format("%-40s %6d %12d %12d %12d %12d%n", e.getKey(), t.invocations,
+					t.wallTime / 1000000, t.maxWallTime / 1000000,
+					t.cpuTime / 1000000, t.allocatedBytes / (1024 * 1024));
+		}
+		return f.toString();
+	}
+}
@@ -0,0 +1,61 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis;
+
+import java.util.Map;
+
+/**
+ * The step metrics of all finished analyses as seen through JMX. All maps
+ * are keyed by the name of the step.
+ */
+public interface StepStatisticsMXBean {
+
+	/**
+	 * @return the number of finished analyses
+	 */
+	public int getAnalyses();
+
+	/**
+	 * @return how often each step ran
+	 */
+	public Map<String, Long> getInvocations();
+
+	/**
+	 * @return the total elapsed time per step in milliseconds
+	 */
+	public Map<String, Long> getWallTimeMillis();
+
+	/**
+	 * @return the longest elapsed time of a single run per step in milliseconds
+	 */
+	public Map<String, Long> getMaxWallTimeMillis();
+
+	/**
+	 * @return the total CPU time per step in milliseconds
+	 */
+	public Map<String, Long> getCpuTimeMillis();
+
+	/**
+	 * @return the total number of bytes allocated per step
+	 */
+	public Map<String, Long> getAllocatedBytes();
+
+	/**
+	 * @return a human readable table of all values
+	 */
+	public String getSummary();
+}
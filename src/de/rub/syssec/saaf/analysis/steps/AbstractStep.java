@@ -16,6 +16,11 @@
  */
 package de.rub.syssec.saaf.analysis.steps;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
@@ -23,6 +28,9 @@ import org.apache.log4j.Logger;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
+import de.rub.syssec.saaf.model.analysis.BTResultInterface;
+import de.rub.syssec.saaf.model.analysis.HResultInterface;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
 
 /**
  * Provides default implementations for getters and setters common to all steps.
@@ -39,6 +47,12 @@ public abstract class AbstractStep implements Step {
 	protected boolean enabled;
 	protected Logger logger = Logger.getLogger(getClass());
 	protected ProgressHandler progressHandler = new ProgressHandler();
+	/**
+	 * What the step reads and writes. Steps which do not declare it are
+	 * assumed to read and write everything and never run concurrently.
+	 */
+	protected Set<AnalysisData> reads = EnumSet.allOf(AnalysisData.class);
+	protected Set<AnalysisData> writes = EnumSet.allOf(AnalysisData.class);
 	@Override
 	public void setName(String name) {
 		this.name = name;
@@ -84,6 +98,16 @@ public abstract class AbstractStep implements Step {
 		return this.enabled;
 	}
 
+	@Override
+	public Set<AnalysisData> getReads() {
+		return this.reads;
+	}
+
+	@Override
+	public Set<AnalysisData> getWrites() {
+		return this.writes;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -107,17 +131,69 @@ public abstract class AbstractStep implements Step {
 			throws AnalysisException {
 		boolean success = true;
 		if (this.enabled) {
-			if (doBefore(analysis)) {
-				this.progressHandler.notifyStarted();
-				success = doProcessing(analysis);
-				doAfter(analysis);
-				this.progressHandler.notifyFinsihed();
+			long wallTime = System.nanoTime();
+			long cpuTime = getCpuTime();
+			long allocatedBytes = getAllocatedBytes();
+			try {
+				if (doBefore(analysis)) {
+					this.progressHandler.notifyStarted();
+					success = doProcessing(analysis);
+					doAfter(analysis);
+					this.progressHandler.notifyFinsihed();
+				}
+			} finally {
+				analysis.addStepMetrics(measure(analysis, wallTime, cpuTime, allocatedBytes, success));
 			}
-			
 		}
 		return success;
 	}
 
+	private StepMetrics measure(AnalysisInterface analysis, long wallTime,
+			long cpuTime, long allocatedBytes, boolean success) {
+		wallTime = System.nanoTime() - wallTime;
+		if (cpuTime >= 0) {
+			cpuTime = getCpuTime() - cpuTime;
+		}
+		if (allocatedBytes >= 0) {
+			allocatedBytes = getAllocatedBytes() - allocatedBytes;
+		}
+		ApplicationInterface app = analysis.getApp();
+		List<HResultInterface> hResults = analysis.getHResults();
+		List<BTResultInterface> btResults = analysis.getBTResults();
+		return new StepMetrics(name, wallTime, cpuTime, allocatedBytes,
+				app != null ? app.getNumberOfParsedClasses() : 0,
+				app != null ? app.getNumberOfParsedCodelines() : 0,
+				hResults != null ? hResults.size() : 0,
+				btResults != null ? btResults.size() : 0,
+				success);
+	}
+
+	/**
+	 * @return the CPU time of the current thread in nanoseconds or -1
+	 */
+	private static long getCpuTime() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled()) {
+			return threads.getCurrentThreadCpuTime();
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread or -1, only HotSpot
+	 *         based JVMs can tell
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+			if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+				return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
 	@Override
 	public void addProgressListener(ProgressListener p) {
 		this.progressHandler.addProgressListener(p);		
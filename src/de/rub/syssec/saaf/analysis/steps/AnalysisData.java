@@ -0,0 +1,59 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps;
+
+/**
+ * The parts of an analysis a step may read or write. They are used to
+ * decide which steps may run at the same time.
+ *
+ * @see Step#getReads()
+ * @see Step#getWrites()
+ */
+public enum AnalysisData {
+	/**
+	 * The parsed classes, methods, basic blocks and instructions.
+	 */
+	CODE,
+	/**
+	 * The parsed manifest including the requested permissions.
+	 */
+	MANIFEST,
+	/**
+	 * The categorization of the requested permissions.
+	 */
+	PERMISSIONS,
+	/**
+	 * Entropies and obfuscation flags of classes, methods and fields.
+	 */
+	OBFUSCATION,
+	/**
+	 * The heuristic results and the heuristic value.
+	 */
+	HEURISTIC_RESULTS,
+	/**
+	 * The slicing results and the non-critical exceptions of the analysis.
+	 */
+	SLICING_RESULTS,
+	/**
+	 * The database.
+	 */
+	DATABASE,
+	/**
+	 * Files written for the analysis apart from the decoded APK, eg, CFGs.
+	 */
+	FILES
+}
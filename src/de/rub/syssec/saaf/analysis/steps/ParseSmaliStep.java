@@ -18,12 +18,22 @@ package de.rub.syssec.saaf.analysis.steps;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
+import de.rub.syssec.saaf.application.DexDisassembler;
 import de.rub.syssec.saaf.application.SmaliClass;
 import de.rub.syssec.saaf.db.datasources.DataSourceException;
 import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
@@ -32,7 +42,10 @@ import de.rub.syssec.saaf.model.application.DetectionLogicError;
 import de.rub.syssec.saaf.model.application.SmaliClassError;
 
 /**
- * Parses .smali files into ClassInteface objects.
+ * Parses .smali files into ClassInteface objects. If the smali files were not
+ * written (see {@link #isParsingDex(Config)}), the classes are disassembled
+ * from the dex file of the APK in memory. The invokes of the classes are
+ * added to the {@link ApplicationInterface#getInvokeIndex()} in file order.
  * 
  * @author Tilman Bender <tilman.bender@rub.de>
  *
@@ -72,34 +85,138 @@ public class ParseSmaliStep extends AbstractStep {
 		
 		HashMap<String,ClassInterface> smaliClassMap=new HashMap<String, ClassInterface>();
 		
+		DexDisassembler dex = null;
+		if (isParsingDex(config)) {
+			try {
+				dex = new DexDisassembler(app.getApkFile(), app.getBytecodeDirectory());
+			} catch (IOException e) {
+				throw new AnalysisException(e);
+			}
+			app.setDexDisassembler(dex);
+		}
+		
+		// the labels are assigned in file order, so they do not depend on the number of threads
+		List<File> files = new ArrayList<File>();
 		for (File f : app.getAllRawSmaliFiles(true)) {
-
 			inAdFramework = config.getAdChecker().containsAnAd(f);
 			if (!inAdFramework) {
-				SmaliClass sf;
-				try {
-					sf = new SmaliClass(f, app, smaliClassLabel++);
-					sf.setInAdFramework(inAdFramework);
-					
-					smaliClassMap.put(f.getAbsolutePath(), sf);
-					size += sf.getSize();
-				} catch (IOException e) {
-					throw new AnalysisException(e);
-				} catch (DetectionLogicError e) {
-					throw new AnalysisException(e);
-				} catch (SmaliClassError e) {
-					throw new AnalysisException(e);
-				}
-
+				files.add(f);
+			}
+		}
 
+		int threads = config.getIntConfigValue(ConfigKeys.MULTITHREADING_PARSE_THREADS);
+		if (threads > 1 && files.size() > 1) {
+			parseParallel(app, dex, files, smaliClassLabel, threads, smaliClassMap);
+			smaliClassLabel += files.size();
+		} else {
+			for (File f : files) {
+				SmaliClass sf = parseClass(app, dex, f, smaliClassLabel++);
+				smaliClassMap.put(f.getAbsolutePath(), sf);
+				app.getInvokeIndex().add(sf);
+				size += sf.getSize();
+				if (size > MAXIMUM_FILES_SIZE)
+					throw new AnalysisException(
+							"Parsed SMALI files exceed maximum size of "
+									+ MAXIMUM_FILES_SIZE + " bytes!");
 			}
-			if (size > MAXIMUM_FILES_SIZE)
-				throw new AnalysisException(
-						"Parsed SMALI files exceed maximum size of "
-								+ MAXIMUM_FILES_SIZE + " bytes!");
 		}
 		app.setAllSmaliClasss(smaliClassMap);
 		app.setSmaliClassLabel(smaliClassLabel);
 		return true;
 	}
+
+	/**
+	 * Parses the files with a pool of threads and puts the classes into the
+	 * map. Every class gets the label it would get when parsed sequentially.
+	 * 
+	 * @param app the application
+	 * @param dex the disassembler if the classes are read from the dex file, otherwise null
+	 * @param files the files to parse
+	 * @param firstLabel the label of the first file
+	 * @param threads the number of threads
+	 * @param smaliClassMap the map to store the parsed classes in
+	 * @throws AnalysisException if a class could not be parsed or the maximum size is exceeded
+	 */
+	private void parseParallel(final ApplicationInterface app, final DexDisassembler dex,
+			List<File> files, int firstLabel, int threads,
+			HashMap<String, ClassInterface> smaliClassMap) throws AnalysisException {
+		final AtomicLong size = new AtomicLong();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<SmaliClass>> results = new ArrayList<Future<SmaliClass>>(files.size());
+		try {
+			int label = firstLabel;
+			for (final File f : files) {
+				final int classLabel = label++;
+				results.add(pool.submit(new Callable<SmaliClass>() {
+					@Override
+					public SmaliClass call() throws AnalysisException {
+						if (size.get() > MAXIMUM_FILES_SIZE) {
+							// the step fails anyway, do not waste any more time
+							return null;
+						}
+						SmaliClass sf = parseClass(app, dex, f, classLabel);
+						size.addAndGet(sf.getSize());
+						return sf;
+					}
+				}));
+			}
+			for (int i = 0; i < files.size(); i++) {
+				SmaliClass sf = results.get(i).get();
+				if (sf != null) {
+					smaliClassMap.put(files.get(i).getAbsolutePath(), sf);
+					app.getInvokeIndex().add(sf);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof AnalysisException) {
+				throw (AnalysisException) e.getCause();
+			}
+			throw new AnalysisException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		if (size.get() > MAXIMUM_FILES_SIZE)
+			throw new AnalysisException(
+					"Parsed SMALI files exceed maximum size of "
+							+ MAXIMUM_FILES_SIZE + " bytes!");
+	}
+
+	private static SmaliClass parseClass(ApplicationInterface app, DexDisassembler dex, File f, int label) throws AnalysisException {
+		try {
+			SmaliClass sf;
+			if (dex != null) {
+				sf = new SmaliClass(f, dex.disassemble(f), app, label);
+			} else {
+				sf = new SmaliClass(f, app, label);
+			}
+			sf.setInAdFramework(false);
+			return sf;
+		} catch (IOException e) {
+			throw new AnalysisException(e);
+		} catch (DetectionLogicError e) {
+			throw new AnalysisException(e);
+		} catch (SmaliClassError e) {
+			throw new AnalysisException(e);
+		}
+	}
+
+	/**
+	 * Whether the classes are disassembled from the dex file in memory. In
+	 * this case apktool does not have to write any smali files. The files are
+	 * needed by the GUI, if they are to be kept and for fuzzy hashing with
+	 * the ssdeep program.
+	 * 
+	 * @param config the configuration
+	 * @return true if no smali files are needed on the disk
+	 */
+	public static boolean isParsingDex(Config config) {
+		return config.getBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_DEX)
+				&& config.getBooleanConfigValue(ConfigKeys.ANALYSIS_IS_HEADLESS)
+				&& !config.getBooleanConfigValue(ConfigKeys.ANALYSIS_KEEP_FILES)
+				&& !(config.getBooleanConfigValue(ConfigKeys.ANALYSIS_GENERATE_FUZZYHASH)
+						&& config.getBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_EXTERNAL));
+	}
 }
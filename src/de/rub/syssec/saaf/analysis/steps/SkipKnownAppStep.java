@@ -18,6 +18,7 @@ package de.rub.syssec.saaf.analysis.steps;
 
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.analysis.steps.hash.GenerateHashesStep;
 import de.rub.syssec.saaf.db.dao.exceptions.NoSuchEntityException;
 import de.rub.syssec.saaf.db.persistence.exceptions.InvalidEntityException;
 import de.rub.syssec.saaf.db.persistence.exceptions.PersistenceException;
@@ -61,6 +62,8 @@ public class SkipKnownAppStep extends AbstractStep {
 			throws AnalysisException {
 		boolean continueAnalysis = true;
 		ApplicationInterface app = analysis.getApp();
+		// known apps are looked up by their digests
+		GenerateHashesStep.hashApk(app, true);
 		try {
 			if (manager.countAllByApp(app) > 0) {
 				LOGGER.info("App `" + app.getApplicationName()
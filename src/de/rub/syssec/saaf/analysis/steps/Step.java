@@ -16,6 +16,8 @@
  */
 package de.rub.syssec.saaf.analysis.steps;
 
+import java.util.Set;
+
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 
@@ -41,4 +43,14 @@ public interface Step extends ProgressObservable {
 	
 	public abstract boolean process(AnalysisInterface analysis) throws AnalysisException;
 
+	/**
+	 * @return the parts of the analysis this step reads
+	 */
+	public abstract Set<AnalysisData> getReads();
+
+	/**
+	 * @return the parts of the analysis this step writes
+	 */
+	public abstract Set<AnalysisData> getWrites();
+
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps;
+
+import de.rub.syssec.saaf.model.analysis.StepMetricsInterface;
+
+/**
+ * The metrics which {@link AbstractStep} measures for each step it runs.
+ */
+public class StepMetrics implements StepMetricsInterface {
+
+	private final String step;
+	private final long wallTime;
+	private final long cpuTime;
+	private final long allocatedBytes;
+	private final int classes;
+	private final int codeLines;
+	private final int heuristicResults;
+	private final int slicingResults;
+	private final boolean proceed;
+
+	/**
+	 * @param step the name of the step
+	 * @param wallTime the elapsed time in nanoseconds
+	 * @param cpuTime the CPU time in nanoseconds
+	 * @param allocatedBytes the number of bytes allocated
+	 * @param classes the number of parsed classes
+	 * @param codeLines the number of code lines of the parsed classes
+	 * @param heuristicResults the number of heuristic results
+	 * @param slicingResults the number of slicing results
+	 * @param proceed the step returned true or threw an exception
+	 */
+	public StepMetrics(String step, long wallTime, long cpuTime,
+			long allocatedBytes, int classes, int codeLines,
+			int heuristicResults, int slicingResults, boolean proceed) {
+		this.step = step;
+		this.wallTime = wallTime;
+		this.cpuTime = cpuTime;
+		this.allocatedBytes = allocatedBytes;
+		this.classes = classes;
+		this.codeLines = codeLines;
+		this.heuristicResults = heuristicResults;
+		this.slicingResults = slicingResults;
+		this.proceed = proceed;
+	}
+
+	@Override
+	public String getStep() {
+		return step;
+	}
+
+	@Override
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	@Override
+	public long getCpuTime() {
+		return cpuTime;
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public int getClasses() {
+		return classes;
+	}
+
+	@Override
+	public int getCodeLines() {
+		return codeLines;
+	}
+
+	@Override
+	public int getHeuristicResults() {
+		return heuristicResults;
+	}
+
+	@Override
+	public int getSlicingResults() {
+		return slicingResults;
+	}
+
+	@Override
+	public boolean isProceed() {
+		return proceed;
+	}
+
+	@Override
+	public String toString() {
+		return "[step=" + step + ", wallTime=" + wallTime + ", cpuTime="
+				+ cpuTime + ", allocatedBytes=" + allocatedBytes + ", classes="
+				+ classes + ", codeLines=" + codeLines + "]";
+	}
+}
@@ -16,6 +16,8 @@
  */
 package de.rub.syssec.saaf.analysis.steps;
 
+import java.util.EnumSet;
+
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.db.dao.exceptions.NoSuchEntityException;
@@ -45,6 +47,8 @@ public class TrashOldAnalysisStep extends AbstractStep {
 		this.description = "Removes all old analyses for the given application";
 		this.enabled = enabled;
 		this.manager=manager;
+		this.reads = EnumSet.noneOf(AnalysisData.class);
+		this.writes = EnumSet.of(AnalysisData.DATABASE);
 	}
 
 	/* (non-Javadoc)
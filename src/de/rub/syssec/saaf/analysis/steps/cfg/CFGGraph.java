@@ -85,7 +85,7 @@ public class CFGGraph {
 				c.clear();
 				
 				Object startVertex = null;
-				int lineNr = bb.getCodeLines().getFirst().getLineNr();
+				int lineNr = bb.getCodeLines().get(0).getLineNr();
 				if(vertices.containsKey(lineNr)){
 					startVertex = vertices.get(lineNr);
 				} else {
@@ -98,7 +98,7 @@ public class CFGGraph {
 				
 				for( BasicBlockInterface target: bb.getNextBB()){
 					Object targetVertex = null;
-					lineNr = target.getCodeLines().getFirst().getLineNr();
+					lineNr = target.getCodeLines().get(0).getLineNr();
 					if(vertices.containsKey(lineNr)){
 						targetVertex = vertices.get(lineNr);
 					} else {
@@ -154,11 +154,11 @@ public class CFGGraph {
 						//TODO: fix imageicon location
 						mxCellOverlay overlay =  new mxCellOverlay(permissionIcon, overlayText.toString());
 						//if new overlay, add it, if an old one exists replace it
-						graphComponent.addCellOverlay(vertices.get(bb.getCodeLines().getFirst().getLineNr()), overlay);
-//						mxCell cell = (mxCell)(vertices.get(bb.getCodeLines().getFirst().getLineNr()));
+						graphComponent.addCellOverlay(vertices.get(bb.getCodeLines().get(0).getLineNr()), overlay);
+//						mxCell cell = (mxCell)(vertices.get(bb.getCodeLines().get(0).getLineNr()));
 //						cell.setStyle("fillColor=red");
-//						graph.setCellStyle("fillColor=blue", new Object[]{vertices.get(bb.getCodeLines().getFirst().getLineNr())}); 
-						graph.setCellStyles(mxConstants.STYLE_FILLCOLOR, "gray", new Object[]{vertices.get(bb.getCodeLines().getFirst().getLineNr())}); 
+//						graph.setCellStyle("fillColor=blue", new Object[]{vertices.get(bb.getCodeLines().get(0).getLineNr())}); 
+						graph.setCellStyles(mxConstants.STYLE_FILLCOLOR, "gray", new Object[]{vertices.get(bb.getCodeLines().get(0).getLineNr())}); 
 					}
 				}
 				
@@ -17,9 +17,11 @@
 package de.rub.syssec.saaf.analysis.steps.cfg;
 
 import java.io.File;
+import java.util.EnumSet;
 import java.util.List;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
@@ -41,6 +43,8 @@ public class GenerateCFGStep extends AbstractStep {
 		this.enabled = enabled;
 		this.name = "Generate CFGs";
 		this.description = "Generates Control Flow Graphs (GFG) as PNG files.";
+		this.reads = EnumSet.of(AnalysisData.CODE);
+		this.writes = EnumSet.of(AnalysisData.FILES);
 		this.config = config;
 	}
 
@@ -17,13 +17,13 @@
 package de.rub.syssec.saaf.analysis.steps.decompile;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.Vector;
 
-import com.googlecode.dex2jar.v3.Main;
+import com.googlecode.dex2jar.reader.DexFileReader;
+import com.googlecode.dex2jar.v3.Dex2jar;
+import com.googlecode.dex2jar.v3.DexExceptionHandlerImpl;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
-import de.rub.syssec.saaf.analysis.steps.extract.ApkUnzipper;
 import de.rub.syssec.saaf.misc.FileList;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.misc.config.ConfigKeys;
@@ -32,7 +32,7 @@ import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
 
 /**
- * Decompiles dex into Java Code using dex2jar.
+ * Decompiles dex into Java Code using dex2jar and jad.
  * 
  * @author Tilman Bender <tilman.bender@rub.de>
  * 
@@ -60,79 +60,39 @@ public class DecompileToJavaStep extends AbstractStep {
 		ApplicationInterface app = analysis.getApp();
 		File apkFile = app.getApkFile();
 		File bytecodedir = app.getBytecodeDirectory();
-		File gen = null;
 		logger.info("Decompilation to Java started ...");
 		try {
-			//create jar 			
 			//TODO: Not sure where this went in the new version.
 			//DexFileReader.ContinueOnException = true;
 
-			gen = new File(bytecodedir.getAbsolutePath() + File.separator
-					+ app.getApplicationName() + ".jar");
-			logger.debug("Generating jar file for " + app.getApplicationName()
-					+ " at " + gen);
-
-			Main.doFile(apkFile, gen);
-
-			//extract the jar to obtain .class files
-			ApkUnzipper.extractArchive(gen,
-					new File(bytecodedir.getAbsolutePath()));
+			// write the .class files directly instead of creating and extracting a jar
+			logger.debug("Generating class files for " + app.getApplicationName()
+					+ " in " + bytecodedir);
+			// dex2jar writes a jar instead if the directory does not exist
+			bytecodedir.mkdirs();
+			DexExceptionHandlerImpl exceptionHandler = new DexExceptionHandlerImpl();
+			Dex2jar.from(DexFileReader.readDex(apkFile))
+					.withExceptionHandler(exceptionHandler).to(bytecodedir);
+			if (!exceptionHandler.getExceptions().isEmpty()) {
+				logger.warn(exceptionHandler.getExceptions().size()
+						+ " methods could not be translated by dex2jar");
+			}
 
 			//decompile the .class files to .java
-			Process p;
-
-			Vector<File> files;
-			// FileList gAF = new FileList();
-			//
-			// files = gAF.getFileVector();
-			// gAF.getAllFilesRecursive(folder, ".class");
-
 			// FIXME: use Application.getClassFiles?
-			files = new FileList(bytecodedir, FileList.CLASS_FILES)
+			Vector<File> files = new FileList(bytecodedir, FileList.CLASS_FILES)
 					.getAllFoundFiles(true);
 
-			String jadPath = config.getConfigValue(ConfigKeys.EXECUTABLE_JAD);
-			File toDecompile = null;
-			int decompiled =0;
+			JadDriver jad = new JadDriver(
+					config.getConfigValue(ConfigKeys.EXECUTABLE_JAD),
+					config.getIntConfigValue(ConfigKeys.MULTITHREADING_DECOMPILE_THREADS,
+							Runtime.getRuntime().availableProcessors()),
+					config.getIntConfigValue(ConfigKeys.DECOMPILE_BATCH_SIZE, 100));
 			progressHandler.notifyMax(files.size());
-			for (int i = 0; i < files.size(); i++) {
-				try {
-
-					// System.out.print(i + "/" + files.size());
-					// System.out.println(jadPath + " -sjava -ff -o " +
-					// "-d " + files.get(i).getParent() + " " + files.get(i));
-					toDecompile = files.get(i);
-					logger.debug("Decompiling " + toDecompile);
-					p = Runtime.getRuntime().exec(
-							jadPath + " -sjava -ff -o " + "-d "
-									+ files.get(i).getParent() + " "
-									+ toDecompile);
-
-					p.waitFor();
-					toDecompile.delete();
-					decompiled++;
-					
-					progressHandler.notifyProgress("Decompiled "+toDecompile.getName());
-					progressHandler.notifyProgress(decompiled);
-					// System.out.println(System.getProperty("user.dir") +
-					// File.separator + "jad -sjava -ff -o -lnc " +
-					// files.get(i));
-
-				} catch (IOException e) {
-					throw e;
-				} catch (Exception e) {
-					logger.warn("Problem decompiling class files in folder "
-							+ bytecodedir.getAbsolutePath(), e);
-				}
-			}
+			jad.decompile(files, progressHandler);
 			logger.info("Decompilation to Java finished ...");
 		} catch (Throwable e2) {
 			throw new AnalysisException(e2);
-		} finally {
-			// remove the .jar file
-			if (gen != null && gen.exists()) {
-				gen.delete();
-			}
 		}
 
 		return true;
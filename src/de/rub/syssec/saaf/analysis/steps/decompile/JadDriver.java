@@ -0,0 +1,172 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.decompile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+
+import de.rub.syssec.saaf.analysis.steps.ProgressHandler;
+
+/**
+ * Decompiles .class files to .java files with jad. Instead of starting jad
+ * once per class, the class files of one directory are passed to a single
+ * jad process in batches and several jad processes run at the same time.
+ * The .java files are written next to the .class files, which are deleted
+ * afterwards.
+ */
+public class JadDriver {
+
+	private static final Logger LOGGER = Logger.getLogger(JadDriver.class);
+
+	private final String jadPath;
+	private final int threads;
+	private final int batchSize;
+
+	/**
+	 * @param jadPath the jad executable
+	 * @param threads how many jad processes may run at the same time
+	 * @param batchSize how many class files are passed to one jad process
+	 */
+	public JadDriver(String jadPath, int threads, int batchSize) {
+		this.jadPath = jadPath;
+		this.threads = Math.max(1, threads);
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Decompile the class files and wait until all are done. The progress
+	 * handler is only notified from the calling thread, once per batch.
+	 *
+	 * @param classFiles the class files to decompile
+	 * @param progressHandler notified about the number of decompiled files
+	 * @return the number of decompiled files
+	 * @throws IOException if jad could not be started
+	 * @throws InterruptedException if interrupted while waiting for jad
+	 */
+	public int decompile(List<File> classFiles, ProgressHandler progressHandler)
+			throws IOException, InterruptedException {
+		List<List<File>> batches = createBatches(classFiles, batchSize);
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, batches.size())));
+		try {
+			CompletionService<List<File>> completion = new ExecutorCompletionService<List<File>>(pool);
+			for (final List<File> batch : batches) {
+				completion.submit(new Callable<List<File>>() {
+					@Override
+					public List<File> call() throws IOException, InterruptedException {
+						runJad(batch);
+						return batch;
+					}
+				});
+			}
+			int decompiled = 0;
+			for (int i = 0; i < batches.size(); i++) {
+				List<File> batch;
+				try {
+					batch = completion.take().get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					LOGGER.warn("Problem decompiling class files", e.getCause());
+					continue;
+				}
+				decompiled += batch.size();
+				progressHandler.notifyProgress("Decompiled " + batch.size() + " classes in "
+						+ batch.get(0).getAbsoluteFile().getParentFile().getName());
+				progressHandler.notifyProgress(decompiled);
+			}
+			return decompiled;
+		} finally {
+			// stops the remaining batches if jad could not be started
+			pool.shutdownNow();
+		}
+	}
+
+	private void runJad(List<File> batch) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<String>();
+		command.add(jadPath);
+		command.add("-sjava");
+		command.add("-ff");
+		command.add("-o");
+		command.add("-d");
+		command.add(batch.get(0).getAbsoluteFile().getParent());
+		for (File f : batch) {
+			command.add(f.getAbsolutePath());
+		}
+		LOGGER.debug("Decompiling " + batch.size() + " classes in " + batch.get(0).getAbsoluteFile().getParent());
+
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectErrorStream(true);
+		Process p = pb.start();
+		try {
+			// jad reports every file, it would block once the pipe is full
+			InputStream in = p.getInputStream();
+			byte[] buffer = new byte[4096];
+			while (in.read(buffer) != -1) {
+				/* discard */
+			}
+			in.close();
+			p.waitFor();
+		} finally {
+			p.destroy();
+		}
+		for (File f : batch) {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Split the class files into batches. All files of a batch are in the
+	 * same directory, because jad writes all files to one directory.
+	 *
+	 * @param classFiles the class files
+	 * @param batchSize the maximum number of files per batch
+	 * @return the batches in the order of the directories' first files
+	 */
+	static List<List<File>> createBatches(List<File> classFiles, int batchSize) {
+		Map<File, List<File>> byDirectory = new LinkedHashMap<File, List<File>>();
+		for (File f : classFiles) {
+			File dir = f.getAbsoluteFile().getParentFile();
+			List<File> files = byDirectory.get(dir);
+			if (files == null) {
+				files = new ArrayList<File>();
+				byDirectory.put(dir, files);
+			}
+			files.add(f);
+		}
+		List<List<File>> batches = new ArrayList<List<File>>();
+		for (List<File> files : byDirectory.values()) {
+			for (int i = 0; i < files.size(); i += batchSize) {
+				batches.add(files.subList(i, Math.min(files.size(), i + batchSize)));
+			}
+		}
+		return batches;
+	}
+}
@@ -55,6 +55,8 @@ public class ApkDecoderInterface {
 
 	private static final Logger LOGGER = Logger.getLogger(ApkDecoderInterface.class);
 
+	private static final Object  MUTEX= new Object();
+
 	/**
 	 * Decodes an APK file
 	 *
@@ -71,10 +73,44 @@ public class ApkDecoderInterface {
 	 * @param apk the apk
 	 * @param destination the destination dir (if already existing, it will be removed firstly)
 	 * @return false if the decoding crashes
+	 * 
+	 * If apktool.concurrent is set, the APK is decoded by a child process
+	 * with its own framework directory (see {@link ApkDecoderProcess}) and
+	 * several APKs may be decoded at the same time. Otherwise decoding is
+	 * serialized, because apktool keeps its framework folder in static state.
 	 */
-	private static final Object  MUTEX= new Object();
-
 	public static boolean decode(File apk, File destination) throws DecoderException {
+		return decode(apk, destination, true);
+	}
+
+	/**
+	 * Decodes an APK file, see {@link #decode(File, File)}.
+	 * 
+	 * @param apk the apk
+	 * @param destination the destination dir (if already existing, it will be removed firstly)
+	 * @param decodeSources whether apktool should write the smali files
+	 * @return false if the decoding crashes
+	 */
+	public static boolean decode(File apk, File destination, boolean decodeSources) throws DecoderException {
+		Config config = Config.getInstance();
+		Treatment treatment = Treatment.valueOf(config.getConfigValue(ConfigKeys.APKTOOL_TREATMENT));
+		if (config.getBooleanConfigValue(ConfigKeys.APKTOOL_CONCURRENT)) {
+			return ApkDecoderProcess.decode(apk, destination, decodeSources, treatment);
+		}
+		return decodeInProcess(apk, destination, decodeSources, treatment);
+	}
+
+	/**
+	 * Decodes an APK file with the apktool classes of this JVM. Decoding is
+	 * serialized, because apktool keeps its framework folder in static state.
+	 *
+	 * @param apk the apk
+	 * @param destination the destination dir (if already existing, it will be removed firstly)
+	 * @param decodeSources whether apktool should write the smali files
+	 * @param treatment what to do with the framework file if it is too old, see apktool.frameworks
+	 * @return false if the decoding crashes
+	 */
+	static boolean decodeInProcess(File apk, File destination, boolean decodeSources, Treatment treatment) throws DecoderException {
 		
 		boolean decodeSucseccfull = false;
 		synchronized(MUTEX){
@@ -88,6 +124,10 @@ public class ApkDecoderInterface {
 				localApkDecoder.setApkFile(apk);
 				//disable resource decoding
 				localApkDecoder.setDecodeResources((short) 0x0100);				
+				if (!decodeSources) {
+					//the dex file is disassembled in memory, see ParseSmaliStep
+					localApkDecoder.setDecodeSources((short) 0x0000);
+				}
 				
 				//apkdecoder constants
 //		        public final static short DECODE_SOURCES_NONE = 0x0000;
@@ -126,14 +166,16 @@ public class ApkDecoderInterface {
 	        	 * version of Android-APKTool (used by SAAF) in contrast to the version the user uses.
 	        	 */
 	        	if (ex.getMessage().startsWith("Multiple resources:")) {
-	        		Treatment userOption = Treatment.valueOf(Config.getInstance().getConfigValue(ConfigKeys.APKTOOL_TREATMENT));
+	        		Treatment userOption = treatment;
 	        		
 	        		if ( (userOption == Treatment.DELETE) 
 	        			|| (userOption == Treatment.RENAME)) {
 	        			
 	        			//1. Rename or Delete current framework file
-	        			final String frameworkDir = System.getProperty("user.home") + File.separatorChar + 
-		            		"apktool" + File.separatorChar + "framework" + File.separatorChar;
+	        			final String frameworkDir = (AndrolibResources.sFrameworkFolder != null
+	        					? AndrolibResources.sFrameworkFolder
+	        					: System.getProperty("user.home") + File.separatorChar + 
+		            		"apktool" + File.separatorChar + "framework") + File.separatorChar;
 	        			File apktool_framwork = new File(frameworkDir + "1.apk");
 	        			if (userOption == Treatment.DELETE) {
 	        				apktool_framwork.delete();
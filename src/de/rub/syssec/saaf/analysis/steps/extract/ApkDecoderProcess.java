@@ -0,0 +1,190 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.extract;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import brut.androlib.res.AndrolibResources;
+import de.rub.syssec.saaf.analysis.steps.extract.ApkDecoderInterface.Treatment;
+
+/**
+ * Decodes an APK with apktool in a child JVM.
+ * 
+ * apktool keeps its framework folder in a static field and installs framework
+ * files on demand, so decoding inside SAAF has to be serialized. A child
+ * process started by this class uses a framework directory which is owned by
+ * the calling worker for the duration of the decoding. This allows several
+ * workers to decode at the same time without sharing any apktool state.
+ * 
+ * The framework directories are kept below ~/apktool/saaf-framework-N and are
+ * reused by later decodings, so the framework only has to be installed once
+ * per directory.
+ * 
+ * The child does not read saaf.conf, the settings it needs are passed on its
+ * command line. This way the values set on the command line of SAAF are used.
+ */
+public class ApkDecoderProcess {
+
+	private static final Logger LOGGER = Logger.getLogger(ApkDecoderProcess.class);
+
+	static final int EXIT_SUCCESS = 0;
+	/*
+	 * 1 is used by the JVM for uncaught exceptions, it is handled like an error
+	 */
+	static final int EXIT_ERROR = 2;
+	static final int EXIT_FAILED = 3;
+
+	/**
+	 * Indexes of framework directories which are currently not in use.
+	 */
+	private static final LinkedList<Integer> FREE_SLOTS = new LinkedList<Integer>();
+	private static int slotCount = 0;
+
+	private ApkDecoderProcess() { /* no instance */}
+
+	/**
+	 * Decode an APK in a child process. Blocks until the child has finished.
+	 * 
+	 * @param apk the apk
+	 * @param destination the destination dir (if already existing, it will be removed firstly)
+	 * @param decodeSources whether apktool should write the smali files
+	 * @param treatment what to do with the framework file if it is too old, see apktool.frameworks
+	 * @return false if the decoding crashes
+	 * @throws DecoderException if the child could not be started or reported an error
+	 */
+	public static boolean decode(File apk, File destination, boolean decodeSources, Treatment treatment)
+			throws DecoderException {
+		int slot = acquireSlot();
+		try {
+			File frameworkDir = getFrameworkDir(slot);
+			frameworkDir.mkdirs();
+			return run(getCommand(apk, destination, frameworkDir, decodeSources, treatment), apk);
+		} finally {
+			releaseSlot(slot);
+		}
+	}
+
+	/**
+	 * @return the command line of a child JVM which decodes the APK
+	 */
+	static List<String> getCommand(File apk, File destination, File frameworkDir, boolean decodeSources,
+			Treatment treatment) {
+		List<String> cmd = new LinkedList<String>();
+		cmd.add(System.getProperty("java.home") + File.separator + "bin"
+				+ File.separator + "java");
+		cmd.add("-cp");
+		cmd.add(System.getProperty("java.class.path"));
+		cmd.add(ApkDecoderProcess.class.getName());
+		cmd.add(apk.getAbsolutePath());
+		cmd.add(destination.getAbsolutePath());
+		cmd.add(frameworkDir.getAbsolutePath());
+		cmd.add(String.valueOf(decodeSources));
+		cmd.add(treatment.name());
+		return cmd;
+	}
+
+	/**
+	 * Run a child process and interpret its exit code.
+	 * 
+	 * @param cmd the command line of the child
+	 * @param apk the apk, for messages
+	 * @return true if the child exited with {@link #EXIT_SUCCESS}, false for {@link #EXIT_FAILED}
+	 * @throws DecoderException if the child could not be started or exited with any other code
+	 */
+	static boolean run(List<String> cmd, File apk) throws DecoderException {
+		try {
+			ProcessBuilder pb = new ProcessBuilder(cmd);
+			pb.redirectErrorStream(true);
+			Process p = pb.start();
+			// the output has to be consumed, otherwise the child may block
+			StringBuilder output = new StringBuilder();
+			BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					output.append(line).append('\n');
+				}
+			} finally {
+				in.close();
+			}
+			int exit = p.waitFor();
+			if (exit == EXIT_FAILED) {
+				LOGGER.warn("apktool could not decode " + apk + " correctly:\n" + output);
+				return false;
+			} else if (exit != EXIT_SUCCESS) {
+				// EXIT_ERROR or the JVM itself failed
+				throw new DecoderException("apktool failed to decode " + apk
+						+ " (exit code " + exit + "):\n" + output);
+			}
+			LOGGER.debug("apktool output for " + apk + ":\n" + output);
+			return true;
+		} catch (IOException e) {
+			throw new DecoderException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DecoderException(e);
+		}
+	}
+
+	/**
+	 * Entry point of the child process.
+	 * 
+	 * @param args the apk, the destination directory, the framework directory,
+	 * whether to decode the sources and the treatment of the framework file
+	 */
+	public static void main(String[] args) {
+		if (args.length != 5) {
+			System.err.println("Usage: ApkDecoderProcess <apk> <destination> <framework dir> <decode sources> <treatment>");
+			System.exit(EXIT_ERROR);
+		}
+		new AndrolibResources().setFrameworkFolder(args[2]);
+		int exit = EXIT_FAILED;
+		try {
+			if (ApkDecoderInterface.decodeInProcess(new File(args[0]), new File(args[1]),
+					Boolean.parseBoolean(args[3]), Treatment.valueOf(args[4]))) {
+				exit = EXIT_SUCCESS;
+			}
+		} catch (DecoderException e) {
+			e.printStackTrace();
+			exit = EXIT_ERROR;
+		}
+		System.exit(exit);
+	}
+
+	private static File getFrameworkDir(int slot) {
+		return new File(System.getProperty("user.home") + File.separator
+				+ "apktool" + File.separator + "saaf-framework-" + slot);
+	}
+
+	private static synchronized int acquireSlot() {
+		if (FREE_SLOTS.isEmpty()) {
+			return slotCount++;
+		}
+		return FREE_SLOTS.removeFirst();
+	}
+
+	private static synchronized void releaseSlot(int slot) {
+		FREE_SLOTS.addFirst(slot);
+	}
+}
@@ -19,6 +19,7 @@ package de.rub.syssec.saaf.analysis.steps.extract;
 import java.io.File;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.ParseSmaliStep;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
@@ -55,7 +56,7 @@ public class ExtractApkStep extends AbstractStep {
 			logger.info("Extracting content to "+apkContentDir.getAbsolutePath());
 			ApkUnzipper.extractApk(apk, apkContentDir);
 			logger.info("Decoding extracted content to "+apkContentDir.getAbsolutePath());
-			ApkDecoderInterface.decode(apk, decompiledContentDir);
+			ApkDecoderInterface.decode(apk, decompiledContentDir, !ParseSmaliStep.isParsingDex(config));
 		} catch (Exception e1) {
 			throw new AnalysisException(e1);
 		}
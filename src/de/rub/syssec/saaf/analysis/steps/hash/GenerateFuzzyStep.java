@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
 import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
@@ -32,13 +33,17 @@ import de.rub.syssec.saaf.model.application.ApplicationInterface;
  */
 public class GenerateFuzzyStep extends AbstractStep {
 	
-	private SSDeep hasher;
+	private RollingHashGenerator hasher;
 
 	public GenerateFuzzyStep(Config config, boolean enabled) {
 		this.config = config;
 		this.name = "Generate Fuzzy Hash";
 		this.description = "Computes a fuzzy hash of the application archive.";
-		this.hasher = new SSDeep();
+		if (config.getBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_EXTERNAL)) {
+			this.hasher = new SSDeep();
+		} else {
+			this.hasher = new InMemorySSDeep(config.getBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_METHODS));
+		}
 		this.enabled=enabled;
 	}
 
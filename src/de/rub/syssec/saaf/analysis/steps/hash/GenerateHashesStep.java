@@ -17,6 +17,9 @@
 package de.rub.syssec.saaf.analysis.steps.hash;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
 import de.rub.syssec.saaf.misc.config.Config;
@@ -33,6 +36,11 @@ import de.rub.syssec.saaf.model.application.Digest;
  */
 public class GenerateHashesStep extends AbstractStep {
 	
+	/**
+	 * The digests calculated for every application.
+	 */
+	public static final Digest[] DIGESTS = { Digest.MD5, Digest.SHA1, Digest.SHA256 };
+	
 	public GenerateHashesStep(Config config, boolean enabled) {
 		this.config = config;
 		this.name = "Hash APK";
@@ -42,17 +50,33 @@ public class GenerateHashesStep extends AbstractStep {
 
 	@Override
 	public boolean doProcessing(AnalysisInterface analysis)	throws AnalysisException {
-		ApplicationInterface app = analysis.getApp();
+		hashApk(analysis.getApp(), false);
+		return true;
+	}
+
+	/**
+	 * Calculates the {@link #DIGESTS} of the APK file. The file is read only once.
+	 * 
+	 * @param app the application
+	 * @param onlyMissing only calculate the digests which are not set yet, the file is not read if all are set
+	 * @throws AnalysisException if the digests could not be calculated
+	 */
+	public static void hashApk(ApplicationInterface app, boolean onlyMissing) throws AnalysisException {
 		File apk = app.getApkFile();
 		if (apk == null) throw new AnalysisException("APK file must not be null!");
+		List<Digest> digests = new ArrayList<Digest>();
+		for (Digest d : DIGESTS) {
+			if (!onlyMissing || app.getMessageDigest(d) == null) digests.add(d);
+		}
+		if (digests.isEmpty()) return;
 		try {
-			app.setMessageDigest(Digest.MD5, Hash.calculateHash(Digest.MD5, apk));
-			app.setMessageDigest(Digest.SHA1, Hash.calculateHash(Digest.SHA1, apk));
-			app.setMessageDigest(Digest.SHA256, Hash.calculateHash(Digest.SHA256, apk));
+			EnumMap<Digest, String> hashes = Hash.calculateHashes(apk, digests.toArray(new Digest[digests.size()]));
+			for (Digest d : digests) {
+				app.setMessageDigest(d, hashes.get(d));
+			}
 		}
 		catch (Exception e) {
 			throw new AnalysisException("Could not calculate message digests.", e);
 		}	
-		return true;
 	}
 }
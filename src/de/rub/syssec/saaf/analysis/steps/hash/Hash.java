@@ -16,15 +16,18 @@
  */
 package de.rub.syssec.saaf.analysis.steps.hash;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.DigestInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
 import java.util.Formatter;
 
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.application.Digest;
 
 
@@ -32,6 +35,16 @@ public class Hash {
 	
 	public static final Digest DEFAULT_DIGEST = Digest.SHA1;
 
+	/**
+	 * How much of a file is mapped into memory at once.
+	 */
+	static final int MAPPING_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * How many bytes are passed to the digests at once.
+	 */
+	private static final int BLOCK_SIZE = 64 * 1024;
+
 	/**
 	 * This method calculates the hash for a given file
 	 * @param digestAlgorithm the algorithm to use for hashing
@@ -42,32 +55,68 @@ public class Hash {
 	 */
 	public static String calculateHash(Digest digestAlgorithm, File file)
 			throws NoSuchAlgorithmException, IOException {
-		
-		// Fuzzy Hash (SSDeep) has its own implementation
-		if (digestAlgorithm == Digest.FuzzyHash) {
-			return SSDeep.calculateFuzzyHash(file);
+		return calculateHashes(file, digestAlgorithm).get(digestAlgorithm);
+	}
+
+	/**
+	 * This method calculates several hashes for a given file. The file is
+	 * read only once, every block is passed to all digests.
+	 * @param file the file to hash
+	 * @param digestAlgorithms the algorithms to use for hashing
+	 * @return the hashes of the given file by algorithm
+	 * @throws NoSuchAlgorithmException
+	 * @throws IOException
+	 */
+	public static EnumMap<Digest, String> calculateHashes(File file, Digest... digestAlgorithms)
+			throws NoSuchAlgorithmException, IOException {
+		return calculateHashes(file, MAPPING_SIZE, digestAlgorithms);
+	}
+
+	static EnumMap<Digest, String> calculateHashes(File file, int mappingSize, Digest... digestAlgorithms)
+			throws NoSuchAlgorithmException, IOException {
+		EnumMap<Digest, String> hashes = new EnumMap<Digest, String>(Digest.class);
+		EnumMap<Digest, MessageDigest> digests = new EnumMap<Digest, MessageDigest>(Digest.class);
+		for (Digest d : digestAlgorithms) {
+			// Fuzzy Hash (SSDeep) has its own implementation or is generated by the ssdeep program
+			if (d == Digest.FuzzyHash) {
+				if (Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_EXTERNAL)) {
+					hashes.put(d, SSDeep.calculateFuzzyHash(file));
+				} else {
+					hashes.put(d, SpamSum.calculate(file));
+				}
+			} else {
+				digests.put(d, MessageDigest.getInstance(d.toString()));
+			}
+		}
+		if (digests.isEmpty()) {
+			return hashes;
 		}
 
-		MessageDigest md = MessageDigest.getInstance(digestAlgorithm.toString());
-		
 		FileInputStream fis = new FileInputStream(file);
-		BufferedInputStream bis = new BufferedInputStream(fis);
-		DigestInputStream dis = new DigestInputStream(bis, md);
 		try {
-			// read the file and update the hash calculation
-			while (dis.read() != -1) {
-				// do nothing
-			}		
+			FileChannel channel = fis.getChannel();
+			long size = channel.size();
+			byte[] block = new byte[BLOCK_SIZE];
+			for (long position = 0; position < size; position += mappingSize) {
+				MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY,
+						position, Math.min(mappingSize, size - position));
+				while (mapping.hasRemaining()) {
+					int length = Math.min(block.length, mapping.remaining());
+					mapping.get(block, 0, length);
+					for (MessageDigest md : digests.values()) {
+						md.update(block, 0, length);
+					}
+				}
+			}
 		}
 		finally {
-			try { dis.close(); } catch (Exception ignored) { }
+			try { fis.close(); } catch (Exception ignored) { }
 		}
-		
-
-		// get the hash value as byte array
-		byte[] hash = md.digest();
 
-		return byteArray2Hex(hash);
+		for (Digest d : digests.keySet()) {
+			hashes.put(d, byteArray2Hex(digests.get(d).digest()));
+		}
+		return hashes;
 	}
 	
 	/**
@@ -0,0 +1,90 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.http.util.ByteArrayBuffer;
+
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
+import de.rub.syssec.saaf.model.application.ClassInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+/**
+ * Generates fuzzy hashes with {@link SpamSum} in this JVM. The hashes are
+ * computed from the parsed {@link CodeLineInterface}s, which are joined by
+ * line feeds. No temporary files are written and no ssdeep processes are
+ * started, unlike {@link SSDeep}.
+ *
+ * As the code lines are trimmed during parsing, the hashes differ from the
+ * ones ssdeep computes for the indented SMALI files.
+ */
+public class InMemorySSDeep implements RollingHashGenerator {
+
+	private final boolean hashMethods;
+
+	/**
+	 * @param hashMethods also generate a hash for every method, see
+	 *            {@link MethodInterface#setFuzzyHash(String)}
+	 */
+	public InMemorySSDeep(boolean hashMethods) {
+		this.hashMethods = hashMethods;
+	}
+
+	public String generateHash(File f) throws IOException {
+		return SpamSum.calculate(f);
+	}
+
+	@Override
+	public void generateHash(ApplicationInterface apk) throws IOException {
+		generateHash(apk, false);
+	}
+
+	/**
+	 * Generate hashes for all classes and, if enabled, all their methods.
+	 */
+	@Override
+	public void generateHash(ApplicationInterface apk, boolean includeFilesFromAdPackages) throws IOException {
+		ByteArrayBuffer buffer = new ByteArrayBuffer(64 * 1024);
+		for (ClassInterface c : apk.getAllSmaliClasss(includeFilesFromAdPackages)) {
+			c.setSsdeepHash(hash(c.getAllCodeLines(), buffer));
+			if (hashMethods) {
+				for (MethodInterface m : c.getMethods()) {
+					m.setFuzzyHash(hash(m.getCodeLines(), buffer));
+				}
+			}
+		}
+	}
+
+	private static String hash(List<CodeLineInterface> lines, ByteArrayBuffer buffer) {
+		buffer.clear();
+		boolean first = true;
+		for (CodeLineInterface cl : lines) {
+			if (!first) {
+				buffer.append('\n');
+			}
+			for (int i = 0; i < cl.length(); i++) {
+				buffer.append(cl.byteAt(i));
+			}
+			first = false;
+		}
+		return SpamSum.calculate(buffer.buffer(), 0, buffer.length());
+	}
+}
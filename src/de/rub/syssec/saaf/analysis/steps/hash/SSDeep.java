@@ -32,7 +32,6 @@ public class SSDeep implements RollingHashGenerator {
 
 	private static final String TMP = "temp";
 	private static final Logger LOGGER = Logger.getLogger(SSDeep.class);
-	private static final String SSDEEP_PATH = Config.getInstance().getConfigValue(ConfigKeys.EXECUTABLE_SSDEEP);
 
 	public SSDeep() {
 		/* nothing */
@@ -85,9 +84,10 @@ public class SSDeep implements RollingHashGenerator {
 
 	protected static String calculateFuzzyHash(File f) throws IOException{
 		String hash = null;
+		String ssdeepPath = Config.getInstance().getConfigValue(ConfigKeys.EXECUTABLE_SSDEEP);
 		
-		if (SSDEEP_PATH != null){
-			ProcessBuilder pb = new ProcessBuilder(SSDEEP_PATH, f.getAbsolutePath());
+		if (ssdeepPath != null){
+			ProcessBuilder pb = new ProcessBuilder(ssdeepPath, f.getAbsolutePath());
 			Process proc;
 			Scanner in = null;
 			try {
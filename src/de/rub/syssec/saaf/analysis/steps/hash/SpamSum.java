@@ -0,0 +1,162 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * The context triggered piecewise hash of spamsum/ssdeep by Andrew Tridgell
+ * and Jesse Kornblum. The hashes have the format "blocksize:hash1:hash2",
+ * which is what ssdeep prints in front of the file name.
+ *
+ * All arithmetic is done on unsigned 32 bit integers, which are kept in the
+ * lower half of a long.
+ */
+public final class SpamSum {
+
+	private static final int ROLLING_WINDOW = 7;
+	private static final int MIN_BLOCKSIZE = 3;
+	private static final long HASH_PRIME = 0x01000193L;
+	private static final long HASH_INIT = 0x28021967L;
+	private static final int SPAMSUM_LENGTH = 64;
+	private static final long MASK = 0xffffffffL;
+	private static final char[] B64 =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private SpamSum() {
+		/* only static methods */
+	}
+
+	/**
+	 * @param file the file to hash
+	 * @return the fuzzy hash of the content of the file
+	 * @throws IOException if the file could not be read
+	 */
+	public static String calculate(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			byte[] data = new byte[(int) in.length()];
+			in.readFully(data);
+			return calculate(data);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * @param data the bytes to hash
+	 * @return the fuzzy hash of the bytes
+	 */
+	public static String calculate(byte[] data) {
+		return calculate(data, 0, data.length);
+	}
+
+	/**
+	 * @param data the bytes to hash
+	 * @param offset the first byte to hash
+	 * @param length the number of bytes to hash
+	 * @return the fuzzy hash of the bytes
+	 */
+	public static String calculate(byte[] data, int offset, int length) {
+		long blockSize = MIN_BLOCKSIZE;
+		while (blockSize * SPAMSUM_LENGTH < length) {
+			blockSize *= 2;
+		}
+
+		char[] sig1;
+		char[] sig2;
+		int j;
+		int k;
+		while (true) {
+			sig1 = new char[SPAMSUM_LENGTH];
+			sig2 = new char[SPAMSUM_LENGTH / 2];
+			RollingHash roll = new RollingHash();
+			long h = 0;
+			long h2 = HASH_INIT;
+			long h3 = HASH_INIT;
+			j = 0;
+			k = 0;
+			for (int i = offset; i < offset + length; i++) {
+				int c = data[i] & 0xff;
+				h = roll.update(c);
+				h2 = sumHash(c, h2);
+				h3 = sumHash(c, h3);
+
+				if (h % blockSize == blockSize - 1) {
+					// a reset point for the first signature
+					sig1[j] = B64[(int) (h2 % 64)];
+					if (j < SPAMSUM_LENGTH - 1) {
+						h2 = HASH_INIT;
+						j++;
+					}
+				}
+				if (h % (blockSize * 2) == blockSize * 2 - 1) {
+					// and for the second one, which uses twice the block size
+					sig2[k] = B64[(int) (h3 % 64)];
+					if (k < SPAMSUM_LENGTH / 2 - 1) {
+						h3 = HASH_INIT;
+						k++;
+					}
+				}
+			}
+			if (h != 0) {
+				// the rest of the data after the last reset point
+				sig1[j] = B64[(int) (h2 % 64)];
+				sig2[k] = B64[(int) (h3 % 64)];
+			}
+			// the signature is too short, try again with a smaller block size
+			if (blockSize > MIN_BLOCKSIZE && j < SPAMSUM_LENGTH / 2) {
+				blockSize /= 2;
+			} else {
+				break;
+			}
+		}
+		// the last character is only set if there was data after the last reset point or the signature is full
+		return blockSize + ":" + toString(sig1, j) + ":" + toString(sig2, k);
+	}
+
+	private static String toString(char[] sig, int last) {
+		return new String(sig, 0, sig[last] != 0 ? last + 1 : last);
+	}
+
+	private static long sumHash(int c, long h) {
+		return ((h * HASH_PRIME) & MASK) ^ c;
+	}
+
+	/**
+	 * The rolling hash over the last {@link SpamSum#ROLLING_WINDOW} bytes
+	 * which decides where the data is split into pieces.
+	 */
+	private static final class RollingHash {
+		private final int[] window = new int[ROLLING_WINDOW];
+		private long h1;
+		private long h2;
+		private long h3;
+		private int n;
+
+		long update(int c) {
+			h2 = (h2 - h1 + ROLLING_WINDOW * c) & MASK;
+			h1 = (h1 + c - window[n]) & MASK;
+			window[n] = c;
+			n = (n + 1) % ROLLING_WINDOW;
+			h3 = ((h3 << 5) & MASK) ^ c;
+			return (h1 + h2 + h3) & MASK;
+		}
+	}
+}
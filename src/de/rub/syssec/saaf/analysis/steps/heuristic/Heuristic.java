@@ -16,7 +16,6 @@
  */
 package de.rub.syssec.saaf.analysis.steps.heuristic;
 
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.LinkedList;
@@ -24,6 +23,9 @@ import java.util.List;
 
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.application.InvokeIndex;
+import de.rub.syssec.saaf.application.CodeSite;
+import de.rub.syssec.saaf.application.SymbolTable;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
@@ -33,8 +35,6 @@ import de.rub.syssec.saaf.model.analysis.PatternType;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
 import de.rub.syssec.saaf.model.application.MethodInterface;
-import de.rub.syssec.saaf.model.application.instruction.InstructionInterface;
-import de.rub.syssec.saaf.model.application.instruction.InstructionType;
 import de.rub.syssec.saaf.model.application.manifest.ManifestInterface;
 
 /**
@@ -304,7 +304,7 @@ public class Heuristic {
 				Config.getInstance().getBooleanConfigValue(
 						ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS));
 		for (ClassInterface sf : appFiles) {
-			LinkedList<CodeLineInterface> codeLines = sf.getAllCodeLines();
+			List<CodeLineInterface> codeLines = sf.getAllCodeLines();
 			for (CodeLineInterface cl : codeLines) {
 				for (HPatternInterface hPat : pattern) {
 					if (cl.contains(hPat.getPattern().getBytes()))
@@ -338,7 +338,7 @@ public class Heuristic {
 				if (method.isProbablyPatched()) {
 					for (HPatternInterface hPat : pattern) {
 						hResults.add(new HResult(ana, hPat, method
-								.getCodeLines().getFirst()));
+								.getCodeLines().get(0)));
 					}
 				}
 			}
@@ -365,10 +365,10 @@ public class Heuristic {
 		for (ClassInterface sf : appFiles) {
 			for (HPatternInterface hPat : pattern) {
 				for (MethodInterface m : sf.getEmptyMethods()) {
-					if (m.getCodeLines().getFirst()
+					if (m.getCodeLines().get(0)
 							.contains(hPat.getPattern().getBytes())) {
 						hResults.add(new HResult(ana, hPat, m.getCodeLines()
-								.getFirst()));
+								.get(0)));
 					}
 				}
 			}
@@ -389,31 +389,25 @@ public class Heuristic {
 	private LinkedList<HResultInterface> findInvokePattern(
 			AnalysisInterface ana, HPatternInterface pattern) {
 		LinkedList<HResultInterface> hResults = new LinkedList<HResultInterface>();
-		// Where to search
-		LinkedList<ClassInterface> appFiles = ana.getApp().getAllSmaliClasss(
-				Config.getInstance().getBooleanConfigValue(
-						ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS));
+		// Where to search, this also parses and indexes the classes which were not parsed yet
+		boolean includeAds = Config.getInstance().getBooleanConfigValue(
+				ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS);
+		ana.getApp().getAllSmaliClasss(includeAds);
 		// What to search
 		if (pattern.getSearchin() == PatternType.INVOKE) {
-			byte[][] cm = new byte[2][];
 			String patternString = pattern.getPattern();
 			String[] pat = patternString.split("->");
-			cm[0] = pat[0].getBytes(); // Java package with class
-			cm[1] = pat[1].getBytes(); // Java method
-			for (ClassInterface sf : appFiles) {
-				LinkedList<CodeLineInterface> codeLines = sf.getAllCodeLines();
-				for (CodeLineInterface cl : codeLines) {
-					InstructionInterface i = cl.getInstruction();
-					if (i.getType() == InstructionType.INVOKE
-							|| i.getType() == InstructionType.INVOKE_STATIC) {
-						if (Arrays
-								.equals(i.getCalledClassAndMethod()[0], cm[0])
-								&& Arrays.equals(
-										i.getCalledClassAndMethod()[1], cm[1])) {
-							// we found the method!
-							hResults.add(new HResult(ana, pattern, cl));
-						}
-					}
+			SymbolTable symbols = ana.getApp().getSymbolTable();
+			int calledClass = symbols.lookup(pat[0].getBytes()); // Java package with class
+			int calledMethod = symbols.lookup(pat[1].getBytes()); // Java method
+			if (calledClass == SymbolTable.NONE || calledMethod == SymbolTable.NONE) {
+				return hResults; // nothing invokes this method
+			}
+			for (CodeSite site : ana.getApp().getInvokeIndex().find(calledClass, calledMethod, InvokeIndex.ANY)) {
+				CodeLineInterface cl = site.getCodeLine();
+				if (includeAds || !cl.getSmaliClass().isInAdFrameworkPackage()) {
+					// we found the method!
+					hResults.add(new HResult(ana, pattern, cl));
 				}
 			}
 		}
@@ -445,7 +439,7 @@ public class Heuristic {
 					// use the first codeline as it refers to the class which
 					// extends the superclass in question
 					hResults.add(new HResult(analysis, p, sf.getAllCodeLines()
-							.getFirst()));
+							.get(0)));
 				}
 			}
 		}
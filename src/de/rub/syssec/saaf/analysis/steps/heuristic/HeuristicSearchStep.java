@@ -17,11 +17,13 @@
 package de.rub.syssec.saaf.analysis.steps.heuristic;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
@@ -45,6 +47,8 @@ public class HeuristicSearchStep extends AbstractStep {
 		this.name = "Heuristic Search";
 		this.description = "Triggers heuristic search for interesting patterns.";
 		this.patterns = (patterns!=null)?patterns:new ArrayList<HPatternInterface>();
+		this.reads = EnumSet.of(AnalysisData.CODE, AnalysisData.MANIFEST, AnalysisData.PERMISSIONS);
+		this.writes = EnumSet.of(AnalysisData.HEURISTIC_RESULTS);
 		this.enabled = enabled;
 		
 		//TODO Split patterns into sets of different types
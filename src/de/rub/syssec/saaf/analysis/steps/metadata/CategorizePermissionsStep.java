@@ -17,11 +17,13 @@
 package de.rub.syssec.saaf.analysis.steps.metadata;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
 import de.rub.syssec.saaf.db.datasources.DataSourceException;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
@@ -51,6 +53,8 @@ public class CategorizePermissionsStep extends AbstractStep {
 		this.name="Categorize Permissions";
 		this.description="Categorizes the PermissionRequest based on set of currently known Permissions.";
 		this.permissionChecker = new SimplePermissionChecker(conf.getPermissionSource());
+		this.reads = EnumSet.of(AnalysisData.MANIFEST);
+		this.writes = EnumSet.of(AnalysisData.PERMISSIONS);
 		this.enabled=enabled;
 	}
 
@@ -23,6 +23,8 @@ import java.util.List;
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.application.CodeSite;
+import de.rub.syssec.saaf.application.SymbolTable;
 import de.rub.syssec.saaf.application.manifest.permissions.Permission;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.model.APICall;
@@ -30,9 +32,7 @@ import de.rub.syssec.saaf.model.APICalls;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
-import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
-import de.rub.syssec.saaf.model.application.instruction.InstructionType;
 
 /**
  * Read in APICalls.txt during startup and match apicalls onto apk.
@@ -75,26 +75,28 @@ public class MatchAPICallsStep extends AbstractStep {
 		List<CodeLineInterface> foundCalls = findCalls(app);
 		app.setFoundCalls(foundCalls);
 
+		// the class names with '.' instead of '/', by their symbol ID
+		SymbolTable symbols = app.getSymbolTable();
+		HashMap<Integer, String> classNames = new HashMap<Integer, String>();
+
 		for (CodeLineInterface c : foundCalls) {
-			String className = new String(c.getInstruction()
-					.getCalledClassAndMethodWithParameter()[0]).replaceAll("/",
-					".");
+			int[] called = c.getInstruction().getCalledSymbols();
+			String className = classNames.get(called[0]);
+			if (className == null) {
+				className = symbols.getString(called[0]).replace('/', '.');
+				classNames.put(called[0], className);
+			}
+			String method = className + "." + symbols.getString(called[1]);
 			for (APICall apiCall : APICalls.getCalls()) {
 				//check if the called method is matched by this APICall
-				String method = new String(c.getInstruction().getCalledClassAndMethodWithParameter()[1]);
-				if (apiCall.getCall().contains(className+ "." + method)) {
+				if (apiCall.getCall().contains(method)) {
 
 					// params need to be converted for matching....
 					// params
-					String params = new String(c.getInstruction()
-							.getCalledClassAndMethodWithParameter()[2]);
+					String params = symbols.getString(called[2]);
 				
 					//build a string from class,method and params and match it agains the APICall
-					if (apiCall.getCall().contains(className
-											+ "."
-											+ new String(
-													method)
-											+ "(" + params + ")")) {
+					if (apiCall.getCall().contains(method + "(" + params + ")")) {
 						/*
 						 * TODO: this needs to also be saved in the smali data
 						 * itself instead of just in this copy
@@ -112,18 +114,15 @@ public class MatchAPICallsStep extends AbstractStep {
 
 	/**
 	 * @param app
-	 * @return
+	 * @return the invokes in all classes which do not belong to an ad framework
 	 */
 	private List<CodeLineInterface> findCalls(ApplicationInterface app) {
 		List<CodeLineInterface> foundCalls = new ArrayList<CodeLineInterface>();
-		// better var names
-		for (ClassInterface smaliClass : app.getAllSmaliClasss(false)) {
-			for (CodeLineInterface codeline : smaliClass.getAllCodeLines()) {
-				if (codeline.getInstruction().getType().equals(InstructionType.INVOKE) || 
-					codeline.getInstruction().getType().equals(InstructionType.INVOKE_STATIC)) 
-				{
-					foundCalls.add(codeline);
-				}
+		app.getAllSmaliClasss(false); // parse and index the classes which were not parsed yet
+		for (CodeSite site : app.getInvokeIndex().getAll()) {
+			CodeLineInterface codeline = site.getCodeLine();
+			if (!codeline.getSmaliClass().isInAdFrameworkPackage()) {
+				foundCalls.add(codeline);
 			}
 		}
 		return foundCalls;
@@ -6,6 +6,7 @@ package de.rub.syssec.saaf.analysis.steps.obfuscation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +14,7 @@ import java.util.Map;
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
@@ -93,6 +95,8 @@ public class EntropyBasedDetectObfuscationStep extends AbstractStep {
 		this.config = cfg;
 		this.name = "Obfuscation Check";
 		this.description = "Calculates String entropy of class and method names to detect obfuscation";
+		this.reads = EnumSet.of(AnalysisData.CODE);
+		this.writes = EnumSet.of(AnalysisData.OBFUSCATION);
 		this.enabled = enabled;
 	}
 	
@@ -16,20 +16,28 @@
  */
 package de.rub.syssec.saaf.analysis.steps.slicing;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 
+import de.rub.syssec.saaf.application.instructions.Registers;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
 import de.rub.syssec.saaf.model.application.BasicBlockInterface;
 
 public class BBList {
 	
 	
-	private LinkedList<BasicBlockInterface> path = new LinkedList<BasicBlockInterface>();
 	/**
-	 * Holds information about the current path, eg, what register is tracked where in the path
+	 * The previous path followed by the BBs of the DFS, the DFS part is a stack w/ one entry per state.
 	 */
-	private LinkedList<byte[]> pathState = new LinkedList<byte[]>();
-	private LinkedList<BasicBlockInterface> previousPath = null;
+	private BasicBlockPath path;
+	/**
+	 * Holds information about the current path, eg, what register is tracked where in the path.
+	 * It is a stack with one entry per BB in the DFS part of path, the top is pathState[states - 1].
+	 */
+	private int[] pathState = new int[8];
+	private int states = 0;
+	private BasicBlockPath previousPath = null;
 	private HashSet<BasicBlockInterface> visited = new HashSet<BasicBlockInterface>();
 	private boolean firstTime = true;
 	private final boolean isBackwardSearch;
@@ -41,9 +49,10 @@ public class BBList {
 	 * @param pathState Can be used to denote the tracked register for the current BB, it can be overridden if it changes while handling new BBs
 	 * @param isBackwardSearch are BBs searched forward (next) of backwards (previous)
 	 */
-	public BBList(BasicBlockInterface firstBB, byte[] pathState, boolean isBackwardSearch) {
-		path.add(firstBB);
-		this.pathState.add(pathState);
+	public BBList(BasicBlockInterface firstBB, int pathState, boolean isBackwardSearch) {
+		path = new BasicBlockPath();
+		path.addLast(firstBB);
+		pushState(pathState);
 		this.isBackwardSearch = isBackwardSearch;
 	}
 
@@ -55,13 +64,14 @@ public class BBList {
 	 * @param pathState Can be used to denote the tracked register for the current BB, it can be overridden if it changes while handling new BBs
 	 * @param isBackwardSearch are BBs searched forward (next) or backwards (previous)
 	 */
-	public BBList(LinkedList<BasicBlockInterface> previousPath, byte[] pathState, boolean isBackwardSearch) {
+	public BBList(BasicBlockPath previousPath, int pathState, boolean isBackwardSearch) {
 		this.previousPath = previousPath;
 		this.isBackwardSearch = isBackwardSearch;
 		// the last one is the starting BB
 		BasicBlockInterface last = this.previousPath.removeLast();
-		path.add(last);
-		this.pathState.add(pathState);
+		path = new BasicBlockPath(previousPath); // shares the previous path
+		path.addLast(last);
+		pushState(pathState);
 
 		/*
 		 *  Avoid loops.
@@ -80,7 +90,7 @@ public class BBList {
 	 * @param firstBB the first BB of the new path, it will be returned on the first call of getNextBB()
 	 * @param pathState Can be used to denote the tracked register for the current BB, it can be overridden if it changes while handling new BBs
 	 */
-	public BBList(BasicBlockInterface firstBB, byte[] pathState) {
+	public BBList(BasicBlockInterface firstBB, int pathState) {
 		this(firstBB, pathState, true);
 	}
 	
@@ -91,7 +101,7 @@ public class BBList {
 	 * @param previousPath the actual BB is the last BB in the given path, only the last BB will be returned on the first call to getNextBB().
 	 * @param pathState Can be used to denote the tracked register for the current BB, it can be overridden if it changes while handling new BBs
 	 */
-	public BBList(LinkedList<BasicBlockInterface> previousPath, byte[] pathState) {
+	public BBList(BasicBlockPath previousPath, int pathState) {
 		this(previousPath, pathState, true);
 	}
 	
@@ -107,13 +117,13 @@ public class BBList {
 		// return the first BB which was supplied in the constructor for the first call
 		if (firstTime) {
 			firstTime = false;
-			return path.getFirst(); // there is only one
+			return path.getLast(); // there is only one
 		}
 				
 		BasicBlockInterface current;
 		BasicBlockInterface retBB = null; // the bb to be returned
 		
-		while (!path.isEmpty() && retBB == null) { // search until retBB is found or no more BBs are available
+		while (states > 0 && retBB == null) { // search until retBB is found or no more BBs are available
 			current = path.getLast();
 			LinkedList<BasicBlockInterface> blocks;
 			if (isBackwardSearch) blocks = current.getPreviousBB();
@@ -122,8 +132,8 @@ public class BBList {
 				if (!visited.contains(bb)) {
 					retBB = bb; // this is the next in the DFS and will be returned
 					visited.add(bb);
-					path.add(bb); // add the current BB to the path
-					pathState.add(pathState.getLast()); // save the state
+					path.addLast(bb); // add the current BB to the path
+					pushState(getState()); // save the state
 					break;
 				}
 			}
@@ -139,9 +149,9 @@ public class BBList {
 	 * Remove the last BB from the current path and search for the next BB according to the DFS.
 	 */
 	public void removeLastBBFromList() {
-		if (!path.isEmpty()) {
+		if (states > 0) {
 			path.removeLast();
-			pathState.removeLast();
+			states--;
 		}
 	}
 	
@@ -149,29 +159,31 @@ public class BBList {
 	 * Add a new state to the current BB in the path, it will be propagated to the next (previous) BBs in the path.
 	 * @param state
 	 */
-	public void setNewStateforCurrentBB(byte[] state) {
-		pathState.pop();
-		pathState.addLast(state);
+	public void setNewStateforCurrentBB(int state) {
+		pathState[states - 1] = state;
 	}
 	
 	/**
 	 * Get the saved state for the current BB.
 	 */
-	public byte[] getState() {
-		return pathState.getLast();
+	public int getState() {
+		return pathState[states - 1];
+	}
+
+	private void pushState(int state) {
+		if (states == pathState.length) pathState = Arrays.copyOf(pathState, states * 2);
+		pathState[states++] = state;
 	}
 	
 	/**
-	 * Get the path, which is always a new object.
+	 * Get the path, which is always a new object. It shares its BBs with this list, which takes constant time.
 	 * @return the path
 	 */
-	public LinkedList<BasicBlockInterface> getPathForLastBB() {
-		LinkedList<BasicBlockInterface> ret = new LinkedList<BasicBlockInterface>();
-		if (previousPath != null) ret.addAll(previousPath);
-		if (!firstTime) { // as long as getNextBB() is not called, there is no path, but the initial BB is already added
-			ret.addAll(path);
-		}
-		return ret;
+	public BasicBlockPath getPathForLastBB() {
+		if (!firstTime) return new BasicBlockPath(path);
+		// as long as getNextBB() is not called, there is no path, but the initial BB is already added
+		if (previousPath != null) return new BasicBlockPath(previousPath);
+		return new BasicBlockPath();
 	}
 	
 	/**
@@ -181,13 +193,14 @@ public class BBList {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("PATH:        ");
-		for (BasicBlockInterface bb : path) {
-			sb.append(bb.getLabel());
+		BasicBlockInterface[] bbs = path.toArray();
+		for (int i = bbs.length - states; i < bbs.length; i++) {
+			sb.append(bbs[i].getLabel());
 			sb.append("\t");
 		}
 		sb.append("\nSTATE:     ");
-		for (byte[] bb : pathState) {
-			sb.append(new String(bb));
+		for (int i = 0; i < states; i++) {
+			sb.append(Registers.toString(pathState[i]));
 			sb.append("\t");
 		}
 		sb.append("\nPREV PATH: ");
@@ -35,6 +35,7 @@ public class BTResult implements BTResultInterface {
 	private int argument;		//the number of the argument of the function which was backTracked
 	private CodeLineInterface cl;
 	private String methodName;
+	private boolean truncated = false;	//the search was stopped before it was finished
 	private int id = -1;		//ID from the table in db
 	private boolean changed;
 
@@ -117,6 +118,14 @@ public class BTResult implements BTResultInterface {
 		return cl;
 	}
 
+	/* (non-Javadoc)
+	 * @see de.rub.syssec.saaf.analysis.BTResultInterface#isTruncated()
+	 */
+	@Override
+	public boolean isTruncated() {
+		return truncated;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -128,6 +137,7 @@ public class BTResult implements BTResultInterface {
 				"patternID=" + pattern.getId() + ", " +
 				"searchID=" + constant.getSearchId() + ", " +
 				"fuzzyLevel=" + constant.getFuzzyLevel() + ", " +
+				"truncated=" + truncated + ", " +
 				"patternMethod=" + pattern.getMethodName() + ", " +
 				"result=" + constant.getValue() + ", ";
 		if (cl != null) result +=
@@ -180,6 +190,12 @@ public class BTResult implements BTResultInterface {
 		setChanged(true);
 	}
 
+	@Override
+	public void setTruncated(boolean truncated) {
+		this.truncated=truncated;
+		setChanged(true);
+	}
+
 	@Override
 	public void setChanged(boolean changed) {
 		this.changed = changed;
@@ -17,20 +17,30 @@
 package de.rub.syssec.saaf.analysis.steps.slicing;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
-import java.util.Vector;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.analysis.steps.slicing.MethodSummaries.MethodSummary;
+import de.rub.syssec.saaf.analysis.steps.slicing.MethodSummaries.ReturnSite;
 import de.rub.syssec.saaf.analysis.steps.slicing.TodoList.ClassContentTracker;
 import de.rub.syssec.saaf.analysis.steps.slicing.TodoList.RegisterSearch;
+import de.rub.syssec.saaf.application.CodeSite;
+import de.rub.syssec.saaf.application.InvokeIndex;
+import de.rub.syssec.saaf.application.SymbolTable;
 import de.rub.syssec.saaf.application.instructions.Constant;
-import de.rub.syssec.saaf.application.instructions.Instruction;
+import de.rub.syssec.saaf.application.instructions.Registers;
 import de.rub.syssec.saaf.application.methods.BasicBlock;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
+import de.rub.syssec.saaf.application.methods.DefUse;
 import de.rub.syssec.saaf.application.methods.Method;
-import de.rub.syssec.saaf.misc.ByteUtils;
 import de.rub.syssec.saaf.misc.config.Config;
 import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
@@ -59,8 +69,19 @@ public class DetectionLogic {
 	
 	private static final boolean DEBUG=Boolean.parseBoolean(System.getProperty("debug.slicing","false"));
 	private final ApplicationInterface app;
-	private SlicingCriterion backtrackRequest;
-	private TodoList todoList = new TodoList();
+	private final MethodSummaries summaries;
+	/**
+	 * The criteria of the current search which are not yet truncated, they all track registers of
+	 * the same invoke. The TodoList knows for which of them a job runs.
+	 */
+	private List<SlicingCriterion> backtrackRequests;
+	private final SlicingBudget budget;
+	private TodoList todoList;
+	
+	/**
+	 * The TodoList of this search if it records the summary of the return values of a method, otherwise null.
+	 */
+	private ReturnValueSummary.Recorder recorder = null;
 	
 	/**
 	 * Each Constant which is found for one specific Codeline has the same searchId.
@@ -71,14 +92,13 @@ public class DetectionLogic {
 	 * Eg: sentTextMessage(nr, ..., text, ...)
 	 */
 	private int searchId = 0;
-	private final HashMap<CodeLineInterface, Integer> searchIdMap = new HashMap<CodeLineInterface, Integer>();
-	private int globalSearchId = 0;
+	private final SearchIds searchIds;
 	
 	private static final int MAX_ITERATIONS = Integer.MAX_VALUE;
 	
 	private static final Logger LOGGER = Logger.getLogger(DetectionLogic.class);
 	
-	private static final byte[] P0_THIS = "p0".getBytes();
+	private static final int P0_THIS = Registers.parameter(0);
 	
 		
 	/**
@@ -86,7 +106,61 @@ public class DetectionLogic {
 	 * @param app the application to be analyzed
 	 */
 	public DetectionLogic(ApplicationInterface app) {
+		this(app, new MethodSummaries(app), new SearchIds(), new SlicingBudget());
+	}
+	
+	/**
+	 * Create a new DetectionLogic for some given application which shares the method summaries
+	 * with other searches.
+	 * @param app the application to be analyzed
+	 * @param summaries the summaries of the methods of the application
+	 */
+	public DetectionLogic(ApplicationInterface app, MethodSummaries summaries) {
+		this(app, summaries, new SearchIds(), new SlicingBudget());
+	}
+	
+	/**
+	 * Create a new DetectionLogic for some given application which shares the method summaries
+	 * and the search IDs with other searches.
+	 * @param app the application to be analyzed
+	 * @param summaries the summaries of the methods of the application
+	 * @param searchIds the search IDs of the invokes, see {@link #assignSearchIds(SlicingCriterion)}
+	 */
+	DetectionLogic(ApplicationInterface app, MethodSummaries summaries, SearchIds searchIds) {
+		this(app, summaries, searchIds, new SlicingBudget());
+	}
+	
+	/**
+	 * Create a new DetectionLogic for some given application which shares the method summaries,
+	 * the search IDs and the budget with other searches.
+	 * @param app the application to be analyzed
+	 * @param summaries the summaries of the methods of the application
+	 * @param searchIds the search IDs of the invokes, see {@link #assignSearchIds(SlicingCriterion)}
+	 * @param budget the limits of the searches
+	 */
+	DetectionLogic(ApplicationInterface app, MethodSummaries summaries, SearchIds searchIds, SlicingBudget budget) {
 		this.app = app;
+		this.summaries = summaries;
+		this.searchIds = searchIds;
+		this.budget = budget;
+		this.todoList = new TodoList(budget.getMaxFuzzyLevel());
+	}
+	
+	/**
+	 * The search IDs of the invoked code lines. Each line gets the next ID when it is
+	 * searched for the first time, see {@link DetectionLogic#searchId}.
+	 */
+	static final class SearchIds {
+		private final HashMap<CodeLineInterface, Integer> searchIdMap = new HashMap<CodeLineInterface, Integer>(); // guarded by this
+		
+		synchronized int get(CodeLineInterface cl) {
+			Integer mapId = searchIdMap.get(cl);
+			if (mapId == null) {
+				mapId = searchIdMap.size();
+				searchIdMap.put(cl, mapId);
+			}
+			return mapId;
+		}
 	}
 	
 	/**
@@ -94,6 +168,11 @@ public class DetectionLogic {
 	 */
 	private byte[][] cmp = new byte[3][];
 
+	/**
+	 * The IDs of cmp in the symbol table of the app, see {@link #lookupCmp(byte[][], boolean)}
+	 */
+	private int[] cmpSymbols;
+
 	/**
 	 * Search the application code for a calls/invokes to a given class and method and determine all constants which can be assigned to
 	 * a given parameter.
@@ -102,64 +181,202 @@ public class DetectionLogic {
 	 * 
 	 * This method will build the def-use chains (slices).
 	 * 
-	 * WARNING: This method is not threadsafe!
+	 * WARNING: This method is not threadsafe! Use one DetectionLogic per thread, they may share
+	 * the app, the method summaries and the search IDs.
 	 * 
 	 * @param breq the request to search for, results will be added to this request
 	 * @throws DetectionLogicError if the register index is not appropriate or if the search does not seem to terminate
 	 */
 	public void search(SlicingCriterion backtrackRequest) throws DetectionLogicError {
-		cmp = backtrackRequest.getClassAndMethodAndParameter();
-		int regToTrack = backtrackRequest.getParameterIndex();
-		// clean up, it may be called multiple times
-		this.backtrackRequest = backtrackRequest;
-		
-		
-		if (regToTrack < 0 || regToTrack > 65535) {
-			throw new DetectionLogicError("Register index must not be negative or too big");
+		List<SlicingCriterion> group = new ArrayList<SlicingCriterion>(1);
+		group.add(backtrackRequest);
+		searchGroup(group);
+	}
+	
+	/**
+	 * Search several criteria, see {@link #search(SlicingCriterion)}. Criteria which target the same
+	 * method are searched together: the invokes of the method are found once and each invoke is
+	 * searched for all criteria of the group before the next one. If several criteria track the
+	 * same register of an invoke, the register is only searched once and the found constants are
+	 * added to each of these criteria.
+	 * 
+	 * Criteria which track different registers, eg, parameters 0 and 2 of
+	 * SmsManager.sendTextMessage, share the lookup of the invokes and one backward search per
+	 * invoke. Each job of this search is tagged w/ the criteria it runs for and the found
+	 * constants are only added to them.
+	 * 
+	 * The results and the search IDs are the same as if each criterion was searched on its own in
+	 * the given order.
+	 * 
+	 * WARNING: This method is not threadsafe!
+	 * 
+	 * @param criteria the requests to search for, results will be added to each request
+	 * @throws DetectionLogicError if a register index is not appropriate or if the search does not seem to terminate
+	 */
+	public void search(List<SlicingCriterion> criteria) throws DetectionLogicError {
+		for (SlicingCriterion backtrackRequest : criteria) {
+			assignSearchIds(backtrackRequest);
+		}
+		for (List<SlicingCriterion> group : groupBySignature(criteria)) {
+			searchGroup(group);
 		}
+	}
+	
+	/**
+	 * Group criteria which target the same class, method and parameters. The groups and the
+	 * criteria in each group keep the given order.
+	 * 
+	 * @param criteria the criteria
+	 * @return the groups
+	 */
+	static List<List<SlicingCriterion>> groupBySignature(List<SlicingCriterion> criteria) {
+		LinkedHashMap<List<String>, List<SlicingCriterion>> groups = new LinkedHashMap<List<String>, List<SlicingCriterion>>();
+		for (SlicingCriterion backtrackRequest : criteria) {
+			byte[][] cmp = backtrackRequest.getClassAndMethodAndParameter();
+			List<String> signature = Arrays.asList(new String(cmp[0]), new String(cmp[1]), cmp[2] == null ? null : new String(cmp[2]));
+			List<SlicingCriterion> group = groups.get(signature);
+			if (group == null) {
+				group = new ArrayList<SlicingCriterion>();
+				groups.put(signature, group);
+			}
+			group.add(backtrackRequest);
+		}
+		return new ArrayList<List<SlicingCriterion>>(groups.values());
+	}
+	
+	/**
+	 * Search criteria which target the same method. The invokes are looked up once for the group
+	 * and each invoke gets one search which tracks the registers of all criteria. The RS of each
+	 * register is tagged w/ its criteria and all jobs which follow from it inherit the tag, see
+	 * {@link TodoList#setCriteria(List)}. Jobs are only dropped as duplicates for the same tag, so
+	 * each criterion runs the same jobs in the same order as in a search of its own. A BB which
+	 * is reached for two tags is therefore still scanned twice.
+	 * 
+	 * Each criterion has its own path list which is passed to the search of each of its invokes,
+	 * see {@link #findInvokes(byte[][], int, int, BasicBlockPath)}. Criteria share a tag if they
+	 * track the same register and their paths are equal. The time of the search of an invoke is
+	 * counted for all of its criteria.
+	 * 
+	 * @param group the criteria
+	 * @throws DetectionLogicError if a register index is not appropriate or if the search does not seem to terminate
+	 */
+	private void searchGroup(List<SlicingCriterion> group) throws DetectionLogicError {
+		cmp = group.get(0).getClassAndMethodAndParameter();
+		indexAllClasses(); // before the lookup, parsing the classes adds their symbols
+		cmpSymbols = lookupCmp(cmp, false);
+		List<BasicBlockPath> paths = new ArrayList<BasicBlockPath>(group.size());
+		for (SlicingCriterion backtrackRequest : group) {
+			int regToTrack = backtrackRequest.getParameterIndex();
+			if (regToTrack < 0 || regToTrack > 65535) {
+				throw new DetectionLogicError("Register index must not be negative or too big");
+			}
+			paths.add(new BasicBlockPath()); // new empty path list
+		}
+		boolean noSignatureGiven = isFuzzyInvoke(cmp);
 		
 		/*
 		 * Get a list of all invokes and start a search for each one. Each search gets a unique searchId which is assigned to all
 		 * constants which are found for the corresponding register/invoke.
 		 */
-		LinkedList<RegisterSearch> rsList = findInvokes(cmp, regToTrack, 0, new LinkedList<BasicBlockInterface>()); // new empty path list
-		if (DEBUG) LOGGER.debug("Found "+rsList.size()+" INVOKES for "+new String(cmp[0])+"."+new String(cmp[1])+", paraIndex="+regToTrack);
-		for (RegisterSearch rs : rsList) {
-			todoList.addRegisterToTrack(rs);
+		List<CodeSite> sites = findCallSites(cmp);
+		if (DEBUG) LOGGER.debug("Found "+sites.size()+" INVOKES for "+new String(cmp[0])+"."+new String(cmp[1])+", criteria="+group.size());
+		for (CodeSite site : sites) {
+			if (site.getBasicBlock() == null) continue; // the invoke is not part of a method with BBs
 			/*
 			 * Set up searchid. Each Codeline where a search begins gets the same id.
 			 * This is useful to match Constants which are found for the same
 			 * invocation but for different arguments.
 			 */
-//			// FIXME
-////			System.out.println(" bb: "+rs.getBB().);
-//			LOGGER.debug("\n\n\nFound "+rsList.size()+" INVOKES for "+new String(cmp[0])+"."+new String(cmp[1])+", paraIndex="+regToTrack);
-//			for (CodeLineInterface cl : rs.getBB().getCodeLines()) {
-//				System.out.println(" bb: "+cl);
-//			}
-//			System.out.println("#cl: "+rs.getBB().getCodeLines().size());
-//			System.out.println(" #i: "+rs.getIndex());
-//			System.out.println(" cl: "+rs.getBB().getCodeLines().get(rs.getIndex()));
-//			
-//			// FIXME
-			CodeLineInterface cl = rs.getBB().getCodeLines().get(rs.getIndex());
-			Integer mapId = searchIdMap.get(cl);
-			if (mapId == null) {
-				searchId = globalSearchId;
-				searchIdMap.put(cl, searchId);
-				globalSearchId++;
+			searchId = searchIds.get(site.getCodeLine());
+			
+			RegisterSearch[] rsArray = new RegisterSearch[group.size()];
+			for (int k = 0; k < group.size(); k++) {
+				rsArray[k] = createInvokeSearch(site, group.get(k).getParameterIndex(), noSignatureGiven, 0, paths.get(k));
+				if (rsArray[k] != null) group.get(k).getProfile().countCallSite();
 			}
-			else {
-				searchId = mapId;
+			backtrackRequests = new ArrayList<SlicingCriterion>(group.size());
+			todoList = new TodoList(budget.getMaxFuzzyLevel(), backtrackRequests);
+			List<RegisterSearch> searches = new ArrayList<RegisterSearch>(group.size());
+			List<List<SlicingCriterion>> tags = new ArrayList<List<SlicingCriterion>>(group.size());
+			Map<Integer, Integer> sharing = new HashMap<Integer, Integer>(); // criterion -> criterion w/ the same tag
+			for (int k = 0; k < group.size(); k++) {
+				if (rsArray[k] == null) continue; // skipped or already tagged
+				List<SlicingCriterion> tag = new ArrayList<SlicingCriterion>(1);
+				tag.add(group.get(k));
+				for (int l = k + 1; l < group.size(); l++) {
+					if (rsArray[l] != null && rsArray[l].getRegister() == rsArray[k].getRegister() && paths.get(l).equals(paths.get(k))) {
+						rsArray[l] = null;
+						tag.add(group.get(l));
+						sharing.put(l, k);
+					}
+				}
+				backtrackRequests.addAll(tag);
+				searches.add(rsArray[k]);
+				tags.add(tag);
+			}
+			// the TodoList is LIFO, the first criterion is tracked first
+			for (int k = searches.size() - 1; k >= 0; k--) {
+				todoList.setCriteria(tags.get(k));
+				todoList.addRegisterToTrack(searches.get(k));
+			}
+			startSearch(); // track the registers for this invoke
+			// the search may have added the BB to the path
+			for (Map.Entry<Integer, Integer> e : sharing.entrySet()) {
+				paths.set(e.getKey(), new BasicBlockPath(paths.get(e.getValue())));
 			}
-			
-			startSearch(); // track the register for this invoke
-			todoList = new TodoList(); // clean up
 		}
 	}
 	
+	/**
+	 * Add a found constant to all criteria of the current job.
+	 * @param c the constant
+	 */
+	private void addFoundConstant(ConstantInterface c) {
+		if (recorder != null) {
+			recorder.addConstant((Constant) c);
+			return;
+		}
+		for (SlicingCriterion backtrackRequest : todoList.getCriteria()) {
+			backtrackRequest.addFoundConstant(c);
+		}
+	}
+	
+	/**
+	 * Log an exception for all criteria of the current job.
+	 * @param t the exception or error
+	 */
+	private void logException(Throwable t) {
+		if (recorder != null) {
+			recorder.logException(t);
+			return;
+		}
+		for (SlicingCriterion backtrackRequest : todoList.getCriteria()) {
+			backtrackRequest.logException(t);
+		}
+	}
 	
 	
+	
+	/**
+	 * Assign the search IDs of all invokes which {@link #search(SlicingCriterion)} would track
+	 * for a criterion, but do not search. If the criteria are passed in the order in which they
+	 * are searched, the searches get the same IDs no matter which thread runs them first.
+	 * 
+	 * @param backtrackRequest the criterion
+	 */
+	void assignSearchIds(SlicingCriterion backtrackRequest) {
+		byte[][] cmp = backtrackRequest.getClassAndMethodAndParameter();
+		int parameterIndex = backtrackRequest.getParameterIndex();
+		for (CodeSite site : findCallSites(cmp)) {
+			if (site.getBasicBlock() == null) continue;
+			int realParameterIndex = parameterIndex;
+			if (site.getCodeLine().getInstruction().getType() != InstructionType.INVOKE_STATIC) realParameterIndex++;
+			// see findInvokes(), the search skips or rejects such invokes
+			if (realParameterIndex < 0 || realParameterIndex >= site.getCodeLine().getInstruction().getInvolvedRegisters().length) continue;
+			searchIds.get(site.getCodeLine());
+		}
+	}
+	
 	/**
 	 * Start the search. Search until the TodoList is empty. It may be "refilled" during each run. 
 	 * @throws DetectionLogicError 
@@ -167,26 +384,28 @@ public class DetectionLogic {
 	private void startSearch() throws DetectionLogicError {
 		if (DEBUG) LOGGER.debug("Starting search...");
 		
+		long start = System.nanoTime();
 		int loopCnt = 0;
 		while (!todoList.isFinished()) {
 			// Sanity check ;)
 			loopCnt++;
 			if (loopCnt == MAX_ITERATIONS) throw new DetectionLogicError("We're probably stuck in an endless loop while working through the TODO list. Aborting!");
 			
-			if (todoList.getFinishedRsCount() > TodoList.MAX_RS_COUNT) {
-				throw new DetectionLogicError("Reached maximum RS limit ("+TodoList.MAX_RS_COUNT+")");
-			}
+			if (recorder == null && isBudgetExhausted(start)) break; // a recording search is bounded by its method
+			if (recorder != null && recorder.leavesMethod()) break; // the summary cannot be reused
 			
 			try {
 				if (todoList.getRemainingRegistersToTrack() > 0) {
 					RegisterSearch rs = todoList.getNextRegisterToTrack();
+					if (isTruncatedJob()) continue;
+					budget.countApkSearch();
 					backtrackRegister(rs);
 				}
 				else if (todoList.getRemainingReturnValuesFromMethods() > 0) {
 					ClassContentTracker ctt =  todoList.getNextReturnValuesFromMethod();
+					if (isTruncatedJob()) continue;
 					try {
-						MethodInterface m = app.getMethodByClassAndName(new String(ctt.getCi()[0]), new String(ctt.getCi()[1]), ctt.getCi()[2], ctt.getCi()[3]);
-						addAllReturnedRegistersFromMethod(m, ctt); // parse all return values
+						trackReturnValues(summaries.get(ctt.getCi()), ctt); // parse all return values
 					}
 					catch (ClassOrMethodNotFoundException e) {
 						if (DEBUG) LOGGER.debug("Lost Track: "+e.getMessage());
@@ -195,26 +414,79 @@ public class DetectionLogic {
 				}
 				else if (todoList.getRemainingFieldsToTrack() > 0) {
 					ClassContentTracker ctt = todoList.getNextField();
+					if (isTruncatedJob()) continue;
 					backTrackField(ctt);
 				}
 				else if (todoList.getRemainingArraysToTrack() > 0) {
 					ClassContentTracker ctt = todoList.getNextCaToTrack(); // ctt contains classname, arrayname etc
+					if (isTruncatedJob()) continue;
 					findArrayGets(ctt); // find all codelines where an array is accessed after it was loaded
 					findArrayPuts(ctt); // find all codelines where an array is created and accessed and later stored
 				}
 			}
 			catch (SyntaxException e) {
 				LOGGER.error("Syntax Error (Search continues)",e);
-				backtrackRequest.logException(e);
+				logException(e);
 			}
 			catch (DetectionLogicError e) {
 				LOGGER.error("Logic Error (Search continues)",e);
-				backtrackRequest.logException(e);
+				logException(e);
 			}
 		}
+		long nanos = System.nanoTime() - start;
+		for (SlicingCriterion backtrackRequest : backtrackRequests) {
+			backtrackRequest.getProfile().addTime(nanos);
+		}
 		if (DEBUG) LOGGER.debug("Search finished.");
 	}
 	
+	/**
+	 * Check the budget of the criteria of the next job, a search of its own checks a criterion
+	 * only if it has a job left. Criteria which exceeded their budget are marked as truncated and
+	 * do not take part in the rest of the search. The constants they found so far are kept.
+	 * 
+	 * @param start the {@link System#nanoTime()} when the current search started
+	 * @return true if the search has to stop b/c no criterion is left
+	 */
+	private boolean isBudgetExhausted(long start) {
+		String exhausted = budget.checkApk();
+		for (SlicingCriterion backtrackRequest : todoList.peekCriteria()) {
+			if (!backtrackRequests.contains(backtrackRequest)) continue; // already truncated
+			String reason = exhausted != null ? exhausted : budget.checkInvoke(todoList.getFinishedRsCount(backtrackRequest));
+			if (reason == null) reason = budget.checkCriterion(backtrackRequest, start);
+			if (reason == null) continue;
+			if (!backtrackRequest.isTruncated()) {
+				byte[][] cm = backtrackRequest.getClassAndMethodAndParameter();
+				LOGGER.warn(reason+": Stopping the search for "+new String(cm[0])+"->"+new String(cm[1])
+						+", parameterIndex="+backtrackRequest.getParameterIndex()+". The results are incomplete.");
+				backtrackRequest.setTruncated();
+			}
+			backtrackRequest.getProfile().addTime(System.nanoTime() - start);
+			backtrackRequests.remove(backtrackRequest); // also stops counting its jobs in the TodoList
+		}
+		return backtrackRequests.isEmpty();
+	}
+	
+	/**
+	 * @return true if all criteria of the current job were truncated, the job is skipped
+	 */
+	private boolean isTruncatedJob() {
+		return recorder == null && todoList.getCriteria().isEmpty();
+	}
+	
+	/**
+	 * Count a scanned BB for the criteria of the current job.
+	 */
+	private void countVisitedBB() {
+		if (recorder != null) {
+			recorder.countVisitedBB(); // counted for the criteria which need the summary
+			return;
+		}
+		for (SlicingCriterion backtrackRequest : todoList.getCriteria()) {
+			backtrackRequest.getProfile().countVisitedBB();
+		}
+	}
+	
 	
 	/**
 	 * This method does the normal backtracking of a register in a BasicBlock. It will search through the BasicBlock and track access
@@ -223,17 +495,17 @@ public class DetectionLogic {
 	 * @throws DetectionLogicError 
 	 */
 	private void backtrackRegister(final RegisterSearch rs) throws SyntaxException, DetectionLogicError {
-		byte[] register = rs.getRegister();
+		int register = rs.getRegister();
 		BasicBlockInterface bb = rs.getBB();
 		int actualLine = rs.getIndex();
-		if (DEBUG) LOGGER.debug("RS Backtracking, reg="+new String(register)+", actualLine="+actualLine);
+		if (DEBUG) LOGGER.debug("RS Backtracking, reg="+Registers.toString(register)+", actualLine="+actualLine);
 		/*
 		 * Failsafe:
 		 * If the method is not static and p0 is tracked, abort tracking. p0 is the this-reference and
 		 * this will most likely mess things up, as every called method on the corresponding class etc
 		 * will be tracked.
 		 */
-		if (!bb.getMethod().isStatic() && ByteUtils.equals(P0_THIS, register)) {
+		if (!bb.getMethod().isStatic() && P0_THIS == register) {
 			if (DEBUG) LOGGER.debug(" Will not track p0 in non-static method ("+bb.getMethod().getName()+")");
 			return;
 		}
@@ -245,7 +517,8 @@ public class DetectionLogic {
 		 */
 		
 		
-		final LinkedList<BasicBlockInterface> path = rs.getPath();
+		countVisitedBB();
+		final BasicBlockPath path = rs.getPath();
 		if (path.isEmpty() || !(path.getLast() == bb)) {
 			// add the current BB to the path but no duplicates (at the end)
 			path.addLast(bb); 
@@ -256,12 +529,14 @@ public class DetectionLogic {
 		 * previous search. The next opcode of interest any previous opcode which relates
 		 * to the tracked register. If the beginning of a BB is reached, this case is
 		 * handled after this loop.
+		 * 
+		 * The def-use info of the method skips all lines which neither define nor use the
+		 * tracked register, all other opcodes ignore the register anyway. Non-code lines are
+		 * skipped as well.
 		 */
-		while (actualLine > 0) { // look at all code lines in this BB
-			CodeLineInterface cl = bb.getCodeLines().get(--actualLine); // look at the previous instruction
-			
-			// skip all non-code lines
-			if (!cl.isCode()) continue;
+		final DefUse defUse = bb.getMethod().getDefUse();
+		while ((actualLine = defUse.getPreviousAccess(bb, register, actualLine)) >= 0) { // look at all code lines in this BB
+			CodeLineInterface cl = bb.getCodeLines().get(actualLine); // look at the previous instruction
 			
 			InstructionInterface i = cl.getInstruction(); // get the instruction and work with it
 			if (DEBUG) LOGGER.debug(" Checking cl "+cl);
@@ -285,20 +560,15 @@ public class DetectionLogic {
 			case INVOKE_STATIC: // same as INVOKE
 			case INVOKE:
 				// Check if this invoke involves our currently searched method, if so, we do not need to investigate anything else
-				if (Arrays.equals(i.getCalledClassAndMethodWithParameter()[0], cmp[0])
-						&& Arrays.equals(i.getCalledClassAndMethodWithParameter()[1], cmp[1])
-						&& (
-								cmp[2] == null // See findInvokesAndAddToTodoList for more info for an empty method signature 
-								|| Arrays.equals(i.getCalledClassAndMethodWithParameter()[2], cmp[2])
-							)) {
+				if (recorder != null) recorder.addInvoke(i);
+				if (isCalled(i, cmpSymbols)) { // See findInvokesAndAddToTodoList for more info for an empty method signature
 					continue;
 				}
 				// Check if our register is involved in this invoke opcode
 				// A method can also be invoked on an object, eg, StringBuilder.append(...), therefore start at ii = 0
 				boolean found = false;
-				for (int ii = 0; ii < i.getInvolvedRegisters().size(); ii++) {
-					byte[] reg = i.getInvolvedRegisters().get(ii);
-					if (Arrays.equals(register, reg)) {
+				for (int reg : i.getInvolvedRegisters()) {
+					if (register == reg) {
 						found = true;
 						break;
 					}
@@ -313,10 +583,10 @@ public class DetectionLogic {
 					 * the offset to the maximum-2.
 					 */
 					int offset = rs.getFuzzyLevel();
-					if (offset < TodoList.MAX_FUZZY_LEVEL-2) {
-						offset = TodoList.MAX_FUZZY_LEVEL-2;
+					if (offset < budget.getMaxFuzzyLevel()-2) {
+						offset = budget.getMaxFuzzyLevel()-2;
 					}
-					handleInvoke(bb, actualLine, register, false, rs.getFuzzyLevel(), offset, new LinkedList<BasicBlockInterface>(path)); // +1 b/c we already decremented it but need the current line
+					handleInvoke(bb, actualLine, register, false, rs.getFuzzyLevel(), offset, new BasicBlockPath(path)); // +1 b/c we already decremented it but need the current line
 				}
 				continue;
 				
@@ -339,7 +609,7 @@ public class DetectionLogic {
 					 * when a new-array instruction is found with our register being the new array register.
 					 */
 					if (DEBUG) LOGGER.debug("Found an APUT. Seems we are backtracking an array, will also backtrack the putted register!");
-					RegisterSearch rs2 = new RegisterSearch(i.getInvolvedRegisters().getFirst(), bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path));
+					RegisterSearch rs2 = new RegisterSearch(i.getInvolvedRegisters()[0], bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path));
 					todoList.addRegisterToTrack(rs2);
 					// continue the search
 				}
@@ -350,47 +620,47 @@ public class DetectionLogic {
 				
 			case MATH_1: // unary operations w/ only 1 target and 1 source reg
 				if (doesRegisterMatch(i, register)) {
-					byte[] involvedReg  = i.getInvolvedRegisters().getFirst(); // track the register which got applied to our old register
-					if (!Arrays.equals(register, involvedReg)) {
-						if (DEBUG) LOGGER.debug(" 2nd register is different from target, now tracking: "+new String(involvedReg));
+					int involvedReg  = i.getInvolvedRegisters()[0]; // track the register which got applied to our old register
+					if (register != involvedReg) {
+						if (DEBUG) LOGGER.debug(" 2nd register is different from target, now tracking: "+Registers.toString(involvedReg));
 						register = involvedReg;
 					}
 					else {
-						if (DEBUG) LOGGER.debug(" 2nd register is the same as the tracked one, keep on tracking "+new String(register));
+						if (DEBUG) LOGGER.debug(" 2nd register is the same as the tracked one, keep on tracking "+Registers.toString(register));
 					}
 				}
 				continue; 
 				
 			case MATH_2: // binary operations w/ 1 target and 2 sources
 				if (doesRegisterMatch(i, register)) {
-					byte[] involvedReg1 = i.getInvolvedRegisters().getFirst();
-					byte[] involvedReg2 = i.getInvolvedRegisters().getLast();
+					int involvedReg1 = i.getInvolvedRegisters()[0];
+					int involvedReg2 = i.getInvolvedRegisters()[1];
 					// Check if only one or both register are different
-					if (Arrays.equals(register, involvedReg1)) {
-						involvedReg1 = null;
+					if (register == involvedReg1) {
+						involvedReg1 = Registers.NONE;
 					}
-					if (Arrays.equals(register, involvedReg2)) {
-						involvedReg2 = null;
+					if (register == involvedReg2) {
+						involvedReg2 = Registers.NONE;
 					}
 					/*
 					 * Track one register directly and add the second one as a new RS.
 					 */
 					RegisterSearch rs2;
-					if (involvedReg1 != null && involvedReg2 != null) {
-						if (DEBUG) LOGGER.debug(" 2nd register is different from target, now tracking: "+new String(involvedReg1));
+					if (involvedReg1 != Registers.NONE && involvedReg2 != Registers.NONE) {
+						if (DEBUG) LOGGER.debug(" 2nd register is different from target, now tracking: "+Registers.toString(involvedReg1));
 						register = involvedReg1;
-						rs2 = new RegisterSearch(involvedReg2, bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path)); // first and only operand register
+						rs2 = new RegisterSearch(involvedReg2, bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path)); // first and only operand register
 						todoList.addRegisterToTrack(rs2); // Keep on track with this register
-						if (DEBUG) LOGGER.debug(" Adding RS for 3rd register: "+new String(involvedReg2));
+						if (DEBUG) LOGGER.debug(" Adding RS for 3rd register: "+Registers.toString(involvedReg2));
 					}
-					else if (involvedReg1 != null) {
-						if (DEBUG) LOGGER.debug(" Only 2nd register is different from tracked one, keep on tracking "+new String(involvedReg1));
-						rs2 = new RegisterSearch(involvedReg1, bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path)); // first and only operand register
+					else if (involvedReg1 != Registers.NONE) {
+						if (DEBUG) LOGGER.debug(" Only 2nd register is different from tracked one, keep on tracking "+Registers.toString(involvedReg1));
+						rs2 = new RegisterSearch(involvedReg1, bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path)); // first and only operand register
 						todoList.addRegisterToTrack(rs2); // Keep on track with this register
 					}
-					else if (involvedReg2 != null) {
-						if (DEBUG) LOGGER.debug(" Only 3rd register is different from tracked one, keep on tracking "+new String(involvedReg2));
-						rs2 = new RegisterSearch(involvedReg2, bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path)); // first and only operand register
+					else if (involvedReg2 != Registers.NONE) {
+						if (DEBUG) LOGGER.debug(" Only 3rd register is different from tracked one, keep on tracking "+Registers.toString(involvedReg2));
+						rs2 = new RegisterSearch(involvedReg2, bb, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path)); // first and only operand register
 						todoList.addRegisterToTrack(rs2); // Keep on track with this register
 					}
 				}	
@@ -398,26 +668,26 @@ public class DetectionLogic {
 				
 			case MATH_2C: // binary operations w/ 1 target, 1 source and 1 constant instead of register
 				if (doesRegisterMatch(i, register)) {
-					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new LinkedList<BasicBlockInterface>(path), searchId);
-					backtrackRequest.addFoundConstant(c);
+					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new BasicBlockPath(path), searchId);
+					addFoundConstant(c);
 					if (DEBUG) LOGGER.debug(" Found MATH const! cl="+cl);
-					byte[] involvedReg = i.getInvolvedRegisters().getFirst();
-					if (!Arrays.equals(register, involvedReg)) {
-//						RegisterSearch rs3 = new RegisterSearch(i.getInvolvedRegisters().getFirst(), bb, actualLine, fuzzyLevel, new LinkedList<BasicBlockInterface>(path)); // first and only operand register
+					int involvedReg = i.getInvolvedRegisters()[0];
+					if (register != involvedReg) {
+//						RegisterSearch rs3 = new RegisterSearch(i.getInvolvedRegisters()[0], bb, actualLine, fuzzyLevel, new BasicBlockPath(path)); // first and only operand register
 //						todoList.addRegisterToTrack(rs3); // Keep on track with this register
-						if (DEBUG) LOGGER.debug(" 2nd register is different from target, now tracking: "+new String(involvedReg));
+						if (DEBUG) LOGGER.debug(" 2nd register is different from target, now tracking: "+Registers.toString(involvedReg));
 						register = involvedReg;
 					}
 					else {
-						if (DEBUG) LOGGER.debug(" 2nd register is the same as the tracked one, keep on tracking "+new String(register));
+						if (DEBUG) LOGGER.debug(" 2nd register is the same as the tracked one, keep on tracking "+Registers.toString(register));
 					}
 				}	
 				continue; 
 				
 			case CONST:
 				if (doesRegisterMatch(i, register)) {
-					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new LinkedList<BasicBlockInterface>(path), searchId);
-					backtrackRequest.addFoundConstant(c);
+					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new BasicBlockPath(path), searchId);
+					addFoundConstant(c);
 					if (DEBUG) LOGGER.debug("Found const! cl="+cl);
 					return;
 				}	
@@ -426,28 +696,28 @@ public class DetectionLogic {
 			case GET: // some field is loaded into our register
 				if (doesRegisterMatch(i, register)) {
 					// parse the fieldname+class
-					byte[][] cf = Instruction.parseClassAndField(i.getInvolvedFields().getFirst());
-					todoList.addField(cf, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path));
+					byte[][] cf = i.getInvolvedField();
+					todoList.addField(cf, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path));
 					if (DEBUG) LOGGER.debug(" GET case, will later backtrack cf="+new String(cf[0])+"."+new String(cf[1]));
 					return; // we're done, track the field later
 				}
 				continue;
 				
 			case AGET:
-				if (Arrays.equals(i.getResultRegister(), register)) {
+				if (i.getResultRegister() == register) {
 					// entering arraymode
-					byte[] arrayReg = i.getInvolvedRegisters().getFirst();
-					if (DEBUG) LOGGER.debug(" AGET case, entering ARRAY mode, arrayReg="+new String(arrayReg));
-					arrayMode(arrayReg, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path));
+					int arrayReg = i.getInvolvedRegisters()[0];
+					if (DEBUG) LOGGER.debug(" AGET case, entering ARRAY mode, arrayReg="+Registers.toString(arrayReg));
+					arrayMode(arrayReg, actualLine, rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path));
 					if (DEBUG) LOGGER.debug(" Finished ARRAY mode");
 					return; // abort here, backtracking array accesses etc which were not found in arrayMode-method the will be done later on
 				}
 				break;
 				
 			case FILL_ARRAY_DATA:
-				if (Arrays.equals(register, i.getResultRegister())) {
-					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new LinkedList<BasicBlockInterface>(path), searchId);
-					backtrackRequest.addFoundConstant(c);
+				if (register == i.getResultRegister()) {
+					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new BasicBlockPath(path), searchId);
+					addFoundConstant(c);
 					if (DEBUG) LOGGER.debug(" Found a FILL_ARRAY_DATA constant! "+cl);
 					return; // stop
 				}
@@ -455,8 +725,8 @@ public class DetectionLogic {
 				
 			case MOVE:
 				if (doesRegisterMatch(i, register)) {
-					register = i.getInvolvedRegisters().getFirst(); // track the register which got moved to our old register
-					if (DEBUG) LOGGER.debug(" MOVE: now tracking "+new String(register));
+					register = i.getInvolvedRegisters()[0]; // track the register which got moved to our old register
+					if (DEBUG) LOGGER.debug(" MOVE: now tracking "+Registers.toString(register));
 				}
 				continue;
 				
@@ -471,7 +741,7 @@ public class DetectionLogic {
 					fcl = getPreviousOpcode(bb, cl); 
 						
 					// We have to fix the path if we found it in another BB
-					LinkedList<BasicBlockInterface> fixedPath = new LinkedList<BasicBlockInterface>(path);
+					BasicBlockPath fixedPath = new BasicBlockPath(path);
 					if (fixedPath.getLast() != fcl.getBasicBlock()) {
 						fixedPath.addLast(fcl.getBasicBlock());
 					}
@@ -503,9 +773,9 @@ public class DetectionLogic {
 				 * tracked method etc. We have to stop here, but we should nevertheless log the occurrence of this.
 				 */
 				if (doesRegisterMatch(i, register)) {
-					LOGGER.info("Found an internal method which overwrote our register "+new String(register)+". Adding as constant! cl="+cl);
-					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new LinkedList<BasicBlockInterface>(path), searchId);
-					backtrackRequest.addFoundConstant(c);
+					LOGGER.info("Found an internal method which overwrote our register "+Registers.toString(register)+". Adding as constant! cl="+cl);
+					ConstantInterface c = new Constant(cl, rs.getFuzzyLevel(), new BasicBlockPath(path), searchId);
+					addFoundConstant(c);
 					return;
 				}
 				continue;
@@ -573,12 +843,12 @@ public class DetectionLogic {
 		LinkedList<BasicBlockInterface> previousBBs = bb.getPreviousBB();
 		if (previousBBs == null || previousBBs.isEmpty()) { // We reached the beginning of a method
 			if (DEBUG) LOGGER.debug("Reached end of BB and are in the first BB of the method.");
-			if (ByteUtils.startsWith(register, new byte[] { 'p' })) {
+			if (Registers.isParameter(register)) {
 				 /*
 				  * We have a parameter index, pX. We now need to look at calls for this method w/ the
 				  * corresponding parameter.
 				  */
-				int parameterIndex = Integer.parseInt(new String(register).substring(1)); // cut the 'p'
+				int parameterIndex = Registers.getIndex(register);
 				if (!bb.getMethod().isStatic()) {
 					/*
 					 * p0 is the class instance if the method is not static, otherwise
@@ -587,12 +857,12 @@ public class DetectionLogic {
 					 * being the first parameter.
 					 */
 					parameterIndex--;
-					if (DEBUG) LOGGER.debug(" We're NOT inside a STATIC method and are searching "+new String(register)+": decreasing parameter index to "+parameterIndex);
+					if (DEBUG) LOGGER.debug(" We're NOT inside a STATIC method and are searching "+Registers.toString(register)+": decreasing parameter index to "+parameterIndex);
 				}
 				byte[][] method = bb.getMethod().getCmp();
 				if (DEBUG) LOGGER.debug(" Searching for INVOKES to method "+new String(method[0])+"."+new String(method[1])+", paraIndex="+parameterIndex);
 				// Increase the fuzzy value by 1 in order to not get exceptional long paths over different methods
-				int foundInvokes = findInvokesAndAddToTodoList(method, parameterIndex, rs.getFuzzyLevel()+1, rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path));
+				int foundInvokes = findInvokesAndAddToTodoList(method, parameterIndex, rs.getFuzzyLevel()+1, rs.getFuzzyOffset(), new BasicBlockPath(path));
 				if (DEBUG) LOGGER.debug(" Found "+foundInvokes+" INVOKES for our method "+new String(method[0])+"."+new String(method[1])+", paraIndex="+parameterIndex);
 				/*
 				 * If the method is never invoked, it is likely called over java.lang.reflect or is some entry point from, eg, the Android
@@ -603,12 +873,12 @@ public class DetectionLogic {
 					// store the class and the method with the signature etc as the value, also save the register, eg, p1
 					String value;
 					value = bb.getMethod().getReadableJavaName()+", parameterIndex="+parameterIndex;
-					ConstantInterface c = new Constant(bb.getMethod().getCodeLines().getFirst(), rs.getFuzzyLevel(), path, searchId, VariableType.UNCALLED_METHOD, value);
-					backtrackRequest.addFoundConstant(c);
+					ConstantInterface c = new Constant(bb.getMethod().getCodeLines().get(0), rs.getFuzzyLevel(), path, searchId, VariableType.UNCALLED_METHOD, value);
+					addFoundConstant(c);
 				}
 			}
 			else {
-				if (DEBUG) LOGGER.debug(" Lost track of reg "+new String(register)+", no more BBs available (reached method beginning?)");
+				if (DEBUG) LOGGER.debug(" Lost track of reg "+Registers.toString(register)+", no more BBs available (reached method beginning?)");
 			}
 			
 		}
@@ -620,8 +890,18 @@ public class DetectionLogic {
 			 */
 			if (DEBUG) LOGGER.debug("Reached end of BB, adding RS for all previous blocks.");
 			for (BasicBlockInterface bbb : previousBBs) {
+				/*
+				 * Skip a BB if no definition of a local register reaches its end and if the register is not used before,
+				 * eg, by an invoke or an APUT. The RS would only reach the beginning of the method and lose track.
+				 */
+				int end = bbb.getCodeLines().size();
+				if (!Registers.isParameter(register) && defUse.getReachingDefinitions(bbb, register, end).isEmpty()
+						&& !defUse.isAccessedBefore(bbb, register, end)) {
+					if (DEBUG) LOGGER.debug(" Skipping BB "+bbb.getUniqueId()+", "+Registers.toString(register)+" is not accessed before it.");
+					continue;
+				}
 				// bbb.getCodeLines().size() is an invalid index, but it will be decremented in the main loop before anything happens
-				RegisterSearch rs2 = new RegisterSearch(register, bbb, bbb.getCodeLines().size(), rs.getFuzzyLevel(), rs.getFuzzyOffset(), new LinkedList<BasicBlockInterface>(path));
+				RegisterSearch rs2 = new RegisterSearch(register, bbb, bbb.getCodeLines().size(), rs.getFuzzyLevel(), rs.getFuzzyOffset(), new BasicBlockPath(path));
 				todoList.addRegisterToTrack(rs2); // search in this BB (add to todo-list)
 			}
 		}
@@ -655,7 +935,7 @@ public class DetectionLogic {
 					// we already have the constant b/c it is assigned in the field declaration
 					ConstantInterface c = new Constant(f.getCodeLine(), ctt.getFuzzyLevel(), ctt.getPath(), searchId);
 					if (c.getValue() != null) { // if null, something gets assigned in <clinit>
-						backtrackRequest.addFoundConstant(c);
+						addFoundConstant(c);
 						if (DEBUG) LOGGER.debug("  ...added to result list b/c it is static and final w/ value! We're done.");
 						return; // we're done
 					}
@@ -674,30 +954,24 @@ public class DetectionLogic {
 				 * We will now search all IPUTs and SPUTs which operate on this field and put them as a
 				 * RegisterSearch into the TodoList.
 				 */
-				for (ClassInterface sf2 : app.getAllSmaliClasss(false)) {
-					for (MethodInterface m : sf2.getMethods()) {
-						if (isFinalAndStatic && !Method.STATIC_CONSTRUCTOR_NAME.equals(m.getName())) continue; // we only need to look into <clinit>.
-						for (BasicBlockInterface bb : m.getBasicBlocks()) {
-							for (int i=0; i<bb.getCodeLines().size(); i++) { // look at all put opcodes in all BBs
-								CodeLineInterface cl = bb.getCodeLines().get(i);
-								InstructionInterface instr = cl.getInstruction();
-								if (instr.getType() == InstructionType.PUT) {
-									// check the classname and fieldname
-									if (Arrays.equals(cf[0], instr.getResultField()[0])	&& Arrays.equals(cf[1], instr.getResultField()[1])) {
-										// we have a PUT opcode which puts into our field
-										if (DEBUG) LOGGER.debug("    Found a valid xPUT in "+sf2.getFile().getName()+"."+m.getName()+"(...), adding reg "+new String(instr.getInvolvedRegisters().getFirst())+" to TodoList, cl="+cl);
-										LinkedList<BasicBlockInterface> newPath = new LinkedList<BasicBlockInterface>(ctt.getPath());
-										newPath.addLast(bb); // add the found BB to the path, TODO: indicate that Field accesses are searched instead of a normal BB search?
-										RegisterSearch rs = new RegisterSearch(instr.getInvolvedRegisters().getFirst(), bb, i, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), newPath); // there is only one register involved
-										todoList.addRegisterToTrack(rs); // add this reg to our todolist in order to continue search later on
-									}
-									else {
-//										if (DEBUG) LOGGER.debug("    ...fieldname ("+new String(instr.getResultField()[1])+") did not match :(");
-									}
-								}
-							}
-						}
-					}
+				int[] fieldSymbols = lookupField(cf);
+				if (fieldSymbols == null) {
+					if (DEBUG) LOGGER.debug("  ...the field is never accessed.");
+					continue;
+				}
+				for (CodeSite site : app.getFieldAccessIndex().getWrites(fieldSymbols)) { // all puts into our field
+					CodeLineInterface cl = site.getCodeLine();
+					MethodInterface m = cl.getMethod();
+					if (isFinalAndStatic && !Method.STATIC_CONSTRUCTOR_NAME.equals(m.getName())) continue; // we only need to look into <clinit>.
+					BasicBlockInterface bb = site.getBasicBlock();
+					if (bb == null) continue;
+					InstructionInterface instr = cl.getInstruction();
+					// we have a PUT opcode which puts into our field
+					if (DEBUG) LOGGER.debug("    Found a valid xPUT in "+cl.getSmaliClass().getFile().getName()+"."+m.getName()+"(...), adding reg "+Registers.toString(instr.getInvolvedRegisters()[0])+" to TodoList, cl="+cl);
+					BasicBlockPath newPath = new BasicBlockPath(ctt.getPath());
+					newPath.addLast(bb); // add the found BB to the path, TODO: indicate that Field accesses are searched instead of a normal BB search?
+					RegisterSearch rs = new RegisterSearch(instr.getInvolvedRegisters()[0], bb, site.getIndex(), ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), newPath); // there is only one register involved
+					todoList.addRegisterToTrack(rs); // add this reg to our todolist in order to continue search later on
 				}
 			}
 			else if (DEBUG) LOGGER.debug(" Field does not match our search pattern!");
@@ -705,60 +979,194 @@ public class DetectionLogic {
 	}
 	
 	/**
-	 * Search for all RETURN opcodes in all BasicBlocks from a method and add the returned register as a RegisterSearch to the TodoList.
-	 * @param m the method to search through
+	 * Track the return values of a method. The search inside the method is taken from the summary of its
+	 * return values, see {@link ReturnValueSummary}. The summary is recorded the first time the method is
+	 * entered w/ the fuzzy level and offset of the ctt. It is recorded again if the current search would
+	 * skip other invokes inside the method, see {@link #isCalled(InstructionInterface, int[])}.
+	 * 
+	 * The returned registers are searched as usual if the summary leaves the method or if the current
+	 * search already added a RS which the summary ran, eg, b/c the search started inside the method.
+	 * 
+	 * @param summary the summary of the method
+	 * @param ctt the ctt with additional information such as the fuzzy level
+	 * @throws DetectionLogicError if the search does not seem to terminate
+	 * @throws SyntaxException if an array cannot be added
+	 * @throws ClassOrMethodNotFoundException if the method is not part of the app
+	 */
+	private void trackReturnValues(MethodSummary summary, ClassContentTracker ctt) throws DetectionLogicError, SyntaxException, ClassOrMethodNotFoundException {
+		ReturnValueSummary returnValues = summary.getReturnValues(ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), todoList.getMaxFuzzyLevel());
+		if (returnValues == null || !skipsSameInvokes(returnValues)) {
+			returnValues = recordReturnValues(summary, ctt);
+			summary.setReturnValues(returnValues);
+		}
+		if (returnValues.leavesMethod()) {
+			if (DEBUG) LOGGER.debug("The return values depend on other methods, searching them.");
+			addAllReturnedRegistersFromMethod(summary, ctt);
+			return;
+		}
+		for (ReturnValueSummary.Event e : returnValues.getEvents()) {
+			if (e.getKind() == ReturnValueSummary.Kind.SEARCH && todoList.containsRegister(e.getRegisterSearch())) {
+				if (DEBUG) LOGGER.debug("Already searched inside the method, the summary of its return values does not hold.");
+				addAllReturnedRegistersFromMethod(summary, ctt);
+				return;
+			}
+		}
+		replayReturnValues(returnValues, ctt);
+	}
+	
+	/**
+	 * @param returnValues a summary
+	 * @return true if the current search skips the same invokes inside the method as the search which recorded the summary
+	 */
+	private boolean skipsSameInvokes(ReturnValueSummary returnValues) {
+		for (InstructionInterface invoke : returnValues.getInvokes()) {
+			if (isCalled(invoke, cmpSymbols) != isCalled(invoke, returnValues.getCmpSymbols())) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Record the summary of the return values of a method. The returned registers are searched by a
+	 * new DetectionLogic which only runs the RS inside the method. It starts w/ an empty path and the
+	 * fuzzy level and offset of the ctt. Its RS and BBs are counted for the criteria of the current
+	 * search, they are run for them.
+	 * 
+	 * @param summary the summary of the method
+	 * @param ctt the ctt with additional information such as the fuzzy level
+	 * @return the summary of the return values
+	 * @throws DetectionLogicError if the search does not seem to terminate
+	 * @throws ClassOrMethodNotFoundException if the method is not part of the app
+	 */
+	private ReturnValueSummary recordReturnValues(MethodSummary summary, ClassContentTracker ctt) throws DetectionLogicError, ClassOrMethodNotFoundException {
+		if (DEBUG) LOGGER.debug("Recording the summary of the return values of "+summary.getMethod().getName()+"\tfuzzy="+ctt.getFuzzyLevel()+"/"+ctt.getFuzzyOffset());
+		DetectionLogic logic = new DetectionLogic(app, summaries, searchIds, budget);
+		logic.cmp = cmp;
+		logic.cmpSymbols = cmpSymbols;
+		logic.allClassesIndexed = allClassesIndexed;
+		logic.backtrackRequests = new ArrayList<SlicingCriterion>(0);
+		logic.recorder = new ReturnValueSummary.Recorder(summary.getMethod(), todoList.getMaxFuzzyLevel(),
+				new ArrayList<SlicingCriterion>(todoList.getCriteria()));
+		logic.todoList = logic.recorder;
+		try {
+			logic.addAllReturnedRegistersFromMethod(summary, new ClassContentTracker(ctt.getCi(), ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), new BasicBlockPath()));
+		}
+		catch (DetectionLogicError e) {
+			LOGGER.error("Logic Error (Search continues)",e);
+			logic.logException(e);
+		}
+		logic.startSearch();
+		ReturnValueSummary returnValues = logic.recorder.getSummary(ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), cmpSymbols);
+		for (int k = 0; k < returnValues.getVisitedBBs(); k++) {
+			countVisitedBB();
+		}
+		return returnValues;
+	}
+	
+	/**
+	 * Reuse the summary of return values. The RS which the summary ran are marked as done, they are not
+	 * counted as searches. The found constants, fields, arrays and return values of invoked methods are
+	 * rebased onto the fuzzy level and the path of the ctt and added in the recorded order.
+	 * 
+	 * @param returnValues a summary which does not leave the method
+	 * @param ctt the ctt with additional information such as the fuzzy level
+	 * @throws SyntaxException if an array cannot be added
+	 */
+	private void replayReturnValues(ReturnValueSummary returnValues, ClassContentTracker ctt) throws SyntaxException {
+		int fuzzyLevel = ctt.getFuzzyLevel();
+		BasicBlockPath path = ctt.getPath();
+		for (ReturnValueSummary.Event e : returnValues.getEvents()) {
+			ClassContentTracker recorded = e.getClassContentTracker();
+			switch (e.getKind()) {
+			case SEARCH:
+				todoList.markRegisterDone(e.getRegisterSearch());
+				break;
+			case CONSTANT:
+				Constant c = e.getConstant();
+				addFoundConstant(new Constant(c, returnValues.rebase(c.getFuzzyLevel(), fuzzyLevel), path, searchId));
+				break;
+			case FIELD:
+				todoList.addField(recorded.getCi(), returnValues.rebase(recorded.getFuzzyLevel(), fuzzyLevel),
+						recorded.getFuzzyOffset(), rebase(path, recorded));
+				break;
+			case RETURN_VALUES:
+				todoList.addReturnValuesFromMethod(recorded.getCi(), returnValues.rebase(recorded.getFuzzyLevel(), fuzzyLevel),
+						recorded.getFuzzyOffset(), rebase(path, recorded));
+				break;
+			case ARRAY:
+				todoList.addArrayFieldToTrack(recorded.getCi(), returnValues.rebase(recorded.getFuzzyLevel(), fuzzyLevel),
+						recorded.getFuzzyOffset(), rebase(path, recorded));
+				break;
+			case ERROR:
+				logException(e.getError());
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * @param path the path of the current search up to a method
+	 * @param recorded a job recorded in the method
+	 * @return a new path w/ the path of the job appended
+	 */
+	private static BasicBlockPath rebase(BasicBlockPath path, ClassContentTracker recorded) {
+		BasicBlockPath rebased = new BasicBlockPath(path);
+		rebased.addAll(recorded.getPath());
+		return rebased;
+	}
+	
+	/**
+	 * Add the returned register of all RETURN opcodes from a method as a RegisterSearch to the TodoList.
+	 * @param summary the summary of the method, it holds all RETURN opcodes
 	 * @param ctt the ctt with additional information such as the fuzzy level
 	 * @throws DetectionLogicError if the returned register in the return-opcode cannot be parsed
+	 * @throws ClassOrMethodNotFoundException if the method is not part of the app
 	 */
-	private void addAllReturnedRegistersFromMethod(MethodInterface m, ClassContentTracker ctt) throws DetectionLogicError {
-		LinkedList<BasicBlockInterface> path;
-		for (BasicBlockInterface bb : m.getBasicBlocks()) {
-			
-			for (int i=0; i<bb.getCodeLines().size(); i++) {
-				CodeLineInterface cl = bb.getCodeLines().get(i);
-				InstructionInterface ii = cl.getInstruction();
-				if (ii.getType() == InstructionType.RETURN) {
-					/*
-					 * We found a RETURN and will track the returned register later.
-					 * 
-					 * Some smali code uses return-void in non void method.
-					 * Will this simply return null? Nevertheless, just stop
-					 * here and handle the Nullpointer as no register is
-					 * returned!
-					 * 
-					 * Example from:
-					 * Lcom/nd/net/netengine/BufferData; (md5: e3acc3a60...)
-					 * 
-					 * # virtual methods
-					 * .method public getByteBuffer()[B
-					 * .locals 1
-					 * .prologue
-					 * return-void
-					 * .end method
-					 * 
-					 * .method public getFileName()Ljava/lang/String;
-					 * .locals 1
-					 * .prologue
-					 * return-void
-					 * .end method
-					 */ 
-					// add found BB to path
-					path = new LinkedList<BasicBlockInterface>(ctt.getPath());
-					path.addLast(bb);
-					if (ii.getInvolvedRegisters().size() > 0) { // Prevent NP
-						RegisterSearch rs = new RegisterSearch(ii.getInvolvedRegisters().getFirst(), bb, i, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path);
-						todoList.addRegisterToTrack(rs);
-					}
-					else if (ii.getCodeLine().contains("return-void")) {
-						if (DEBUG) LOGGER.debug("Found a non-void method returning w/ return-void!");
-						continue;
-					}
-					else {
-						throw new DetectionLogicError("Cannot parse returned register: "+cl);
-					}
-				}
+	private void addAllReturnedRegistersFromMethod(MethodSummary summary, ClassContentTracker ctt) throws DetectionLogicError, ClassOrMethodNotFoundException {
+		BasicBlockPath path;
+		for (ReturnSite site : summary.getReturnSites()) {
+			BasicBlockInterface bb = site.getBB();
+			int i = site.getIndex();
+			CodeLineInterface cl = bb.getCodeLines().get(i);
+			InstructionInterface ii = cl.getInstruction();
+			/*
+			 * We found a RETURN and will track the returned register later.
+			 * 
+			 * Some smali code uses return-void in non void method.
+			 * Will this simply return null? Nevertheless, just stop
+			 * here and handle the Nullpointer as no register is
+			 * returned!
+			 * 
+			 * Example from:
+			 * Lcom/nd/net/netengine/BufferData; (md5: e3acc3a60...)
+			 * 
+			 * # virtual methods
+			 * .method public getByteBuffer()[B
+			 * .locals 1
+			 * .prologue
+			 * return-void
+			 * .end method
+			 * 
+			 * .method public getFileName()Ljava/lang/String;
+			 * .locals 1
+			 * .prologue
+			 * return-void
+			 * .end method
+			 */ 
+			// add found BB to path
+			path = new BasicBlockPath(ctt.getPath());
+			path.addLast(bb);
+			if (ii.getInvolvedRegisters().length > 0) { // Prevent NP
+				RegisterSearch rs = new RegisterSearch(ii.getInvolvedRegisters()[0], bb, i, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path);
+				todoList.addRegisterToTrack(rs);
+			}
+			else if (ii.getCodeLine().contains("return-void")) {
+				if (DEBUG) LOGGER.debug("Found a non-void method returning w/ return-void!");
+				continue;
+			}
+			else {
+				throw new DetectionLogicError("Cannot parse returned register: "+cl);
 			}
-		}	
+		}
 	}
 	
 	/**
@@ -782,12 +1190,13 @@ public class DetectionLogic {
 	 * @throws SyntaxException
 	 * @throws DetectionLogicError
 	 */
-	public void arrayMode(byte[] arrayReg, int codeLineIndex, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) throws SyntaxException, DetectionLogicError {
+	public void arrayMode(int arrayReg, int codeLineIndex, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) throws SyntaxException, DetectionLogicError {
 		if (DEBUG) LOGGER.debug("\nEntering array mode");
 		BasicBlockInterface bb; // will be assigned to the last blocked added to the path b/c it is already added		
 		BBList bbl = new BBList(path, arrayReg);
 		boolean firstRun = true;
 		while ((bb = bbl.getNextBb()) != null) {
+			countVisitedBB();
 //			System.out.println(bbl);
 //			System.out.println(" current bb: "+bb.getLabel());
 			arrayReg = bbl.getState();
@@ -798,16 +1207,16 @@ public class DetectionLogic {
 			boolean abort = false;
 			while (!abort && codeLineIndex >= 0) { // search backwards
 				cl = bb.getCodeLines().get(codeLineIndex--);
-				if (DEBUG) LOGGER.debug(" array mode: array="+new String(arrayReg)+" cl="+cl);
+				if (DEBUG) LOGGER.debug(" array mode: array="+Registers.toString(arrayReg)+" cl="+cl);
 				i = cl.getInstruction();
 				switch (i.getType()) {
 				case APUT:
 					// found APUT, check if it stores something in our array, if so, backtrack the register put into our array
-					if (Arrays.equals(arrayReg, i.getResultRegister())) {
+					if (arrayReg == i.getResultRegister()) {
 						if (DEBUG) LOGGER.debug("Found a valid APUT");
 						// the value is stored into our array
-						byte[] regPutIntoArray = i.getInvolvedRegisters().getFirst();
-						LinkedList<BasicBlockInterface> p = new LinkedList<BasicBlockInterface>(bbl.getPathForLastBB());
+						int regPutIntoArray = i.getInvolvedRegisters()[0];
+						BasicBlockPath p = new BasicBlockPath(bbl.getPathForLastBB());
 						RegisterSearch rs = new RegisterSearch(regPutIntoArray, bb, codeLineIndex, fuzzyLevel, fuzzyLevelOffset, p);
 						todoList.addRegisterToTrack(rs);
 					}
@@ -815,7 +1224,7 @@ public class DetectionLogic {
 					
 				case NEW_ARRAY:
 					// This check can be fooled by smalicode which somehow reuses used arrays and move them to temporary arrays and so on...
-					if (Arrays.equals(i.getResultRegister(), arrayReg)) {
+					if (i.getResultRegister() == arrayReg) {
 						if (DEBUG) LOGGER.debug("Found a valid NEW_ARRAY, stop.");
 						// we found the creation of the array and can therefore end our search
 						bbl.removeLastBBFromList();
@@ -824,9 +1233,9 @@ public class DetectionLogic {
 					break;
 					
 				case FILL_ARRAY_DATA:
-					if (Arrays.equals(i.getResultRegister(), arrayReg)) {
+					if (i.getResultRegister() == arrayReg) {
 						ConstantInterface c = new Constant(cl, fuzzyLevel-fuzzyLevelOffset, path, searchId);
-						backtrackRequest.addFoundConstant(c);
+						addFoundConstant(c);
 						// we found the initialization of the array and can therefore end our search
 						bbl.removeLastBBFromList();
 						abort = true;
@@ -836,10 +1245,10 @@ public class DetectionLogic {
 					
 				case GET:
 					// check if something is copied into our array register
-					if (Arrays.equals(i.getResultRegister(), arrayReg)) { // it is
+					if (i.getResultRegister() == arrayReg) { // it is
 						if (DEBUG) LOGGER.debug("Found a valid xGET-x, adding to later search. cl="+cl);
-						byte[][] ca = Instruction.parseClassAndField(i.getInvolvedFields().getFirst());
-						LinkedList<BasicBlockInterface> p = new LinkedList<BasicBlockInterface>(bbl.getPathForLastBB());
+						byte[][] ca = i.getInvolvedField();
+						BasicBlockPath p = new BasicBlockPath(bbl.getPathForLastBB());
 						todoList.addArrayFieldToTrack(ca, fuzzyLevel, fuzzyLevelOffset, p);
 						bbl.removeLastBBFromList(); // we're done for this path
 						abort = true;
@@ -852,7 +1261,7 @@ public class DetectionLogic {
 							// now check if the previous is either a FILLED_NEW_ARRAY or an INVOKE
 							BasicBlock.FoundCodeLine fcl = getPreviousOpcode(bb, cl);
 							// We have to fix the path if we found it in another BB
-							LinkedList<BasicBlockInterface> fixedPath = bbl.getPathForLastBB();
+							BasicBlockPath fixedPath = bbl.getPathForLastBB();
 							if (fixedPath.getLast() != fcl.getBasicBlock()) {
 								fixedPath.addLast(fcl.getBasicBlock());
 							}
@@ -880,8 +1289,8 @@ public class DetectionLogic {
 				case MOVE:
 					// check if something is moved into the tracked register, if so, track the moved register
 					if (doesRegisterMatch(i, arrayReg)) { // not all lines are opcodes or have a target register 
-						arrayReg = i.getInvolvedRegisters().getFirst(); // there is only one register
-						if (DEBUG) LOGGER.debug("  ArrayReg MOVED, new="+new String(arrayReg));
+						arrayReg = i.getInvolvedRegisters()[0]; // there is only one register
+						if (DEBUG) LOGGER.debug("  ArrayReg MOVED, new="+Registers.toString(arrayReg));
 						bbl.setNewStateforCurrentBB(arrayReg);
 					}
 					/*
@@ -895,15 +1304,15 @@ public class DetectionLogic {
 					
 				case PUT:
 					// check if our array is copied to some field and add it to the todolist if this is the case
-					if (Arrays.equals(i.getInvolvedRegisters().getFirst(), arrayReg)) {
-						LinkedList<BasicBlockInterface> p = new LinkedList<BasicBlockInterface>(bbl.getPathForLastBB());
+					if (i.getInvolvedRegisters()[0] == arrayReg) {
+						BasicBlockPath p = new BasicBlockPath(bbl.getPathForLastBB());
 						todoList.addArrayFieldToTrack(i.getResultField(), fuzzyLevel, fuzzyLevelOffset, p);
 					}
 					break;
 
 				default:
 					// Check if all other opcodes overwrite our array register, if so, we're screwed, if not, we're fine
-					if (cl.isCode() && i.getResultRegister() != null && doesRegisterMatch(i, arrayReg)) { // not all lines are opcodes or have a target register
+					if (cl.isCode() && i.getResultRegister() != Registers.NONE && doesRegisterMatch(i, arrayReg)) { // not all lines are opcodes or have a target register
 						if ((i.getType() == InstructionType.CONST) && ("0".equals(i.getConstantValue()) || "0x0".equals(i.getConstantValue()))) {
 							// If this happens we assume that the array was initialized with the "null value"
 							if (DEBUG) LOGGER.debug("Found an 0x0 const, array probably NULL'ed. Stopping search.");
@@ -920,9 +1329,9 @@ public class DetectionLogic {
 							 * aget-object v0, v0, v1 <= Array mode, array is v0
 							 * invoke-static {v0}, Landroid/net/Uri;->parse(Ljava/lang/String;)Landroid/net/Uri; <= Tracking v0
 							 */
-							arrayReg = i.getInvolvedRegisters().get(0); // set the array to the other array (in this case also v0)
+							arrayReg = i.getInvolvedRegisters()[0]; // set the array to the other array (in this case also v0)
 							bbl.setNewStateforCurrentBB(arrayReg);
-							if (DEBUG) LOGGER.debug("Multidimensional array GET. Array reg now: "+new String(arrayReg));
+							if (DEBUG) LOGGER.debug("Multidimensional array GET. Array reg now: "+Registers.toString(arrayReg));
 						}
 						else {
 							LOGGER.error("Found opcode overwriting our array! Aborting, but search continues! "+cl);
@@ -943,30 +1352,20 @@ public class DetectionLogic {
 	 */
 	private void findArrayGets(ClassContentTracker ctt) {
 		if (DEBUG) LOGGER.debug("findArrayGets, ctt="+ctt);
-		for (ClassInterface sf : app.getAllSmaliClasss(false)) {
-			for (MethodInterface m : sf.getMethods()) {
-				for (BasicBlockInterface bb : m.getBasicBlocks()) {
-					LinkedList<CodeLineInterface> codeLines = bb.getCodeLines();
-					for (int i=0; i<codeLines.size(); i++ ) {
-						CodeLineInterface cl = codeLines.get(i);
-						InstructionInterface instruction = cl.getInstruction();
-						if (instruction.getType() == InstructionType.GET) {
-							// either IGET or SGET, check if the loaded field matches our array
-							byte[][] instField = Instruction.parseClassAndField(instruction.getInvolvedFields().getFirst());
-							if (Arrays.equals(ctt.getCi()[0], instField[0]) && Arrays.equals(ctt.getCi()[1], instField[1])) { // it does
-								/*
-								 * We found an opcode that loads our array of interest, ca, into a register.
-								 * Now check if we find any APUTs in this array, do this search forward through the BBs!
-								 */
-								if (DEBUG) LOGGER.debug(" Found array-get, cl="+cl);
-								LinkedList<BasicBlockInterface> path = ctt.getPath(); // add BB to the path, search begins at last BB in path
-								path.addLast(bb);
-								forwardFindAPuts(i, instruction.getResultRegister(), ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path);
-							}
-						}
-					}
-				}
-			}
+		int[] fieldSymbols = lookupField(ctt.getCi());
+		if (fieldSymbols == null) return; // the field is never accessed
+		for (CodeSite site : app.getFieldAccessIndex().getReads(fieldSymbols)) { // either IGET or SGET of our array
+			BasicBlockInterface bb = site.getBasicBlock();
+			if (bb == null) continue;
+			CodeLineInterface cl = site.getCodeLine();
+			/*
+			 * We found an opcode that loads our array of interest, ca, into a register.
+			 * Now check if we find any APUTs in this array, do this search forward through the BBs!
+			 */
+			if (DEBUG) LOGGER.debug(" Found array-get, cl="+cl);
+			BasicBlockPath path = ctt.getPath(); // add BB to the path, search begins at last BB in path
+			path.addLast(bb);
+			forwardFindAPuts(site.getIndex(), cl.getInstruction().getResultRegister(), ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path);
 		}
 	}
 	
@@ -981,8 +1380,8 @@ public class DetectionLogic {
 	 * @param fuzzyLevelOffset
 	 * @param path the current path INCLUDING the BB to search in as the last BB (use a new object otherwise things might go boom), path contains bb!
 	 */
-	private void forwardFindAPuts(int codeLineIndex, byte[] arrayReg, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) {
-		if (DEBUG) LOGGER.debug("ForwardFindAPuts: index="+codeLineIndex+", array reg="+new String(arrayReg));
+	private void forwardFindAPuts(int codeLineIndex, int arrayReg, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
+		if (DEBUG) LOGGER.debug("ForwardFindAPuts: index="+codeLineIndex+", array reg="+Registers.toString(arrayReg));
 		BasicBlockInterface bb = path.getLast();
 		BBList bbl = new BBList(path, arrayReg, false); // it is a forward search
 		CodeLineInterface cl;
@@ -999,21 +1398,22 @@ public class DetectionLogic {
 		}
 		
 		while ((bb = bbl.getNextBb()) != null) { // check all BBs
+			countVisitedBB();
 			for (int i=codeLineIndex; i<bb.getCodeLines().size(); i++) { // check all codelines in the BB
 				// TODO: what about MOVE opcodes? 
 				cl = bb.getCodeLines().get(i);
 				if (DEBUG) LOGGER.debug(" cl="+cl);
 				InstructionInterface instruction = cl.getInstruction();
-				byte[] targetReg = instruction.getResultRegister();
-				if ((!(instruction.getType() == InstructionType.APUT)) && Arrays.equals(arrayReg, targetReg)) {
+				int targetReg = instruction.getResultRegister();
+				if ((!(instruction.getType() == InstructionType.APUT)) && arrayReg == targetReg) {
 					// something overwrote our array register: we're done with this path.
 					bbl.removeLastBBFromList();
 					break;
 				}
-				else if ((instruction.getType() == InstructionType.APUT) && Arrays.equals(arrayReg, targetReg)) {
+				else if ((instruction.getType() == InstructionType.APUT) && arrayReg == targetReg) {
 					// we found an APUT and it copies into our array (register)
-					byte[] regCopiedIntoArray = instruction.getInvolvedRegisters().getFirst();
-					if (DEBUG) LOGGER.debug("Found an APUT for our array, backtracking reg="+new String(regCopiedIntoArray));
+					int regCopiedIntoArray = instruction.getInvolvedRegisters()[0];
+					if (DEBUG) LOGGER.debug("Found an APUT for our array, backtracking reg="+Registers.toString(regCopiedIntoArray));
 					// backtracking register later
 					RegisterSearch rs = new RegisterSearch(regCopiedIntoArray, bb, i, fuzzyLevel, fuzzyLevelOffset, bbl.getPathForLastBB()); // bb will later be added to the path
 					todoList.addRegisterToTrack(rs);
@@ -1040,41 +1440,29 @@ public class DetectionLogic {
 	 */
 	private void findArrayPuts(ClassContentTracker ctt) throws SyntaxException, DetectionLogicError {
 		if (DEBUG) LOGGER.debug("findArrayPuts, ctt="+ctt);
-		for (ClassInterface sf : app.getAllSmaliClasss(false)) { // search through all SmaliClasses, Methods and BBs
-			for (MethodInterface m : sf.getMethods()) {
-				for (BasicBlockInterface bb : m.getBasicBlocks()) {
-					LinkedList<CodeLineInterface> codeLines = bb.getCodeLines();
-					for (int i=0; i<codeLines.size(); i++ ) {
-						CodeLineInterface cl = codeLines.get(i);
-						InstructionInterface instruction = cl.getInstruction();
-						if (instruction.getType() == InstructionType.PUT) {
-							/*
-							 * Either iGET or sGET. Check if the field which gets assigned is our searched array.
-							 */
-							byte[][] fieldName = instruction.getResultField();
-							if (Arrays.equals(ctt.getCi()[0], fieldName[0]) && Arrays.equals(ctt.getCi()[1], fieldName[1])) {
-								/*
-								 * We found an opcode that stores our array of interest, ca, into a field.
-								 * Now check if we find any APUTs in this array, do this search backwards through the BBs!
-								 */
-								byte[] arrayReg = instruction.getInvolvedRegisters().getFirst(); // this is our array!
-								// Search the previous opcodes
-								LinkedList<BasicBlockInterface> path = ctt.getPath();
-								path.addLast(bb);
-								backwardFindAPuts(i, arrayReg, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path);
-								/*
-								 * Also look at the following opcodes and check if our array register gets overwritten. It is possible
-								 * to first create an array, assign it to a field, and put values into the array "directly through
-								 * the local array object". 
-								 */
-								LinkedList<BasicBlockInterface> path2 = new LinkedList<BasicBlockInterface>(path); // we need a copy
-								path2.add(bb);
-								forwardFindAPuts(i, arrayReg, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path2);
-							}
-						}
-					}
-				}
-			}
+		int[] fieldSymbols = lookupField(ctt.getCi());
+		if (fieldSymbols == null) return; // the field is never accessed
+		for (CodeSite site : app.getFieldAccessIndex().getWrites(fieldSymbols)) { // either IPUT or SPUT into our array field
+			BasicBlockInterface bb = site.getBasicBlock();
+			if (bb == null) continue;
+			int i = site.getIndex();
+			/*
+			 * We found an opcode that stores our array of interest, ca, into a field.
+			 * Now check if we find any APUTs in this array, do this search backwards through the BBs!
+			 */
+			int arrayReg = site.getCodeLine().getInstruction().getInvolvedRegisters()[0]; // this is our array!
+			// Search the previous opcodes
+			BasicBlockPath path = ctt.getPath();
+			path.addLast(bb);
+			backwardFindAPuts(i, arrayReg, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path);
+			/*
+			 * Also look at the following opcodes and check if our array register gets overwritten. It is possible
+			 * to first create an array, assign it to a field, and put values into the array "directly through
+			 * the local array object". 
+			 */
+			BasicBlockPath path2 = new BasicBlockPath(path); // we need a copy
+			path2.addLast(bb);
+			forwardFindAPuts(i, arrayReg, ctt.getFuzzyLevel(), ctt.getFuzzyOffset(), path2);
 		}
 	}
 	
@@ -1094,14 +1482,15 @@ public class DetectionLogic {
 	 * @throws SyntaxException
 	 * @throws DetectionLogicError 
 	 */
-	private void backwardFindAPuts(int codeLineIndex, byte[] arrayReg, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) throws SyntaxException, DetectionLogicError {
-		if (DEBUG) LOGGER.debug("BackwardFindAPuts: index="+codeLineIndex+", arrayReg="+new String(arrayReg));
+	private void backwardFindAPuts(int codeLineIndex, int arrayReg, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) throws SyntaxException, DetectionLogicError {
+		if (DEBUG) LOGGER.debug("BackwardFindAPuts: index="+codeLineIndex+", arrayReg="+Registers.toString(arrayReg));
 		CodeLineInterface cl;
 		boolean firstRun = true;
 		BasicBlockInterface bb = path.getLast();
 		
 		BBList bbl = new BBList(path, arrayReg);
 		while ((bb = bbl.getNextBb()) != null) {
+			countVisitedBB();
 			if (!firstRun) {
 				codeLineIndex = bb.getCodeLines().size()-1; // for new BBs begin at the end of the BB
 			}
@@ -1111,11 +1500,11 @@ public class DetectionLogic {
 				cl = bb.getCodeLines().get(i);
 				if (DEBUG) LOGGER.debug(" Handling cl="+cl);
 				InstructionInterface instruction = cl.getInstruction();
-				byte[] targetReg = instruction.getResultRegister();
-				if ((instruction.getType() == InstructionType.APUT) && Arrays.equals(arrayReg, targetReg)) {
+				int targetReg = instruction.getResultRegister();
+				if ((instruction.getType() == InstructionType.APUT) && arrayReg == targetReg) {
 					// we found an APUT and it copies into our array (register)
-					byte[] regCopiedIntoArray = instruction.getInvolvedRegisters().getFirst();
-					if (DEBUG) LOGGER.debug("Found an APUT for our array, backtracking reg="+new String(regCopiedIntoArray));
+					int regCopiedIntoArray = instruction.getInvolvedRegisters()[0];
+					if (DEBUG) LOGGER.debug("Found an APUT for our array, backtracking reg="+Registers.toString(regCopiedIntoArray));
 					// backtracking register later
 					RegisterSearch rs = new RegisterSearch(regCopiedIntoArray, bb, i, fuzzyLevel, fuzzyLevelOffset, bbl.getPathForLastBB());
 					todoList.addRegisterToTrack(rs);
@@ -1123,7 +1512,7 @@ public class DetectionLogic {
 				else if ( // array creation/initialization
 						( (instruction.getType() == InstructionType.FILL_ARRAY_DATA) 
 						|| (instruction.getType() == InstructionType.NEW_ARRAY)
-						) && Arrays.equals(arrayReg, targetReg)) {
+						) && arrayReg == targetReg) {
 					/*	It might be something like this:
 					 *  const/4 v0, 0x3
 					 *  new-array v0, v0, [I							  <-- found
@@ -1132,19 +1521,18 @@ public class DetectionLogic {
 					 */
 					ConstantInterface c = new Constant(cl, fuzzyLevel, bbl.getPathForLastBB(), searchId);
 					if (DEBUG) LOGGER.debug(" Found constant. c="+c);
-					backtrackRequest.addFoundConstant(c);
+					addFoundConstant(c);
 					return;
 				}
-				else if ((!(instruction.getType() == InstructionType.APUT)) && Arrays.equals(arrayReg, targetReg)) {
+				else if ((!(instruction.getType() == InstructionType.APUT)) && arrayReg == targetReg) {
 					// something overwrote our array register: we're done.			
 					if (DEBUG) LOGGER.debug(" ArrayReg overwritten. Done.");
 					return;
 					
 				}
-				else if ((instruction.getType() == InstructionType.MOVE) && Arrays.equals(arrayReg, targetReg)) {
-					instruction.getInvolvedRegisters().getFirst();
-					if (DEBUG) LOGGER.debug(" ArrayReg moved, old="+new String(arrayReg)+", new="+new String(instruction.getInvolvedRegisters().getFirst()));
-					arrayReg = instruction.getInvolvedRegisters().getFirst();
+				else if ((instruction.getType() == InstructionType.MOVE) && arrayReg == targetReg) {
+					if (DEBUG) LOGGER.debug(" ArrayReg moved, old="+Registers.toString(arrayReg)+", new="+Registers.toString(instruction.getInvolvedRegisters()[0]));
+					arrayReg = instruction.getInvolvedRegisters()[0];
 				}
 				else {
 					// some unrelated opcode
@@ -1175,20 +1563,14 @@ public class DetectionLogic {
 	 * @param path the path (passed through)
 	 * @throws DetectionLogicError 
 	 */
-	private void handleInvoke(BasicBlockInterface bb, int index, byte[] register, boolean resultWasMoved, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) throws DetectionLogicError {
+	private void handleInvoke(BasicBlockInterface bb, int index, int register, boolean resultWasMoved, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) throws DetectionLogicError {
 		CodeLineInterface cl = bb.getCodeLines().get(index);
 		if (!(cl.getInstruction().getType() == InstructionType.INVOKE || cl.getInstruction().getType() == InstructionType.INVOKE_STATIC)) {
 			throw new DetectionLogicError("Wrong instruction, need INVOKE, but got: "+cl);
 		}
-		boolean methodKnown = true;
 		byte[][] cmp2 = cl.getInstruction().getCalledClassAndMethodWithParameter();
-		try {
-			app.getMethodByClassAndName(new String(cmp2[0]), new String(cmp2[1]), cmp2[2], cmp2[3]);
-		}
-		catch (ClassOrMethodNotFoundException e) {
-			if (DEBUG) LOGGER.debug("Unable to backtrack into method, will parse parameters only. "+e.getMessage());
-			methodKnown = false;
-		}
+		boolean methodKnown = summaries.get(cl.getInstruction().getCalledSymbols()).isKnown();
+		if (!methodKnown && DEBUG) LOGGER.debug("Unable to backtrack into method, will parse parameters only.");
 		if (methodKnown && resultWasMoved) {
 			if (DEBUG) LOGGER.debug("Will later backtrack RETURN values from "+new String(cmp2[0])+"."+new String(cmp2[1])+"("+new String(cmp2[2])+")");
 			// search for all returns in this method if it is known
@@ -1199,10 +1581,10 @@ public class DetectionLogic {
 			try {
 				if (DEBUG) LOGGER.debug("Adding constant for cl = "+cl);
 				ConstantInterface c = new Constant(cl, fuzzyLevel, path, searchId);
-				backtrackRequest.addFoundConstant(c);
+				addFoundConstant(c);
 			} catch (SyntaxException e) {
 				LOGGER.error("Could not add found method to found constants", e);
-				backtrackRequest.logException(e);
+				logException(e);
 			}
 		}
 
@@ -1213,9 +1595,10 @@ public class DetectionLogic {
 		 * Do not backtrack the actual backtracked register (again).
 		 */
 		boolean increaseFuzzyness;
-		for (int i = 0; i< cl.getInstruction().getInvolvedRegisters().size(); i++) {
+		int[] registers = cl.getInstruction().getInvolvedRegisters();
+		for (int i = 0; i < registers.length; i++) {
 			increaseFuzzyness = true;
-			byte[] reg = cl.getInstruction().getInvolvedRegisters().get(i);
+			int reg = registers[i];
 			if (i == 0 && !(cl.getInstruction().getType() == InstructionType.INVOKE_STATIC)) {
 				/*
 				 * Skip the first parameter for non-static invokes, if it references the class object, ("this").
@@ -1236,7 +1619,7 @@ public class DetectionLogic {
 				 * So for non-static invokes we ignore the first parameter/register if it is p0, otherwise we track it.
 				 * Static invokes are not affected.
 				 */
-				if (Arrays.equals(reg, P0_THIS)) continue;
+				if (reg == P0_THIS) continue;
 				else {
 					/*
 					 * Do not increment it for v1 in the example above, otherwise v2 would be tagged w/ a value of +2,
@@ -1247,7 +1630,7 @@ public class DetectionLogic {
 					increaseFuzzyness = false;
 				}
 			}
-			if (!resultWasMoved && Arrays.equals(reg, register)) {
+			if (!resultWasMoved && reg == register) {
 				/* Skip the register which is currently backtracked but only
 				 * do it if the result was not moved. If it was moved, eg,
 				 * StringBuilder.toString() we still need to track the
@@ -1257,7 +1640,7 @@ public class DetectionLogic {
 				 */
 				continue;
 			}
-			if (DEBUG) LOGGER.debug(" Adding parameterIndex/register: "+i+"/"+new String(reg));
+			if (DEBUG) LOGGER.debug(" Adding parameterIndex/register: "+i+"/"+Registers.toString(reg));
 			int fl;
 			if (increaseFuzzyness) fl = fuzzyLevel+1;
 			else fl = fuzzyLevel;
@@ -1275,8 +1658,8 @@ public class DetectionLogic {
 	 * @param register
 	 * @return
 	 */
-	private boolean doesRegisterMatch(InstructionInterface instruction, byte[] register) {
-		return ByteUtils.equals(instruction.getResultRegister(), register);
+	private boolean doesRegisterMatch(InstructionInterface instruction, int register) {
+		return register != Registers.NONE && instruction.getResultRegister() == register;
 	}
 	
 	/**
@@ -1335,10 +1718,10 @@ public class DetectionLogic {
 	 * @param path the path (passed through)
 	 * @throws DetectionLogicError if the opcode in cl is not of type FILLED_NEW_ARRAY
 	 */
-	private void handleFilledNewArray(BasicBlockInterface bb, CodeLineInterface cl, int index, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) throws DetectionLogicError {
+	private void handleFilledNewArray(BasicBlockInterface bb, CodeLineInterface cl, int index, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) throws DetectionLogicError {
 		if (cl.getInstruction().getType() != InstructionType.FILLED_NEW_ARRAY) throw new DetectionLogicError("Expected FILLED_NEW_ARRAY opcode, but code cl="+cl);
 		// parse the involved registers and track them back
-		for (byte[] register : cl.getInstruction().getInvolvedRegisters()) {
+		for (int register : cl.getInstruction().getInvolvedRegisters()) {
 			RegisterSearch rs = new RegisterSearch(register, bb, index, fuzzyLevel, fuzzyLevelOffset, path);
 			todoList.addRegisterToTrack(rs);
 		}
@@ -1346,6 +1729,95 @@ public class DetectionLogic {
 
     
     private static final byte[] WILDCARD = { '*' };
+
+	/**
+	 * Matches every ID, see {@link #lookupCmp(byte[][], boolean)}.
+	 */
+	private static final int ANY_SYMBOL = InvokeIndex.ANY;
+
+	/**
+	 * Whether the classes of ad frameworks have been parsed and added to the invoke index.
+	 */
+	private boolean allClassesIndexed = false;
+
+	/**
+	 * Look up the IDs of a searched class, method and its parameters in the symbol table of the app.
+	 * Missing parameters match every invoke, see {@link #findInvokes(byte[][], int, int, BasicBlockPath)}.
+	 * A descriptor which is not in the table matches nothing.
+	 * 
+	 * @param cmp the class, method and its parameters
+	 * @param allowWildcard whether the class {@link #WILDCARD} matches every class
+	 * @return the IDs for {@link #isCalled(InstructionInterface, int[])}
+	 */
+	private int[] lookupCmp(byte[][] cmp, boolean allowWildcard) {
+		SymbolTable symbols = app.getSymbolTable();
+		int[] ids = new int[3];
+		ids[0] = allowWildcard && Arrays.equals(cmp[0], WILDCARD) ? ANY_SYMBOL : symbols.lookup(cmp[0]);
+		ids[1] = symbols.lookup(cmp[1]);
+		ids[2] = cmp[2] == null ? ANY_SYMBOL : symbols.lookup(cmp[2]);
+		return ids;
+	}
+
+	/**
+	 * @param invoke an INVOKE or INVOKE_STATIC instruction
+	 * @param cmpSymbols see {@link #lookupCmp(byte[][], boolean)}
+	 * @return true if the instruction invokes the method
+	 */
+	private static boolean isCalled(InstructionInterface invoke, int[] cmpSymbols) {
+		int[] called = invoke.getCalledSymbols();
+		for (int k = 0; k < cmpSymbols.length; k++) {
+			if (cmpSymbols[k] != ANY_SYMBOL && cmpSymbols[k] != called[k]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The symbols of a field access are interned when its instruction is parsed. If the classes are
+	 * parsed lazily, this may not have happened yet, so the field access index, which parses all
+	 * field accesses, is built before the lookup.
+	 * 
+	 * @param cf the class and the field name
+	 * @return the IDs of the class and the field name or null if no instruction accesses the field
+	 */
+	private int[] lookupField(byte[][] cf) {
+		app.getFieldAccessIndex();
+		SymbolTable symbols = app.getSymbolTable();
+		int[] ids = { symbols.lookup(cf[0]), symbols.lookup(cf[1]) };
+		if (ids[0] == SymbolTable.NONE || ids[1] == SymbolTable.NONE) return null;
+		return ids;
+	}
+    
+	/**
+	 * The classes of ad frameworks are only parsed on demand. If they are to be searched, parse them
+	 * and add them to the invoke index and the symbol table. This must happen before any symbol is
+	 * looked up, otherwise the symbols which only occur in these classes are not found.
+	 */
+	private void indexAllClasses() {
+		if (!allClassesIndexed && Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS)) {
+			app.getAllSmaliClasss(true);
+			allClassesIndexed = true;
+		}
+	}
+    
+	/**
+	 * Query the invoke index of the app instead of scanning all classes, see {@link #indexAllClasses()}.
+	 * 
+	 * @param cmp the class, method and its parameters, the class cmp[0] may be the wildcard '*'
+	 * @return the invokes in the classes which are to be searched
+	 */
+	private List<CodeSite> findCallSites(byte[][] cmp) {
+		indexAllClasses();
+		int[] cmpSymbols = lookupCmp(cmp, true);
+		boolean includeAds = Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS);
+		List<CodeSite> sites = app.getInvokeIndex().find(cmpSymbols[0], cmpSymbols[1], cmpSymbols[2]);
+		if (!includeAds) {
+			Iterator<CodeSite> iter = sites.iterator();
+			while (iter.hasNext()) {
+				if (iter.next().getCodeLine().getSmaliClass().isInAdFrameworkPackage()) iter.remove();
+			}
+		}
+		return sites;
+	}
     
     /**
      * Find all invokes in all files and return all corresponding RegisterSearch objects in a list.
@@ -1358,7 +1830,7 @@ public class DetectionLogic {
      * @throws DetectionLogicError 
      * @return the number of found invokes
      */
-    private int findInvokesAndAddToTodoList(byte[][] cmp, int parameterIndex, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) throws DetectionLogicError {
+    private int findInvokesAndAddToTodoList(byte[][] cmp, int parameterIndex, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) throws DetectionLogicError {
 		LinkedList<RegisterSearch> rsList = findInvokes(cmp, parameterIndex, fuzzyLevel, path);
 		
 		for (RegisterSearch rs : rsList) {
@@ -1380,10 +1852,23 @@ public class DetectionLogic {
      * @throws DetectionLogicError 
      * @return the number of found invokes
      */
-    private LinkedList<RegisterSearch> findInvokes(byte[][] cmp, int parameterIndex, int fuzzyLevel, LinkedList<BasicBlockInterface> path) throws DetectionLogicError {
+    private LinkedList<RegisterSearch> findInvokes(byte[][] cmp, int parameterIndex, int fuzzyLevel, BasicBlockPath path) throws DetectionLogicError {
 		LinkedList<RegisterSearch> rsList = new LinkedList<TodoList.RegisterSearch>();
-		boolean noSignatureGiven = false;
+		boolean noSignatureGiven = isFuzzyInvoke(cmp);
 		
+		for (CodeSite site : findCallSites(cmp)) {
+			if (site.getBasicBlock() == null) continue; // the invoke is not part of a method with BBs
+			RegisterSearch rs = createInvokeSearch(site, parameterIndex, noSignatureGiven, fuzzyLevel, path);
+			if (rs != null) rsList.addLast(rs);
+		}
+		return rsList;
+    }
+    
+    /**
+     * @param cmp the class, method and its parameters
+     * @return true if no method signature is given, see {@link #createInvokeSearch(CodeSite, int, boolean, int, BasicBlockPath)}
+     */
+    private static boolean isFuzzyInvoke(byte[][] cmp) {
 		if (cmp[2] == null) {
 			/*
 			 * This "workaround" mimics the old search behavior where overloaded methods
@@ -1393,67 +1878,53 @@ public class DetectionLogic {
 			 * second Part of the workaround (see down)
 			 */
 			LOGGER.error("No parameter signature given while searching for invoke "+new String(cmp[0])+"->"+new String(cmp[1])+"(???). Search is fuzzy. Please define the signature!");
-			noSignatureGiven = true;
+			return true;
 		}
-		
-		Vector<File> fvec = app.getAllRawSmaliFiles(Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS));
-		for (File file : fvec) {
-			ClassInterface sfile = app.getSmaliClass(file);
-			if (sfile == null) {
-				LOGGER.error("Could not find SMALI file for raw file `"+file+"`. SmaliClass object most probably threw an exception while parsing it. Ignoring this one.");
-				continue;
-			}
-			for (MethodInterface m : sfile.getMethods()) {
-//				if (DEBUG) LOGGER.debug("Looking in method: "+file.getName()+"."+m.getName()+"()");
-				for (BasicBlockInterface bb : m.getBasicBlocks()) {
-					for (CodeLineInterface cl : bb.getCodeLines()) {
-						InstructionInterface i = cl.getInstruction();
-						if (i.getType() == InstructionType.INVOKE || i.getType() == InstructionType.INVOKE_STATIC) {
-							if ( (Arrays.equals(cmp[0], WILDCARD) || Arrays.equals(i.getCalledClassAndMethodWithParameter()[0], cmp[0]) )
-								&& Arrays.equals(i.getCalledClassAndMethodWithParameter()[1], cmp[1])
-								&& (
-									cmp[2] == null // second part of workaround (see above)
-									|| Arrays.equals(i.getCalledClassAndMethodWithParameter()[2], cmp[2]))) {
-								// we found the method!
-								if (DEBUG) LOGGER.debug(" Found a method w/ correct invoke "+new String(cmp[0])+"->"+new String(cmp[1])+"("+new String(i.getCalledClassAndMethodWithParameter()[2])+") in line "+cl.getLineNr());
-								boolean isStaticCall = false;
-								if (i.getType() == InstructionType.INVOKE_STATIC) {
-									isStaticCall = true;
-									if (DEBUG) LOGGER.debug("  Invoke is static");
-								}
-								LinkedList<byte[]> regs = i.getInvolvedRegisters();
-								
-								//  Found a method w/ correct invoke
-								// 	invoke-direct {v0}, Landroid/content/IntentFilter;-><init>()V
-								byte[] register;
-								int realParameterIndex = parameterIndex;
-								if (!isStaticCall) {
-									realParameterIndex++;
-								}
-								if (noSignatureGiven && realParameterIndex >= regs.size()) {
-									// this will not work, we skip this invoke. It is always better to define the method signature
-									LOGGER.info("Could not backtrack, parameterIndex "+realParameterIndex+" is out of range! No method signature defined. cl="+cl);
-									continue;
-								}
-								else if (realParameterIndex >= regs.size() || realParameterIndex < 0) {
-									// This should not happen!
-									throw new DetectionLogicError("Could not backtrack, parameterIndex "+realParameterIndex+" is out of range! cl="+cl);
-								}
-								register = regs.get(realParameterIndex);
-								int index = bb.getCodeLines().indexOf(cl); // FIXME make if better and faster
+		return false;
+    }
+    
+    /**
+     * Create the RegisterSearch for a parameter of an invoke. This method automatically handles static invokes.
+     * @param site the invoke, it must have a BB
+     * @param parameterIndex the parameter index to track
+     * @param noSignatureGiven see {@link #isFuzzyInvoke(byte[][])}
+     * @param fuzzyLevel
+     * @param path the path (passed through)
+     * @return the RegisterSearch or null if the invoke is skipped
+     * @throws DetectionLogicError if the parameter index is out of range
+     */
+    private RegisterSearch createInvokeSearch(CodeSite site, int parameterIndex, boolean noSignatureGiven, int fuzzyLevel, BasicBlockPath path) throws DetectionLogicError {
+		CodeLineInterface cl = site.getCodeLine();
+		InstructionInterface i = cl.getInstruction();
+		// we found the method!
+		if (DEBUG) LOGGER.debug(" Found a method w/ correct invoke "+new String(i.getCalledClassAndMethodWithParameter()[0])+"->"+new String(i.getCalledClassAndMethodWithParameter()[1])+"("+new String(i.getCalledClassAndMethodWithParameter()[2])+") in line "+cl.getLineNr());
+		boolean isStaticCall = false;
+		if (i.getType() == InstructionType.INVOKE_STATIC) {
+			isStaticCall = true;
+			if (DEBUG) LOGGER.debug("  Invoke is static");
+		}
+		int[] regs = i.getInvolvedRegisters();
 
-								int lvl = fuzzyLevel;
-								if (noSignatureGiven) lvl++;
-								RegisterSearch rs = new RegisterSearch(register, bb, index, lvl, 0, path);
-								rsList.addLast(rs);
-							}
-//							else { /* invoke did not match */ }
-						}
-					}
-				}
-				
-			}
+		//  Found a method w/ correct invoke
+		// 	invoke-direct {v0}, Landroid/content/IntentFilter;-><init>()V
+		int register;
+		int realParameterIndex = parameterIndex;
+		if (!isStaticCall) {
+			realParameterIndex++;
 		}
-		return rsList;
+		if (noSignatureGiven && realParameterIndex >= regs.length) {
+			// this will not work, we skip this invoke. It is always better to define the method signature
+			LOGGER.info("Could not backtrack, parameterIndex "+realParameterIndex+" is out of range! No method signature defined. cl="+cl);
+			return null;
+		}
+		else if (realParameterIndex >= regs.length || realParameterIndex < 0) {
+			// This should not happen!
+			throw new DetectionLogicError("Could not backtrack, parameterIndex "+realParameterIndex+" is out of range! cl="+cl);
+		}
+		register = regs[realParameterIndex];
+
+		int lvl = fuzzyLevel;
+		if (noSignatureGiven) lvl++;
+		return new RegisterSearch(register, site.getBasicBlock(), site.getIndex(), lvl, 0, path);
     }
 }
@@ -0,0 +1,213 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import de.rub.syssec.saaf.application.SymbolTable;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.ClassOrMethodNotFoundException;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionType;
+
+/**
+ * Summaries of the methods of an application which are invoked during a
+ * search: whether the invoked method is part of the application, where
+ * it returns a value and what flows into its return values. A summary is
+ * created once and shared by all searches of all slicing criteria.
+ *
+ * The constants, fields and parameters which flow into the return values
+ * are stored relative to the method entry and rebased onto the fuzzy level
+ * and the path of each search which reuses them, see {@link ReturnValueSummary}.
+ *
+ * All methods are threadsafe.
+ */
+public final class MethodSummaries {
+
+	/**
+	 * The summary of an invoked method.
+	 */
+	public static final class MethodSummary {
+		private final MethodInterface method;
+		private final boolean known;
+		private final String lostTrack;
+		private List<ReturnSite> returnSites = null; // guarded by this
+		private final HashMap<List<Integer>, ReturnValueSummary> returnValues = new HashMap<List<Integer>, ReturnValueSummary>(); // guarded by this
+
+		private MethodSummary(MethodInterface method, boolean known, String lostTrack) {
+			this.method = method;
+			this.known = known;
+			this.lostTrack = lostTrack;
+		}
+
+		/**
+		 * @return true if the invoked method is part of the application
+		 */
+		public boolean isKnown() {
+			return known;
+		}
+
+		/**
+		 * @return the invoked method
+		 * @throws ClassOrMethodNotFoundException if the class or the method is not part of the application
+		 */
+		public MethodInterface getMethod() throws ClassOrMethodNotFoundException {
+			if (!known) throw new ClassOrMethodNotFoundException(lostTrack);
+			return method;
+		}
+
+		/**
+		 * @return all RETURN opcodes of the method in the order of its BBs, the list must not be modified
+		 * @throws ClassOrMethodNotFoundException if the class or the method is not part of the application
+		 */
+		public synchronized List<ReturnSite> getReturnSites() throws ClassOrMethodNotFoundException {
+			if (returnSites == null) {
+				List<ReturnSite> sites = new ArrayList<ReturnSite>();
+				for (BasicBlockInterface bb : getMethod().getBasicBlocks()) {
+					for (int i=0; i<bb.getCodeLines().size(); i++) {
+						if (bb.getCodeLines().get(i).getInstruction().getType() == InstructionType.RETURN) {
+							sites.add(new ReturnSite(bb, i));
+						}
+					}
+				}
+				returnSites = Collections.unmodifiableList(sites);
+			}
+			return returnSites;
+		}
+
+		/**
+		 * Get the summary of the return values for a search which enters the method w/ a given
+		 * fuzzy level and offset.
+		 * @param fuzzyLevel the fuzzy level
+		 * @param fuzzyLevelOffset the offset
+		 * @param maxFuzzyLevel the maximum fuzzy level of the search
+		 * @return the summary or null if none was recorded yet
+		 */
+		synchronized ReturnValueSummary getReturnValues(int fuzzyLevel, int fuzzyLevelOffset, int maxFuzzyLevel) {
+			return returnValues.get(Arrays.asList(fuzzyLevel, fuzzyLevelOffset, maxFuzzyLevel));
+		}
+
+		/**
+		 * Store the summary of the return values, it replaces a summary w/ the same fuzzy level,
+		 * offset and maximum fuzzy level.
+		 * @param summary the summary
+		 */
+		synchronized void setReturnValues(ReturnValueSummary summary) {
+			returnValues.put(Arrays.asList(summary.getFuzzyLevel(), summary.getFuzzyOffset(), summary.getMaxFuzzyLevel()), summary);
+		}
+	}
+
+	/**
+	 * A RETURN opcode and its BB.
+	 */
+	public static final class ReturnSite {
+		private final BasicBlockInterface bb;
+		private final int index;
+
+		private ReturnSite(BasicBlockInterface bb, int index) {
+			this.bb = bb;
+			this.index = index;
+		}
+
+		public BasicBlockInterface getBB() {
+			return bb;
+		}
+
+		/**
+		 * @return the index of the RETURN in the code lines of the BB
+		 */
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	private final ApplicationInterface app;
+	private final HashMap<List<Integer>, MethodSummary> summaries = new HashMap<List<Integer>, MethodSummary>(); // guarded by this
+
+	/**
+	 * @param app the application whose methods are summarized
+	 */
+	public MethodSummaries(ApplicationInterface app) {
+		this.app = app;
+	}
+
+	/**
+	 * Get the summary of an invoked method.
+	 * @param cmpr the class, the method, its parameters and its return value, see
+	 *        {@link de.rub.syssec.saaf.model.application.instruction.InstructionInterface#getCalledClassAndMethodWithParameter()}
+	 * @return the summary
+	 */
+	public MethodSummary get(byte[][] cmpr) {
+		SymbolTable symbols = app.getSymbolTable();
+		int[] ids = new int[cmpr.length];
+		for (int i=0; i<cmpr.length; i++) {
+			ids[i] = symbols.lookup(cmpr[i]);
+			if (ids[i] == SymbolTable.NONE) return summarize(cmpr); // not invoked anywhere, do not cache it
+		}
+		return get(ids);
+	}
+
+	/**
+	 * Get the summary of an invoked method.
+	 * @param calledSymbols the IDs of the class, the method, its parameters and its return value, see
+	 *        {@link de.rub.syssec.saaf.model.application.instruction.InstructionInterface#getCalledSymbols()}
+	 * @return the summary
+	 */
+	public MethodSummary get(int[] calledSymbols) {
+		List<Integer> key = new ArrayList<Integer>(calledSymbols.length);
+		for (int id : calledSymbols) key.add(id);
+		synchronized (this) {
+			MethodSummary summary = summaries.get(key);
+			if (summary != null) return summary;
+		}
+		SymbolTable symbols = app.getSymbolTable();
+		byte[][] cmpr = new byte[calledSymbols.length][];
+		for (int i=0; i<calledSymbols.length; i++) {
+			cmpr[i] = symbols.get(calledSymbols[i]);
+		}
+		// summarize w/o holding the lock, the class may have to be parsed first
+		MethodSummary summary = summarize(cmpr);
+		synchronized (this) {
+			MethodSummary other = summaries.get(key);
+			if (other != null) return other;
+			summaries.put(key, summary);
+			return summary;
+		}
+	}
+
+	/**
+	 * @return the number of cached summaries
+	 */
+	public synchronized int size() {
+		return summaries.size();
+	}
+
+	private MethodSummary summarize(byte[][] cmpr) {
+		try {
+			MethodInterface m = app.getMethodByClassAndName(new String(cmpr[0]), new String(cmpr[1]), cmpr[2], cmpr[3]);
+			return new MethodSummary(m, true, null);
+		}
+		catch (ClassOrMethodNotFoundException e) {
+			return new MethodSummary(null, false, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.rub.syssec.saaf.analysis.steps.slicing.TodoList.ClassContentTracker;
+import de.rub.syssec.saaf.analysis.steps.slicing.TodoList.RegisterSearch;
+import de.rub.syssec.saaf.application.instructions.Constant;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionInterface;
+
+/**
+ * What a search finds behind the return values of a method: the constants, the
+ * fields, the arrays and the return values of invoked methods which flow into
+ * them.
+ *
+ * The summary is recorded by a search which starts at the RETURN opcodes of the
+ * method with an empty path and only runs the register searches inside the method.
+ * The fields, arrays and return values of invoked methods are only recorded, the
+ * search which reuses the summary adds them to its own TodoList.
+ *
+ * A summary is only reused if all register searches stay inside the method, see
+ * {@link #leavesMethod()}. Such a search runs all of them before it runs any other
+ * job and it adds no other register search, so the search which reuses the summary
+ * finds the same constants and adds the same jobs in the same order. If a returned
+ * value depends on a parameter, the search continues in the callers and the method
+ * is searched as usual.
+ *
+ * The paths are relative to the method entry, they start at a RETURN opcode. The
+ * fuzzy levels are relative to the level with which the method is entered. A search
+ * which reuses the summary rebases both onto its own path and level, see
+ * {@link #rebase(int, int)}. The {@link TodoList} drops jobs by their absolute fuzzy
+ * level and offset, a method therefore gets one summary per level, offset and
+ * maximum level with which it is entered, see
+ * {@link MethodSummaries.MethodSummary#getReturnValues(int, int, int)}.
+ *
+ * A summary does not change after it was recorded and can be shared by all searches.
+ */
+final class ReturnValueSummary {
+
+	/**
+	 * The kind of a recorded event.
+	 */
+	enum Kind {
+		/** A register search inside the method is run */
+		SEARCH,
+		/** A constant is found */
+		CONSTANT,
+		/** A field is added */
+		FIELD,
+		/** The return values of an invoked method are added */
+		RETURN_VALUES,
+		/** An array field is added */
+		ARRAY,
+		/** An exception or error is logged */
+		ERROR
+	}
+
+	/**
+	 * Something the search did.
+	 */
+	static final class Event {
+		private final Kind kind;
+		private final RegisterSearch rs;
+		private final ClassContentTracker ctt;
+		private final Constant constant;
+		private final Throwable error;
+
+		private Event(Kind kind, RegisterSearch rs, ClassContentTracker ctt, Constant constant, Throwable error) {
+			this.kind = kind;
+			this.rs = rs;
+			this.ctt = ctt;
+			this.constant = constant;
+			this.error = error;
+		}
+
+		Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the RS of a SEARCH event
+		 */
+		RegisterSearch getRegisterSearch() {
+			return rs;
+		}
+
+		/**
+		 * @return the field, method or array of a FIELD, RETURN_VALUES or ARRAY event
+		 */
+		ClassContentTracker getClassContentTracker() {
+			return ctt;
+		}
+
+		/**
+		 * @return the constant of a CONSTANT event
+		 */
+		Constant getConstant() {
+			return constant;
+		}
+
+		/**
+		 * @return the exception or error of an ERROR event
+		 */
+		Throwable getError() {
+			return error;
+		}
+	}
+
+	/**
+	 * The TodoList of a search which records a summary. The register searches inside the method
+	 * are queued and run as usual, all other jobs are only recorded. The register searches are
+	 * counted in the profiles of the given criteria, they are run for them.
+	 */
+	static final class Recorder extends TodoList {
+		private final MethodInterface method;
+		private final List<Event> events = new ArrayList<Event>();
+		private final List<InstructionInterface> invokes = new ArrayList<InstructionInterface>();
+		private int visitedBBs = 0;
+		private boolean leavesMethod = false;
+
+		/**
+		 * @param method the method whose return values are searched
+		 * @param maxFuzzyLevel the maximum fuzzy level of the search
+		 * @param criteria the criteria of the search which needs the summary
+		 */
+		Recorder(MethodInterface method, int maxFuzzyLevel, List<SlicingCriterion> criteria) {
+			super(maxFuzzyLevel, criteria);
+			this.method = method;
+		}
+
+		/**
+		 * A RS in another method is not queued, the summary cannot be reused.
+		 */
+		@Override
+		public boolean addRegisterToTrack(RegisterSearch rs) {
+			if (rs.getBB().getMethod() != method) {
+				leavesMethod = true;
+				return true;
+			}
+			return super.addRegisterToTrack(rs);
+		}
+
+		/**
+		 * @return true if a RS in another method was added, the search can stop
+		 */
+		boolean leavesMethod() {
+			return leavesMethod;
+		}
+
+		@Override
+		public RegisterSearch getNextRegisterToTrack() {
+			RegisterSearch rs = super.getNextRegisterToTrack();
+			if (rs != null) events.add(new Event(Kind.SEARCH, rs, null, null, null));
+			return rs;
+		}
+
+		@Override
+		public boolean addField(byte[][] cf, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
+			add(Kind.FIELD, cf, fuzzyLevel, fuzzyLevelOffset, path);
+			return true;
+		}
+
+		@Override
+		public boolean addReturnValuesFromMethod(byte[][] cm, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
+			add(Kind.RETURN_VALUES, cm, fuzzyLevel, fuzzyLevelOffset, path);
+			return true;
+		}
+
+		@Override
+		public boolean addArrayFieldToTrack(byte[][] ca, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
+			add(Kind.ARRAY, ca, fuzzyLevel, fuzzyLevelOffset, path);
+			return true;
+		}
+
+		private void add(Kind kind, byte[][] ci, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
+			events.add(new Event(kind, null, new ClassContentTracker(ci, fuzzyLevel, fuzzyLevelOffset, path), null, null));
+		}
+
+		void addConstant(Constant c) {
+			events.add(new Event(Kind.CONSTANT, null, null, c, null));
+		}
+
+		void logException(Throwable t) {
+			events.add(new Event(Kind.ERROR, null, null, null, t));
+		}
+
+		void countVisitedBB() {
+			visitedBBs++;
+		}
+
+		/**
+		 * Record an invoke which the search checked against the searched method, see
+		 * {@link ReturnValueSummary#getInvokes()}.
+		 * @param invoke the INVOKE instruction
+		 */
+		void addInvoke(InstructionInterface invoke) {
+			invokes.add(invoke);
+		}
+
+		/**
+		 * @param fuzzyLevel the fuzzy level with which the method was entered
+		 * @param fuzzyLevelOffset the offset with which the method was entered
+		 * @param cmpSymbols the searched method of the search
+		 * @return the summary of what was recorded
+		 */
+		ReturnValueSummary getSummary(int fuzzyLevel, int fuzzyLevelOffset, int[] cmpSymbols) {
+			return new ReturnValueSummary(this, fuzzyLevel, fuzzyLevelOffset, cmpSymbols);
+		}
+	}
+
+	private final MethodInterface method;
+	private final int fuzzyLevel;
+	private final int fuzzyLevelOffset;
+	private final int maxFuzzyLevel;
+	private final List<Event> events;
+	private final List<InstructionInterface> invokes;
+	private final int[] cmpSymbols;
+	private final int visitedBBs;
+	private final boolean leavesMethod;
+
+	private ReturnValueSummary(Recorder recorder, int fuzzyLevel, int fuzzyLevelOffset, int[] cmpSymbols) {
+		this.method = recorder.method;
+		this.fuzzyLevel = fuzzyLevel;
+		this.fuzzyLevelOffset = fuzzyLevelOffset;
+		this.maxFuzzyLevel = recorder.getMaxFuzzyLevel();
+		this.events = Collections.unmodifiableList(recorder.events);
+		this.invokes = Collections.unmodifiableList(recorder.invokes);
+		this.cmpSymbols = cmpSymbols;
+		this.visitedBBs = recorder.visitedBBs;
+		this.leavesMethod = recorder.leavesMethod;
+	}
+
+	/**
+	 * @return the method whose return values are summarized
+	 */
+	MethodInterface getMethod() {
+		return method;
+	}
+
+	/**
+	 * A summary which leaves the method is incomplete and must not be reused. The search stopped
+	 * when a returned value flowed into a RS in another method, eg, from a parameter.
+	 * @return true if the search added a RS in another method
+	 */
+	boolean leavesMethod() {
+		return leavesMethod;
+	}
+
+	/**
+	 * @return the fuzzy level with which the method was entered
+	 */
+	int getFuzzyLevel() {
+		return fuzzyLevel;
+	}
+
+	/**
+	 * @return the offset with which the method was entered
+	 */
+	int getFuzzyOffset() {
+		return fuzzyLevelOffset;
+	}
+
+	int getMaxFuzzyLevel() {
+		return maxFuzzyLevel;
+	}
+
+	/**
+	 * Rebase a recorded fuzzy level onto the level of a search which reuses the summary.
+	 * @param recordedLevel the level of a recorded job or constant
+	 * @param fuzzyLevel the level with which the search enters the method
+	 * @return the level of the job or constant in the search
+	 */
+	int rebase(int recordedLevel, int fuzzyLevel) {
+		return fuzzyLevel + recordedLevel - this.fuzzyLevel;
+	}
+
+	/**
+	 * @return the events in the order in which they happened, the events of a summary which
+	 *         leaves the method are incomplete
+	 */
+	List<Event> getEvents() {
+		return events;
+	}
+
+	/**
+	 * The invokes which the search checked against its searched method. It skips such an invoke
+	 * if it calls the searched method, so the summary only holds for searches which skip the same
+	 * invokes, see {@link #getCmpSymbols()}.
+	 * @return the INVOKE instructions
+	 */
+	List<InstructionInterface> getInvokes() {
+		return invokes;
+	}
+
+	/**
+	 * @return the searched method of the search which recorded the summary
+	 */
+	int[] getCmpSymbols() {
+		return cmpSymbols;
+	}
+
+	/**
+	 * @return the number of BBs the recording search scanned
+	 */
+	int getVisitedBBs() {
+		return visitedBBs;
+	}
+}
@@ -0,0 +1,152 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.rub.syssec.saaf.misc.config.ConfigInterface;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+
+/**
+ * The limits of the slicing searches of one APK. A search which exceeds a
+ * limit stops, keeps the constants found so far and marks its criterion as
+ * truncated, see {@link SlicingCriterion#isTruncated()}.
+ *
+ * Each register search scans one BB, the limits on register searches
+ * therefore also limit the number of visited BBs. A limit of 0 means no
+ * limit.
+ *
+ * One budget is shared by all searches of an APK, all methods are threadsafe.
+ */
+public final class SlicingBudget {
+
+	/**
+	 * The default maximum fuzzy level of a search.
+	 */
+	public static final int DEFAULT_MAX_FUZZY_LEVEL = 10;
+
+	/**
+	 * The default maximum number of register searches for one invoke of a criterion.
+	 */
+	public static final int DEFAULT_MAX_INVOKE_SEARCHES = 100000;
+
+	private final int maxFuzzyLevel;
+	private final int maxInvokeSearches;
+	private final int maxCriterionSearches;
+	private final long maxCriterionNanos;
+	private final int maxApkSearches;
+	private final long maxApkNanos;
+	private final long apkStart = System.nanoTime();
+	private final AtomicLong apkSearches = new AtomicLong();
+
+	/**
+	 * Create a budget w/ the default fuzzy level and invoke limit and w/o any other limit.
+	 */
+	public SlicingBudget() {
+		this(DEFAULT_MAX_FUZZY_LEVEL, DEFAULT_MAX_INVOKE_SEARCHES, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Create a budget. The time of the APK starts now.
+	 *
+	 * @param maxFuzzyLevel the maximum fuzzy level of a search
+	 * @param maxInvokeSearches the maximum number of register searches for one invoke of a criterion
+	 * @param maxCriterionSearches the maximum number of register searches for one criterion
+	 * @param maxCriterionMillis the maximum time in ms spent searching one criterion
+	 * @param maxApkSearches the maximum number of register searches for all criteria
+	 * @param maxApkMillis the maximum time in ms spent searching all criteria
+	 */
+	public SlicingBudget(int maxFuzzyLevel, int maxInvokeSearches, int maxCriterionSearches,
+			int maxCriterionMillis, int maxApkSearches, int maxApkMillis) {
+		this.maxFuzzyLevel = maxFuzzyLevel;
+		this.maxInvokeSearches = maxInvokeSearches;
+		this.maxCriterionSearches = maxCriterionSearches;
+		this.maxCriterionNanos = maxCriterionMillis * 1000000L;
+		this.maxApkSearches = maxApkSearches;
+		this.maxApkNanos = maxApkMillis * 1000000L;
+	}
+
+	/**
+	 * Create a budget from the analysis.backtrack.budget.* keys of the config. The time of the APK starts now.
+	 *
+	 * @param config the config
+	 * @return the budget
+	 */
+	public static SlicingBudget fromConfig(ConfigInterface config) {
+		return new SlicingBudget(
+				config.getIntConfigValue(ConfigKeys.SLICING_BUDGET_FUZZY_LEVEL, DEFAULT_MAX_FUZZY_LEVEL),
+				config.getIntConfigValue(ConfigKeys.SLICING_BUDGET_INVOKE_SEARCHES, DEFAULT_MAX_INVOKE_SEARCHES),
+				config.getIntConfigValue(ConfigKeys.SLICING_BUDGET_CRITERION_SEARCHES, 0),
+				config.getIntConfigValue(ConfigKeys.SLICING_BUDGET_CRITERION_TIME, 0),
+				config.getIntConfigValue(ConfigKeys.SLICING_BUDGET_APK_SEARCHES, 0),
+				config.getIntConfigValue(ConfigKeys.SLICING_BUDGET_APK_TIME, 0));
+	}
+
+	/**
+	 * @return the maximum fuzzy level of a search
+	 */
+	public int getMaxFuzzyLevel() {
+		return maxFuzzyLevel;
+	}
+
+	/**
+	 * Count a register search which is shared by one or more criteria.
+	 */
+	void countApkSearch() {
+		if (maxApkSearches > 0) apkSearches.incrementAndGet();
+	}
+
+	/**
+	 * @param invokeSearches the register searches for the current invoke
+	 * @return the exhausted limit or null
+	 */
+	String checkInvoke(int invokeSearches) {
+		if (maxInvokeSearches > 0 && invokeSearches > maxInvokeSearches) {
+			return "Reached maximum RS limit ("+maxInvokeSearches+") for one invoke";
+		}
+		return null;
+	}
+
+	/**
+	 * @return the exhausted limit of the APK or null
+	 */
+	String checkApk() {
+		if (maxApkSearches > 0 && apkSearches.get() >= maxApkSearches) {
+			return "Reached maximum RS limit ("+maxApkSearches+") for the APK";
+		}
+		if (maxApkNanos > 0 && System.nanoTime() - apkStart > maxApkNanos) {
+			return "Reached time limit for the APK";
+		}
+		return null;
+	}
+
+	/**
+	 * @param criterion the criterion
+	 * @param searchStart the {@link System#nanoTime()} when the current search started, its
+	 *        time is not yet added to the criterion
+	 * @return the exhausted limit of the criterion or null
+	 */
+	String checkCriterion(SlicingCriterion criterion, long searchStart) {
+		if (maxCriterionSearches > 0 && criterion.getProfile().getSearches() >= maxCriterionSearches) {
+			return "Reached maximum RS limit ("+maxCriterionSearches+") for the criterion";
+		}
+		if (maxCriterionNanos > 0 && criterion.getProfile().getTime() + System.nanoTime() - searchStart > maxCriterionNanos) {
+			return "Reached time limit for the criterion";
+		}
+		return null;
+	}
+}
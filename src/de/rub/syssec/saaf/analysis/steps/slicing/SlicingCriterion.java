@@ -36,6 +36,7 @@ public class SlicingCriterion {
 	private final String description;
 	private final LinkedList<ConstantInterface> resultList = new LinkedList<ConstantInterface>();
 	private final LinkedList<Throwable> exceptionList = new LinkedList<Throwable>();
+	private final SlicingProfile profile = new SlicingProfile();
 	
 	/**
 	 * Search for a method of a specific class w/ specific parameters and track a given
@@ -127,5 +128,30 @@ public class SlicingCriterion {
 	public boolean isCleanAnalysis() {
 		return exceptionList.isEmpty();
 	}
+	
+	/**
+	 * Mark the search as stopped before it was finished, see {@link SlicingBudget}.
+	 */
+	protected void setTruncated() {
+		profile.setTruncated(true);
+	}
+	
+	/**
+	 * See if the search was stopped b/c it exceeded its budget. The results
+	 * found so far are kept, but there may be more.
+	 * @return true if the search was stopped before it was finished
+	 */
+	public boolean isTruncated() {
+		return profile.isTruncated();
+	}
+	
+	/**
+	 * Get what the searches for this criterion did, eg, how many BBs they visited. The
+	 * counters are updated while a search runs.
+	 * @return the profile
+	 */
+	public SlicingProfile getProfile() {
+		return profile;
+	}
 
 }
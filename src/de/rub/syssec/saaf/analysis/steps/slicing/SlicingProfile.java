@@ -0,0 +1,216 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import java.util.Arrays;
+
+import de.rub.syssec.saaf.model.analysis.BTPatternInterface;
+import de.rub.syssec.saaf.model.analysis.SlicingProfileInterface;
+
+/**
+ * What the slicing search of one {@link SlicingCriterion} did. The counters
+ * are updated while the search runs, the {@link TodoList} and the
+ * {@link DetectionLogic} count directly into the profiles of the criteria
+ * they search for. They are plain fields which are updated by one search at
+ * a time, this class is not threadsafe.
+ */
+public class SlicingProfile implements SlicingProfileInterface {
+
+	private BTPatternInterface pattern;
+	private int callSites;
+	private int searches;
+	private int enqueued;
+	private int duplicates;
+	private int visitedBBs;
+	private int fields;
+	private int returnValues;
+	private int arrays;
+	private int[] fuzzyLevels = new int[0];
+	private long time;
+	private int results;
+	private boolean truncated;
+
+	/**
+	 * Count an invoke of the searched method where a search starts.
+	 */
+	public void countCallSite() {
+		callSites++;
+	}
+
+	/**
+	 * Count a register search which is run.
+	 * @param fuzzyLevel the fuzzy level of the search
+	 */
+	public void countSearch(int fuzzyLevel) {
+		searches++;
+		if (fuzzyLevel < 0) fuzzyLevel = 0;
+		if (fuzzyLevel >= fuzzyLevels.length) fuzzyLevels = Arrays.copyOf(fuzzyLevels, fuzzyLevel + 1);
+		fuzzyLevels[fuzzyLevel]++;
+	}
+
+	/**
+	 * Count a register search which is added to the queue.
+	 */
+	public void countEnqueued() {
+		enqueued++;
+	}
+
+	/**
+	 * Count a register search, field, method or array which is dropped b/c it is already queued or done.
+	 */
+	public void countDuplicate() {
+		duplicates++;
+	}
+
+	/**
+	 * Count a BB which is scanned.
+	 */
+	public void countVisitedBB() {
+		visitedBBs++;
+	}
+
+	/**
+	 * Count a field whose writes are tracked.
+	 */
+	public void countField() {
+		fields++;
+	}
+
+	/**
+	 * Count a method whose return values are tracked.
+	 */
+	public void countReturnValue() {
+		returnValues++;
+	}
+
+	/**
+	 * Count an array field whose accesses are tracked.
+	 */
+	public void countArray() {
+		arrays++;
+	}
+
+	@Override
+	public BTPatternInterface getPattern() {
+		return pattern;
+	}
+
+	public void setPattern(BTPatternInterface pattern) {
+		this.pattern = pattern;
+	}
+
+	@Override
+	public int getCallSites() {
+		return callSites;
+	}
+
+	@Override
+	public int getSearches() {
+		return searches;
+	}
+
+	@Override
+	public int getEnqueued() {
+		return enqueued;
+	}
+
+	@Override
+	public int getDuplicates() {
+		return duplicates;
+	}
+
+	@Override
+	public int getVisitedBBs() {
+		return visitedBBs;
+	}
+
+	@Override
+	public int getFields() {
+		return fields;
+	}
+
+	@Override
+	public int getReturnValues() {
+		return returnValues;
+	}
+
+	@Override
+	public int getArrays() {
+		return arrays;
+	}
+
+	@Override
+	public int[] getFuzzyLevels() {
+		return fuzzyLevels.clone();
+	}
+
+	@Override
+	public String getFuzzyHistogram() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < fuzzyLevels.length; i++) {
+			if (fuzzyLevels[i] == 0) continue;
+			if (sb.length() > 0) sb.append(' ');
+			sb.append(i).append(':').append(fuzzyLevels[i]);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public long getTime() {
+		return time;
+	}
+
+	@Override
+	public long getTimeMillis() {
+		return time / 1000000;
+	}
+
+	/**
+	 * Add the time of a search.
+	 * @param nanos the time in nanoseconds
+	 */
+	public void addTime(long nanos) {
+		time += nanos;
+	}
+
+	@Override
+	public int getResults() {
+		return results;
+	}
+
+	public void setResults(int results) {
+		this.results = results;
+	}
+
+	@Override
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	public void setTruncated(boolean truncated) {
+		this.truncated = truncated;
+	}
+
+	@Override
+	public String toString() {
+		return "[callSites=" + callSites + ", searches=" + searches
+				+ ", enqueued=" + enqueued + ", duplicates=" + duplicates
+				+ ", visitedBBs=" + visitedBBs + ", fields=" + fields
+				+ ", returnValues=" + returnValues + ", arrays=" + arrays
+				+ ", fuzzyLevels=" + getFuzzyHistogram() + ", time=" + time + "]";
+	}
+}
@@ -0,0 +1,114 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+
+import de.rub.syssec.saaf.model.analysis.BTPatternInterface;
+import de.rub.syssec.saaf.model.analysis.SlicingProfileInterface;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
+import de.rub.syssec.saaf.model.application.Digest;
+
+/**
+ * Writes the {@link SlicingProfileInterface}s of one APK to a CSV file with one row per pattern.
+ */
+public final class SlicingProfileWriter {
+
+	static final String CSV_HEADER = "class,method,parameters,parameter_index,description,call_sites,searches,"
+			+ "enqueued,duplicates,visited_bbs,fields,return_values,arrays,results,truncated,time_ms,fuzzy_levels";
+
+	private SlicingProfileWriter() {
+	}
+
+	/**
+	 * Get the name of the profile file of an APK, &lt;app&gt;_&lt;md5&gt;.slicing.csv.
+	 *
+	 * @param folder the folder
+	 * @param app the application
+	 * @return the file
+	 */
+	public static File getFile(File folder, ApplicationInterface app) {
+		String name = app.getApplicationName();
+		String md5 = app.getMessageDigest(Digest.MD5);
+		if (md5 != null) name += "_" + md5;
+		return new File(folder, name + ".slicing.csv");
+	}
+
+	/**
+	 * Write the profiles to a file, it is overwritten.
+	 *
+	 * @param file the file
+	 * @param profiles the profiles
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(File file, List<SlicingProfileInterface> profiles) throws IOException {
+		PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), "UTF-8")));
+		try {
+			out.println(CSV_HEADER);
+			for (SlicingProfileInterface profile : profiles) {
+				out.println(toCsv(profile));
+			}
+		} finally {
+			out.close();
+		}
+		if (out.checkError()) {
+			throw new IOException("Could not write "+file);
+		}
+	}
+
+	static String toCsv(SlicingProfileInterface profile) {
+		StringBuilder sb = new StringBuilder();
+		BTPatternInterface p = profile.getPattern();
+		if (p != null) {
+			sb.append(quote(p.getQualifiedClassName())).append(',');
+			sb.append(quote(p.getMethodName())).append(',');
+			sb.append(quote(p.getArgumentsTypes() != null ? new String(p.getArgumentsTypes()) : "")).append(',');
+			sb.append(p.getParameterOfInterest()).append(',');
+			sb.append(quote(p.getDescription() != null ? p.getDescription() : "")).append(',');
+		}
+		else {
+			sb.append(",,,,,");
+		}
+		sb.append(profile.getCallSites()).append(',');
+		sb.append(profile.getSearches()).append(',');
+		sb.append(profile.getEnqueued()).append(',');
+		sb.append(profile.getDuplicates()).append(',');
+		sb.append(profile.getVisitedBBs()).append(',');
+		sb.append(profile.getFields()).append(',');
+		sb.append(profile.getReturnValues()).append(',');
+		sb.append(profile.getArrays()).append(',');
+		sb.append(profile.getResults()).append(',');
+		sb.append(profile.isTruncated()).append(',');
+		sb.append(profile.getTimeMillis()).append(',');
+		sb.append(profile.getFuzzyHistogram());
+		return sb.toString();
+	}
+
+	private static String quote(String s) {
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0) {
+			return s;
+		}
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+}
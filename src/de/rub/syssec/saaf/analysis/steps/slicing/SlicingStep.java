@@ -16,19 +16,32 @@
  */
 package de.rub.syssec.saaf.analysis.steps.slicing;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
 import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.SAAFException;
 import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.analysis.BTPatternInterface;
 import de.rub.syssec.saaf.model.analysis.BTResultInterface;
+import de.rub.syssec.saaf.model.analysis.SlicingProfileInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
 import de.rub.syssec.saaf.model.application.ConstantInterface;
 import de.rub.syssec.saaf.model.application.DetectionLogicError;
@@ -44,6 +57,12 @@ public class SlicingStep extends AbstractStep {
 	
 	private List<BTPatternInterface> backtrackPatterns;
 	private static final Logger LOGGER = Logger.getLogger(SlicingStep.class);
+
+	/**
+	 * The pool of {@link #searchParallel(ApplicationInterface, List, List, SlicingBudget)}, it is
+	 * shared by all analyses.
+	 */
+	private static ExecutorService sharedPool;
 	
 	public SlicingStep(Config cfg, List<BTPatternInterface> backtrackPatterns, boolean enabled)
 	{
@@ -51,6 +70,8 @@ public class SlicingStep extends AbstractStep {
 		this.name = "Backtracking";
 		this.description = "Triggers a backtracking search for parameters of interesting methods";
 		this.backtrackPatterns =(backtrackPatterns!=null)?backtrackPatterns:new ArrayList<BTPatternInterface>();
+		this.reads = EnumSet.of(AnalysisData.CODE);
+		this.writes = EnumSet.of(AnalysisData.SLICING_RESULTS);
 		this.enabled = enabled;
 	}
 
@@ -59,53 +80,191 @@ public class SlicingStep extends AbstractStep {
 		LOGGER.info("Start BackTrack...");
 		try {
 			ApplicationInterface app = analysis.getApp();
-					List<BTResultInterface> bt_results = new LinkedList<BTResultInterface>();
-					DetectionLogic dl = new DetectionLogic(app);
-					List<SAAFException> nonCriticalExceptions = new ArrayList<SAAFException>();
-					boolean exceptionInBackTrack=false;
-					
-					if (backtrackPatterns.isEmpty()) {
-						LOGGER.warn("No backtracking-patterns to analyze. Stopping analysis");
-						return false;
-					}
-					LOGGER.debug("Analyzing "+app.getApplicationName()+" using "+backtrackPatterns.size()+" backtracking-patterns.");
+			List<BTResultInterface> bt_results = new LinkedList<BTResultInterface>();
+			List<SAAFException> nonCriticalExceptions = new ArrayList<SAAFException>();
+			boolean exceptionInBackTrack=false;
+			int truncated = 0;
+
+			if (backtrackPatterns.isEmpty()) {
+				LOGGER.warn("No backtracking-patterns to analyze. Stopping analysis");
+				return false;
+			}
+			LOGGER.debug("Analyzing "+app.getApplicationName()+" using "+backtrackPatterns.size()+" backtracking-patterns.");
 
-					for (BTPatternInterface p : backtrackPatterns) {
-							if(p.isActive())
-							{
-								SlicingCriterion br = new SlicingCriterion(
-										p.getQualifiedClassName(),
-										p.getMethodName(),
-										p.getArgumentsTypes(),
-										p.getParameterOfInterest());
-								dl.search(br);
-								for (ConstantInterface c : br.getResults()) {
-									LOGGER.debug("Adding const:\n"+c);
-									bt_results.add(new BTResult(analysis,p,c,p.getParameterOfInterest()));
-								}
-								if (!br.isCleanAnalysis()) 
-								{
-									exceptionInBackTrack = true;
-									for(Throwable t : br.getExceptionList())
-									{
-										nonCriticalExceptions.add(new SAAFException(t.getMessage(), t, analysis));
-									}
-								}
-							}
+			List<BTPatternInterface> patterns = new ArrayList<BTPatternInterface>();
+			List<SlicingCriterion> criteria = new ArrayList<SlicingCriterion>();
+			for (BTPatternInterface p : backtrackPatterns) {
+				if (p.isActive()) {
+					patterns.add(p);
+					criteria.add(new SlicingCriterion(
+							p.getQualifiedClassName(),
+							p.getMethodName(),
+							p.getArgumentsTypes(),
+							p.getParameterOfInterest()));
+				}
+			}
 
+			// criteria which target the same method are searched together
+			List<List<SlicingCriterion>> groups = DetectionLogic.groupBySignature(criteria);
+			SlicingBudget budget = SlicingBudget.fromConfig(config);
+			int threads = config.getIntConfigValue(ConfigKeys.MULTITHREADING_SLICING_THREADS);
+			if (threads > 1 && groups.size() > 1) {
+				searchParallel(app, criteria, groups, budget);
+			}
+			else {
+				new DetectionLogic(app, new MethodSummaries(app), new DetectionLogic.SearchIds(), budget).search(criteria);
+			}
+
+			// the results are merged in the order of the patterns
+			List<SlicingProfileInterface> profiles = new ArrayList<SlicingProfileInterface>(criteria.size());
+			for (int i = 0; i < criteria.size(); i++) {
+				BTPatternInterface p = patterns.get(i);
+				SlicingCriterion br = criteria.get(i);
+				SlicingProfile profile = br.getProfile();
+				profile.setPattern(p);
+				profile.setResults(br.getResults().size());
+				profiles.add(profile);
+				for (ConstantInterface c : br.getResults()) {
+					LOGGER.debug("Adding const:\n"+c);
+					BTResult result = new BTResult(analysis,p,c,p.getParameterOfInterest());
+					result.setTruncated(br.isTruncated());
+					bt_results.add(result);
+				}
+				if (br.isTruncated()) truncated++;
+				if (!br.isCleanAnalysis()) 
+				{
+					exceptionInBackTrack = true;
+					for(Throwable t : br.getExceptionList())
+					{
+						nonCriticalExceptions.add(new SAAFException(t.getMessage(), t, analysis));
 					}
-					LOGGER.info("Finished BackTrack search"
-							+ " for Application " + app.getApplicationName()
-							+ " with " + bt_results.size() + " Results"
-							+ " " + (exceptionInBackTrack ? "[Finished with Exceptions]" : ""));
-					analysis.setBTResults(bt_results);
-					analysis.setNonCriticalExceptions(nonCriticalExceptions);
-					return true;
+				}
+			}
+			LOGGER.info("Finished BackTrack search"
+					+ " for Application " + app.getApplicationName()
+					+ " with " + bt_results.size() + " Results"
+					+ " " + (exceptionInBackTrack ? "[Finished with Exceptions]" : "")
+					+ (truncated > 0 ? " ["+truncated+" patterns exceeded their budget]" : ""));
+			analysis.setBTResults(bt_results);
+			analysis.setSlicingProfiles(profiles);
+			analysis.setNonCriticalExceptions(nonCriticalExceptions);
+			writeProfiles(app, profiles);
+			return true;
 		} catch (DetectionLogicError e) {
 			throw new AnalysisException(e);
 		}
 	}
-	
 
+	/**
+	 * Write the profiles to the folder given by {@link ConfigKeys#SLICING_PROFILE_FOLDER}, if any.
+	 * A file which cannot be written is logged and does not stop the analysis.
+	 * 
+	 * @param app the application
+	 * @param profiles the profiles of all patterns
+	 */
+	private void writeProfiles(ApplicationInterface app, List<SlicingProfileInterface> profiles) {
+		String folder = config.getConfigValue(ConfigKeys.SLICING_PROFILE_FOLDER, "");
+		if (folder == null || folder.isEmpty()) return;
+		File dir = new File(folder);
+		File file = SlicingProfileWriter.getFile(dir, app);
+		try {
+			if (!dir.isDirectory() && !dir.mkdirs()) {
+				throw new IOException("Could not create "+dir);
+			}
+			SlicingProfileWriter.write(file, profiles);
+			LOGGER.info("Slicing profile written to "+file.getAbsolutePath());
+		} catch (IOException e) {
+			LOGGER.error("Could not write the slicing profile "+file, e);
+		}
+	}
+
+	/**
+	 * The pool is created on first use with {@link ConfigKeys#MULTITHREADING_SLICING_THREADS}
+	 * threads. The APKs which are analyzed at the same time and the analysis steps which run
+	 * at the same time all submit their searches to it, so the number of searching threads
+	 * does not multiply with the number of those threads.
+	 * 
+	 * @param config the configuration
+	 * @return the pool
+	 */
+	private static synchronized ExecutorService getSharedPool(Config config) {
+		if (sharedPool == null) {
+			int threads = config.getIntConfigValue(ConfigKeys.MULTITHREADING_SLICING_THREADS);
+			final AtomicInteger count = new AtomicInteger();
+			sharedPool = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "saaf-slicing-" + count.incrementAndGet());
+					// do not keep SAAF alive once all analyses are done
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return sharedPool;
+	}
+
+	/**
+	 * Search the criteria on the shared pool, see {@link #getSharedPool(Config)}. Each group
+	 * of criteria is searched by its own DetectionLogic, they share the app, the method
+	 * summaries and the search IDs. The search IDs are assigned before the searches start,
+	 * so they are the same as if the criteria were searched one after the other.
+	 * 
+	 * The calling thread only waits for the searches. They never wait for each other, so a
+	 * busy pool delays them but cannot deadlock.
+	 * 
+	 * @param app the application
+	 * @param criteria the criteria, the results are added to them
+	 * @param groups the criteria grouped by their target method, see {@link DetectionLogic#groupBySignature(List)}
+	 * @param budget the limits of the searches
+	 * @throws DetectionLogicError the error of the first criterion whose search failed
+	 * @throws AnalysisException if the search was interrupted
+	 */
+	private void searchParallel(final ApplicationInterface app, List<SlicingCriterion> criteria,
+			List<List<SlicingCriterion>> groups, final SlicingBudget budget)
+			throws DetectionLogicError, AnalysisException {
+		final MethodSummaries summaries = new MethodSummaries(app);
+		final DetectionLogic.SearchIds searchIds = new DetectionLogic.SearchIds();
+		DetectionLogic planner = new DetectionLogic(app, summaries, searchIds);
+		for (SlicingCriterion br : criteria) {
+			planner.assignSearchIds(br);
+		}
+		ExecutorService pool = getSharedPool(config);
+		List<Future<Void>> results = new ArrayList<Future<Void>>(groups.size());
+		try {
+			for (final List<SlicingCriterion> group : groups) {
+				results.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws DetectionLogicError {
+						new DetectionLogic(app, summaries, searchIds, budget).search(group);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisException(e);
+		} catch (ExecutionException e) {
+			// rethrow what the search would have thrown w/o the pool
+			if (e.getCause() instanceof DetectionLogicError) {
+				throw (DetectionLogicError) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new AnalysisException(e.getCause());
+		} finally {
+			// the remaining searches of a failed APK must not occupy the shared pool
+			for (Future<Void> result : results) {
+				result.cancel(true);
+			}
+		}
+	}
 
 }
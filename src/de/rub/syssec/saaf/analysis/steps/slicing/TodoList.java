@@ -16,14 +16,21 @@
  */
 package de.rub.syssec.saaf.analysis.steps.slicing;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.application.instructions.Registers;
 import de.rub.syssec.saaf.application.methods.BasicBlock;
-import de.rub.syssec.saaf.misc.ByteUtils;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
 import de.rub.syssec.saaf.model.application.BasicBlockInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
 import de.rub.syssec.saaf.model.application.DetectionLogicError;
@@ -34,20 +41,147 @@ import de.rub.syssec.saaf.model.application.SyntaxException;
  * This class is a helper class for the DetectionLogic and holds "jobs" which need to be processed
  * at a later time in the program slicing process. 
  * 
+ * Jobs which were already added or processed are detected by a hash lookup. Registers are
+ * processed in the reverse order in which they were added, methods, fields and arrays in the
+ * order in which they were added, so the order of a search does not depend on hash codes.
+ * 
  * @author Johannes Hoffmann <johannes.hoffmann@rub.de>
  *
  */
 public class TodoList {
 	
 	private static final boolean DEBUG=Boolean.parseBoolean(System.getProperty("debug.slicing","false"));
-	private HashSet<ClassContentTracker> returnMap = new HashSet<ClassContentTracker>();
+	private LinkedHashSet<ClassContentTracker> returnMap = new LinkedHashSet<ClassContentTracker>();
 	private HashSet<ClassContentTracker> returnMapDone = new HashSet<ClassContentTracker>();
 	
 	private static final Logger LOGGER = Logger.getLogger(TodoList.class);
 	
-	// TODO: Make it configurable
-	protected static final int MAX_FUZZY_LEVEL = 10;
-	protected static final int MAX_RS_COUNT = 100000;
+	/**
+	 * Jobs whose fuzzy level and offset exceed this level are not added.
+	 */
+	private final int maxFuzzyLevel;
+	
+	/**
+	 * The criteria which take part in the search, the others are no longer counted.
+	 */
+	private final List<SlicingCriterion> active;
+	
+	/**
+	 * The criteria of the job which is processed, new jobs are searched for the same criteria.
+	 */
+	private List<SlicingCriterion> tag;
+	
+	/**
+	 * The criteria of the tag which take part in the search, see {@link #getCriteria()}.
+	 */
+	private final List<SlicingCriterion> criteria = new ArrayList<SlicingCriterion>();
+	
+	/**
+	 * The number of RS which were returned for each criterion.
+	 */
+	private final IdentityHashMap<SlicingCriterion, Integer> finishedRsCounts = new IdentityHashMap<SlicingCriterion, Integer>();
+	
+	/**
+	 * Create a TodoList w/ the default maximum fuzzy level, see {@link SlicingBudget#DEFAULT_MAX_FUZZY_LEVEL}.
+	 */
+	public TodoList() {
+		this(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL);
+	}
+	
+	/**
+	 * @param maxFuzzyLevel jobs whose fuzzy level and offset exceed this level are not added
+	 */
+	public TodoList(int maxFuzzyLevel) {
+		this(maxFuzzyLevel, Collections.<SlicingCriterion>emptyList());
+	}
+	
+	/**
+	 * @param maxFuzzyLevel jobs whose fuzzy level and offset exceed this level are not added
+	 * @param criteria the criteria which are searched for, the jobs are counted in their profiles: added
+	 *        and dropped register searches, tracked fields, methods and arrays and the fuzzy levels of
+	 *        the register searches which were returned. The list is not copied, criteria which are
+	 *        removed from it are no longer counted. New jobs are searched for all of them until
+	 *        {@link #setCriteria(List)} is called.
+	 */
+	public TodoList(int maxFuzzyLevel, List<SlicingCriterion> criteria) {
+		this.maxFuzzyLevel = maxFuzzyLevel;
+		this.active = criteria;
+		setCriteria(criteria);
+	}
+	
+	public int getMaxFuzzyLevel() {
+		return maxFuzzyLevel;
+	}
+	
+	/**
+	 * Set the criteria for which new jobs are searched. Each job keeps its criteria, they are set
+	 * again when the job is returned. Jobs are only dropped as duplicates if they are searched
+	 * for the same criteria, so one list can hold the searches of several criteria.
+	 * @param criteria the criteria, the list must not change while it is in use
+	 */
+	public void setCriteria(List<SlicingCriterion> criteria) {
+		tag = criteria;
+		this.criteria.clear();
+		for (SlicingCriterion criterion : criteria) {
+			if (active.contains(criterion)) this.criteria.add(criterion);
+		}
+	}
+	
+	/**
+	 * @return the criteria of the job which was returned last which still take part in the
+	 *         search, the found constants belong to them
+	 */
+	public List<SlicingCriterion> getCriteria() {
+		return criteria;
+	}
+	
+	/**
+	 * @return the criteria for which the next job is searched, including those which no longer
+	 *         take part in the search
+	 */
+	public List<SlicingCriterion> peekCriteria() {
+		if (!regList.isEmpty()) return regList.peekFirst().tag;
+		if (!returnMap.isEmpty()) return returnMap.iterator().next().tag;
+		if (!fieldMap.isEmpty()) return fieldMap.iterator().next().tag;
+		if (!arrayMap.isEmpty()) return arrayMap.iterator().next().tag;
+		return Collections.emptyList();
+	}
+	
+	private void countDuplicate() {
+		for (SlicingCriterion criterion : criteria) {
+			criterion.getProfile().countDuplicate();
+		}
+	}
+	
+	private void countEnqueued() {
+		for (SlicingCriterion criterion : criteria) {
+			criterion.getProfile().countEnqueued();
+		}
+	}
+	
+	private void countSearch(int fuzzyLevel) {
+		for (SlicingCriterion criterion : criteria) {
+			criterion.getProfile().countSearch(fuzzyLevel);
+		}
+	}
+	
+	private void countReturnValue() {
+		for (SlicingCriterion criterion : criteria) {
+			criterion.getProfile().countReturnValue();
+		}
+	}
+	
+	private void countField() {
+		for (SlicingCriterion criterion : criteria) {
+			criterion.getProfile().countField();
+		}
+	}
+	
+	private void countArray() {
+		for (SlicingCriterion criterion : criteria) {
+			criterion.getProfile().countArray();
+		}
+	}
 	
 	
 	/**
@@ -58,28 +192,28 @@ public class TodoList {
 	 * @param path
 	 * @return true if this was not yet searched through, create a new object, you'll get inconsistencies if you'll reuse the same object
 	 */
-	public boolean addReturnValuesFromMethod(byte[][] cm, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) {
+	public boolean addReturnValuesFromMethod(byte[][] cm, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
 		if (DEBUG) LOGGER.debug(" -> Add RETURN VALUE: "+new String(cm[0])+"."+new String(cm[1])+"\tfuzzy="+fuzzyLevel+"/"+fuzzyLevelOffset);
-		if (fuzzyLevel+fuzzyLevelOffset > MAX_FUZZY_LEVEL) {
-			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+MAX_FUZZY_LEVEL+"): aborting.");
+		if (fuzzyLevel+fuzzyLevelOffset > maxFuzzyLevel) {
+			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+maxFuzzyLevel+"): aborting.");
 			return false;
 		}
 		ClassContentTracker ctt = new ClassContentTracker(cm, fuzzyLevel, fuzzyLevelOffset, path);
-		if (returnMap.contains(ctt)) return false;
-		if (returnMapDone.contains(ctt)) return false;
+		ctt.tag = tag;
+		if (returnMap.contains(ctt) || returnMapDone.contains(ctt)) {
+			countDuplicate();
+			return false;
+		}
 		returnMap.add(ctt);
 		return true;
 	}
 	
 	
 	public ClassContentTracker getNextReturnValuesFromMethod() {
-		ClassContentTracker ctt = null;
-		for (ClassContentTracker ctt2 : returnMap) { // get one item "at random"
-			ctt = ctt2;
-			break;
-		}
-		returnMap.remove(ctt);
+		ClassContentTracker ctt = next(returnMap);
+		setCriteria(ctt.tag);
 		returnMapDone.add(ctt);
+		countReturnValue();
 		if (DEBUG) LOGGER.debug("\n\n-> TRACKING RETURN VALUE: "+new String(ctt.getCi()[0])+"."+new String(ctt.getCi()[1])+"\tfuzzy="+ctt.getFuzzyLevel()+"/"+ctt.getFuzzyOffset());
 		return ctt;
 	}
@@ -96,7 +230,7 @@ public class TodoList {
 	//
 	
 	
-	private HashSet<ClassContentTracker> fieldMap = new HashSet<ClassContentTracker>();
+	private LinkedHashSet<ClassContentTracker> fieldMap = new LinkedHashSet<ClassContentTracker>();
 	private HashSet<ClassContentTracker> fieldMapDone = new HashSet<ClassContentTracker>();
 	
 	
@@ -105,35 +239,35 @@ public class TodoList {
 	 * @param cf class, field
 	 * @param fuzzyLevel
 	 * @param fuzzyLevelOffset
-	 * @param linkedList
+	 * @param path
 	 * @return true if this was not yet searched through, create a new object, you'll get inconsistencies if you'll reuse the same object
 	 */
-	public boolean addField(byte[][] cf, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> linkedList) {
+	public boolean addField(byte[][] cf, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) {
 		if (DEBUG) LOGGER.debug(" -> Add FIELD: "+new String(cf[0])+"."+new String(cf[1])+"\tfuzzy="+fuzzyLevel+"/"+fuzzyLevelOffset);
-		if (fuzzyLevel+fuzzyLevelOffset > MAX_FUZZY_LEVEL) {
-			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+MAX_FUZZY_LEVEL+"): aborting.");
+		if (fuzzyLevel+fuzzyLevelOffset > maxFuzzyLevel) {
+			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+maxFuzzyLevel+"): aborting.");
 			return false;
 		}
-		if (fuzzyLevelOffset < MAX_FUZZY_LEVEL-2) {
-			if (DEBUG) LOGGER.debug("    Setting fuzzy offset to "+(MAX_FUZZY_LEVEL-2));
-			fuzzyLevelOffset = MAX_FUZZY_LEVEL-2;
+		if (fuzzyLevelOffset < maxFuzzyLevel-2) {
+			if (DEBUG) LOGGER.debug("    Setting fuzzy offset to "+(maxFuzzyLevel-2));
+			fuzzyLevelOffset = maxFuzzyLevel-2;
+		}
+		ClassContentTracker ctt = new ClassContentTracker(cf, fuzzyLevel, fuzzyLevelOffset, path);
+		ctt.tag = tag;
+		if (fieldMap.contains(ctt) || fieldMapDone.contains(ctt)) {
+			countDuplicate();
+			return false;
 		}
-		ClassContentTracker ctt = new ClassContentTracker(cf, fuzzyLevel, fuzzyLevelOffset, linkedList);
-		if (fieldMap.contains(ctt)) return false;
-		if (fieldMapDone.contains(ctt)) return false;
 		fieldMap.add(ctt);
 		return true;
 	}
 	
 	
 	public ClassContentTracker getNextField() {
-		ClassContentTracker ctt = null;
-		for (ClassContentTracker ctt2 : fieldMap) { // get one item "at random"
-			ctt = ctt2;
-			break;
-		}
-		fieldMap.remove(ctt);
+		ClassContentTracker ctt = next(fieldMap);
+		setCriteria(ctt.tag);
 		fieldMapDone.add(ctt);
+		countField();
 		if (DEBUG) LOGGER.debug("\n\n-> TRACKING FIELD: "+new String(ctt.getCi()[0])+"."+new String(ctt.getCi()[1])+"\tfuzzy="+ctt.getFuzzyLevel()+"/"+ctt.getFuzzyOffset());
 		return ctt;
 	}
@@ -149,24 +283,25 @@ public class TodoList {
 	
 	
 	public static class RegisterSearch {
-		private final byte[] register;
+		private final int register;
 		private BasicBlockInterface bb;
 		private final int index;
 		private final int fuzzyLevel;
-		private LinkedList<BasicBlockInterface> path;
+		private BasicBlockPath path;
 		private int fuzzyOffset;
+		private List<SlicingCriterion> tag = null; // set by the TodoList
 		
 	
 		/**
 		 * A helper class to backtrack a register.
-		 * @param register the registername to backtrack, eg, v0.
+		 * @param register the register to backtrack, eg, v0, see {@link Registers}.
 		 * @param bb2 the {@linkplain BasicBlock} to backtrack
 		 * @param index the index where to start backtracking inside the {@linkplain BasicBlock}
 		 * @param fuzzyLevel set this to >1 if the search gets noisy, eg, if you are backtracking into the blue for unknown method calls and are interested in the parameters from such a call
 		 * @param fuzzyOffset
 		 * @param path the path through the BBs of this search, create a new object, you'll get inconsistencies if you'll reuse the same object 
 		 */
-		public RegisterSearch(byte[] register, BasicBlockInterface bb, int index, int fuzzyLevel, int fuzzyOffset, LinkedList<BasicBlockInterface> path) {
+		public RegisterSearch(int register, BasicBlockInterface bb, int index, int fuzzyLevel, int fuzzyOffset, BasicBlockPath path) {
 			this.register = register;
 			this.bb = bb;
 			this.index = index;
@@ -179,7 +314,7 @@ public class TodoList {
 		 * The register to track backwards.
 		 * @return
 		 */
-		public byte[] getRegister() {
+		public int getRegister() {
 			return register;
 		}
 
@@ -214,7 +349,7 @@ public class TodoList {
 		 * The path through the program for this search. 
 		 * @return the path
 		 */
-		public LinkedList<BasicBlockInterface> getPath() {
+		public BasicBlockPath getPath() {
 			return path;
 		}
 		
@@ -233,16 +368,41 @@ public class TodoList {
 	}
 	
 	
-	private static boolean checkRsForEquality(RegisterSearch rs1, RegisterSearch rs2) {
-		if (!Arrays.equals(rs1.getRegister(), rs2.getRegister())) return false;
-		if (rs1.getBB() != rs2.getBB()) return false;
-		if (rs1.getIndex() != rs2.getIndex()) return false;
-		return true;
+	/**
+	 * Two RS are equal if they track the same register from the same index in the same BB for
+	 * the same criteria.
+	 */
+	private static final class RsKey {
+		private final int register;
+		private final BasicBlockInterface bb;
+		private final int index;
+		private final List<SlicingCriterion> tag;
+
+		RsKey(RegisterSearch rs, List<SlicingCriterion> tag) {
+			this.register = rs.getRegister();
+			this.bb = rs.getBB();
+			this.index = rs.getIndex();
+			this.tag = tag;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof RsKey)) return false;
+			RsKey key = (RsKey) other;
+			return register == key.register && bb == key.bb && index == key.index && tag == key.tag;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * (31 * register + index)) + System.identityHashCode(bb);
+		}
 	}
 	
 	
-	LinkedList<RegisterSearch> regList = new LinkedList<RegisterSearch>();
-	LinkedList<RegisterSearch> regListDone = new LinkedList<RegisterSearch>();
+	private final ArrayDeque<RegisterSearch> regList = new ArrayDeque<RegisterSearch>();
+	private final HashSet<RsKey> regKeys = new HashSet<RsKey>(); // all RS in regList
+	private final HashSet<RsKey> regKeysDone = new HashSet<RsKey>();
+	private int finishedRs = 0; // RS which were returned by getNextRegisterToTrack()
 	
 	
 	/**
@@ -251,37 +411,63 @@ public class TodoList {
 	 * @throws DetectionLogicError 
 	 */
 	public boolean addRegisterToTrack(RegisterSearch rs) {
-		if (DEBUG) LOGGER.debug(" -> Add REGISTER: "+new String(rs.getRegister())+", "+rs.getBB().getMethod().getName()+":"+rs.getIndex()+"\tfuzzy="+rs.getFuzzyLevel()+"/"+rs.getFuzzyOffset()+", bb="+rs.getBB().getUniqueId());
-		if (rs.getFuzzyLevel()+rs.getFuzzyOffset() > MAX_FUZZY_LEVEL) {
-			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+MAX_FUZZY_LEVEL+"): aborting.");
+		if (DEBUG) LOGGER.debug(" -> Add REGISTER: "+Registers.toString(rs.getRegister())+", "+rs.getBB().getMethod().getName()+":"+rs.getIndex()+"\tfuzzy="+rs.getFuzzyLevel()+"/"+rs.getFuzzyOffset()+", bb="+rs.getBB().getUniqueId());
+		if (rs.getFuzzyLevel()+rs.getFuzzyOffset() > maxFuzzyLevel) {
+			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+maxFuzzyLevel+"): aborting.");
 			return false;
 		}
 		
-		for (RegisterSearch rs2 : regListDone) {
-			if (checkRsForEquality(rs, rs2)) {
-				if (DEBUG) LOGGER.debug("     Already searched this RS. It will be ignored! (This is ok)");
-				return false;
-			}
+		rs.tag = tag;
+		RsKey key = new RsKey(rs, tag);
+		if (regKeysDone.contains(key)) {
+			if (DEBUG) LOGGER.debug("     Already searched this RS. It will be ignored! (This is ok)");
+			countDuplicate();
+			return false;
 		}
-		boolean found = false;
-		for (RegisterSearch rs2 : regList) {
-			if (checkRsForEquality(rs, rs2)) {
-				found = true;
-				break;
-			}
+		if (regKeys.add(key)) {
+			regList.addFirst(rs); // this way we first work up actual stuff
+			countEnqueued();
+		}
+		else {
+			if (DEBUG) LOGGER.debug("     Duplicate RS added. It will be ignored! (This is ok)");
+			countDuplicate();
 		}
-		if (!found) regList.addFirst(rs); // this way we first work up actual stuff
-		else if (DEBUG) LOGGER.debug("     Duplicate RS added. It will be ignored! (This is ok)");
 		return true;	
 	}
 	
+	/**
+	 * Mark a RS as done w/o running it b/c its results are taken from a summary, see
+	 * {@link ReturnValueSummary}. It is not counted as a finished RS.
+	 * @param rs the RS
+	 */
+	void markRegisterDone(RegisterSearch rs) {
+		regKeysDone.add(new RsKey(rs, tag));
+	}
+	
+	/**
+	 * @param rs a RS
+	 * @return true if a RS w/ the same register, BB and index is queued or done for the current criteria
+	 */
+	boolean containsRegister(RegisterSearch rs) {
+		RsKey key = new RsKey(rs, tag);
+		return regKeys.contains(key) || regKeysDone.contains(key);
+	}
+	
 	
 	public RegisterSearch getNextRegisterToTrack() {
 		if (regList.size() == 0) return null;
 		else {
-			RegisterSearch rs = regList.getFirst();
-			regList.removeFirst();
-			regListDone.addLast(rs);
+			RegisterSearch rs = regList.removeFirst();
+			RsKey key = new RsKey(rs, rs.tag);
+			regKeys.remove(key);
+			regKeysDone.add(key);
+			setCriteria(rs.tag);
+			finishedRs++;
+			for (SlicingCriterion criterion : criteria) {
+				Integer count = finishedRsCounts.get(criterion);
+				finishedRsCounts.put(criterion, count == null ? 1 : count + 1);
+			}
+			countSearch(rs.getFuzzyLevel());
 			// debug only: FIXME
 			int i = rs.getIndex();
 			if (i<0) i = 0;
@@ -289,7 +475,7 @@ public class TodoList {
 				i = rs.getBB().getMethod().getCodeLines().size()-1;
 			}
 			CodeLineInterface cl =  rs.getBB().getMethod().getCodeLines().get(i);
-			if (DEBUG) LOGGER.debug("\n\n-> TRACKING REGISTER: "+new String(rs.getRegister())+", "+rs.getBB().getMethod().getSmaliClass().getFullClassName(true)+"."+rs.getBB().getMethod().getName()+":"+cl.getLineNr()+"\tfuzzy="+rs.getFuzzyLevel()+"/"+rs.getFuzzyOffset());
+			if (DEBUG) LOGGER.debug("\n\n-> TRACKING REGISTER: "+Registers.toString(rs.getRegister())+", "+rs.getBB().getMethod().getSmaliClass().getFullClassName(true)+"."+rs.getBB().getMethod().getName()+":"+cl.getLineNr()+"\tfuzzy="+rs.getFuzzyLevel()+"/"+rs.getFuzzyOffset());
 			// /debug only
 			return rs;
 		}
@@ -304,7 +490,7 @@ public class TodoList {
 	//
 	//
 	
-	private HashSet<ClassContentTracker> arrayMap = new HashSet<ClassContentTracker>();
+	private LinkedHashSet<ClassContentTracker> arrayMap = new LinkedHashSet<ClassContentTracker>();
 	private HashSet<ClassContentTracker> arrayMapDone = new HashSet<ClassContentTracker>();
 	
 	
@@ -316,7 +502,8 @@ public class TodoList {
 		private final byte[][] ci;
 		private final int fuzzyLevel;
 		private final int fuzzyLevelOffset;
-		private LinkedList<BasicBlockInterface> path;
+		private BasicBlockPath path;
+		private List<SlicingCriterion> tag = null; // set by the TodoList
 		
 		/**
 		 * This is a helper class to wrap some content. It can contain arbitrary data,
@@ -329,7 +516,7 @@ public class TodoList {
 		 * @param fuzzyLevelOffset the offset to the fuzzyLevel
 		 * @param create a new object, you'll get inconsistencies if you'll reuse the same object
 		 */
-		public ClassContentTracker(byte[][] ci, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path2) {
+		public ClassContentTracker(byte[][] ci, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path2) {
 			this.ci = ci;
 			this.fuzzyLevel = fuzzyLevel;
 			this.fuzzyLevelOffset = fuzzyLevelOffset;
@@ -359,12 +546,12 @@ public class TodoList {
 		
 
 		/**
-		 * The path through the program for this search, the list is always a new copy of the original list.
-		 * Changes to the returned list will not effect the internal list!
+		 * The path through the program for this search, the path is always a new object which shares the BBs of the internal path.
+		 * Changes to the returned path will not effect the internal path!
 		 * @return the path
 		 */
-		public LinkedList<BasicBlockInterface> getPath() {
-			return new LinkedList<BasicBlockInterface>(path);
+		public BasicBlockPath getPath() {
+			return new BasicBlockPath(path);
 		}
 		
 	    @Override
@@ -374,6 +561,7 @@ public class TodoList {
 	            return false;
 	        }
 	        // check the arrays for equality
+	        if (tag != ((ClassContentTracker)other).tag) return false; // searched for other criteria
 	        if (ci.length != ((ClassContentTracker)other).getCi().length) return false;
 	        for (int i=0; i<ci.length; i++) {
 	        	if (!(Arrays.equals(ci[i], ((ClassContentTracker)other).getCi()[i]))) return false;
@@ -386,11 +574,12 @@ public class TodoList {
 	    @Override
 	    public int hashCode() {
 	    	if (hashCode == null) {
-	    		byte[] tmp = new byte[0];
+	    		// the same as Arrays.hashCode() of all entries concatenated, w/o copying them
+	    		int h = 1;
 		    	for (int i=0; i<ci.length; i++) {
-		    		tmp = ByteUtils.concatAll(tmp, ci[i]);
+		    		for (byte b : ci[i]) h = 31 * h + b;
 		    	}
-		        hashCode = Arrays.hashCode(tmp);
+		        hashCode = h;
 	    	}
 	    	return hashCode; 
 	    }
@@ -419,33 +608,33 @@ public class TodoList {
 	 * @param path, create a new object, you'll get inconsistencies if you'll reuse the same object
 	 * @throws SyntaxException 
 	 */
-	public boolean addArrayFieldToTrack(byte[][] ca, int fuzzyLevel, int fuzzyLevelOffset, LinkedList<BasicBlockInterface> path) throws SyntaxException {
+	public boolean addArrayFieldToTrack(byte[][] ca, int fuzzyLevel, int fuzzyLevelOffset, BasicBlockPath path) throws SyntaxException {
 		if (DEBUG) LOGGER.debug(" -> Add ARRAY FIELD: "+new String(ca[0])+"."+new String(ca[1])+"\tfuzzy="+fuzzyLevel+"/"+fuzzyLevelOffset);
-		if (fuzzyLevel+fuzzyLevelOffset > MAX_FUZZY_LEVEL) {
-			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+MAX_FUZZY_LEVEL+"): aborting.");
+		if (fuzzyLevel+fuzzyLevelOffset > maxFuzzyLevel) {
+			if (DEBUG) LOGGER.debug("    Maximum fuzzy level reached ("+maxFuzzyLevel+"): aborting.");
 			return false;
 		}
-		if (fuzzyLevelOffset < MAX_FUZZY_LEVEL-2) {
-			if (DEBUG) LOGGER.debug("    Setting fuzzy offset to "+(MAX_FUZZY_LEVEL-2));
-			fuzzyLevelOffset = MAX_FUZZY_LEVEL-2;
+		if (fuzzyLevelOffset < maxFuzzyLevel-2) {
+			if (DEBUG) LOGGER.debug("    Setting fuzzy offset to "+(maxFuzzyLevel-2));
+			fuzzyLevelOffset = maxFuzzyLevel-2;
 		}
 		
 		ClassContentTracker ctt = new ClassContentTracker(ca, fuzzyLevel, fuzzyLevelOffset, path);
-		if (arrayMap.contains(ctt)) return false;
-		if (arrayMapDone.contains(ctt)) return false;
+		ctt.tag = tag;
+		if (arrayMap.contains(ctt) || arrayMapDone.contains(ctt)) {
+			countDuplicate();
+			return false;
+		}
 		arrayMap.add(ctt);
 		return true;
 	}
 	
 	
 	public ClassContentTracker getNextCaToTrack() {
-		ClassContentTracker ctt = null;
-		for (ClassContentTracker ctt2 : arrayMap) { // get one item "at random"
-			ctt = ctt2;
-			break;
-		}
-		arrayMap.remove(ctt);
+		ClassContentTracker ctt = next(arrayMap);
+		setCriteria(ctt.tag);
 		arrayMapDone.add(ctt);
+		countArray();
 		if (DEBUG) LOGGER.debug("\n\n-> TRACKING ARRAY FIELD: "+new String(ctt.getCi()[0])+"."+new String(ctt.getCi()[1])+"\tfuzzy="+ctt.getFuzzyLevel()+"/"+ctt.getFuzzyOffset());
 		return ctt;
 	}
@@ -470,6 +659,30 @@ public class TodoList {
 	 * @return
 	 */
 	public int getFinishedRsCount() {
-		return regListDone.size();
+		return finishedRs;
+	}
+	
+	
+	/**
+	 * Returns the amount of finished RS searches which were searched for a criterion.
+	 * @param criterion
+	 * @return
+	 */
+	public int getFinishedRsCount(SlicingCriterion criterion) {
+		Integer count = finishedRsCounts.get(criterion);
+		return count == null ? 0 : count;
+	}
+	
+	
+	/**
+	 * Remove the oldest entry from a queue.
+	 * @param queue
+	 * @return the entry
+	 */
+	private static ClassContentTracker next(LinkedHashSet<ClassContentTracker> queue) {
+		Iterator<ClassContentTracker> iter = queue.iterator();
+		ClassContentTracker ctt = iter.next();
+		iter.remove();
+		return ctt;
 	}
 }
@@ -80,6 +80,20 @@ public class Application implements ApplicationInterface {
 	private Config config;
 	private HashMap<String,ClassInterface> smaliClassMap = new HashMap<String, ClassInterface
 			>();
+	/**
+	 * If set, the smali classes are disassembled from the dex file instead of
+	 * being read from the bytecode directory.
+	 */
+	private DexDisassembler dexDisassembler;
+	/**
+	 * Interns the descriptors referenced by the instructions of all classes.
+	 */
+	private final SymbolTable symbolTable = new SymbolTable();
+	/**
+	 * The invokes of all parsed classes.
+	 */
+	private final InvokeIndex invokeIndex = new InvokeIndex();
+	private FieldAccessIndex fieldAccessIndex = null; // guarded by this
 	/**
 	 * This map stores all calculated message Digests for this application.
 	 */
@@ -198,6 +212,8 @@ public class Application implements ApplicationInterface {
 
 	@Override
 	public Vector<File> getAllRawSmaliFiles(boolean includeFilesFromAdPackages) {
+		if (dexDisassembler != null)
+			return dexDisassembler.getFiles(includeFilesFromAdPackages);
 		if (allSmaliClasss == null)
 			allSmaliClasss = new FileList(bytecodeDirectory,
 					FileList.SMALI_FILES);
@@ -216,15 +232,16 @@ public class Application implements ApplicationInterface {
 	private boolean changed;
 
 	@Override
-	public ClassInterface getSmaliClass(File file) {
+	public synchronized ClassInterface getSmaliClass(File file) {
 		ClassInterface sf = smaliClassMap.get(file.getAbsolutePath());
 		if (sf == null ){
 			boolean inAdFramework=false;
 			inAdFramework = config.getAdChecker().containsAnAd(file);
 			try {
-				sf = new SmaliClass(file, this, smaliClassLabel++);
+				sf = parseSmaliClass(file);
 				sf.setInAdFramework(inAdFramework);
 				smaliClassMap.put(file.getAbsolutePath(), sf);
+				invokeIndex.add(sf);
 			} catch (IOException e) {
 				LOGGER.error("Could not create SmaliClass object", e);
 			} catch (DetectionLogicError e) {
@@ -237,7 +254,7 @@ public class Application implements ApplicationInterface {
 	}
 
 	@Override
-	public LinkedList<ClassInterface> getAllSmaliClasss(
+	public synchronized LinkedList<ClassInterface> getAllSmaliClasss(
 			boolean includeFilesFromAdPackages) {
 		LinkedList<ClassInterface> sfList = new LinkedList<ClassInterface>();
 		for (File f : getAllRawSmaliFiles(includeFilesFromAdPackages)) {
@@ -246,9 +263,10 @@ public class Application implements ApplicationInterface {
 				boolean inAdFramework=false;
 				inAdFramework = config.getAdChecker().containsAnAd(f);
 				try {
-					sf = new SmaliClass(f, this, smaliClassLabel++);
+					sf = parseSmaliClass(f);
 					sf.setInAdFramework(inAdFramework);
 					smaliClassMap.put(f.getAbsolutePath(), sf);
+					invokeIndex.add(sf);
 				} catch (IOException e) {
 					LOGGER.error("Could not create SmaliClass object", e);
 				} catch (DetectionLogicError e) {
@@ -263,8 +281,50 @@ public class Application implements ApplicationInterface {
 	}
 
 	@Override
-	public void setAllSmaliClasss(HashMap<String, ClassInterface> smaliClassMap) {
+	public synchronized void setAllSmaliClasss(HashMap<String, ClassInterface> smaliClassMap) {
 		this.smaliClassMap = smaliClassMap;
+		this.fieldAccessIndex = null;
+	}
+
+	@Override
+	public void setDexDisassembler(DexDisassembler disassembler) {
+		this.dexDisassembler = disassembler;
+	}
+
+	@Override
+	public SymbolTable getSymbolTable() {
+		return symbolTable;
+	}
+
+	@Override
+	public InvokeIndex getInvokeIndex() {
+		return invokeIndex;
+	}
+
+	@Override
+	public synchronized FieldAccessIndex getFieldAccessIndex() {
+		if (fieldAccessIndex == null) {
+			fieldAccessIndex = new FieldAccessIndex(getAllSmaliClasss(false));
+		}
+		return fieldAccessIndex;
+	}
+
+	/**
+	 * Parse a smali class from its file or, if a {@link DexDisassembler} is set, from the dex file.
+	 */
+	private SmaliClass parseSmaliClass(File file) throws IOException, DetectionLogicError, SmaliClassError {
+		if (dexDisassembler != null && dexDisassembler.contains(file)) {
+			return new SmaliClass(file, dexDisassembler.disassemble(file), this, smaliClassLabel++);
+		}
+		return new SmaliClass(file, this, smaliClassLabel++);
+	}
+
+	/**
+	 * @return true if the smali class for this file exists on the disk or in the dex file
+	 */
+	private boolean smaliClassExists(File file) {
+		if (dexDisassembler != null) return dexDisassembler.contains(file);
+		return file.exists();
 	}
 
 
@@ -284,6 +344,20 @@ public class Application implements ApplicationInterface {
 		return nr;
 	}
 
+	@Override
+	public synchronized int getNumberOfParsedClasses() {
+		return smaliClassMap.size();
+	}
+
+	@Override
+	public synchronized int getNumberOfParsedCodelines() {
+		int nr = 0;
+		for (ClassInterface f : smaliClassMap.values()) {
+			nr += f.getLinesOfCode();
+		}
+		return nr;
+	}
+
 
 	@Override
 	public MethodInterface getMethodByClassAndName(String className,
@@ -291,7 +365,7 @@ public class Application implements ApplicationInterface {
 			byte[] returnValue)
 			throws ClassOrMethodNotFoundException {
 		File f = new File(bytecodeDirectory, className + ".smali");
-		if (!f.exists()) {
+		if (!smaliClassExists(f)) {
 			StringBuilder sb = new StringBuilder();
 			sb.append("Lost track, class unknown: ");
 			sb.append(className);
@@ -0,0 +1,190 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import de.rub.syssec.saaf.application.instructions.Instruction;
+import de.rub.syssec.saaf.misc.ByteUtils;
+import de.rub.syssec.saaf.misc.KMP;
+
+/**
+ * The text of one SMALI class. The lines are stored back to back in a
+ * single byte array without their leading and trailing whitespace, a line
+ * is only its end offset in this array. {@link CodeLine}s are views on
+ * these lines.
+ *
+ * Lines are added while the class is parsed, afterwards the arena is only
+ * read.
+ */
+final class CodeArena {
+
+	private byte[] bytes;
+	private int[] ends;
+	private int size = 0;
+	private int lines = 0;
+
+	/**
+	 * @param expectedSize the expected number of bytes, the arena grows if needed
+	 */
+	CodeArena(int expectedSize) {
+		bytes = new byte[Math.max(16, expectedSize)];
+		ends = new int[Math.max(16, expectedSize / 32)];
+	}
+
+	/**
+	 * Append a line. Whitespace and unprintable bytes (bytes <= 32) at the
+	 * beginning and the end are not stored.
+	 *
+	 * @param source the array holding the line
+	 * @param offset the begin of the line in source
+	 * @param length the length of the line
+	 * @return the index of the new line
+	 */
+	int add(byte[] source, int offset, int length) {
+		int begin = offset;
+		int end = offset + length - 1;
+		while (begin <= end && source[begin] <= 32) { begin++; }
+		while (end >= begin && source[end] <= 32) { end--; }
+		int trimmed = end - begin + 1;
+
+		if (size + trimmed > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(size + trimmed, bytes.length + (bytes.length >> 1)));
+		}
+		if (lines == ends.length) {
+			ends = Arrays.copyOf(ends, ends.length + (ends.length >> 1));
+		}
+		System.arraycopy(source, begin, bytes, size, trimmed);
+		size += trimmed;
+		ends[lines] = size;
+		return lines++;
+	}
+
+	/**
+	 * Release the space reserved for further lines.
+	 */
+	void trimToSize() {
+		if (bytes.length != size) bytes = Arrays.copyOf(bytes, size);
+		if (ends.length != lines) ends = Arrays.copyOf(ends, lines);
+	}
+
+	/**
+	 * @return the number of lines
+	 */
+	int getLines() {
+		return lines;
+	}
+
+	/**
+	 * @return the number of bytes of all lines
+	 */
+	int getSize() {
+		return size;
+	}
+
+	int offset(int line) {
+		return line == 0 ? 0 : ends[line - 1];
+	}
+
+	int length(int line) {
+		return ends[line] - offset(line);
+	}
+
+	/**
+	 * @return a copy of the line
+	 */
+	byte[] copyOf(int line) {
+		int offset = offset(line);
+		return Arrays.copyOfRange(bytes, offset, ends[line]);
+	}
+
+	byte byteAt(int line, int index) {
+		return bytes[offset(line) + index];
+	}
+
+	/**
+	 * @see ByteUtils#startsWith(byte[], byte[])
+	 */
+	boolean startsWith(int line, byte[] pattern) {
+		if (pattern.length > length(line)) return false;
+		return ByteUtils.startsWith(bytes, offset(line), pattern);
+	}
+
+	/**
+	 * @see ByteUtils#contains(byte[], byte[])
+	 */
+	boolean contains(int line, byte[] pattern) {
+		return KMP.indexOf(bytes, offset(line), ends[line], pattern) >= 0;
+	}
+
+	/**
+	 * @return the index of the first occurrence of the pattern in the line or -1
+	 */
+	int indexOf(int line, byte[] pattern) {
+		int offset = offset(line);
+		int i = KMP.indexOf(bytes, offset, ends[line], pattern);
+		return i < 0 ? -1 : i - offset;
+	}
+
+	/**
+	 * @return the same value as {@link Arrays#hashCode(byte[])} for a copy of the line
+	 */
+	int hashCode(int line) {
+		int result = 1;
+		for (int i = offset(line); i < ends[line]; i++) {
+			result = 31 * result + bytes[i];
+		}
+		return result;
+	}
+
+	boolean equals(int line, CodeArena other, int otherLine) {
+		int length = length(line);
+		if (length != other.length(otherLine)) return false;
+		int offset = offset(line);
+		int otherOffset = other.offset(otherLine);
+		for (int i = 0; i < length; i++) {
+			if (bytes[offset + i] != other.bytes[otherOffset + i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the same value as {@link Arrays#equals(byte[], byte[])} for a copy of the line
+	 */
+	boolean equals(int line, byte[] other) {
+		int length = length(line);
+		if (other == null || length != other.length) return false;
+		int offset = offset(line);
+		for (int i = 0; i < length; i++) {
+			if (bytes[offset + i] != other[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @see Instruction#split(byte[])
+	 */
+	LinkedList<byte[]> split(int line) {
+		return Instruction.split(bytes, offset(line), ends[line]);
+	}
+
+	String toString(int line) {
+		int offset = offset(line);
+		return new String(bytes, offset, ends[line] - offset);
+	}
+}
@@ -16,11 +16,10 @@
  */
 package de.rub.syssec.saaf.application;
 
-import java.util.Arrays;
+import java.util.LinkedList;
 
 import de.rub.syssec.saaf.application.instructions.Instruction;
 import de.rub.syssec.saaf.application.manifest.permissions.Permission;
-import de.rub.syssec.saaf.misc.ByteUtils;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
 import de.rub.syssec.saaf.model.application.MethodInterface;
@@ -30,12 +29,14 @@ import de.rub.syssec.saaf.model.application.instruction.InstructionType;
 /**
  * This class represents one line of code. The codeline will be stripped of all leading
  * and trailing whitespace and unprintable bytes in the range of 0 to 32.
+ * 
+ * The bytes of the line are not stored here, but in the {@link CodeArena} of its class.
  */
 public class CodeLine implements CodeLineInterface {
 	
 	
-	private final byte[] line;
-	private final int lineNr;
+	private final CodeArena arena;
+	private final int index;
 	private final InstructionInterface instruction;	
 	private final ClassInterface sf;
 	private Permission permission = null;
@@ -46,15 +47,15 @@ public class CodeLine implements CodeLineInterface {
 	
 	/**
 	 * This class represent one line from a SmaliClass.
-	 * @param line the bytes from the line from the original SmaliClass
-	 * @param lineNr the line number in the file
+	 * @param arena the text of the SmaliClass
+	 * @param index the index of the line in the arena, the line number is index + 1
 	 * @param sf a reference to the SmaliClass
 	 */
-	protected CodeLine(byte[] line, int lineNr, ClassInterface sf) {
-		this.line = trim(line);
-		this.lineNr = lineNr;
+	protected CodeLine(CodeArena arena, int index, ClassInterface sf) {
+		this.arena = arena;
+		this.index = index;
 		this.sf = sf;
-		instruction = new Instruction(this);
+		instruction = new Instruction(this, isEmpty() ? 0 : arena.byteAt(index, 0));
 	}
 	
 	
@@ -63,7 +64,37 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public byte[] getLine() {
-		return line;
+		return arena.copyOf(index);
+	}
+	
+	@Override
+	public int length() {
+		return arena.length(index);
+	}
+
+	@Override
+	public byte byteAt(int i) {
+		return arena.byteAt(index, i);
+	}
+
+	@Override
+	public int indexOf(byte[] pattern) {
+		return arena.indexOf(index, pattern);
+	}
+
+	@Override
+	public boolean lineEquals(byte[] bytes) {
+		return arena.equals(index, bytes);
+	}
+
+	@Override
+	public LinkedList<byte[]> split() {
+		return arena.split(index);
+	}
+
+	@Override
+	public String getLineAsString() {
+		return arena.toString(index);
 	}
 	
 	/* (non-Javadoc)
@@ -71,19 +102,12 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public int getLineNr() {
-		return lineNr;
+		return index + 1;
 	}
 	
-	StringBuilder clSb;
 	@Override
 	public String toString() {
-		if (clSb == null) { // init
-			clSb = new StringBuilder();
-			clSb.append(lineNr);
-			clSb.append(":   ");
-			clSb.append(new String(line));
-		}
-		return clSb.toString();
+		return getLineNr() + ":   " + arena.toString(index);
 	}
 	
 	/* (non-Javadoc)
@@ -91,7 +115,7 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public String getNrAndLine(){
-		return lineNr+" "+new String(line);
+		return getLineNr()+" "+arena.toString(index);
 	}
 	
 	/* (non-Javadoc)
@@ -99,8 +123,7 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public boolean isEmpty() {
-		if (line.length == 0) return true;
-		else return false;
+		return arena.length(index) == 0;
 	}
 	
 	/* (non-Javadoc)
@@ -108,6 +131,7 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public boolean isCode() {
+		InstructionInterface instruction = getInstruction();
 		if (		instruction.getType() == InstructionType.NOT_YET_PARSED || instruction.getType() == InstructionType.SMALI_DOT_COMMENT
 				||	instruction.getType() == InstructionType.EMPTY_LINE || instruction.getType() == InstructionType.LABEL
 				||	instruction.getType() == InstructionType.SMALI_HASH_KEY_COMMENT
@@ -115,23 +139,7 @@ public class CodeLine implements CodeLineInterface {
 				||	instruction.getType() == InstructionType.NOP) return false;
 		else return true;
 	}
-	
-	
-	/**
-	 * Deletes all whitespace and non printable bytes (bytes <= 32) from the beginning and the end of the byte array
-	 * @param line
-	 * @return
-	 */
-	private static byte[] trim(byte[] line) {
-		int begin = 0;
-		while (begin < line.length && line[begin] <= 32) { begin++;	}
-		
-		int end = line.length-1;
-		while (end >= 0 && line[end] <= 32) { end--; }
-		
-		if (end < begin) return new byte[0];
-		else return Arrays.copyOfRange(line, begin, end+1);
-	}
+
 	
 	
 	/* (non-Javadoc)
@@ -139,7 +147,7 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public boolean startsWith(byte[] pattern) {
-		return ByteUtils.startsWith(line, pattern);
+		return arena.startsWith(index, pattern);
 	}
 	
 	/* (non-Javadoc)
@@ -148,7 +156,7 @@ public class CodeLine implements CodeLineInterface {
 	@Override
 	@Deprecated
 	public boolean startsWith(String pattern) {
-		return ByteUtils.startsWith(line, pattern.getBytes());
+		return arena.startsWith(index, pattern.getBytes());
 	}
 	
 	/* (non-Javadoc)
@@ -156,7 +164,7 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public boolean contains(byte[] pattern) {
-		return ByteUtils.contains(line, pattern);
+		return arena.contains(index, pattern);
 	}
 	
 	/* (non-Javadoc)
@@ -165,7 +173,7 @@ public class CodeLine implements CodeLineInterface {
 	@Override
 	@Deprecated
 	public boolean contains(String pattern) {
-		return ByteUtils.contains(line, pattern.getBytes());
+		return arena.contains(index, pattern.getBytes());
 	}
 	
 	/* (non-Javadoc)
@@ -173,6 +181,19 @@ public class CodeLine implements CodeLineInterface {
 	 */
 	@Override
 	public InstructionInterface getInstruction() {
+		if (method != null) method.parseInstructions(); // only does something if the class is parsed lazily
+		return instruction;
+	}
+
+	/**
+	 * Parse the opcode of this line, but not those of the other lines of its method. This is
+	 * not synchronized with {@link MethodInterface#parseInstructions()} and must only be called
+	 * before the class is shared with other threads, see {@link InvokeIndex#add(ClassInterface)}.
+	 * 
+	 * @return the instruction
+	 */
+	InstructionInterface parseOwnInstruction() {
+		instruction.parseOpCode();
 		return instruction;
 	}
 
@@ -180,8 +201,8 @@ public class CodeLine implements CodeLineInterface {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + Arrays.hashCode(line);
-		result = prime * result + lineNr;
+		result = prime * result + arena.hashCode(index);
+		result = prime * result + getLineNr();
 		return result;
 	}
 
@@ -193,10 +214,10 @@ public class CodeLine implements CodeLineInterface {
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
-		CodeLineInterface other = (CodeLineInterface) obj;
-		if (!Arrays.equals(line, other.getLine()))
+		CodeLine other = (CodeLine) obj;
+		if (index != other.index)
 			return false;
-		if (lineNr != other.getLineNr())
+		if (!arena.equals(index, other.arena, other.index))
 			return false;
 		return true;
 	}
@@ -0,0 +1,77 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application;
+
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+/**
+ * A line of code found by an index, see {@link InvokeIndex} and
+ * {@link FieldAccessIndex}, and the BB it belongs to. The BB is only looked
+ * up when it is needed, so the BBs of a lazily parsed method are not
+ * generated by the index.
+ */
+public final class CodeSite {
+
+	private final CodeLineInterface codeLine;
+	private BasicBlockInterface basicBlock = null; // guarded by this
+	private int index = -1; // guarded by this
+	private boolean resolved = false; // guarded by this
+
+	CodeSite(CodeLineInterface codeLine) {
+		this.codeLine = codeLine;
+	}
+
+	/**
+	 * @return the line
+	 */
+	public CodeLineInterface getCodeLine() {
+		return codeLine;
+	}
+
+	/**
+	 * @return the BB which contains the line or null if its method has no BBs
+	 */
+	public synchronized BasicBlockInterface getBasicBlock() {
+		resolve();
+		return basicBlock;
+	}
+
+	/**
+	 * @return the index of the line in the code lines of its BB or -1
+	 */
+	public synchronized int getIndex() {
+		resolve();
+		return index;
+	}
+
+	private void resolve() {
+		if (resolved) return;
+		resolved = true;
+		MethodInterface method = codeLine.getMethod();
+		if (method == null) return;
+		for (BasicBlockInterface bb : method.getBasicBlocks()) {
+			int i = bb.getCodeLines().indexOf(codeLine);
+			if (i != -1) {
+				basicBlock = bb;
+				index = i;
+				return;
+			}
+		}
+	}
+}
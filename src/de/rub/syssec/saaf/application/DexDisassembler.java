@@ -0,0 +1,209 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Vector;
+
+import org.apache.log4j.Logger;
+import org.jf.baksmali.baksmali;
+import org.jf.baksmali.Adaptors.ClassDefinition;
+import org.jf.dexlib.ClassDefItem;
+import org.jf.dexlib.DexFile;
+import org.jf.dexlib.MethodIdItem;
+import org.jf.dexlib.Code.Analysis.SyntheticAccessorResolver;
+import org.jf.util.ClassFileNameHandler;
+import org.jf.util.IndentingWriter;
+
+import de.rub.syssec.saaf.misc.config.Config;
+
+/**
+ * Disassembles the classes.dex of an APK into SMALI code without writing any
+ * files. The code is the same apktool would write to the smali directory and
+ * every class is assigned the file apktool would have used, so the resulting
+ * {@link SmaliClass} objects have the same names and paths.
+ *
+ * baksmali keeps its options and the accessor resolver in static fields. The
+ * options are the same for every dex file and the static resolver only
+ * forwards to the resolver of the dex file the current thread disassembles,
+ * so classes of one or several dex files can be disassembled in parallel.
+ * Only the cache of each resolver is locked, it is shared by all threads
+ * disassembling the same dex file.
+ */
+public class DexDisassembler {
+
+	private static final Logger LOGGER = Logger.getLogger(DexDisassembler.class);
+
+	private static final ThreadResolver RESOLVER = new ThreadResolver();
+
+	private final DexFile dexFile;
+	private final SyntheticAccessorResolver accessorResolver;
+
+	/**
+	 * The class definitions by the absolute path of their (virtual) SMALI file.
+	 */
+	private final HashMap<String, ClassDefItem> classDefs = new HashMap<String, ClassDefItem>();
+	private final Vector<File> files = new Vector<File>();
+	private final Vector<File> filesADS = new Vector<File>();
+
+	/**
+	 * Read the classes.dex of an APK.
+	 *
+	 * @param apk the apk (or a dex file)
+	 * @param smaliDirectory the directory apktool would write the SMALI files to
+	 * @throws IOException if the dex file could not be read
+	 */
+	public DexDisassembler(File apk, File smaliDirectory) throws IOException {
+		try {
+			this.dexFile = new DexFile(apk);
+		} catch (RuntimeException e) {
+			// dexlib reports missing and malformed files this way
+			throw new IOException("Could not read dex file from " + apk + ": " + e.getMessage(), e);
+		}
+		this.accessorResolver = new SyntheticAccessorResolver(dexFile) {
+			@Override
+			public synchronized AccessedMember getAccessedMember(MethodIdItem methodIdItem) {
+				// the resolved accessors are cached in a HashMap
+				return super.getAccessedMember(methodIdItem);
+			}
+		};
+
+		// same order and file names as baksmali.disassembleDexFile
+		List<ClassDefItem> items = new ArrayList<ClassDefItem>(dexFile.ClassDefsSection.getItems());
+		Collections.sort(items, new Comparator<ClassDefItem>() {
+			@Override
+			public int compare(ClassDefItem a, ClassDefItem b) {
+				return a.getClassType().getTypeDescriptor().compareTo(b.getClassType().getTypeDescriptor());
+			}
+		});
+		ClassFileNameHandler nameHandler = new ClassFileNameHandler(smaliDirectory.getAbsoluteFile(), ".smali");
+		Config config = Config.getInstance();
+		for (ClassDefItem item : items) {
+			String type = item.getClassType().getTypeDescriptor();
+			if (type.charAt(0) != 'L' || type.charAt(type.length() - 1) != ';') {
+				LOGGER.warn("Unrecognized class descriptor " + type + ", skipping class");
+				continue;
+			}
+			File f = nameHandler.getUniqueFilenameForClass(type);
+			classDefs.put(f.getAbsolutePath(), item);
+			// ad packages are detected by their directory, see FileList
+			if (config.getAdChecker().containsAnAd(f.getParentFile())) {
+				filesADS.add(f);
+			} else {
+				files.add(f);
+			}
+		}
+	}
+
+	/**
+	 * @param includeFilesFromAdPackages include classes from known ad packages?
+	 * @return the (virtual) SMALI files of all classes in the dex file
+	 */
+	public Vector<File> getFiles(boolean includeFilesFromAdPackages) {
+		Vector<File> allFiles = new Vector<File>(files);
+		if (includeFilesFromAdPackages) {
+			allFiles.addAll(filesADS);
+		}
+		return allFiles;
+	}
+
+	/**
+	 * @param smaliFile a (virtual) SMALI file
+	 * @return true if the dex file contains the class for this file
+	 */
+	public boolean contains(File smaliFile) {
+		return classDefs.containsKey(smaliFile.getAbsolutePath());
+	}
+
+	/**
+	 * Disassemble one class.
+	 *
+	 * @param smaliFile the (virtual) SMALI file of the class
+	 * @return the SMALI code as UTF-8 bytes
+	 * @throws IOException if the class is unknown or could not be disassembled
+	 */
+	public byte[] disassemble(File smaliFile) throws IOException {
+		ClassDefItem item = classDefs.get(smaliFile.getAbsolutePath());
+		if (item == null) {
+			throw new IOException("No class for " + smaliFile.getAbsolutePath() + " in dex file");
+		}
+		StringWriter out = new StringWriter();
+		configure();
+		RESOLVER.current.set(accessorResolver);
+		try {
+			ClassDefinition definition = new ClassDefinition(item);
+			IndentingWriter writer = new IndentingWriter(out);
+			try {
+				definition.writeTo(writer);
+			} catch (RuntimeException e) {
+				throw new IOException("Could not disassemble " + smaliFile.getName() + ": " + e.getMessage(), e);
+			}
+			writer.flush();
+			if (definition.hadValidationErrors()) {
+				LOGGER.warn("Validation errors while disassembling " + smaliFile.getName());
+			}
+		} finally {
+			RESOLVER.current.remove();
+		}
+		return out.toString().getBytes("UTF-8");
+	}
+
+	/**
+	 * Set the baksmali options to the values apktool uses when decoding an
+	 * APK, see brut.androlib.src.SmaliDecoder. They are the same for all
+	 * instances, so concurrent calls write the same values.
+	 */
+	private static void configure() {
+		baksmali.noParameterRegisters = false;
+		baksmali.useLocalsDirective = true;
+		baksmali.useSequentialLabels = true;
+		baksmali.outputDebugInfo = true;
+		baksmali.addCodeOffsets = false;
+		baksmali.noAccessorComments = false;
+		baksmali.deodex = false;
+		baksmali.registerInfo = 0;
+		baksmali.bootClassPath = null;
+		baksmali.verify = false;
+		baksmali.syntheticAccessorResolver = RESOLVER;
+	}
+
+	/**
+	 * The resolver baksmali uses for all dex files, it forwards to the
+	 * resolver of the dex file the calling thread disassembles.
+	 */
+	private static final class ThreadResolver extends SyntheticAccessorResolver {
+
+		private final ThreadLocal<SyntheticAccessorResolver> current = new ThreadLocal<SyntheticAccessorResolver>();
+
+		ThreadResolver() {
+			// an empty dex file, the lookups are forwarded
+			super(new DexFile());
+		}
+
+		@Override
+		public AccessedMember getAccessedMember(MethodIdItem methodIdItem) {
+			return current.get().getAccessedMember(methodIdItem);
+		}
+	}
+}
@@ -18,6 +18,7 @@ package de.rub.syssec.saaf.application;
 
 import java.util.EnumSet;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 
@@ -118,9 +119,10 @@ public class Field implements FieldInterface {
 	@Override
 	public String getFieldName() {
 		if (fieldName == null) {
-			int colonIndex = ByteUtils.indexOf(cl.getLine(), ':');
-			int spaceBeforeColonPos = ByteUtils.indexOfReverse(cl.getLine(), ' ', colonIndex);
-			fieldName = new String(ByteUtils.subbytes(cl.getLine(), spaceBeforeColonPos+1, colonIndex));
+			byte[] line = cl.getLine();
+			int colonIndex = ByteUtils.indexOf(line, ':');
+			int spaceBeforeColonPos = ByteUtils.indexOfReverse(line, ' ', colonIndex);
+			fieldName = new String(ByteUtils.subbytes(line, spaceBeforeColonPos+1, colonIndex));
 		}
 		return fieldName;
 		
@@ -134,7 +136,7 @@ public class Field implements FieldInterface {
 	 * @param codeLines
 	 * @return
 	 */
-	public static LinkedList<FieldInterface> parseAllFields(LinkedList<CodeLineInterface> codeLines) {
+	public static LinkedList<FieldInterface> parseAllFields(List<CodeLineInterface> codeLines) {
 		LinkedList<FieldInterface> fieldList = new LinkedList<FieldInterface>();
 		for (CodeLineInterface codeLine : codeLines) {
 			if (codeLine.startsWith(FIELD)) {
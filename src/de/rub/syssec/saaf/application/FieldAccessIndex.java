@@ -0,0 +1,101 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import de.rub.syssec.saaf.model.application.ClassInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionType;
+
+/**
+ * All PUT and GET instructions of a set of classes by the IDs of the class
+ * and the name of the accessed field, see
+ * {@link InstructionInterface#getResultFieldSymbols()} and
+ * {@link InstructionInterface#getInvolvedFieldSymbols()}. The sites are
+ * returned in the order of the classes and then by line.
+ *
+ * The index is built once and not changed afterwards, all methods are
+ * threadsafe.
+ */
+public final class FieldAccessIndex {
+
+	private final HashMap<Long, List<CodeSite>> writes = new HashMap<Long, List<CodeSite>>();
+	private final HashMap<Long, List<CodeSite>> reads = new HashMap<Long, List<CodeSite>>();
+
+	/**
+	 * Scan the classes. Their instructions are parsed if they are parsed
+	 * lazily, but not their BBs.
+	 *
+	 * @param classes the classes to index
+	 */
+	public FieldAccessIndex(Collection<? extends ClassInterface> classes) {
+		for (ClassInterface smaliClass : classes) {
+			for (CodeLineInterface cl : smaliClass.getAllCodeLines()) {
+				InstructionInterface instruction = cl.getInstruction();
+				if (instruction.getType() == InstructionType.PUT) {
+					put(writes, instruction.getResultFieldSymbols(), cl);
+				}
+				else if (instruction.getType() == InstructionType.GET) {
+					put(reads, instruction.getInvolvedFieldSymbols(), cl);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param field the IDs of the class and the field name
+	 * @return the xPUT-x instructions which store into the field, the list must not be modified
+	 */
+	public List<CodeSite> getWrites(int[] field) {
+		return get(writes, field);
+	}
+
+	/**
+	 * @param field the IDs of the class and the field name
+	 * @return the xGET-x instructions which load the field, the list must not be modified
+	 */
+	public List<CodeSite> getReads(int[] field) {
+		return get(reads, field);
+	}
+
+	private static List<CodeSite> get(HashMap<Long, List<CodeSite>> map, int[] field) {
+		List<CodeSite> sites = map.get(key(field));
+		if (sites == null) return Collections.emptyList();
+		return Collections.unmodifiableList(sites);
+	}
+
+	private static long key(int[] field) {
+		return ((long) field[0] << 32) | (field[1] & 0xffffffffL);
+	}
+
+	private static void put(HashMap<Long, List<CodeSite>> map, int[] field, CodeLineInterface cl) {
+		if (field == null) return;
+		Long key = key(field);
+		List<CodeSite> sites = map.get(key);
+		if (sites == null) {
+			sites = new ArrayList<CodeSite>(2);
+			map.put(key, sites);
+		}
+		sites.add(new CodeSite(cl));
+	}
+}
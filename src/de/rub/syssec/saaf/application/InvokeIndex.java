@@ -0,0 +1,151 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import de.rub.syssec.saaf.model.application.ClassInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionType;
+
+/**
+ * All INVOKE and INVOKE_STATIC instructions of an application by the IDs of
+ * the called class, method and parameters, see
+ * {@link de.rub.syssec.saaf.model.application.instruction.InstructionInterface#getCalledSymbols()}.
+ * Classes are added once they are parsed, the call sites are returned in
+ * the order in which their classes were added and then by line. The BB of
+ * a call site is looked up on demand, see {@link CodeSite}.
+ *
+ * All methods are threadsafe.
+ */
+public final class InvokeIndex {
+
+	/**
+	 * Matches every class or every parameter declaration in {@link #find(int, int, int)}.
+	 */
+	public static final int ANY = -2;
+
+	/**
+	 * The prefix of all invoke opcodes, the lines are stripped of leading whitespace.
+	 */
+	private static final byte[] INVOKE = "invoke".getBytes();
+
+	private final Set<ClassInterface> classes = Collections.newSetFromMap(new IdentityHashMap<ClassInterface, Boolean>());
+	private final List<CodeSite> callSites = new ArrayList<CodeSite>();
+	private final HashMap<Long, List<CodeSite>> byClassAndMethod = new HashMap<Long, List<CodeSite>>();
+	private final HashMap<Integer, List<CodeSite>> byMethod = new HashMap<Integer, List<CodeSite>>();
+
+	/**
+	 * Add the invokes of a class. A class is only added once.
+	 *
+	 * The lines are matched against the invoke prefix in the code arena of the
+	 * class and only the matching lines are parsed. The other lines of a lazily
+	 * parsed class stay unparsed. The class must not be shared with other
+	 * threads yet, see {@link CodeLine#parseOwnInstruction()}.
+	 *
+	 * @param smaliClass the class
+	 */
+	public void add(ClassInterface smaliClass) {
+		// scan outside of the lock, classes may be added by several threads
+		List<CodeSite> found = new ArrayList<CodeSite>();
+		List<int[]> foundSymbols = new ArrayList<int[]>();
+		for (CodeLineInterface cl : smaliClass.getAllCodeLines()) {
+			if (!cl.startsWith(INVOKE)) continue;
+			// getInstruction() would parse all lines of the method
+			InstructionInterface instruction = cl instanceof CodeLine ? ((CodeLine) cl).parseOwnInstruction() : cl.getInstruction();
+			InstructionType type = instruction.getType();
+			if (type == InstructionType.INVOKE || type == InstructionType.INVOKE_STATIC) {
+				found.add(new CodeSite(cl));
+				foundSymbols.add(instruction.getCalledSymbols());
+			}
+		}
+		synchronized (this) {
+			if (!classes.add(smaliClass)) return;
+			for (int i = 0; i < found.size(); i++) {
+				int[] called = foundSymbols.get(i);
+				callSites.add(found.get(i));
+				put(byClassAndMethod, key(called[0], called[1]), found.get(i));
+				put(byMethod, called[1], found.get(i));
+			}
+		}
+	}
+
+	/**
+	 * @param smaliClass the class
+	 * @return true if the invokes of the class were added
+	 */
+	public synchronized boolean contains(ClassInterface smaliClass) {
+		return classes.contains(smaliClass);
+	}
+
+	/**
+	 * Find the invokes of a method. An ID of {@link SymbolTable#NONE}
+	 * matches nothing.
+	 *
+	 * @param calledClass the ID of the class or {@link #ANY}
+	 * @param calledMethod the ID of the method name
+	 * @param calledParameters the ID of the parameter declaration or {@link #ANY}
+	 * @return the call sites, the list is a copy
+	 */
+	public synchronized List<CodeSite> find(int calledClass, int calledMethod, int calledParameters) {
+		List<CodeSite> candidates;
+		if (calledClass == ANY) candidates = byMethod.get(calledMethod);
+		else candidates = byClassAndMethod.get(key(calledClass, calledMethod));
+		if (candidates == null) return new ArrayList<CodeSite>(0);
+		if (calledParameters == ANY) return new ArrayList<CodeSite>(candidates);
+		List<CodeSite> result = new ArrayList<CodeSite>();
+		for (CodeSite site : candidates) {
+			if (site.getCodeLine().getInstruction().getCalledSymbols()[2] == calledParameters) {
+				result.add(site);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all call sites, the list is a copy
+	 */
+	public synchronized List<CodeSite> getAll() {
+		return new ArrayList<CodeSite>(callSites);
+	}
+
+	/**
+	 * @return the number of call sites
+	 */
+	public synchronized int size() {
+		return callSites.size();
+	}
+
+	private static long key(int calledClass, int calledMethod) {
+		return ((long) calledClass << 32) | (calledMethod & 0xffffffffL);
+	}
+
+	private static <K> void put(HashMap<K, List<CodeSite>> map, K key, CodeSite site) {
+		List<CodeSite> sites = map.get(key);
+		if (sites == null) {
+			sites = new ArrayList<CodeSite>(2);
+			map.put(key, sites);
+		}
+		sites.add(site);
+	}
+}
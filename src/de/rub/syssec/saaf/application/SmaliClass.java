@@ -16,9 +16,7 @@
  */
 package de.rub.syssec.saaf.application;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,9 +28,11 @@ import java.util.List;
 import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.obfuscation.Entropy;
-import de.rub.syssec.saaf.application.instructions.Instruction;
 import de.rub.syssec.saaf.application.methods.Method;
 import de.rub.syssec.saaf.misc.ByteUtils;
+import de.rub.syssec.saaf.misc.LineReader;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
@@ -54,7 +54,7 @@ public class SmaliClass implements ClassInterface {
 	private static final boolean DEBUG=Boolean.parseBoolean(System.getProperty("debug.slicing","false"));
 	private PackageInterface javaPackage;
 
-	private LinkedList<CodeLineInterface> codeLineList = new LinkedList<CodeLineInterface>();	
+	private ArrayList<CodeLineInterface> codeLineList = new ArrayList<CodeLineInterface>();	
 	
 	private LinkedList<MethodInterface> methodList = new LinkedList<MethodInterface>();
 	private LinkedList<MethodInterface> emptyMethodList = new LinkedList<MethodInterface>();
@@ -77,9 +77,14 @@ public class SmaliClass implements ClassInterface {
 	private final HashSet<String> implementedInterfaces = new HashSet<String>();
 	
 	private static final int MAXIMAL_SMALI_FILE_SIZE = 1024 * 1024 * 100; // 100mb
+	private static final int MAXIMAL_LINE_LENGTH = 256000; // 250k
 	private int size = 0; 
 	
 	private final int label;
+	/**
+	 * Parse the instructions and BBs of a method only when they are needed, see {@link ConfigKeys#ANALYSIS_PARSE_LAZY}.
+	 */
+	private final boolean lazy;
 	
 	private boolean inAdFramework=false;
 	private boolean changed;
@@ -97,12 +102,28 @@ public class SmaliClass implements ClassInterface {
 	 * @throws SmaliClassError 
 	 */
 	public SmaliClass(File smaliFile, ApplicationInterface app, int label) throws IOException, DetectionLogicError, SmaliClassError {
+		this(smaliFile, null, app, label);
+	}
+
+	/**
+	 * A SMALI class whose code is already in memory, eg, disassembled by the {@link DexDisassembler}.
+	 * 
+	 * @param smaliFile the file apktool would have written the code to, need not exist
+	 * @param smali the SMALI code or null to read it from smaliFile
+	 * @param app the app
+	 * @param label the unique label of the SMALI file within an application
+	 * @throws IOException is some IO error occurred
+	 * @throws DetectionLogicError if the BBs could not be correctly labeled
+	 * @throws SmaliClassError 
+	 */
+	public SmaliClass(File smaliFile, byte[] smali, ApplicationInterface app, int label) throws IOException, DetectionLogicError, SmaliClassError {
 		this.smaliFile = smaliFile;
 		this.app = app;
 		this.label = label;
+		this.lazy = Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY);
 		this.javaPackage = new JavaPackage(app);
 		if (DEBUG) LOGGER.debug("Parsing SMALI code for file "+smaliFile.getName());
-		parse();
+		parse(smali);
 		this.changed = true;
 	}
 
@@ -119,37 +140,31 @@ public class SmaliClass implements ClassInterface {
 	
 	/**
 	 * Parse the codelines.
+	 * @param smali the SMALI code or null to read it from the file
 	 * @throws IOException 
 	 * @throws DetectionLogicError if the BBs could not be correctly labeled
 	 * @throws SmaliClassError 
 	 */
-	private void parse() throws IOException, DetectionLogicError, SmaliClassError {
-	
-		FileInputStream fis = null;
-		BufferedInputStream bis = null;
-		try {
-			int lineNr = 1;
-			fis = new FileInputStream(smaliFile);
-			bis = new BufferedInputStream(fis);
-			byte[] line;
-			while ((line = ByteUtils.parseLine(bis, 256000)) != null) { // 250k
-				codeLineList.addLast(new CodeLine(line, lineNr++, this));
-				size += line.length;
-				if (size > MAXIMAL_SMALI_FILE_SIZE) throw new IOException("Maximum SMALI file size of "+MAXIMAL_SMALI_FILE_SIZE+" bytes exceeded!");
-			}
+	private void parse(byte[] smali) throws IOException, DetectionLogicError, SmaliClassError {
+	
+		LineReader lines;
+		if (smali != null) lines = new LineReader(smali, MAXIMAL_LINE_LENGTH);
+		else lines = LineReader.read(smaliFile, MAXIMAL_SMALI_FILE_SIZE, MAXIMAL_LINE_LENGTH);
+		CodeArena arena = new CodeArena(Math.min(lines.getSize(), MAXIMAL_SMALI_FILE_SIZE));
+		while (lines.next()) {
+			arena.add(lines.getBuffer(), lines.getOffset(), lines.getLength());
+			size += lines.getLength();
+			if (size > MAXIMAL_SMALI_FILE_SIZE) throw new IOException("Maximum SMALI file size of "+MAXIMAL_SMALI_FILE_SIZE+" bytes exceeded!");
 		}
-//		catch (Exception e) {
-//			LOGGER.logError(SmaliClass.class, "Could not read file: "+smaliFile.getAbsolutePath()+": "+e.getMessage());
-//			e.printStackTrace();
-//		}
-		finally {
-			try { if (bis != null) bis.close(); } catch (Exception e) { /*ignore*/ }
-			try { if (fis != null) fis.close(); } catch (Exception e) { /*ignore*/ }		
+		arena.trimToSize();
+		codeLineList.ensureCapacity(arena.getLines());
+		for (int i = 0; i < arena.getLines(); i++) {
+			codeLineList.add(new CodeLine(arena, i, this));
 		}
 		
 		boolean insideMethod = false;
 
-		LinkedList<CodeLineInterface> blockedCodeLines = new LinkedList<CodeLineInterface>();
+		ArrayList<CodeLineInterface> blockedCodeLines = new ArrayList<CodeLineInterface>();
 		
 		/**
 		 * All codelines not belonging to a method.
@@ -159,6 +174,7 @@ public class SmaliClass implements ClassInterface {
 		
 		final byte[] START_METHOD = ".method ".getBytes();
 		final byte[] END_METHOD = ".end method".getBytes();
+		final byte[] LINE = ".line".getBytes();
 		
 
 		/*
@@ -174,41 +190,48 @@ public class SmaliClass implements ClassInterface {
 		for (CodeLineInterface cl : codeLineList) {
 			if (cl.isEmpty()) continue; // skip empty lines
 			if (insideMethod) {
-				if (ByteUtils.startsWith(cl.getLine(), END_METHOD)) {
+				if (cl.startsWith(END_METHOD)) {
 					//	append, store method
-					blockedCodeLines.addLast(cl);
+					blockedCodeLines.add(cl);
+					blockedCodeLines.trimToSize();
 					Method m = new Method(blockedCodeLines, this, methodLabel++); // save
-					if (DEBUG) LOGGER.debug("> Parsing instructions/opcodes for method '"+m.getName()+"'");
 					for (CodeLineInterface mcl : blockedCodeLines) {
 						mcl.setMethod(m); // set a reference to the method for later and faster access
-						mcl.getInstruction().parseOpCode();
 					}
-					//TODO: do better, added generateBBs Method to  Method.java, which will now generate the BBs instead of directly
-					//generating the blocks at construction time, this should be the only place where this call is currently necessary
-					m.generateBBs();
-					
-					/*
-					 *  This is a "fix" for empty methods. Otherwise, this happens:
-					 *  Method.getFirstBasicBlock w/ this content
-					 *  	.method public abstract PpNzwq9T()Ljava/util/List;
-					 *  	.end method
-					 *  produces a java.util.NoSuchElementException. 
-					 */
-					if (!m.getBasicBlocks().isEmpty()) methodList.addLast(m);
-					else emptyMethodList.addLast(m);
+					if (lazy) {
+						// the opcodes are parsed when a line of the method is accessed and the BBs when they are requested,
+						// generateBBs() always creates at least one block, so the method cannot be empty
+						methodList.addLast(m);
+					}
+					else {
+						if (DEBUG) LOGGER.debug("> Parsing instructions/opcodes for method '"+m.getName()+"'");
+						//TODO: do better, added generateBBs Method to  Method.java, which will now generate the BBs instead of directly
+						//generating the blocks at construction time, this should be the only place where this call is currently necessary
+						m.generateBBs();
+
+						/*
+						 *  This is a "fix" for empty methods. Otherwise, this happens:
+						 *  Method.getFirstBasicBlock w/ this content
+						 *  	.method public abstract PpNzwq9T()Ljava/util/List;
+						 *  	.end method
+						 *  produces a java.util.NoSuchElementException. 
+						 */
+						if (!m.getBasicBlocks().isEmpty()) methodList.addLast(m);
+						else emptyMethodList.addLast(m);
+					}
 					
-					blockedCodeLines = new LinkedList<CodeLineInterface>(); // reset
+					blockedCodeLines = new ArrayList<CodeLineInterface>(); // reset
 					insideMethod = false;
 				}
 				else { // do not append .line to the method
-					if(!ByteUtils.startsWith(cl.getLine(), ".line".getBytes()))
-						blockedCodeLines.addLast(cl);
+					if(!cl.startsWith(LINE))
+						blockedCodeLines.add(cl);
 				}
 			}
 			else {
-				if (ByteUtils.startsWith(cl.getLine(), START_METHOD)) {
+				if (cl.startsWith(START_METHOD)) {
 					// new block and append
-					blockedCodeLines.addLast(cl); // either still empty or reseted in END
+					blockedCodeLines.add(cl); // either still empty or reseted in END
 					insideMethod = true;
 				}
 				else {
@@ -224,15 +247,15 @@ public class SmaliClass implements ClassInterface {
 		// parse implements, class and super lines
 		for (CodeLineInterface cl : otherCL) {
 			if (cl.startsWith(SUPER)) { // .super Landroid/app/Activity;
-				byte[] tmp = Instruction.split(cl.getLine()).getLast();
+				byte[] tmp = cl.split().getLast();
 				superClass = new String(ByteUtils.subbytes(tmp, 1, tmp.length-1)).replace("/", ".");
 			}
 			else if (cl.startsWith(IMPLEMENTS)) { // .implements Ljava/io/Serializable;
-				byte[] tmp = Instruction.split(cl.getLine()).getLast();
+				byte[] tmp = cl.split().getLast();
 				implementedInterfaces.add(new String(ByteUtils.subbytes(tmp, 1, tmp.length-1)).replace("/", "."));
 			}
 			else if (cl.startsWith(CLASS)) { // .class public Ltest/android/AndroidTestActivity;
-				byte[] tmp = Instruction.split(cl.getLine()).getLast();
+				byte[] tmp = cl.split().getLast();
 				List<String> packageNames = new ArrayList<String>();
 				String x[] = new String(ByteUtils.subbytes(tmp, 1, tmp.length-1)).split("/");
 				for (int i = 0; i<x.length-1; i++) { // do not include the class name
@@ -240,7 +263,7 @@ public class SmaliClass implements ClassInterface {
 				}
 				this.javaPackage.setName(packageNames);
 			} else if (cl.startsWith(SOURCE)) {// .source "MagicSMSActivity.java"
-				byte[] tmp = Instruction.split(cl.getLine()).getLast();
+				byte[] tmp = cl.split().getLast();
 				sourceFile = new String(ByteUtils.subbytes(tmp, 1, tmp.length-1));
 			}
 		}
@@ -267,7 +290,7 @@ public class SmaliClass implements ClassInterface {
 	 * @see de.rub.syssec.saaf.application.ClassInterface#getAllCodeLines()
 	 */
 	@Override
-	public LinkedList<CodeLineInterface> getAllCodeLines() {
+	public List<CodeLineInterface> getAllCodeLines() {
 		return codeLineList;
 	}
 	
@@ -0,0 +1,158 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the descriptors of an application, eg, class names, method names,
+ * parameter declarations and field names. Every distinct descriptor is
+ * stored once and gets a small ID, IDs start at 0. Two descriptors are
+ * equal if their IDs are equal.
+ *
+ * Classes are parsed in parallel, therefore all methods are threadsafe.
+ */
+public final class SymbolTable {
+
+	/**
+	 * The ID of a descriptor which is not in the table.
+	 */
+	public static final int NONE = -1;
+
+	private static final class Key {
+		private final byte[] bytes;
+		private final int begin;
+		private final int end;
+		private final int hash;
+
+		Key(byte[] bytes, int begin, int end) {
+			this.bytes = bytes;
+			this.begin = begin;
+			this.end = end;
+			int h = 1;
+			for (int i = begin; i < end; i++) {
+				h = 31 * h + bytes[i];
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			int length = end - begin;
+			if (hash != other.hash || length != other.end - other.begin) return false;
+			for (int i = 0; i < length; i++) {
+				if (bytes[begin + i] != other.bytes[other.begin + i]) return false;
+			}
+			return true;
+		}
+	}
+
+	private static final class Symbol {
+		private final byte[] bytes;
+		private volatile String string;
+
+		Symbol(byte[] bytes) {
+			this.bytes = bytes;
+		}
+	}
+
+	private final ConcurrentHashMap<Key, Integer> ids = new ConcurrentHashMap<Key, Integer>();
+	private volatile Symbol[] symbols = new Symbol[256];
+	private int size = 0; // guarded by this
+
+	/**
+	 * @param descriptor the descriptor
+	 * @return the ID of the descriptor, it is added if it is new
+	 */
+	public int intern(byte[] descriptor) {
+		return intern(descriptor, 0, descriptor.length);
+	}
+
+	/**
+	 * Intern a part of an array, the array is copied if the descriptor is new.
+	 *
+	 * @param source the array
+	 * @param begin the first byte of the descriptor
+	 * @param end the index after the last byte of the descriptor
+	 * @return the ID of the descriptor, it is added if it is new
+	 */
+	public int intern(byte[] source, int begin, int end) {
+		Key key = new Key(source, begin, end);
+		Integer id = ids.get(key);
+		if (id != null) return id;
+		synchronized (this) {
+			id = ids.get(key);
+			if (id != null) return id;
+			byte[] copy = Arrays.copyOfRange(source, begin, end);
+			if (size == symbols.length) {
+				symbols = Arrays.copyOf(symbols, size * 2);
+			}
+			symbols[size] = new Symbol(copy);
+			ids.put(new Key(copy, 0, copy.length), size);
+			return size++;
+		}
+	}
+
+	/**
+	 * Look up a descriptor without adding it.
+	 *
+	 * @param descriptor the descriptor, may be null
+	 * @return the ID or {@link #NONE} if no instruction references it
+	 */
+	public int lookup(byte[] descriptor) {
+		if (descriptor == null) return NONE;
+		Integer id = ids.get(new Key(descriptor, 0, descriptor.length));
+		return id != null ? id : NONE;
+	}
+
+	/**
+	 * @param id the ID
+	 * @return the descriptor, the array is shared and must not be modified
+	 */
+	public byte[] get(int id) {
+		return symbols[id].bytes;
+	}
+
+	/**
+	 * @param id the ID
+	 * @return the descriptor as a String, it is only created once
+	 */
+	public String getString(int id) {
+		Symbol symbol = symbols[id];
+		String s = symbol.string;
+		if (s == null) {
+			s = new String(symbol.bytes);
+			symbol.string = s;
+		}
+		return s;
+	}
+
+	/**
+	 * @return the number of distinct descriptors
+	 */
+	public synchronized int size() {
+		return size;
+	}
+}
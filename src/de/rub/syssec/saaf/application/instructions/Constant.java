@@ -18,6 +18,7 @@ package de.rub.syssec.saaf.application.instructions;
 
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,6 +26,7 @@ import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.application.CodeLine;
 import de.rub.syssec.saaf.application.Field;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
 import de.rub.syssec.saaf.misc.ByteUtils;
 import de.rub.syssec.saaf.model.application.BasicBlockInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
@@ -49,10 +51,11 @@ public class Constant implements ConstantInterface {
 	private static final boolean DEBUG=Boolean.parseBoolean(System.getProperty("debug.slicing","false"));
 	private static final Logger LOGGER = Logger.getLogger(Constant.class);
 	private static final String STRING_DESCRIPTION = "java/lang/String";
+	private static final byte[] CLOSING_PARENTHESIS = ")".getBytes();
 	
 	private final VariableType variableType;
 	private int fuzzyLevel;
-	private final LinkedList<BasicBlockInterface> path;
+	private final BasicBlockPath path;
 	
 	private final int searchId;
 	
@@ -67,10 +70,10 @@ public class Constant implements ConstantInterface {
 	 * @param searchId an Id which all Constants should have in common which were found during one run of the DetectionLogic for one tracked invoke
 	 * @throws SyntaxException if something goes wrong
 	 */
-	public Constant(CodeLineInterface cl, int fuzzyLevel, LinkedList<BasicBlockInterface> path, int searchId) throws SyntaxException {
+	public Constant(CodeLineInterface cl, int fuzzyLevel, BasicBlockPath path, int searchId) throws SyntaxException {
 		this.cl = cl;
 		this.fuzzyLevel = fuzzyLevel;
-		this.path = new LinkedList<BasicBlockInterface>(path);
+		this.path = new BasicBlockPath(path);
 		this.searchId = searchId;
 		/*
 		 * FIELD
@@ -78,24 +81,25 @@ public class Constant implements ConstantInterface {
 		if (cl.startsWith(Field.FIELD)) {
 			variableType = VariableType.FIELD_CONSTANT;
 			// parse name
-			int colonIndex = ByteUtils.indexOf(cl.getLine(), ':');
-			int spaceBeforeColonPos = ByteUtils.indexOfReverse(cl.getLine(), ' ', colonIndex);
-			identifier = new String(ByteUtils.subbytes(cl.getLine(), spaceBeforeColonPos+1, colonIndex));
+			byte[] line = cl.getLine();
+			int colonIndex = ByteUtils.indexOf(line, ':');
+			int spaceBeforeColonPos = ByteUtils.indexOfReverse(line, ' ', colonIndex);
+			identifier = new String(ByteUtils.subbytes(line, spaceBeforeColonPos+1, colonIndex));
 			
 			/**
 			 * Parse type and value
 			 * Syntax: http://code.google.com/p/smali/wiki/TypesMethodsAndFields
 			 */
-			int equalSignIndex = ByteUtils.indexOf(cl.getLine(), '='); // backward/reverse search not possible b/c the value might be a String containing =
+			int equalSignIndex = ByteUtils.indexOf(line, '='); // backward/reverse search not possible b/c the value might be a String containing =
 			if (equalSignIndex < 0) {
 //				no value, eg: .field private name:I
 				value = null;
-				varType = new VarType(ByteUtils.subbytes(cl.getLine(), colonIndex+1));
+				varType = new VarType(ByteUtils.subbytes(line, colonIndex+1));
 			}
 			else {
 				// eg: .field private static final name:J = 0x1L
-				varType = new VarType(ByteUtils.subbytes(cl.getLine(), colonIndex+1, equalSignIndex-1));
-				value = parseConstant(varType.getType(), new String(ByteUtils.subbytes(cl.getLine(), equalSignIndex+2)));	
+				varType = new VarType(ByteUtils.subbytes(line, colonIndex+1, equalSignIndex-1));
+				value = parseConstant(varType.getType(), new String(ByteUtils.subbytes(line, equalSignIndex+2)));	
 			}
 			return;
 		}
@@ -114,7 +118,7 @@ public class Constant implements ConstantInterface {
 			 * 
 			 * If no .local or .restart line is present, it is an anonymous constant
 			 */
-			LinkedList<byte[]> splittedCl = Instruction.split(cl.getLine());
+			LinkedList<byte[]> splittedCl = cl.split();
 			byte[] constRegister = splittedCl.get(1);
 			// Get the previous codeline
 			boolean isRestarted = false;
@@ -154,8 +158,7 @@ public class Constant implements ConstantInterface {
 
 			// .restart local v0 #name:type
 			// .local v7, s:Ljava/lang/String;
-			LinkedList<byte[]> splittedLocalCl = Instruction.split(localCl
-					.getLine()); // split is now the splitted .local line!
+			LinkedList<byte[]> splittedLocalCl = localCl.split(); // split is now the splitted .local line!
 			byte[] nameType = splittedLocalCl.getLast();
 			int colonIndex = ByteUtils.indexOf(nameType, ':');
 			/*
@@ -190,7 +193,7 @@ public class Constant implements ConstantInterface {
 		 */
 		else if (cl.getInstruction().getType() == InstructionType.MATH_2C) {
 			variableType = VariableType.MATH_OPCODE_CONSTANT;
-			LinkedList<byte[]> split = Instruction.split(cl.getLine());
+			LinkedList<byte[]> split = cl.split();
 			identifier = null;
 			varType = new VarType();
 			value = parseConstant(varType.getType(),
@@ -214,11 +217,11 @@ public class Constant implements ConstantInterface {
 			 * First, find the line. Ignore empty lines etc. Use the register number to identify it correctly
 			 *  
 			 */
-			LinkedList<byte[]> split = Instruction.split(cl.getLine());
+			LinkedList<byte[]> split = cl.split();
 			byte[] arrayRegister = split.get(1);
 			CodeLineInterface localLine = getNextMetadataLineForConstant(cl, MetaDataLine.LOCAL, arrayRegister);
 			if (localLine != null) {
-				LinkedList<byte[]> split2 = Instruction.split(localLine.getLine());
+				LinkedList<byte[]> split2 = localLine.split();
 				byte[] nameType = split2.getLast();
 				int colonIndex = ByteUtils.indexOf(nameType, ':');
 				identifier = new String(ByteUtils.subbytes(nameType, 0, colonIndex));
@@ -239,9 +242,9 @@ public class Constant implements ConstantInterface {
 					localLine = cl.getSmaliClass().getAllCodeLines().get(localLineNr);
 					if (!localLine.isCode()) continue;
 					else if (localLine.getInstruction().getType() == InstructionType.NEW_ARRAY // opcode ok
-						&& Arrays.equals(localLine.getInstruction().getResultRegister(), arrayRegister)) { // registers match
+						&& localLine.getInstruction().getResultRegister() == Registers.parse(arrayRegister)) { // registers match
 						// we found the corresponding new-array line
-						split = Instruction.split(localLine.getLine()); // do not use CL
+						split = localLine.split(); // do not use CL
 						varType = new VarType(split.getLast());
 						identifier = null; // TODO: This could be parsed from a field, if it is moved to any
 						byte[] arrayLabel = cl.getInstruction().getLabel();
@@ -269,7 +272,7 @@ public class Constant implements ConstantInterface {
 			 *  sput-object v0, Ltest/android/Testcase5;->a1:[I	<-- started
 			 *  Java code: private static final int[] a1 = { 0, 0, 0 };
 			 */
-			LinkedList<byte[]> split = Instruction.split(cl.getLine());
+			LinkedList<byte[]> split = cl.split();
 			value = new String (cl.toString()); // TODO: Parse the dimension (register needs to be tracked)!
 			varType = new VarType(split.getLast());
 			variableType = VariableType.ARRAY;
@@ -288,8 +291,11 @@ public class Constant implements ConstantInterface {
 			 * 
 			 * The line above returns nothing, or, void. This should never happen as we never saw a move-result.
 			 */
-			int cpIndex = ByteUtils.indexOf(cl.getLine(), ')');
-			byte[] returnType = ByteUtils.subbytes(cl.getLine(), cpIndex+1);
+			int cpIndex = cl.indexOf(CLOSING_PARENTHESIS);
+			byte[] returnType = new byte[cl.length() - cpIndex - 1];
+			for (int i = 0; i < returnType.length; i++) {
+				returnType[i] = cl.byteAt(cpIndex + 1 + i);
+			}
 			if (returnType.length == 1 && returnType[0] == 'V') {
 //				LOGGER.error( "Found a method which should be treated as a constant which returns void!");
 				throw new SyntaxException("Found a method which should be treated as a constant but it returns void!"); // TODO: Should be a detection error?
@@ -327,16 +333,36 @@ public class Constant implements ConstantInterface {
 	 * @param type the type of the constant
 	 * @param value the freely chosen value
 	 */
-	public Constant(CodeLineInterface cl, int fuzzyLevel, LinkedList<BasicBlockInterface> path, int searchId, VariableType variableType, String value) {
+	public Constant(CodeLineInterface cl, int fuzzyLevel, BasicBlockPath path, int searchId, VariableType variableType, String value) {
 		this.variableType = variableType;
 		varType = new VarType(null);
 		this.searchId = searchId;
 		identifier = null;
 		this.value = value;
-		this.path = new LinkedList<BasicBlockInterface>(path);
+		this.path = new BasicBlockPath(path);
 		this.cl = cl;
 	}
-	
+
+	/**
+	 * Copy a constant which was found by another search. The CodeLine is not parsed again.
+	 *
+	 * @param other the constant to copy
+	 * @param fuzzyLevel the fuzzy level of the copy
+	 * @param path the path which led to the path of the other constant, the copy gets this path followed by the path of the other constant
+	 * @param searchId an Id which all Constants should have in common which were found during one run of the DetectionLogic for one tracked invoke
+	 */
+	public Constant(Constant other, int fuzzyLevel, BasicBlockPath path, int searchId) {
+		this.cl = other.cl;
+		this.variableType = other.variableType;
+		this.varType = other.varType;
+		this.identifier = other.identifier;
+		this.value = other.value;
+		this.fuzzyLevel = fuzzyLevel;
+		this.path = new BasicBlockPath(path);
+		this.path.addAll(other.path);
+		this.searchId = searchId;
+	}
+
 	private static class VarType {
 		private Type type;
 		private String typeDescription; // may be null
@@ -608,18 +634,18 @@ public class Constant implements ConstantInterface {
 		 *  0xd2t 0x4t 0x0t 0x0t
 		 * .end array-data
 		 */
-		LinkedList<CodeLineInterface> methodCodeLines = method.getCodeLines();
+		List<CodeLineInterface> methodCodeLines = method.getCodeLines();
 		CodeLineInterface mcl;
 		for (int mindex=0; mindex<methodCodeLines.size(); mindex++) {
 			mcl = methodCodeLines.get(mindex);
 			if (mcl.getInstruction().getType() == InstructionType.LABEL) {
-				if (Arrays.equals(label, mcl.getLine())) { // is it our label?
+				if (mcl.lineEquals(label)) { // is it our label?
 					mindex += 2; // skip the .array-data line, we are now at the first index (0x78t)
 					mcl = methodCodeLines.get(mindex);
 					StringBuilder sb = new StringBuilder();
 					sb.append("[ ");
 					while (mcl.getInstruction().getType() != InstructionType.SMALI_DOT_COMMENT) {
-						sb.append(new String(mcl.getLine()));
+						sb.append(mcl.getLineAsString());
 						sb.append(" ");
 						mcl = methodCodeLines.get(++mindex);
 					}
@@ -701,7 +727,8 @@ public class Constant implements ConstantInterface {
 		
 		int lastLineNrInMethod;
 		if (method != null ) {
-			lastLineNrInMethod = currentLine.getMethod().getCodeLines().getLast().getLineNr();
+			List<CodeLineInterface> methodCodeLines = method.getCodeLines();
+			lastLineNrInMethod = methodCodeLines.get(methodCodeLines.size() - 1).getLineNr();
 		}
 		else {
 			throw new SyntaxException("Cannot search for Metadata outside of a method.");
@@ -721,7 +748,7 @@ public class Constant implements ConstantInterface {
 			}
 
 			if (localLine.getInstruction().getType() == InstructionType.SMALI_DOT_COMMENT && localLine.startsWith(mdl.lineStartsWith())) {
-				LinkedList<byte[]> split = Instruction.split(localLine.getLine());
+				LinkedList<byte[]> split = localLine.split();
 				/*
 				 * .local v0 name:type
 				 * .restart local v0 #name:type
@@ -793,9 +820,10 @@ public class Constant implements ConstantInterface {
      */
     public String getPath() {
     	StringBuffer sb = new StringBuffer();
-		for (BasicBlockInterface bb : path) {
+		BasicBlockInterface[] bbs = path.toArray();
+		for (BasicBlockInterface bb : bbs) {
 			sb.append(bb.getUniqueId());
-			if (bb != path.getLast()) sb.append("->");
+			if (bb != bbs[bbs.length - 1]) sb.append("->");
 		}
 		return sb.toString();
     }
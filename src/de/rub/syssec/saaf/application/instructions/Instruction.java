@@ -21,9 +21,12 @@ import java.util.LinkedList;
 
 import org.apache.log4j.Logger;
 
+import de.rub.syssec.saaf.application.SymbolTable;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
 import de.rub.syssec.saaf.misc.ByteUtils;
 import de.rub.syssec.saaf.misc.config.Config;
-import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
+import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
 import de.rub.syssec.saaf.model.application.ConstantInterface;
 import de.rub.syssec.saaf.model.application.SyntaxException;
@@ -40,38 +43,51 @@ import de.rub.syssec.saaf.model.application.instruction.InstructionType;
 public class Instruction implements InstructionInterface {
 
 	private static final boolean DEBUG=Boolean.parseBoolean(System.getProperty("debug.slicing","false"));
+	private static final int[] NO_REGISTERS = new int[0];
+	/**
+	 * Interns the descriptors of lines which do not belong to an application, eg, in tests.
+	 */
+	private static final SymbolTable DETACHED_SYMBOLS = new SymbolTable();
 	private final CodeLineInterface codeLine;
 	private byte[] opCode = null;
+	/**
+	 * Whether {@link #parseOpCode()} ran, a line may be parsed on its own before the rest of its method.
+	 */
+	private boolean parsed = false;
 
 	private InstructionType type = InstructionType.NOT_YET_PARSED;
 
 	/**
-	 * The register where the result of the operation is located, may be null.
+	 * The register where the result of the operation is located, may be
+	 * {@link Registers#NONE}.
 	 */
-	private byte[] resultRegister = null;
+	private int resultRegister = Registers.NONE;
 
 	/**
 	 * The field where the result of the operation is located, my be null. The
-	 * first parameter is class name, the second one the field name.
+	 * first ID is the class name, the second one the field name, see
+	 * {@link SymbolTable}.
 	 */
-	private byte[][] resultField = null; // TODO: use this to directly linkt to Field.class?
+	private int[] resultField = null; // TODO: use this to directly linkt to Field.class?
 
 	/**
 	 * The involved registers in this operation, eg, when calling a method.
+	 * Most lines have none and share the same empty array.
 	 */
-	private LinkedList<byte[]> involvedRegisters = new LinkedList<byte[]>();
+	private int[] involvedRegisters = NO_REGISTERS;
 
 	/**
-	 * The involved fields in this operation, eg, when copying a variable into a
-	 * register.
+	 * The field which is copied into a register by GET opcodes, may be null.
+	 * The IDs are the same as for resultField.
 	 */
-	private LinkedList<byte[]> involvedFields = new LinkedList<byte[]>();
+	private int[] involvedField = null;
 
 	/**
-	 * The class, method and parameters of invoke opcodes. cmpr[0] is the class,
-	 * cmpr[1] the method, cmpr[2] the raw parameters and cmpr[3] the return value.
+	 * The IDs of the class, method and parameters of invoke opcodes. cmpr[0]
+	 * is the class, cmpr[1] the method, cmpr[2] the raw parameters and cmpr[3]
+	 * the return value.
 	 */
-	private byte[][] cmpr = null;
+	private int[] cmpr = null;
 
 	/**
 	 * This is the value which gets assigned by the const-x opcodes, the
@@ -93,20 +109,25 @@ public class Instruction implements InstructionInterface {
 	private static final Logger LOGGER = Logger.getLogger(Instruction.class);
 
 	public Instruction(CodeLineInterface codeLine) {
+		this(codeLine, codeLine.isEmpty() ? 0 : codeLine.byteAt(0));
+	}
+
+	/**
+	 * @param codeLine the line
+	 * @param firstByte the first byte of the line, ignored for empty lines
+	 */
+	public Instruction(CodeLineInterface codeLine, byte firstByte) {
 		this.codeLine = codeLine;
 		if (codeLine.isEmpty()) {
 			type = InstructionType.EMPTY_LINE;
-		} else if (codeLine.startsWith(new byte[] { '.' })) {
+		} else if (firstByte == '.') {
 			type = InstructionType.SMALI_DOT_COMMENT;
-		} else if (codeLine.startsWith(new byte[] { ':' })) {
+		} else if (firstByte == ':') {
 			type = InstructionType.LABEL;
-		} else if (codeLine.startsWith(new byte[] { '#' })) {
+		} else if (firstByte == '#') {
 			type = InstructionType.SMALI_HASH_KEY_COMMENT;
-		} else { // a shortcut, opcodes should begin with a lowercase letter
-			byte firstByte = codeLine.getLine()[0]; // cannot be empty, see first check
-			if (firstByte < 97 || firstByte > 122) { // a and z
-				type = InstructionType.UNKNOWN;
-			}
+		} else if (firstByte < 97 || firstByte > 122) { // a shortcut, opcodes should begin with a lowercase letter (a and z)
+			type = InstructionType.UNKNOWN;
 		}
 	}
 
@@ -115,6 +136,8 @@ public class Instruction implements InstructionInterface {
 	 */
 	@Override
 	public void parseOpCode() {
+		if (parsed) return;
+		parsed = true;
 
 		// Let us define the type of the opcode if we do not already know it is
 		// no opcode at all
@@ -124,7 +147,7 @@ public class Instruction implements InstructionInterface {
 				|| type == InstructionType.SMALI_HASH_KEY_COMMENT || type == InstructionType.UNKNOWN 
 		// do not ask the map if we know it does not begin w/ a lowercase letter
 		)) {
-			LinkedList<byte[]> split = split(codeLine.getLine());
+			LinkedList<byte[]> split = codeLine.split();
 			opCode = split.getFirst();
 			type = InstructionMap.getType(opCode);
 			// Now let us parse the opcode if it is a opcode that we know of
@@ -144,9 +167,21 @@ public class Instruction implements InstructionInterface {
 	 * @return the byte arrays between the above signs, but without them!
 	 */
 	public static LinkedList<byte[]> split(byte[] input) {
+		return split(input, 0, input.length);
+	}
+
+	/**
+	 * Split the bytes between from and to like {@link #split(byte[])}.
+	 * 
+	 * @param input the array
+	 * @param from the index of the first byte
+	 * @param to the index after the last byte
+	 * @return the byte arrays between the above signs, but without them!
+	 */
+	public static LinkedList<byte[]> split(byte[] input, int from, int to) {
 		// if (Config.DBG_SLICING) LOGGER.debug("split: '"+new String(input)+"'");
 		LinkedList<byte[]> list = new LinkedList<byte[]>();
-		int lastIndex = 0;
+		int lastIndex = from;
 		boolean inQuotes = false;
 		boolean inKlammer = false;
 		boolean copyLastSequence = true;
@@ -157,7 +192,7 @@ public class Instruction implements InstructionInterface {
 		 */
 		boolean skipNextQuote = false;
 
-		for (int i = 0; i < input.length; i++) {
+		for (int i = from; i < to; i++) {
 			switch (input[i]) {
 			case ' ':
 				if (!inQuotes && !inKlammer) { // split it
@@ -178,15 +213,15 @@ public class Instruction implements InstructionInterface {
 					 * If this is not checked, ___ this would be splitted!, but
 					 * the last split should occur before list:Ljave/util....
 					 */
-					if ((i + 1 < input.length) && input[i + 1] == '"'
-							&& (i - 1 >= 0) && input[i - 1] == ';') {
+					if ((i + 1 < to) && input[i + 1] == '"'
+							&& (i - 1 >= from) && input[i - 1] == ';') {
 						// first checks are for array boundaries
 						break; // do not split here
 					}
 					if (lastIndex != i)
 						list.addLast(ByteUtils.subbytes(input, lastIndex, i));
 					lastIndex = i + 1; // do not copy ' ' the next time
-					if (i == input.length - 1)
+					if (i == to - 1)
 						copyLastSequence = false; // reached the end
 				} else {
 					// do nothing
@@ -214,7 +249,7 @@ public class Instruction implements InstructionInterface {
 					lastIndex = i + 1; // do not copy } the next time something
 										// is copied
 					inKlammer = false;
-					if (i == input.length - 1)
+					if (i == to - 1)
 						copyLastSequence = false; // reached the end
 				} else if (!inKlammer && !inQuotes) {
 					// break, this should not happen?!
@@ -235,7 +270,7 @@ public class Instruction implements InstructionInterface {
 					break;
 				}
 				if (!inKlammer && !inQuotes) { // beginning quotes
-					if ((i - 2 >= 0) && input[i - 1] == ','
+					if ((i - 2 >= from) && input[i - 1] == ','
 							&& input[i - 2] == ';') { // first check is for
 														// array boundaries
 						skipNextQuote = true;
@@ -268,7 +303,7 @@ public class Instruction implements InstructionInterface {
 		// only relevant if the last part is a "xyz"
 		if (copyLastSequence) {
 			// copy last or only the one element
-			list.addLast(ByteUtils.subbytes(input, lastIndex, input.length));
+			list.addLast(ByteUtils.subbytes(input, lastIndex, to));
 		}
 		// for (byte[] bb : list) {
 		// System.out.println(" ] = "+new String(bb));
@@ -276,90 +311,6 @@ public class Instruction implements InstructionInterface {
 		return list;
 	}
 
-	/**
-	 * Parse something like {v0 .. v5}, {v7} or {v7, v8} or even "v1 v2 v3". '{'
-	 * and '}' are optional, but may only occur in a single pair.
-	 * 
-	 * @param parameters
-	 *            the byte array as described above
-	 * @return a list w/ all the registers
-	 */
-	private static LinkedList<byte[]> parseParameter(byte[] parameters) {
-		// LOGGER.logDebug(Instruction.class, "parseParameter: '"+new
-		// String(parameters)+"'");
-		LinkedList<byte[]> result = new LinkedList<byte[]>();
-		if (parameters == null || parameters.length == 0) {
-			if (DEBUG) LOGGER.debug("parseParameter: empty parameters detected.");
-			return result;
-		} else if (parameters[0] == '{'
-				&& parameters[parameters.length - 1] == '}') { // sanity check
-			// strip the '{' and '}'
-			parameters = ByteUtils.subbytes(parameters, 1,
-					parameters.length - 1);
-		}
-		int lastIndex = 0;
-		if (ByteUtils.contains(parameters, ',')) { // eg {v7, v8}
-			boolean found = true;
-			for (int i = 0; i < parameters.length; i++) {
-				if (found) {
-					if (parameters[i] != ',') {
-						continue;
-					} else {
-						found = false;
-						result.addLast(ByteUtils.subbytes(parameters,
-								lastIndex, i));
-					}
-				} else { // currently no register is read
-					if (parameters[i] != ' ') {
-						found = true;
-						lastIndex = i;
-					} else { // found ' ', do nothing
-						continue;
-					}
-				}
-			}
-			// copy last (or only one) register
-			result.add(ByteUtils.subbytes(parameters, lastIndex,
-					parameters.length));
-		} else if (ByteUtils.contains(parameters, '.')) { // eg {v0 .. v5}
-			byte[] vA = null;
-			byte[] vB = null;
-			boolean found = true;
-			for (int i = 0; i < parameters.length; i++) {
-				if (found) {
-					if (parameters[i] != ' ') {
-						continue;
-					} else {
-						found = false;
-						// lastIndex+1: cut the v from eg v12
-						vA = ByteUtils.subbytes(parameters, lastIndex + 1, i);
-					}
-				} else { // currently no register is read
-					if (parameters[i] != ' ' && parameters[i] != '.') {
-						found = true;
-						lastIndex = i;
-					} else { // found ' ', do nothing
-						continue;
-					}
-				}
-			}
-			// copy last (or only one) register
-			vB = ByteUtils.subbytes(parameters, lastIndex + 1,
-					parameters.length); // lastIndex+1: cut the v from eg v12.
-			// now "create" all intermediate registers and put them into the
-			// list
-			int fromReg = Integer.parseInt(new String(vA));
-			int toReg = Integer.parseInt(new String(vB));
-			while (fromReg <= toReg) {
-				result.addLast(("v" + fromReg).getBytes());
-				fromReg++;
-			}
-		} else { // eg {v7}
-			result.add(parameters);
-		}
-		return result;
-	}
-
 	/**
 	 * This method sets everything up, it has to be called in the constructor!
 	 * ref:
@@ -369,12 +320,12 @@ public class Instruction implements InstructionInterface {
 	 * @throws UnknownOpCodeException
 	 */
 	private void parse(LinkedList<byte[]> split) {
-		byte[] opCodeLine = codeLine.getLine();
+		byte firstByte = codeLine.byteAt(0);
 		switch (type) {
 
 		case NEW_INSTANCE:
 			// new-instance vAA, type@BBBB
-			resultRegister = parseParameter(split.get(1)).getFirst();
+			resultRegister = Registers.parse(split.get(1));
 			break;
 
 		case INVOKE_STATIC: // same as INVOKE
@@ -386,9 +337,9 @@ public class Instruction implements InstructionInterface {
 			// Ljava/io/PrintStream;->println(Ljava/lang/String;)V
 			// Must not always have a move-result
 			// split: 0=opcode, 1=registers, 2=class->method(types)returnType
-			involvedRegisters = parseParameter(split.get(1));
+			involvedRegisters = Registers.parseList(split.get(1));
 			// now parse the class and the method which is called
-			cmpr = parseClassAndMethodAndParameterAndReturnValue(split.getLast());
+			cmpr = internClassAndMethodAndParameterAndReturnValue(split.getLast());
 			break;
 
 		case AGET:
@@ -399,8 +350,8 @@ public class Instruction implements InstructionInterface {
 			 * 
 			 * The array index (vC) is ignored
 			 */
-			resultRegister = split.get(1); // vA
-			involvedRegisters.add(split.get(2)); // vB
+			resultRegister = Registers.parse(split.get(1)); // vA
+			addInvolvedRegister(split.get(2)); // vB
 			break;
 
 		case GET:
@@ -409,20 +360,20 @@ public class Instruction implements InstructionInterface {
 			 * sget-x sget-object v1,
 			 * Lcom/andiord/SMSOperator;->CONTENT_URI:Landroid/net/Uri;
 			 */
-			if (opCodeLine[0] == 'i') { // instance-op
-				resultRegister = split.get(1); // vA
-				involvedRegisters.add(split.get(2)); // vB
-				involvedFields.add(split.get(3));
-			} else if (opCodeLine[0] == 's') { // static-op
-				resultRegister = split.get(1); // vA
-				involvedFields.add(split.get(2)); // field
+			if (firstByte == 'i') { // instance-op
+				resultRegister = Registers.parse(split.get(1)); // vA
+				addInvolvedRegister(split.get(2)); // vB
+				involvedField = internClassAndField(split.get(3));
+			} else if (firstByte == 's') { // static-op
+				resultRegister = Registers.parse(split.get(1)); // vA
+				involvedField = internClassAndField(split.get(2)); // field
 			}
 			break;
 
 		case CONST:
 			// const-string v2, ", protocol="
 			// const/4 v4, 0x0
-			resultRegister = split.get(1); // vA
+			resultRegister = Registers.parse(split.get(1)); // vA
 			hasConstant = true;
 			break;
 
@@ -433,8 +384,8 @@ public class Instruction implements InstructionInterface {
 			 * 
 			 * We do not care about the array index (vC) right now
 			 */
-			resultRegister = split.get(2); // vB
-			involvedRegisters.add(split.get(1)); // vA
+			resultRegister = Registers.parse(split.get(2)); // vB
+			addInvolvedRegister(split.get(1)); // vA
 			break;
 
 		case PUT:
@@ -443,13 +394,13 @@ public class Instruction implements InstructionInterface {
 			 * iput-x sstaticop vAA, field@BBBB sput-x sput v0,
 			 * Lcom/lohan/crackme1/example;->Counter:I
 			 */
-			if (opCodeLine[0] == 'i') { // instance-op
-				resultField = parseClassAndField(split.get(3)); // field C
-				involvedRegisters.add(split.get(1)); // vA
+			if (firstByte == 'i') { // instance-op
+				resultField = internClassAndField(split.get(3)); // field C
+				addInvolvedRegister(split.get(1)); // vA
 				// vB is the reference to the object of field C
-			} else if (opCodeLine[0] == 's') { // static-op
-				resultField = parseClassAndField(split.get(2)); // Field
-				involvedRegisters.add(split.get(1)); // vA
+			} else if (firstByte == 's') { // static-op
+				resultField = internClassAndField(split.get(2)); // Field
+				addInvolvedRegister(split.get(1)); // vA
 			}
 			break;
 
@@ -458,8 +409,8 @@ public class Instruction implements InstructionInterface {
 			 * unop vA, vB
 			 * eg: neg-int, int-to-byte etc
 			 */
-			resultRegister = split.get(1);
-			involvedRegisters.add(split.get(2));
+			resultRegister = Registers.parse(split.get(1));
+			addInvolvedRegister(split.get(2));
 			break;
 
 		case MATH_2: // binary operations solely on registers
@@ -467,9 +418,9 @@ public class Instruction implements InstructionInterface {
 			 * binop vAA, vBB, vCC
 			 * eg: add-int, or-int, add-int/2addr etc
 			 */
-			resultRegister = split.get(1);
-			involvedRegisters.add(split.get(2));
-			involvedRegisters.add(split.get(3));
+			resultRegister = Registers.parse(split.get(1));
+			addInvolvedRegister(split.get(2));
+			addInvolvedRegister(split.get(3));
 			break;
 
 		case MATH_2C: // binary operations on a register and a constant
@@ -477,8 +428,8 @@ public class Instruction implements InstructionInterface {
 			 * binop/lit16 vA, vB, #+CCCC
 			 * binop/lit8 vAA, vBB, #+CC
 			 */
-			resultRegister = split.get(1);
-			involvedRegisters.add(split.get(2));
+			resultRegister = Registers.parse(split.get(1));
+			addInvolvedRegister(split.get(2));
 			hasConstant = true;
 			break;
 
@@ -495,8 +446,8 @@ public class Instruction implements InstructionInterface {
 			 * 
 			 * Do not handle move-exception and move-result here!
 			 */
-			resultRegister = split.get(1); // vA
-			involvedRegisters.add(split.get(2)); // vB
+			resultRegister = Registers.parse(split.get(1)); // vA
+			addInvolvedRegister(split.get(2)); // vB
 			break;
 
 		case MOVE_RESULT:
@@ -504,14 +455,14 @@ public class Instruction implements InstructionInterface {
 			 * move-result vAA This opcode has either a leading INVOKE or a
 			 * leading FILLED_NEW_ARRAY instruction
 			 */
-			resultRegister = split.get(1);
+			resultRegister = Registers.parse(split.get(1));
 			break;
 
 		case RETURN:
 			// return-void, return vAA, return-wide vAA, return-object vAA
 			if (!Arrays.equals(split.getFirst(), "return-void".getBytes())) {
 				// return  void has not return value, therefore we're done
-				involvedRegisters.add(split.getLast());
+				addInvolvedRegister(split.getLast());
 			}
 			break;
 
@@ -520,7 +471,7 @@ public class Instruction implements InstructionInterface {
 			 * new-array vA, vB, type@CCCC vA = array-reference vB = size
 			 * ignored, as are the indexes CC = type (eg String)
 			 */
-			resultRegister = split.get(1);
+			resultRegister = Registers.parse(split.get(1));
 			break;
 
 		case FILL_ARRAY_DATA:
@@ -536,7 +487,7 @@ public class Instruction implements InstructionInterface {
 			 * :array_0 .array-data 0x1 0x78t 0x79t 0x7at .end array-data .end
 			 * method
 			 */
-			resultRegister = split.get(1);
+			resultRegister = Registers.parse(split.get(1));
 			label = split.get(2);
 			hasConstant = true;
 			break;
@@ -548,7 +499,7 @@ public class Instruction implements InstructionInterface {
 			 * 
 			 * This instruction is followed by a MOVE_RESULT instruction
 			 */
-			involvedRegisters = parseParameter(split.get(1));
+			involvedRegisters = Registers.parseList(split.get(1));
 			break;
 
 		case GOTO:
@@ -573,7 +524,7 @@ public class Instruction implements InstructionInterface {
 			 * vAA vAA is the register to where the exception caught is moved
 			 * array-length vA, vB (destination, array reference register)
 			 */
-			resultRegister = split.get(1);
+			resultRegister = Registers.parse(split.get(1));
 			break;
 
 		case IGNORE:
@@ -606,7 +557,7 @@ public class Instruction implements InstructionInterface {
 	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getResultRegister()
 	 */
 	@Override
-	public byte[] getResultRegister() {
+	public int getResultRegister() {
 		return resultRegister;
 	}
 
@@ -615,6 +566,14 @@ public class Instruction implements InstructionInterface {
 	 */
 	@Override
 	public byte[][] getResultField() {
+		return resolve(resultField);
+	}
+
+	/* (non-Javadoc)
+	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getResultFieldSymbols()
+	 */
+	@Override
+	public int[] getResultFieldSymbols() {
 		return resultField;
 	}
 
@@ -622,16 +581,30 @@ public class Instruction implements InstructionInterface {
 	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getInvolvedRegisters()
 	 */
 	@Override
-	public LinkedList<byte[]> getInvolvedRegisters() {
+	public int[] getInvolvedRegisters() {
 		return involvedRegisters;
 	}
 
+	private void addInvolvedRegister(byte[] register) {
+		int length = involvedRegisters.length;
+		involvedRegisters = Arrays.copyOf(involvedRegisters, length + 1);
+		involvedRegisters[length] = Registers.parse(register);
+	}
+
 	/* (non-Javadoc)
-	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getInvolvedFields()
+	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getInvolvedField()
 	 */
 	@Override
-	public LinkedList<byte[]> getInvolvedFields() {
-		return involvedFields;
+	public byte[][] getInvolvedField() {
+		return resolve(involvedField);
+	}
+
+	/* (non-Javadoc)
+	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getInvolvedFieldSymbols()
+	 */
+	@Override
+	public int[] getInvolvedFieldSymbols() {
+		return involvedField;
 	}
 
 	/* (non-Javadoc)
@@ -639,9 +612,36 @@ public class Instruction implements InstructionInterface {
 	 */
 	@Override
 	public byte[][] getCalledClassAndMethodWithParameter() {
+		return resolve(cmpr);
+	}
+
+	/* (non-Javadoc)
+	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getCalledSymbols()
+	 */
+	@Override
+	public int[] getCalledSymbols() {
 		return cmpr;
 	}
 
+	/**
+	 * @return the table holding the descriptors of this instruction
+	 */
+	private SymbolTable getSymbolTable() {
+		ClassInterface smaliClass = codeLine.getSmaliClass();
+		ApplicationInterface app = smaliClass != null ? smaliClass.getApplication() : null;
+		return app != null ? app.getSymbolTable() : DETACHED_SYMBOLS;
+	}
+
+	private byte[][] resolve(int[] ids) {
+		if (ids == null) return null;
+		SymbolTable symbols = getSymbolTable();
+		byte[][] descriptors = new byte[ids.length][];
+		for (int i = 0; i < ids.length; i++) {
+			descriptors[i] = symbols.get(ids[i]);
+		}
+		return descriptors;
+	}
+
 	/* (non-Javadoc)
 	 * @see de.rub.syssec.saaf.application.instructions.InstructionInterface#getCalledClassAndMethod()
 	 */
@@ -658,33 +658,28 @@ public class Instruction implements InstructionInterface {
 		StringBuilder sb = new StringBuilder();
 		sb.append("Type: " + type);
 		sb.append(" CL  : " + codeLine);
-		if (resultRegister != null)
-			sb.append(" resultReg: " + new String(resultRegister));
+		if (resultRegister != Registers.NONE)
+			sb.append(" resultReg: " + Registers.toString(resultRegister));
+		SymbolTable symbols = getSymbolTable();
 		if (resultField != null)
-			sb.append("resultFld: " + new String(resultField[1]) + "."
-					+ new String(resultField[1]));
-		if (involvedRegisters.size() > 0) {
+			sb.append("resultFld: " + symbols.getString(resultField[0]) + "."
+					+ symbols.getString(resultField[1]));
+		if (involvedRegisters.length > 0) {
 			sb.append(" invlvdReg: ");
-			for (byte[] b : involvedRegisters) {
-				sb.append(new String(b));
-				sb.append(" ");
-			}
-		}
-		if (involvedFields.size() > 0)
-		{
-			sb.append(" invlvdFld: ");
-			for (byte[] b : involvedFields)
-			{
-				sb.append(new String(b));
+			for (int r : involvedRegisters) {
+				sb.append(Registers.toString(r));
 				sb.append(" ");
 			}
 		}
+		if (involvedField != null)
+			sb.append(" invlvdFld: " + symbols.getString(involvedField[0]) + "."
+					+ symbols.getString(involvedField[1]));
 
 		if (constant != null)
 			sb.append("    const: " + constant);
 		if (cmpr != null)
-			sb.append(" targetMet: " + new String(cmpr[0]) + "."
-					+ new String(cmpr[1]) + "(...)");
+			sb.append(" targetMet: " + symbols.getString(cmpr[0]) + "."
+					+ symbols.getString(cmpr[1]) + "(...)");
 		if (DEBUG) LOGGER.debug(sb.toString());
 	}
 
@@ -707,12 +702,39 @@ public class Instruction implements InstructionInterface {
 	 *         the second one, the type is dropped
 	 */
 	public static byte[][] parseClassAndField(byte[] smaliCode) {
+		int[] bounds = boundsOfClassAndField(smaliCode);
 		byte[][] cf = new byte[2][];
+		cf[0] = ByteUtils.subbytes(smaliCode, bounds[0], bounds[1]);
+		cf[1] = ByteUtils.subbytes(smaliCode, bounds[2], bounds[3]);
+		return cf;
+	}
+
+	private int[] internClassAndField(byte[] smaliCode) {
+		return intern(smaliCode, boundsOfClassAndField(smaliCode));
+	}
+
+	/**
+	 * @return the begin and end of the class and of the field name, see {@link #parseClassAndField(byte[])}
+	 */
+	private static int[] boundsOfClassAndField(byte[] smaliCode) {
 		int classEnd = ByteUtils.indexOf(smaliCode, ';');
 		int varName = ByteUtils.indexOf(smaliCode, ':');
-		cf[0] = ByteUtils.subbytes(smaliCode, 1, classEnd);
-		cf[1] = ByteUtils.subbytes(smaliCode, classEnd + 3, varName);
-		return cf;
+		return new int[] { 1, classEnd, classEnd + 3, varName };
+	}
+
+	/**
+	 * Intern the parts of a descriptor.
+	 *
+	 * @param bounds the begin and the end of each part
+	 * @return the IDs of the parts
+	 */
+	private int[] intern(byte[] smaliCode, int[] bounds) {
+		SymbolTable symbols = getSymbolTable();
+		int[] ids = new int[bounds.length / 2];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = symbols.intern(smaliCode, bounds[2 * i], bounds[2 * i + 1]);
+		}
+		return ids;
 	}
 
 	/**
@@ -727,7 +749,24 @@ public class Instruction implements InstructionInterface {
 	 *         second one and the parameters the third one
 	 */
 	public static byte[][] parseClassAndMethodAndParameterAndReturnValue(byte[] smaliCode) {
+		int[] bounds = boundsOfClassAndMethodAndParameterAndReturnValue(smaliCode);
 		byte[][] cmpr = new byte[4][];
+		for (int i = 0; i < cmpr.length; i++) {
+			cmpr[i] = ByteUtils.subbytes(smaliCode, bounds[2 * i], bounds[2 * i + 1]);
+		}
+		return cmpr;
+	}
+
+	private int[] internClassAndMethodAndParameterAndReturnValue(byte[] smaliCode) {
+		return intern(smaliCode, boundsOfClassAndMethodAndParameterAndReturnValue(smaliCode));
+	}
+
+	/**
+	 * @return the begin and end of the class, the method, the parameters and
+	 *         the return value, see
+	 *         {@link #parseClassAndMethodAndParameterAndReturnValue(byte[])}
+	 */
+	private static int[] boundsOfClassAndMethodAndParameterAndReturnValue(byte[] smaliCode) {
 		int dashPos = ByteUtils.indexOf(smaliCode, '-');
 		int classEndOffset = 0;
 		if (smaliCode[dashPos - 1] == ';')
@@ -745,12 +784,11 @@ public class Instruction implements InstructionInterface {
 		if (smaliCode[offset] == 'L') {
 			offset++; // we have a class an want to also skip the L
 		}
-		cmpr[0] = ByteUtils
-				.subbytes(smaliCode, offset, dashPos - classEndOffset); // class
-		cmpr[1] = ByteUtils.subbytes(smaliCode, dashPos + 2, methodEnd); // method
-		cmpr[2] = ByteUtils.subbytes(smaliCode, methodEnd + 1, parametersEnd); // parameters
-		cmpr[3] = ByteUtils.subbytes(smaliCode, parametersEnd + 1); // return value
-		return cmpr;
+		return new int[] {
+				offset, dashPos - classEndOffset, // class
+				dashPos + 2, methodEnd, // method
+				methodEnd + 1, parametersEnd, // parameters
+				parametersEnd + 1, smaliCode.length }; // return value
 	}
 
 	/* (non-Javadoc)
@@ -776,7 +814,7 @@ public class Instruction implements InstructionInterface {
 	public String getConstantValue() throws SyntaxException {
 		if (!hasConstant) return null;
 		// this is only a temp constant
-		ConstantInterface c = new Constant(codeLine, -1, new LinkedList<BasicBlockInterface>(), -1);
+		ConstantInterface c = new Constant(codeLine, -1, new BasicBlockPath(), -1);
 		return c.getValue();
 	}
 }
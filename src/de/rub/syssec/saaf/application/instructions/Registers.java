@@ -0,0 +1,203 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application.instructions;
+
+/**
+ * Registers are encoded as ints. A local register vX is X, a parameter
+ * register pX is X plus {@link #PARAMETER}. Dalvik has at most 65536
+ * registers, so every register fits and two registers are equal if their
+ * ints are equal.
+ */
+public final class Registers {
+
+	/**
+	 * No register, eg, an instruction without a result register or a
+	 * parameter which could not be parsed.
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Set for pX registers.
+	 */
+	public static final int PARAMETER = 0x10000;
+
+	private static final int MAX_INDEX = 0xFFFF;
+
+	private static final int[] EMPTY = new int[0];
+
+	private Registers() {
+	}
+
+	/**
+	 * @param index the register number
+	 * @return the register vX
+	 */
+	public static int local(int index) {
+		return index;
+	}
+
+	/**
+	 * @param index the register number
+	 * @return the register pX
+	 */
+	public static int parameter(int index) {
+		return index | PARAMETER;
+	}
+
+	/**
+	 * @return true for pX registers
+	 */
+	public static boolean isParameter(int register) {
+		return register != NONE && (register & PARAMETER) != 0;
+	}
+
+	/**
+	 * @return X of vX or pX
+	 */
+	public static int getIndex(int register) {
+		return register & MAX_INDEX;
+	}
+
+	/**
+	 * Parse a register name like v12 or p0.
+	 *
+	 * @param name the name
+	 * @return the register or {@link #NONE} if it is not a register name
+	 */
+	public static int parse(byte[] name) {
+		if (name == null) return NONE;
+		return parse(name, 0, name.length);
+	}
+
+	/**
+	 * Parse a register name like v12 or p0 in a part of an array.
+	 *
+	 * @param source the array
+	 * @param begin the first byte of the name
+	 * @param end the index after the last byte of the name
+	 * @return the register or {@link #NONE} if it is not a register name
+	 */
+	public static int parse(byte[] source, int begin, int end) {
+		if (end - begin < 2) return NONE;
+		int kind;
+		if (source[begin] == 'v') kind = 0;
+		else if (source[begin] == 'p') kind = PARAMETER;
+		else return NONE;
+		int index = 0;
+		for (int i = begin + 1; i < end; i++) {
+			int digit = source[i] - '0';
+			if (digit < 0 || digit > 9) return NONE;
+			index = index * 10 + digit;
+			if (index > MAX_INDEX) return NONE;
+		}
+		return kind | index;
+	}
+
+	/**
+	 * Parse something like {v0 .. v5}, {v7}, {v7, v8} or even "v1 v2 v3". '{'
+	 * and '}' are optional, but may only occur in a single pair. Ranges are
+	 * expanded, both ends must be of the same kind.
+	 *
+	 * @param parameters the byte array as described above
+	 * @return all registers in the order they appear, names which are no
+	 *         registers are {@link #NONE}
+	 */
+	public static int[] parseList(byte[] parameters) {
+		if (parameters == null || parameters.length == 0) return EMPTY;
+		int begin = 0;
+		int end = parameters.length;
+		if (parameters[0] == '{' && parameters[end - 1] == '}') {
+			begin++;
+			end--;
+		}
+
+		int[] registers = new int[4];
+		int count = 0;
+		boolean range = false;
+		int i = begin;
+		while (i < end) {
+			byte b = parameters[i];
+			if (b == ' ' || b == ',') {
+				i++;
+				continue;
+			}
+			if (b == '.') { // the .. of a range
+				range = true;
+				while (i < end && parameters[i] == '.') i++;
+				continue;
+			}
+			int nameBegin = i;
+			while (i < end && parameters[i] != ' ' && parameters[i] != ',') i++;
+			int register = parse(parameters, nameBegin, i);
+
+			if (range && count > 0 && register != NONE && registers[count - 1] != NONE
+					&& isParameter(register) == isParameter(registers[count - 1])) {
+				// {vA .. vB}, add vA+1 to vB
+				for (int r = registers[count - 1] + 1; r <= register; r++) {
+					if (count == registers.length) registers = grow(registers);
+					registers[count++] = r;
+				}
+			} else {
+				if (count == registers.length) registers = grow(registers);
+				registers[count++] = register;
+			}
+			range = false;
+		}
+		if (count == registers.length) return registers;
+		int[] result = new int[count];
+		System.arraycopy(registers, 0, result, 0, count);
+		return result;
+	}
+
+	private static int[] grow(int[] registers) {
+		int[] bigger = new int[registers.length * 2];
+		System.arraycopy(registers, 0, bigger, 0, registers.length);
+		return bigger;
+	}
+
+	/**
+	 * @return true if the array contains the register
+	 */
+	public static boolean contains(int[] registers, int register) {
+		for (int r : registers) {
+			if (r == register) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the name of the register, eg, v12 or p0
+	 */
+	public static String toString(int register) {
+		if (register == NONE) return "none";
+		return (isParameter(register) ? "p" : "v") + getIndex(register);
+	}
+
+	/**
+	 * @return the names of the registers
+	 */
+	public static String toString(int[] registers) {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		for (int i = 0; i < registers.length; i++) {
+			if (i > 0) sb.append(", ");
+			sb.append(toString(registers[i]));
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
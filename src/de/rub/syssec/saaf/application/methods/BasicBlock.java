@@ -17,6 +17,7 @@
 package de.rub.syssec.saaf.application.methods;
 
 import java.util.LinkedList;
+import java.util.List;
 
 import de.rub.syssec.saaf.model.application.BasicBlockInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
@@ -70,7 +71,7 @@ public class BasicBlock implements BasicBlockInterface {
 	private boolean isCatchBlock = false;
 
 
-	private final LinkedList<CodeLineInterface> codeLines;
+	private final List<CodeLineInterface> codeLines;
 	private final Method method;
 	private boolean isSwitchTable = false;
 	private LinkedList<BasicBlockInterface> nextBlocks = new LinkedList<BasicBlockInterface>();
@@ -108,7 +109,7 @@ public class BasicBlock implements BasicBlockInterface {
 	 * @param method
 	 *            the method where this BB belongs to
 	 */
-	public BasicBlock(LinkedList<CodeLineInterface> codeLines, Method method) {
+	public BasicBlock(List<CodeLineInterface> codeLines, Method method) {
 		this.codeLines = codeLines;
 		this.method = method;
 	}
@@ -159,8 +160,8 @@ public class BasicBlock implements BasicBlockInterface {
 	 * @return true if the given line nr. is in this BB
 	 */
 	public boolean containsLineNr(int nr) {
-		if (this.getCodeLines().getLast().getLineNr() >= nr
-				&& this.getCodeLines().getFirst().getLineNr() <= nr)
+		if (codeLines.get(codeLines.size() - 1).getLineNr() >= nr
+				&& codeLines.get(0).getLineNr() <= nr)
 			return true;
 		else
 			return false;
@@ -178,7 +179,7 @@ public class BasicBlock implements BasicBlockInterface {
 	 * 
 	 * @return the codelines this BB consists of
 	 */
-	public LinkedList<CodeLineInterface> getCodeLines() {
+	public List<CodeLineInterface> getCodeLines() {
 		return codeLines;
 	}
 
@@ -231,8 +232,9 @@ public class BasicBlock implements BasicBlockInterface {
 	 * @return true, if the target line is contained within this BB
 	 */
 	public boolean containsLine(String target) {
+		byte[] bytes = target.getBytes();
 		for (CodeLineInterface cl : codeLines) {
-			if (new String(cl.getLine()).equals(target))
+			if (cl.lineEquals(bytes))
 				return true;
 		}
 		return false;
@@ -0,0 +1,186 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application.methods;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+
+/**
+ * A path through BBs, eg, the path a slicing search took to find a constant.
+ *
+ * The BBs are stored in an immutable list which links each entry to its
+ * predecessor. Paths which are copied from each other share all common
+ * entries, copying a path and adding or removing its last BB therefore
+ * takes constant time and does not copy the entries. Changes to a path
+ * never change a copy of it.
+ *
+ * A path object is not threadsafe, but the shared entries are.
+ */
+public final class BasicBlockPath implements Iterable<BasicBlockInterface> {
+
+	/**
+	 * An immutable entry of a path.
+	 */
+	private static final class Entry {
+		private final BasicBlockInterface bb;
+		private final Entry previous;
+		private final int size;
+
+		Entry(BasicBlockInterface bb, Entry previous) {
+			this.bb = bb;
+			this.previous = previous;
+			this.size = previous == null ? 1 : previous.size + 1;
+		}
+	}
+
+	/**
+	 * The last entry or null if the path is empty.
+	 */
+	private Entry last;
+
+	/**
+	 * Create an empty path.
+	 */
+	public BasicBlockPath() {
+		this.last = null;
+	}
+
+	/**
+	 * Create a copy of a path.
+	 * @param other the path to copy
+	 */
+	public BasicBlockPath(BasicBlockPath other) {
+		this.last = other.last;
+	}
+
+	/**
+	 * Append a BB to the path.
+	 * @param bb the BB
+	 */
+	public void addLast(BasicBlockInterface bb) {
+		last = new Entry(bb, last);
+	}
+
+	/**
+	 * Append all BBs of another path to the path. The time depends on the size of the other path.
+	 * @param other the path to append
+	 */
+	public void addAll(BasicBlockPath other) {
+		for (BasicBlockInterface bb : other.toArray()) {
+			addLast(bb);
+		}
+	}
+
+	/**
+	 * Remove the last BB from the path.
+	 * @return the removed BB
+	 * @throws NoSuchElementException if the path is empty
+	 */
+	public BasicBlockInterface removeLast() {
+		BasicBlockInterface bb = getLast();
+		last = last.previous;
+		return bb;
+	}
+
+	/**
+	 * @return the last BB
+	 * @throws NoSuchElementException if the path is empty
+	 */
+	public BasicBlockInterface getLast() {
+		if (last == null) throw new NoSuchElementException();
+		return last.bb;
+	}
+
+	/**
+	 * Get a BB of the path. The time depends on the distance to the end of the path.
+	 * @param index the index of the BB, 0 is the first BB
+	 * @return the BB
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public BasicBlockInterface get(int index) {
+		if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+		Entry e = last;
+		for (int i = size() - 1; i > index; i--) {
+			e = e.previous;
+		}
+		return e.bb;
+	}
+
+	/**
+	 * @return the number of BBs in the path
+	 */
+	public int size() {
+		return last == null ? 0 : last.size;
+	}
+
+	public boolean isEmpty() {
+		return last == null;
+	}
+
+	/**
+	 * @return the BBs from the first to the last one
+	 */
+	public BasicBlockInterface[] toArray() {
+		BasicBlockInterface[] bbs = new BasicBlockInterface[size()];
+		int i = bbs.length;
+		for (Entry e = last; e != null; e = e.previous) {
+			bbs[--i] = e.bb;
+		}
+		return bbs;
+	}
+
+	/**
+	 * Iterate over the BBs from the first to the last one. The iterator does not
+	 * see later changes to the path.
+	 */
+	@Override
+	public Iterator<BasicBlockInterface> iterator() {
+		return Arrays.asList(toArray()).iterator();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof BasicBlockPath)) return false;
+		Entry e1 = last;
+		Entry e2 = ((BasicBlockPath) obj).last;
+		if (size() != ((BasicBlockPath) obj).size()) return false;
+		while (e1 != e2) { // shared entries are equal
+			if (!e1.bb.equals(e2.bb)) return false;
+			e1 = e1.previous;
+			e2 = e2.previous;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 1;
+		for (BasicBlockInterface bb : toArray()) {
+			h = 31 * h + bb.hashCode();
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+}
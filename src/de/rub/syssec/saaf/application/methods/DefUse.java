@@ -0,0 +1,296 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.application.methods;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import de.rub.syssec.saaf.application.instructions.Registers;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionInterface;
+import de.rub.syssec.saaf.model.application.instruction.InstructionType;
+
+/**
+ * The definitions and uses of the registers in the BBs of a method. A line
+ * defines its result register and uses its involved registers. A RETURN
+ * counts as an access of every register, the method ends there.
+ *
+ * The reaching definitions of the method are solved across its BBs: a line
+ * which defines a register reaches every line it can flow to along the
+ * previous/next links of the BBs without another definition of the same
+ * register in between.
+ *
+ * The accesses of a BB are collected the first time the BB is queried and
+ * the reaching definitions the first time they are queried, all methods are
+ * threadsafe.
+ */
+public final class DefUse {
+
+	private static final int[] NONE = new int[0];
+
+	/**
+	 * The accesses of one BB: the ascending indexes of the lines which
+	 * define or use a register and of all RETURNs.
+	 */
+	private static final class BlockAccesses {
+		private final Map<Integer, int[]> byRegister;
+		private final int[] exits;
+
+		BlockAccesses(Map<Integer, int[]> byRegister, int[] exits) {
+			this.byRegister = byRegister;
+			this.exits = exits;
+		}
+	}
+
+	/**
+	 * The reaching definitions of all BBs. A definition is a line with a
+	 * result register, the bits are the indexes in definitions.
+	 */
+	private static final class ReachingDefinitions {
+		private final List<CodeLineInterface> definitions = new ArrayList<CodeLineInterface>();
+		private final Map<Integer, BitSet> byRegister = new HashMap<Integer, BitSet>();
+		private final Map<BasicBlockInterface, BitSet> in = new IdentityHashMap<BasicBlockInterface, BitSet>();
+	}
+
+	private final MethodInterface method;
+	private final Map<BasicBlockInterface, BlockAccesses> blocks = new IdentityHashMap<BasicBlockInterface, BlockAccesses>();
+	private ReachingDefinitions reaching = null; // guarded by this
+
+	/**
+	 * @param method the method, its BBs are requested the first time the reaching definitions are queried
+	 */
+	public DefUse(MethodInterface method) {
+		this.method = method;
+	}
+
+	/**
+	 * Find the last line before the given index in a BB which defines or uses
+	 * the register or which is a RETURN. Lines between the given index and
+	 * the returned one do not access the register.
+	 *
+	 * @param bb the BB
+	 * @param register the register, see {@link Registers}
+	 * @param index the index of a line in the BB, the search starts at the previous line
+	 * @return the index of the line or -1 if the register is not accessed before index
+	 */
+	public int getPreviousAccess(BasicBlockInterface bb, int register, int index) {
+		BlockAccesses accesses = getAccesses(bb);
+		int[] lines = accesses.byRegister.get(register);
+		int previous = previous(accesses.exits, index);
+		if (lines != null) previous = Math.max(previous, previous(lines, index));
+		return previous;
+	}
+
+	/**
+	 * Find the lines which can define the register right before the given
+	 * index in a BB. If the register is defined before the index in the BB,
+	 * this is the last such line. Otherwise these are all definitions which
+	 * reach the beginning of the BB. An empty list means that the register
+	 * is not defined in the method before this line, eg, it is a parameter.
+	 *
+	 * @param bb the BB
+	 * @param register the register, see {@link Registers}
+	 * @param index the index of a line in the BB, the size of the BB for the end of it
+	 * @return the defining lines in the order of the method
+	 */
+	public List<CodeLineInterface> getReachingDefinitions(BasicBlockInterface bb, int register, int index) {
+		List<CodeLineInterface> codeLines = bb.getCodeLines();
+		for (int i = Math.min(index, codeLines.size()) - 1; i >= 0; i--) {
+			if (defines(codeLines.get(i), register)) {
+				return Collections.singletonList(codeLines.get(i));
+			}
+		}
+		ReachingDefinitions rd = getReachingDefinitions();
+		BitSet in = rd.in.get(bb);
+		BitSet ofRegister = rd.byRegister.get(register);
+		if (in == null || ofRegister == null) return Collections.emptyList();
+		List<CodeLineInterface> lines = new ArrayList<CodeLineInterface>();
+		for (int d = in.nextSetBit(0); d >= 0; d = in.nextSetBit(d + 1)) {
+			if (ofRegister.get(d)) lines.add(rd.definitions.get(d));
+		}
+		return lines;
+	}
+
+	/**
+	 * See if a line before the given index in a BB or any line in a BB
+	 * which can flow to it defines or uses the register or is a RETURN. If
+	 * not, a backward search for the register from this line only reaches
+	 * the beginning of the method.
+	 *
+	 * @param bb the BB
+	 * @param register the register, see {@link Registers}
+	 * @param index the index of a line in the BB, the size of the BB for the end of it
+	 * @return true if the register or a RETURN is accessed before the line
+	 */
+	public boolean isAccessedBefore(BasicBlockInterface bb, int register, int index) {
+		if (getPreviousAccess(bb, register, index) >= 0) return true;
+		Map<BasicBlockInterface, Boolean> visited = new IdentityHashMap<BasicBlockInterface, Boolean>();
+		visited.put(bb, Boolean.TRUE);
+		LinkedList<BasicBlockInterface> worklist = new LinkedList<BasicBlockInterface>(bb.getPreviousBB());
+		while (!worklist.isEmpty()) {
+			BasicBlockInterface previous = worklist.removeFirst();
+			if (visited.put(previous, Boolean.TRUE) != null) continue;
+			BlockAccesses accesses = getAccesses(previous);
+			if (accesses.exits.length > 0 || accesses.byRegister.containsKey(register)) return true;
+			worklist.addAll(previous.getPreviousBB());
+		}
+		return false;
+	}
+
+	private synchronized ReachingDefinitions getReachingDefinitions() {
+		if (reaching == null) reaching = solve(method.getBasicBlocks());
+		return reaching;
+	}
+
+	/**
+	 * Solve the reaching definitions with a worklist, the in set of a BB is
+	 * the union of the out sets of its previous BBs.
+	 */
+	private static ReachingDefinitions solve(List<BasicBlockInterface> bbs) {
+		ReachingDefinitions rd = new ReachingDefinitions();
+		Map<BasicBlockInterface, BitSet> gen = new IdentityHashMap<BasicBlockInterface, BitSet>();
+		Map<BasicBlockInterface, BitSet> kill = new IdentityHashMap<BasicBlockInterface, BitSet>();
+		for (BasicBlockInterface bb : bbs) {
+			// the last definition of every register in the BB
+			Map<Integer, Integer> last = new HashMap<Integer, Integer>();
+			for (CodeLineInterface cl : bb.getCodeLines()) {
+				if (!cl.isCode()) continue;
+				int register = cl.getInstruction().getResultRegister();
+				if (register == Registers.NONE) continue;
+				int d = rd.definitions.size();
+				rd.definitions.add(cl);
+				BitSet ofRegister = rd.byRegister.get(register);
+				if (ofRegister == null) {
+					ofRegister = new BitSet();
+					rd.byRegister.put(register, ofRegister);
+				}
+				ofRegister.set(d);
+				last.put(register, d);
+			}
+			BitSet g = new BitSet();
+			for (int d : last.values()) {
+				g.set(d);
+			}
+			gen.put(bb, g);
+			kill.put(bb, new BitSet());
+			rd.in.put(bb, new BitSet());
+		}
+		// a BB kills all definitions of the registers it defines
+		for (BasicBlockInterface bb : bbs) {
+			BitSet k = kill.get(bb);
+			BitSet g = gen.get(bb);
+			for (int d = g.nextSetBit(0); d >= 0; d = g.nextSetBit(d + 1)) {
+				k.or(rd.byRegister.get(rd.definitions.get(d).getInstruction().getResultRegister()));
+			}
+		}
+		Map<BasicBlockInterface, BitSet> out = new IdentityHashMap<BasicBlockInterface, BitSet>();
+		for (BasicBlockInterface bb : bbs) {
+			out.put(bb, (BitSet) gen.get(bb).clone());
+		}
+		LinkedList<BasicBlockInterface> worklist = new LinkedList<BasicBlockInterface>(bbs);
+		while (!worklist.isEmpty()) {
+			BasicBlockInterface bb = worklist.removeFirst();
+			BitSet in = rd.in.get(bb);
+			for (BasicBlockInterface previous : bb.getPreviousBB()) {
+				BitSet o = out.get(previous);
+				if (o != null) in.or(o);
+			}
+			BitSet o = (BitSet) in.clone();
+			o.andNot(kill.get(bb));
+			o.or(gen.get(bb));
+			if (!o.equals(out.get(bb))) {
+				out.put(bb, o);
+				for (BasicBlockInterface next : bb.getNextBB()) {
+					if (rd.in.containsKey(next) && !worklist.contains(next)) worklist.addLast(next);
+				}
+			}
+		}
+		return rd;
+	}
+
+	private static boolean defines(CodeLineInterface cl, int register) {
+		return cl.isCode() && cl.getInstruction().getResultRegister() == register;
+	}
+
+	private synchronized BlockAccesses getAccesses(BasicBlockInterface bb) {
+		BlockAccesses accesses = blocks.get(bb);
+		if (accesses == null) {
+			accesses = collect(bb);
+			blocks.put(bb, accesses);
+		}
+		return accesses;
+	}
+
+	private static BlockAccesses collect(BasicBlockInterface bb) {
+		HashMap<Integer, List<Integer>> byRegister = new HashMap<Integer, List<Integer>>();
+		List<Integer> exits = new ArrayList<Integer>();
+		List<CodeLineInterface> codeLines = bb.getCodeLines();
+		for (int i = 0; i < codeLines.size(); i++) {
+			CodeLineInterface cl = codeLines.get(i);
+			if (!cl.isCode()) continue;
+			InstructionInterface instruction = cl.getInstruction();
+			if (instruction.getType() == InstructionType.RETURN) exits.add(i);
+			add(byRegister, instruction.getResultRegister(), i);
+			for (int register : instruction.getInvolvedRegisters()) {
+				add(byRegister, register, i);
+			}
+		}
+		Map<Integer, int[]> result = new HashMap<Integer, int[]>(byRegister.size() * 2);
+		for (Map.Entry<Integer, List<Integer>> entry : byRegister.entrySet()) {
+			result.put(entry.getKey(), toArray(entry.getValue()));
+		}
+		return new BlockAccesses(result, toArray(exits));
+	}
+
+	private static void add(HashMap<Integer, List<Integer>> byRegister, int register, int index) {
+		if (register == Registers.NONE) return;
+		List<Integer> lines = byRegister.get(register);
+		if (lines == null) {
+			lines = new ArrayList<Integer>(2);
+			byRegister.put(register, lines);
+		}
+		// a line may use a register twice or define a register it uses
+		if (lines.isEmpty() || lines.get(lines.size() - 1) != index) lines.add(index);
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		if (list.isEmpty()) return NONE;
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * @return the largest entry less than index or -1
+	 */
+	private static int previous(int[] lines, int index) {
+		int pos = Arrays.binarySearch(lines, index);
+		if (pos < 0) pos = -pos - 1;
+		return pos > 0 ? lines[pos - 1] : -1;
+	}
+}
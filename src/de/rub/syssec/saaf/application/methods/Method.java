@@ -16,10 +16,12 @@
  */
 package de.rub.syssec.saaf.application.methods;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
 
@@ -27,8 +29,10 @@ import org.apache.log4j.Logger;
 
 import de.rub.syssec.saaf.analysis.steps.obfuscation.Entropy;
 import de.rub.syssec.saaf.application.Field;
+import de.rub.syssec.saaf.application.SymbolTable;
 import de.rub.syssec.saaf.misc.ByteUtils;
 import de.rub.syssec.saaf.misc.KMP;
+import de.rub.syssec.saaf.model.application.ApplicationInterface;
 import de.rub.syssec.saaf.model.application.BasicBlockInterface;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
@@ -47,10 +51,21 @@ public class Method implements MethodInterface {
 	private byte[] rawParameters;
 	private byte[] returnValue;
 	private boolean hasUnlinkedBBs = false;
-	private LinkedList<CodeLineInterface> codeLines;
+	private List<CodeLineInterface> codeLines;
 	private LinkedList<FieldInterface> localFieldList = null;
 	private static final byte[] CONSTRUCTOR_NAME = "<init>".getBytes();
 	public static final byte[] STATIC_CONSTRUCTOR_NAME = "<clinit>".getBytes();
+	private static final byte[] THROW = "throw".getBytes();
+	private static final byte[] SSWITCH_DATA = ":sswitch_data".getBytes();
+	private static final byte[] PSWITCH_DATA = ":pswitch_data".getBytes();
+	private static final byte[] END_SPARSE_SWITCH = ".end sparse-switch".getBytes();
+	private static final byte[] END_PACKED_SWITCH = ".end packed-switch".getBytes();
+	private static final byte[] CATCH = ".catch".getBytes();
+	private static final byte[] TRY_START = ":try_start_".getBytes();
+	private static final byte[] TRY_END = ":try_end_".getBytes();
+	private static final byte[] SPARSE_SWITCH = ".sparse-switch".getBytes();
+	private static final byte[] PACKED_SWITCH = ".packed-switch".getBytes();
+	private static final byte[] LABEL = ":".getBytes();
 	private METHOD_TYPE methodType;
 	private ClassInterface smaliClass; // the SMALI file this method belongs to
 	private LinkedList<BasicBlockInterface> bbList = new LinkedList<BasicBlockInterface>();
@@ -60,13 +75,23 @@ public class Method implements MethodInterface {
 	private int label;
 	private static final Logger LOGGER = Logger.getLogger(Method.class);
 	private boolean isCurrentLineInSwitch = false;
+	/**
+	 * Whether the opcodes are parsed and the BBs are generated. Both happen
+	 * when the class is parsed unless the class is parsed lazily.
+	 */
+	private volatile boolean instructionsParsed = false;
+	private volatile boolean bbsGenerated = false;
+	private boolean parsingInstructions = false; // guarded by this
+	private boolean generatingBBs = false; // guarded by this
+	private Exception bbError = null; // guarded by this, why the BBs could not be generated lazily
+	private DefUse defUse = null; // guarded by this
 
 	public enum METHOD_TYPE {
 		CONSTRUCTOR, STATIC_CONSTRUCTOR, // static { ... } block
 		METHOD; // all other "normal" methods
 	}
 
-	public Method(LinkedList<CodeLineInterface> codeLines,
+	public Method(List<CodeLineInterface> codeLines,
 			ClassInterface smaliClass, int label) {
 		this.codeLines = codeLines;
 		this.smaliClass = smaliClass;
@@ -82,12 +107,13 @@ public class Method implements MethodInterface {
 	 * @return true if the method is "empty", false otherwise
 	 */
 	public boolean isEmpty() {
+		ensureBBs();
 		return bbList.isEmpty() ? true : false;
 	}
 
 	private void parseNameAndType() {
 		// ex: .method public constructor <init>(Landroid/content/Context;)V
-		byte[] firstLine = codeLines.getFirst().getLine();
+		byte[] firstLine = codeLines.get(0).getLine();
 		int openingParenthesisIndex = ByteUtils.indexOf(firstLine, '(');
 		int closingParenthesisIndex = ByteUtils.indexOf(firstLine, ')');
 		int spaceBeforeIndex = ByteUtils.indexOfReverse(firstLine, ' ',
@@ -110,20 +136,84 @@ public class Method implements MethodInterface {
 			isStatic = true;
 
 		// get the parameters
-		rawParameters = ByteUtils.subbytes(firstLine,
+		rawParameters = descriptor(firstLine,
 				openingParenthesisIndex + 1, closingParenthesisIndex);
 		
 		// return value
-		returnValue = ByteUtils.subbytes(firstLine,	closingParenthesisIndex + 1);
+		returnValue = descriptor(firstLine, closingParenthesisIndex + 1, firstLine.length);
+	}
+
+	/**
+	 * Share the descriptor with the invokes of this method through the symbol table of the app.
+	 */
+	private byte[] descriptor(byte[] line, int begin, int end) {
+		ApplicationInterface app = smaliClass != null ? smaliClass.getApplication() : null;
+		if (app == null) return ByteUtils.subbytes(line, begin, end);
+		SymbolTable symbols = app.getSymbolTable();
+		return symbols.get(symbols.intern(line, begin, end));
 	}
 
 	// FIXME: crude hack to replace the autogeneration in parseNameAndType(),
 	// could perhaps still always be generated in parseNameAndType (for safety)
 	// and use this just for explicitly generating bbs anew
-	public void generateBBs() throws DetectionLogicError, SmaliClassError {
-		bbList = generateBlocksNew();
-		DFS dfs = new DFS();
-		dfs.labelAllBB(this);
+	public synchronized void generateBBs() throws DetectionLogicError, SmaliClassError {
+		parseInstructions();
+		generatingBBs = true;
+		try {
+			bbList = generateBlocksNew();
+			defUse = null;
+			DFS dfs = new DFS();
+			dfs.labelAllBB(this);
+			bbsGenerated = true;
+		} finally {
+			generatingBBs = false;
+		}
+	}
+
+	@Override
+	public void parseInstructions() {
+		if (instructionsParsed) return;
+		synchronized (this) {
+			// the lines call back into this method when their instruction is accessed
+			if (instructionsParsed || parsingInstructions) return;
+			parsingInstructions = true;
+			try {
+				for (CodeLineInterface cl : codeLines) {
+					cl.getInstruction().parseOpCode();
+				}
+				instructionsParsed = true;
+			} finally {
+				parsingInstructions = false;
+			}
+		}
+	}
+
+	/**
+	 * Generate the BBs if the method was parsed lazily and they are needed
+	 * for the first time. The class was already parsed successfully, so an
+	 * error cannot reject it anymore. It is thrown to the caller instead,
+	 * each time the BBs are requested.
+	 * 
+	 * @throws IllegalStateException if the BBs could not be generated, the cause is
+	 *         the {@link DetectionLogicError} or {@link SmaliClassError}
+	 */
+	private void ensureBBs() {
+		if (bbsGenerated) return;
+		synchronized (this) {
+			// the DFS asks for the BBs while they are generated
+			if (bbsGenerated || generatingBBs) return;
+			if (bbError == null) { // do not try again if it failed
+				try {
+					generateBBs();
+					return;
+				} catch (DetectionLogicError e) {
+					bbError = e;
+				} catch (SmaliClassError e) {
+					bbError = e;
+				}
+			}
+			throw new IllegalStateException("Could not generate the BBs of method " + getReadableJavaName(), bbError);
+		}
 	}
 
 	private LinkedList<BasicBlockInterface> generateBlocksNew() throws SmaliClassError {
@@ -160,18 +250,18 @@ public class Method implements MethodInterface {
 				
 				if (/*!start.hasReturn() && !start.hasThrow() &&*///added for return in block followed by a goto, which is most likely patched into the code
 					!start.getCodeLines().isEmpty()
-					&& start.getCodeLines().getLast().getLineNr()
+					&& last(start.getCodeLines()).getLineNr()
 					>= (l.getFrom().getLineNr())
-					&& start.getCodeLines().getFirst().getLineNr()
+					&& start.getCodeLines().get(0).getLineNr()
 					<= (l.getFrom().getLineNr())
 				) {
 					for (BasicBlockInterface target : blocks) {
 						// could also be done via line number
 						if (
 							!target.getCodeLines().isEmpty()
-							&& target.getCodeLines().getFirst().getLineNr()
+							&& target.getCodeLines().get(0).getLineNr()
 							<= (l.getTo().getLineNr())
-							&& target.getCodeLines().getLast().getLineNr()
+							&& last(target.getCodeLines()).getLineNr()
 							>= (l.getTo().getLineNr())
 						) {
 							//linkBBs(start, target);
@@ -192,15 +282,15 @@ public class Method implements MethodInterface {
 				//found a block within the try
 				if(
 					!start.getCodeLines().isEmpty() && // TODO Fix for issue 54
-					start.getCodeLines().getLast().getLineNr()>=t.getBegin()&&start.getCodeLines().getLast().getLineNr()<=t.getEnd()){
+					last(start.getCodeLines()).getLineNr()>=t.getBegin()&&last(start.getCodeLines()).getLineNr()<=t.getEnd()){
 					//for every block, check if it is one of the catches
 					for(CodeLineInterface c:t.getCatches()){
 						//check all catches
 						for(BasicBlockInterface target:blocks){
 							if(
 									!target.getCodeLines().isEmpty() && // TODO Fix for issue 54
-									target.getCodeLines().getFirst().getLineNr()<=(c.getLineNr())&&
-									target.getCodeLines().getLast().getLineNr()>=(c.getLineNr())){
+									target.getCodeLines().get(0).getLineNr()<=(c.getLineNr())&&
+									last(target.getCodeLines()).getLineNr()>=(c.getLineNr())){
 
 
 									//linkBBs(start, target);
@@ -236,7 +326,7 @@ public class Method implements MethodInterface {
 				//!(hasReturn() && !hasDeadCode()) && !(hasth)
 				//TODO: check again if we need the add !first.hasDeadCode() to this default fall through case in BB
 				if (/*!first.hasDeadCode() && */!first.hasGoto() && lastLine.getInstruction().getType() != InstructionType.RETURN
-						&& !(KMP.indexOf(lastLine.getLine(), "throw".getBytes()) == 0)/*&& !first.hasReturn() &&! first.hasThrow()*/){
+						&& !(lastLine.startsWith(THROW))/*&& !first.hasReturn() &&! first.hasThrow()*/){
 					//linkBBs(first, next);
 					first.addNextBB(next);
 					next.addPreviousBB(first);
@@ -294,7 +384,7 @@ public class Method implements MethodInterface {
 		// TODO: if ints are saved these lockups become unnecessary
 		// TODO: could be deleted from here until next TODO (if ints used)
 		for (Link l : links) {
-			CodeLineInterface current = codeLines.getFirst();
+			CodeLineInterface current = codeLines.get(0);
 			int index = 0;
 			while (current.getLineNr() != l.getTo().getLineNr()
 					&& index < codeLines.size() - 1) {
@@ -313,7 +403,7 @@ public class Method implements MethodInterface {
 		
 
 		for (TryBlock t : tries) {
-			CodeLineInterface current = codeLines.getFirst();
+			CodeLineInterface current = codeLines.get(0);
 			// special case which should never ever happen
 			if (t.getBlockEnd() != null
 					&& t.getBlockEnd().getLineNr() == current.getLineNr()) {
@@ -370,7 +460,7 @@ public class Method implements MethodInterface {
 		}
 		// case if nextLeader == -1, just 1 block
 		if (nextLeader == -1) {
-			LinkedList<CodeLineInterface> lines = new LinkedList<CodeLineInterface>();
+			List<CodeLineInterface> lines = new ArrayList<CodeLineInterface>();
 			for (int i = leader; i < codeLines.size(); i++) {
 				CodeLineInterface c = codeLines.get(i);
 				if (isSwitchStart(c))
@@ -386,7 +476,7 @@ public class Method implements MethodInterface {
 					hasReturn = true;
 					returnList.add(c);
 				}
-				if((KMP.indexOf(c.getLine(), "throw".getBytes()) == 0)){
+				if((c.startsWith(THROW))){
 					hasThrow = true;
 				}
 				lines.add(c);
@@ -421,7 +511,7 @@ public class Method implements MethodInterface {
 			// else
 
 			// add first block
-			LinkedList<CodeLineInterface> lines = new LinkedList<CodeLineInterface>();
+			List<CodeLineInterface> lines = new ArrayList<CodeLineInterface>();
 			boolean justDotComment = true;
 			for (int i = leader; i < nextLeader; i++) {
 				CodeLineInterface c = codeLines.get(i);
@@ -442,7 +532,7 @@ public class Method implements MethodInterface {
 					hasReturn = true;
 					returnList.add(c);
 				}
-				if((KMP.indexOf(c.getLine(), "throw".getBytes()) == 0)){
+				if((c.startsWith(THROW))){
 					hasThrow = true;
 				}
 				lines.add(c);
@@ -479,7 +569,7 @@ public class Method implements MethodInterface {
 			// add all intermediate blocks
 			while (iter.hasNext()) {
 				if (!justDotComment)
-					lines = new LinkedList<CodeLineInterface>();
+					lines = new ArrayList<CodeLineInterface>();
 				justDotComment = true;
 
 				// this while is used to merge blocks, which just consist of dot
@@ -508,7 +598,7 @@ public class Method implements MethodInterface {
 							hasReturn = true;
 							returnList.add(c);
 						}
-						if((KMP.indexOf(c.getLine(), "throw".getBytes()) == 0)){
+						if((c.startsWith(THROW))){
 							hasThrow = true;
 						}
 						lines.add(c);
@@ -558,7 +648,7 @@ public class Method implements MethodInterface {
 
 			
 			if(!justDotComment)
-				lines=new LinkedList<CodeLineInterface>();
+				lines=new ArrayList<CodeLineInterface>();
 			justDotComment = true;
 			for(int i=leader;i<codeLines.size();i++){
 				CodeLineInterface c = codeLines.get(i);
@@ -579,7 +669,7 @@ public class Method implements MethodInterface {
 					hasReturn = true;
 					returnList.add(c);
 				}
-				if((KMP.indexOf(c.getLine(), "throw".getBytes()) == 0)){
+				if((c.startsWith(THROW))){
 					hasThrow = true;
 				}
 
@@ -616,7 +706,7 @@ public class Method implements MethodInterface {
 				hasGoto = false;
 				blocks.add(block);
 			}else {
-				LinkedList<CodeLineInterface> linesPreviousBlock = blocks.getLast().getCodeLines();
+				List<CodeLineInterface> linesPreviousBlock = blocks.getLast().getCodeLines();
 				linesPreviousBlock.addAll(lines);
 				BasicBlockInterface block = new BasicBlock(linesPreviousBlock, this);
 				blocks.removeLast();
@@ -628,8 +718,8 @@ public class Method implements MethodInterface {
 	}
 
 	private boolean isSwitchStart(CodeLineInterface cl) {
-		if (KMP.indexOf(cl.getLine(), ":sswitch_data".getBytes()) == 0
-				|| KMP.indexOf(cl.getLine(), ":pswitch_data".getBytes()) == 0) {
+		if (cl.startsWith(SSWITCH_DATA)
+				|| cl.startsWith(PSWITCH_DATA)) {
 			isCurrentLineInSwitch = true;
 			return true;
 		}
@@ -641,8 +731,8 @@ public class Method implements MethodInterface {
 	}
 
 	private boolean isSwitchEnd(CodeLineInterface cl) {
-		if (KMP.indexOf(cl.getLine(), ".end sparse-switch".getBytes()) == 0
-				|| KMP.indexOf(cl.getLine(), ".end packed-switch".getBytes()) == 0) {
+		if (cl.startsWith(END_SPARSE_SWITCH)
+				|| cl.startsWith(END_PACKED_SWITCH)) {
 			isCurrentLineInSwitch = false;
 			return true;
 		}
@@ -675,8 +765,8 @@ public class Method implements MethodInterface {
 		for (int currentLine = 0; currentLine < codeLines.size(); currentLine++) {
 			CodeLineInterface cl = codeLines.get(currentLine);
 
-			if (ByteUtils.startsWith(cl.getLine(), ":".getBytes())) {
-				String label = new String(cl.getLine());
+			if (cl.startsWith(LABEL)) {
+				String label = cl.getLineAsString();
 				if (!labels.containsKey(label))
 					labels.put(label, cl);
 			}
@@ -696,16 +786,17 @@ public class Method implements MethodInterface {
 		for (int currentLine = 0; currentLine < codeLines.size(); currentLine++) {
 			CodeLineInterface cl = codeLines.get(currentLine);
 			if (findCatches) {
-				if (KMP.indexOf(cl.getLine(), ".catch".getBytes()) == 0) {
+				if (cl.startsWith(CATCH)) {
 					// we want the actual CodeLineInterface, so we read the
 					// label of the catch block and then look up which CodeLine
 					// that is
+					byte[] line = cl.getLine();
 					CodeLineInterface currentCatchTarget = labels
 							.get(new String(
 									ByteUtils.subbytes(
-											cl.getLine(),
+											line,
 											ByteUtils.indexOfReverse(
-													cl.getLine(), ':'))));
+													line, ':'))));
 					block.addCatch(currentCatchTarget);
 					end = cl.getLineNr();
 					continue;
@@ -728,12 +819,12 @@ public class Method implements MethodInterface {
 
 			}
 
-			if (KMP.indexOf(cl.getLine(), ":try_start_".getBytes()) == 0) {
+			if (cl.startsWith(TRY_START)) {
 				begin = cl.getLineNr();
 				endOfTryCode = -1;
 			}
 
-			if (KMP.indexOf(cl.getLine(), ":try_end_".getBytes()) == 0) {
+			if (cl.startsWith(TRY_END)) {
 				block = new TryBlock(begin, end);
 				findCatches = true;
 				endOfTryCode = currentLine -1;
@@ -823,10 +914,10 @@ public class Method implements MethodInterface {
 			// name of the switch table
 			// next line is a .sparse/packed_switch, after that , the switches
 			// are listed, containing the initial value too compare too
-			if (KMP.indexOf(cl.getLine(), ":sswitch_data".getBytes()) == 0
-					|| KMP.indexOf(cl.getLine(), ":pswitch_data".getBytes()) == 0) {
+			if (cl.startsWith(SSWITCH_DATA)
+					|| cl.startsWith(PSWITCH_DATA)) {
 
-				switchName = new String(cl.getLine());
+				switchName = cl.getLineAsString();
 
 				continue;
 			}
@@ -834,8 +925,8 @@ public class Method implements MethodInterface {
 			// example : .packed_switch 0x0
 			// -> first one taken if value = 0, second if value 2 etc.
 			// TODO: might be used for labels, but will be ignored at the moment
-			if (KMP.indexOf(cl.getLine(), ".sparse-switch".getBytes()) == 0
-					|| KMP.indexOf(cl.getLine(), ".packed-switch".getBytes()) == 0) {
+			if (cl.startsWith(SPARSE_SWITCH)
+					|| cl.startsWith(PACKED_SWITCH)) {
 				// initialvalue = end of line (from hex to decimal)
 				inSwitchTable = true;
 				continue;
@@ -849,9 +940,8 @@ public class Method implements MethodInterface {
 
 				// switch table END found
 				// end of switch table
-				if (KMP.indexOf(cl.getLine(), ".end sparse-switch".getBytes()) == 0
-						|| KMP.indexOf(cl.getLine(),
-								".end packed-switch".getBytes()) == 0) {
+				if (cl.startsWith(END_SPARSE_SWITCH)
+						|| cl.startsWith(END_PACKED_SWITCH)) {
 
 					// put links into table
 					switchTablesNew.put(switchName, tmpList);
@@ -865,10 +955,11 @@ public class Method implements MethodInterface {
 
 				// if not end of table, make links and put them into the list
 				// use switchName for map association
-				int start = KMP.indexOf(cl.getLine(), ":".getBytes());
+				byte[] line = cl.getLine();
+				int start = KMP.indexOf(line, LABEL);
 				// targets are starting with a :
 				String switchTarget = new String(ByteUtils.subbytes(
-						cl.getLine(), start));
+						line, start));
 				CodeLineInterface switchTargetLine = labels.get(switchTarget);
 				// TODO: add label
 				tmpList.add(new Target(switchTargetLine));
@@ -937,15 +1028,23 @@ public class Method implements MethodInterface {
 	 * @return the first BB or null if none is available
 	 */
 	public BasicBlockInterface getFirstBasicBlock() {
+		ensureBBs();
 		if (bbList.isEmpty())
 			return null;
 		return bbList.getFirst(); // firstBasicBlock;
 	}
 
 	public LinkedList<BasicBlockInterface> getBasicBlocks() {
+		ensureBBs();
 		return bbList;
 	}
 
+	@Override
+	public synchronized DefUse getDefUse() {
+		if (defUse == null) defUse = new DefUse(this);
+		return defUse;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -1088,7 +1187,7 @@ public class Method implements MethodInterface {
 		return arithOps;
 	}
 
-	public LinkedList<CodeLineInterface> getCodeLines() {
+	public List<CodeLineInterface> getCodeLines() {
 		return codeLines;
 	}
 
@@ -1137,6 +1236,7 @@ public class Method implements MethodInterface {
 	 * 
 	 * @param hash
 	 */
+	@Override
 	public void setFuzzyHash(String hash) {
 		fuzzyHash = hash;
 	}
@@ -1144,6 +1244,7 @@ public class Method implements MethodInterface {
 	/**
 	 * @return the fuzzy hash of this method
 	 */
+	@Override
 	public String getFuzzyHash() {
 		return fuzzyHash;
 	}
@@ -1176,7 +1277,7 @@ public class Method implements MethodInterface {
 	 */
 	public String getReadableJavaName() {
 		return getSmaliClass().getFullClassName(true) + ": "
-				+ new String(getCodeLines().getFirst().getLine());
+				+ getCodeLines().get(0).getLineAsString();
 	}
 
 	@Override
@@ -1196,8 +1297,10 @@ public class Method implements MethodInterface {
 	}
 
 	@Override
-	public void setBasicBlocks(LinkedList<BasicBlockInterface> blocks) {
+	public synchronized void setBasicBlocks(LinkedList<BasicBlockInterface> blocks) {
 		this.bbList = blocks;
+		this.defUse = null;
+		this.bbsGenerated = true;
 		setChanged(true);
 	}
 
@@ -1214,7 +1317,7 @@ public class Method implements MethodInterface {
 	}
 
 	@Override
-	public void setCodeLines(LinkedList<CodeLineInterface> lines) {
+	public void setCodeLines(List<CodeLineInterface> lines) {
 		this.codeLines = lines;
 		setChanged(true);
 	}
@@ -1278,12 +1381,13 @@ public class Method implements MethodInterface {
 	
 	@Override
 	public boolean hasUnlinkedBBs() {
+		ensureBBs();
 		return hasUnlinkedBBs;
 	}
 	
 	@Override
 	public boolean isProbablyPatched() {
-		if (hasUnlinkedBBs) return true;
+		if (hasUnlinkedBBs()) return true;
 		else {
 			for (BasicBlockInterface bb : getBasicBlocks()) {
 				if (bb.hasDeadCode()) return true;
@@ -1312,4 +1416,8 @@ public class Method implements MethodInterface {
 	public Entropy getEntropy() {
 		return this.entropy;
 	}
+
+	private static CodeLineInterface last(List<CodeLineInterface> lines) {
+		return lines.get(lines.size() - 1);
+	}
 }
@@ -18,7 +18,6 @@ package de.rub.syssec.saaf.application.search;
 
 import java.util.Vector;
 
-import de.rub.syssec.saaf.misc.ByteUtils;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
@@ -27,6 +26,8 @@ import de.rub.syssec.saaf.model.application.CodeLineInterface;
  * Searches for all Strings in all smali files.
  */
 public class StringSearcher {
+
+	private static final byte[] QUOTE = "\"".getBytes();
 	
 	/**
 	 * Searches for all Strings which are enclosed in double quotes
@@ -42,18 +43,21 @@ public class StringSearcher {
 		for (ClassInterface smaliClass : app.getAllSmaliClasss(false)) {
 			//ClassInterface smaliClass = app.getSmaliClass(f);
 			for (CodeLineInterface cl : smaliClass.getAllCodeLines()) {
-				if (cl.isEmpty()) continue;
-				byte[] codeline = cl.getLine();
+				if (cl.isEmpty() || cl.indexOf(QUOTE) < 0) continue;
 				int indexOfOpeningQuote = -1;
-				for (int i=0; i<codeline.length; i++) {
-					if (codeline[i] == '"' && (i-1 < 0 || codeline[i-1] != '\\')) {
+				for (int i=0; i<cl.length(); i++) {
+					if (cl.byteAt(i) == '"' && (i-1 < 0 || cl.byteAt(i-1) != '\\')) {
 						/* array index out of bounds should not occur on i-1, as the line should never begin with a '"',
 						 * but the file may be corrupted
 						 */
 						if (indexOfOpeningQuote < 0) indexOfOpeningQuote = i;
 						else {
 							// found a closing one
-							String s = new String(ByteUtils.subbytes(codeline, indexOfOpeningQuote, i+1));
+							byte[] string = new byte[i+1-indexOfOpeningQuote];
+							for (int j=0; j<string.length; j++) {
+								string[j] = cl.byteAt(indexOfOpeningQuote+j);
+							}
+							String s = new String(string);
 							FoundString fs = new FoundString(cl, s);
 							foundStringsVec.add(fs);
 							indexOfOpeningQuote = -1; // reset, there might be more strings in one line
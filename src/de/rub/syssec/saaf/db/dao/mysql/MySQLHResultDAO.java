@@ -129,7 +129,7 @@ public class MySQLHResultDAO implements NuHResultDAO {
 			
 			if(entity.getCodeline() != null && entity.getCodeline().getLine()!=null)
 			{
-				statement.setString(++index, new String(entity.getCodeline().getLine()));
+				statement.setString(++index, entity.getCodeline().getLineAsString());
 			}else
 			{
 				statement.setNull(++index, Types.VARCHAR);
@@ -222,7 +222,7 @@ public class MySQLHResultDAO implements NuHResultDAO {
 			
 			if(entity.getCodeline() != null && entity.getCodeline().getLine()!=null)
 			{
-				updateStmt.setString(++index, new String(entity.getCodeline().getLine()));
+				updateStmt.setString(++index, entity.getCodeline().getLineAsString());
 			}else
 			{
 				updateStmt.setNull(++index, Types.VARCHAR);
@@ -109,8 +109,8 @@ public class MySQLMethodDAO implements NuMethodDAO {
 			}
 
 			if (entity.getCodeLines() != null
-					&& entity.getCodeLines().getFirst() != null) {
-				insert.setInt(++index, entity.getCodeLines().getFirst().getLineNr()); // first loc
+					&& entity.getCodeLines().get(0) != null) {
+				insert.setInt(++index, entity.getCodeLines().get(0).getLineNr()); // first loc
 			} else {
 				insert.setNull(++index, Types.INTEGER); // the initial line of code
 			}
@@ -124,7 +124,13 @@ public class MySQLMethodDAO implements NuMethodDAO {
 			
 			insert.setDouble(++index, entity.arithOps()); //the fraction of arithemtic operations
 			
-			insert.setNull(++index, Types.VARCHAR); //FIXME there is no getter for the fuzzy hash
+			if(entity.getFuzzyHash()!=null)
+			{
+				insert.setString(++index, entity.getFuzzyHash());
+			}else
+			{
+				insert.setNull(++index, Types.VARCHAR);
+			}
 			
 			if(entity.getName()!=null)
 			{
@@ -208,8 +214,8 @@ public class MySQLMethodDAO implements NuMethodDAO {
 			}
 
 			if (entity.getCodeLines() != null
-					&& entity.getCodeLines().getFirst() != null) {
-				updateStmt.setInt(++index, entity.getCodeLines().getFirst().getLineNr()); // the
+					&& entity.getCodeLines().get(0) != null) {
+				updateStmt.setInt(++index, entity.getCodeLines().get(0).getLineNr()); // the
 																				// initial
 																				// line
 																				// of
@@ -227,7 +233,13 @@ public class MySQLMethodDAO implements NuMethodDAO {
 			
 			updateStmt.setDouble(++index, entity.arithOps()); //the fraction of arithemtic operations
 			
-			updateStmt.setNull(++index, Types.VARCHAR); //there is no getter for the fuzzy hash
+			if(entity.getFuzzyHash()!=null)
+			{
+				updateStmt.setString(++index, entity.getFuzzyHash());
+			}else
+			{
+				updateStmt.setNull(++index, Types.VARCHAR);
+			}
 			
 			if(entity.getName()!=null)
 			{
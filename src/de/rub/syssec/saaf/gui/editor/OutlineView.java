@@ -236,12 +236,12 @@ public class OutlineView extends JPanel implements PropertyChangeListener {
 		// children
 		DefaultMutableTreeNode file = new DefaultMutableTreeNode(
 				new MethodNode(null, smaliClass.getClassName(), smaliClass
-						.getAllCodeLines().getFirst()));
+						.getAllCodeLines().get(0)));
 
 		for (MethodInterface m : smaliClass.getMethods()) {
 			file.add(new DefaultMutableTreeNode(new MethodNode(m, m.getName()
 					+ " (" + m.getParameterString() + ")"
-					+ m.getReturnValueString(), m.getCodeLines().getFirst())));
+					+ m.getReturnValueString(), m.getCodeLines().get(0))));
 		}
 		return file;
 	}
@@ -0,0 +1,85 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.misc;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily walks a directory and hands out the files found in it. Only the
+ * listing of the directory currently being visited and the not yet visited
+ * subdirectories are kept in memory.
+ */
+public class DirectoryWalker implements Iterator<File> {
+
+	private final boolean recursive;
+	private final LinkedList<File> pendingDirs = new LinkedList<File>();
+	private final LinkedList<File> pendingFiles = new LinkedList<File>();
+	private int count = 0;
+
+	/**
+	 * @param dir the directory to walk
+	 * @param recursive also descend into subdirectories
+	 */
+	public DirectoryWalker(File dir, boolean recursive) {
+		this.recursive = recursive;
+		this.pendingDirs.add(dir);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (pendingFiles.isEmpty() && !pendingDirs.isEmpty()) {
+			File[] entries = pendingDirs.removeFirst().listFiles();
+			if (entries == null) {
+				continue;
+			}
+			Arrays.sort(entries);
+			for (File entry : entries) {
+				if (entry.isFile()) {
+					pendingFiles.add(entry);
+				} else if (recursive && entry.isDirectory()) {
+					pendingDirs.add(entry);
+				}
+			}
+		}
+		return !pendingFiles.isEmpty();
+	}
+
+	@Override
+	public File next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		count++;
+		return pendingFiles.removeFirst();
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return the number of files handed out so far
+	 */
+	public int getCount() {
+		return count;
+	}
+}
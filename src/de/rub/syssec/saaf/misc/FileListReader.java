@@ -0,0 +1,122 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.misc;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Lazily reads the paths of APK files from a file list, one line at a time.
+ * Lines which do not point to a readable file are logged and skipped.
+ * 
+ * The reader is closed automatically once the end of the list is reached.
+ */
+public class FileListReader implements Iterator<File>, Closeable {
+
+	private static final Logger LOGGER = Logger.getLogger(FileListReader.class);
+
+	/**
+	 * HACK: Every File produced by Microsoft SQL ... Studio, starts with the
+	 * non printable Bytes EF BB BF. This is only a BugFix to destroy these
+	 * bytes.
+	 * 
+	 * FIXME: Is this sequence on EACH line or only at the first?
+	 */
+	private static final String BOM = new String(new byte[] { (byte) 0xEF,
+			(byte) 0xBB, (byte) 0xBF });
+
+	private final BufferedReader in;
+	private final String prefix;
+	private File next = null;
+	private int count = 0;
+
+	/**
+	 * @param fileList ASCII-file with multiple paths to APK-files
+	 * @param prefix a directory which is prepended to every path in the list, may be empty
+	 * @throws IOException if the file list cannot be opened
+	 */
+	public FileListReader(File fileList, String prefix) throws IOException {
+		this.in = new BufferedReader(new FileReader(fileList));
+		this.prefix = prefix;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = readNext();
+		}
+		return next != null;
+	}
+
+	@Override
+	public File next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		File f = next;
+		next = null;
+		count++;
+		return f;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return the number of files handed out so far
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public void close() {
+		try {
+			in.close();
+		} catch (IOException ignored) {
+		}
+	}
+
+	private File readNext() {
+		try {
+			String line = null;
+			while ((line = in.readLine()) != null) {
+				line = line.replaceAll(BOM, "");
+				File apk = new File(prefix + File.separator
+						+ line.replace("\\\\", "").replace("\\", File.separator));
+				if (!apk.isFile() || !apk.canRead()) {
+					LOGGER.error("Skipping non valid file: " + apk);
+				} else {
+					return apk;
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.error("Could not read from file list", e);
+		}
+		close();
+		return null;
+	}
+}
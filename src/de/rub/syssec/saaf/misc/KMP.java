@@ -37,13 +37,26 @@ public class KMP {
 	 */
 	public static int indexOf(byte[] data, int offset, byte[] pattern,
 			boolean ignoreCase, boolean wildcard) {
-		if (offset > data.length)
+		return indexOf(data, offset, data.length, pattern, ignoreCase, wildcard);
+	}
+
+	/**
+	 * Search the data byte array between offset and end (exclusive) for the
+	 * first occurrence of the byte array pattern.
+	 */
+	public static int indexOf(byte[] data, int offset, int end, byte[] pattern) {
+		return indexOf(data, offset, end, pattern, false, false);
+	}
+
+	private static int indexOf(byte[] data, int offset, int end, byte[] pattern,
+			boolean ignoreCase, boolean wildcard) {
+		if (offset > end)
 			return -1;
 		int[] failure = computeFailure(pattern);
 
 		int j = 0;
 
-		for (int i = 0 + offset; i < data.length; i++) {
+		for (int i = 0 + offset; i < end; i++) {
 			if (wildcard && pattern[j] == '*') {
 				/* Skip the wildcard */
 				j++;
@@ -59,7 +72,7 @@ public class KMP {
 				 * Go through the data and skip everything which is not
 				 * pattern[j]
 				 */
-				while (i < data.length
+				while (i < end
 						&& (!ignoreCase && pattern[j] != data[i] || ignoreCase
 								&& pattern[j] != data[i]
 								&& pattern[j] >= 'A'
@@ -71,7 +84,7 @@ public class KMP {
 				 * The pattern[j] character wasn't found anywhere in the data so
 				 * there is no match
 				 */
-				if (i == data.length)
+				if (i == end)
 					return -1;
 			}
 
@@ -0,0 +1,142 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.misc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Splits a byte array into lines without copying them. As in
+ * {@link ByteUtils#parseLine(java.io.BufferedInputStream, int)} a line ends
+ * with a LF or a CRLF, which are not part of the line. A CR which is not
+ * followed by a LF belongs to the line. A LF at the very end does not start
+ * another, empty line.
+ *
+ * Usage:
+ * <pre>
+ * LineReader reader = LineReader.read(file, maxFileSize, maxLineLength);
+ * while (reader.next()) {
+ *     use(reader.getBuffer(), reader.getOffset(), reader.getLength());
+ * }
+ * </pre>
+ */
+public final class LineReader {
+
+	private final byte[] buffer;
+	private final int end;
+	private final int maxLineLength;
+	private int position = 0;
+	private int offset = 0;
+	private int length = 0;
+
+	/**
+	 * @param buffer the text, it is not copied
+	 * @param maxLineLength the maximum length of a line, a value of zero or
+	 *            smaller disables the limit
+	 */
+	public LineReader(byte[] buffer, int maxLineLength) {
+		this.buffer = buffer;
+		this.end = buffer.length;
+		this.maxLineLength = maxLineLength;
+	}
+
+	/**
+	 * Read a whole file with one read call.
+	 *
+	 * @param file the file
+	 * @param maxFileSize the maximum size of the file
+	 * @param maxLineLength see {@link #LineReader(byte[], int)}
+	 * @return a reader for the lines of the file
+	 * @throws IOException if the file could not be read or is too big
+	 */
+	public static LineReader read(File file, int maxFileSize, int maxLineLength) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			long size = raf.length();
+			if (size > maxFileSize) {
+				throw new IOException("Maximum file size of " + maxFileSize + " bytes exceeded by " + file + "!");
+			}
+			byte[] content = new byte[(int) size];
+			raf.readFully(content);
+			return new LineReader(content, maxLineLength);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Go to the next line.
+	 *
+	 * @return false if there are no more lines
+	 * @throws IOException if the line is longer than the maximum length
+	 */
+	public boolean next() throws IOException {
+		int begin = position;
+		if (begin >= end) {
+			return false;
+		}
+		final byte[] b = buffer;
+		int i = begin;
+		while (i < end && b[i] != '\n') {
+			i++;
+		}
+		int lineEnd = i;
+		if (i < end) {
+			position = i + 1; // skip the LF
+			if (lineEnd > begin && b[lineEnd - 1] == '\r') {
+				lineEnd--; // CRLF
+			}
+		} else {
+			position = end;
+		}
+		if (maxLineLength > 0 && lineEnd - begin > maxLineLength) {
+			throw new IOException("Maximal line length of " + maxLineLength + " exceeded!");
+		}
+		offset = begin;
+		length = lineEnd - begin;
+		return true;
+	}
+
+	/**
+	 * @return the array holding all lines, it must not be modified
+	 */
+	public byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return the begin of the current line in the buffer
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the length of the current line without the line break
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return the number of bytes of all lines including the line breaks
+	 */
+	public int getSize() {
+		return end;
+	}
+}
@@ -345,6 +345,10 @@ public class Config implements ConfigInterface {
 		return this.getBooleanConfigValue(key, key.defaultBoolean);
 	}
 
+	public int getIntConfigValue(ConfigKeys key) {
+		return this.getIntConfigValue(key, key.defaultInt);
+	}
+
 	public String getConfigValue(ConfigKeys key) {
 		return this.getConfigValue(key, key.defaultString);
 	}
@@ -126,6 +126,22 @@ public enum ConfigKeys {
 	 * Default is false. TODO: Which files? apks? smali? all?
 	 */
 	ANALYSIS_GENERATE_FUZZYHASH("analysis.fuzzyhashing.enable", false),
+	/**
+	 * Retrieve whether the fuzzy hashes should be generated by the ssdeep
+	 * program for the APK and the SMALI files instead of in the JVM for the
+	 * APK and the parsed code. Default is false.
+	 */
+	ANALYSIS_FUZZYHASH_EXTERNAL("analysis.fuzzyhashing.external", false),
+	/**
+	 * Retrieve whether fuzzy hashes should also be generated for methods.
+	 * Only supported if they are not generated externally. Default is false.
+	 */
+	ANALYSIS_FUZZYHASH_METHODS("analysis.fuzzyhashing.methods", false),
+	/**
+	 * A CSV file the time, CPU time and memory used by every step of every
+	 * analysis in headless mode is written to. Disabled by default.
+	 */
+	ANALYSIS_METRICS_FILE("analysis.metrics.file", ""),
 
 	/**
 	 * Retrieve whether we should consider the manifest-based patterns when
@@ -192,6 +208,55 @@ public enum ConfigKeys {
 	 * contained in ad-frameworks. Default is true.
 	 */
 	ANALYSIS_INCLUDE_AD_FRAMEWORKS("analysis.include.adpackages",true),
+	/**
+	 * Retrieve whether the smali classes should be disassembled from the dex
+	 * file in memory instead of being written to disk by apktool and parsed
+	 * from there. Files are still written for the GUI, if the files are kept
+	 * or for fuzzy hashing. Default is false.
+	 */
+	ANALYSIS_PARSE_DEX("analysis.parse.dex", false),
+	/**
+	 * Retrieve whether the instructions and basic blocks of a method should
+	 * only be parsed when they are needed for the first time. The class
+	 * header, fields and method signatures are always parsed. Errors which
+	 * occur when the basic blocks are built lazily are thrown to the caller
+	 * which requested them. Default is false.
+	 */
+	ANALYSIS_PARSE_LAZY("analysis.parse.lazy", false),
+	/**
+	 * The maximum fuzzy level of a slicing search. Default is 10.
+	 */
+	SLICING_BUDGET_FUZZY_LEVEL("analysis.backtrack.budget.fuzzy"),
+	/**
+	 * How many registers may be searched for one invoke of a slicing
+	 * criterion. Default is 100000, 0 means no limit.
+	 */
+	SLICING_BUDGET_INVOKE_SEARCHES("analysis.backtrack.budget.invoke.searches"),
+	/**
+	 * How many registers may be searched for one slicing criterion. Default
+	 * is 0, no limit.
+	 */
+	SLICING_BUDGET_CRITERION_SEARCHES("analysis.backtrack.budget.criterion.searches"),
+	/**
+	 * How many ms may be spent searching one slicing criterion. Default is 0,
+	 * no limit.
+	 */
+	SLICING_BUDGET_CRITERION_TIME("analysis.backtrack.budget.criterion.time"),
+	/**
+	 * How many registers may be searched for all slicing criteria of one APK.
+	 * Default is 0, no limit.
+	 */
+	SLICING_BUDGET_APK_SEARCHES("analysis.backtrack.budget.apk.searches"),
+	/**
+	 * How many ms may be spent searching all slicing criteria of one APK.
+	 * Default is 0, no limit.
+	 */
+	SLICING_BUDGET_APK_TIME("analysis.backtrack.budget.apk.time"),
+	/**
+	 * A folder a CSV file with the profile of the slicing search of each
+	 * pattern is written to for every APK. Disabled by default.
+	 */
+	SLICING_PROFILE_FOLDER("analysis.backtrack.profile.folder", ""),
 
 	/**
 	 * Retrieve the name of the report template to use. The default is "xml.stg"
@@ -253,6 +318,41 @@ public enum ConfigKeys {
 	 * How many threads should be used
 	 */
 	MULTITHREADING_THREADS("multithreading.threads"),
+	/**
+	 * Read the directory or file list lazily and submit APKs to the thread
+	 * pool as workers become free instead of creating all analyses up front.
+	 * Default is false.
+	 */
+	MULTITHREADING_STREAMING("multithreading.streaming", false),
+	/**
+	 * How many APKs may wait in the queue in streaming mode. Defaults to the
+	 * number of threads.
+	 */
+	MULTITHREADING_STREAMING_WINDOW("multithreading.streaming.window"),
+	/**
+	 * How many threads parse the smali files of one APK. Default is 1.
+	 */
+	MULTITHREADING_PARSE_THREADS("multithreading.parse.threads", 1),
+	/**
+	 * How many threads search the slicing criteria. The threads are shared by
+	 * all APKs which are analyzed at the same time. Default is 1.
+	 */
+	MULTITHREADING_SLICING_THREADS("multithreading.slicing.threads", 1),
+	/**
+	 * Run independent analysis steps of one APK at the same time. Default is
+	 * false.
+	 */
+	MULTITHREADING_STEPS("multithreading.steps", false),
+	/**
+	 * How many threads run analysis steps, shared by all APKs. Defaults to
+	 * the number of processors.
+	 */
+	MULTITHREADING_STEPS_THREADS("multithreading.steps.threads"),
+	/**
+	 * How many jad processes decompile the classes of one APK at the same
+	 * time. Defaults to the number of processors.
+	 */
+	MULTITHREADING_DECOMPILE_THREADS("multithreading.decompile.threads"),
 	/**
 	 * The data-source that provides the permissions. Default is "conf/permissions.xml"
 	 */
@@ -332,6 +432,10 @@ public enum ConfigKeys {
 	 * The path of the jad program that is used to decompile the application into .java source code.
 	 */
 	EXECUTABLE_JAD("external.jad",""),
+	/**
+	 * How many class files are passed to one jad process. Default is 100.
+	 */
+	DECOMPILE_BATCH_SIZE("external.jad.batchsize"),
 	/**
 	 * The path of the ssdeep program taht is used to generate fuzzy hashes
 	 */
@@ -341,6 +445,11 @@ public enum ConfigKeys {
 	 * See ApkDecoderInterface.Treatment. Default is "DONT_TOUCH"
 	 */
 	APKTOOL_TREATMENT("apktool.frameworks","DONT_TOUCH"),
+	/**
+	 * Decode APKs in child processes with separate framework directories, so
+	 * that several APKs can be decoded at the same time. Default is false.
+	 */
+	APKTOOL_CONCURRENT("apktool.concurrent",false),
 	/**
 	 * Signals that SAAF is running as a daemon.
 	 */
@@ -362,6 +471,7 @@ public enum ConfigKeys {
 	private String name;
 	public String defaultString;
 	public boolean defaultBoolean;
+	public int defaultInt;
 
 	private ConfigKeys(String name) {
 		this.name = name;
@@ -377,6 +487,11 @@ public enum ConfigKeys {
 		this.defaultBoolean = defaultValue;
 	}
 
+	private ConfigKeys(String name, int defaultValue) {
+		this.name = name;
+		this.defaultInt = defaultValue;
+	}
+
 	@Override
 	public String toString() {
 		return name;
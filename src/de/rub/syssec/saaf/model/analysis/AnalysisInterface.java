@@ -77,6 +77,13 @@ public interface AnalysisInterface extends Entity {
 
 	public void setBTResults(List<BTResultInterface> btResults);
 
+	/**
+	 * @return what the slicing search did for each pattern, in the order of the patterns, empty if slicing did not run
+	 */
+	public List<SlicingProfileInterface> getSlicingProfiles();
+
+	public void setSlicingProfiles(List<SlicingProfileInterface> profiles);
+
 	/**
 	 * @return the h_results
 	 */
@@ -123,4 +130,16 @@ public interface AnalysisInterface extends Entity {
 	public void addCriticalException(Exception e);
 
 	public void addProgressListener(ProgressListener listener);
+
+	/**
+	 * Record what a step cost. Steps may run concurrently.
+	 * 
+	 * @param metrics the metrics of one step
+	 */
+	public void addStepMetrics(StepMetricsInterface metrics);
+
+	/**
+	 * @return the metrics of all steps run so far, in the order they finished
+	 */
+	public List<StepMetricsInterface> getStepMetrics();
 }
\ No newline at end of file
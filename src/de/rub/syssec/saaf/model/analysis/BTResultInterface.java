@@ -76,4 +76,11 @@ public interface BTResultInterface extends Entity {
 	 */
 	public abstract CodeLineInterface getCl();
 
+	/**
+	 * @return true if the search which found the result exceeded its budget and was stopped, there may be more results
+	 */
+	public abstract boolean isTruncated();
+
+	public abstract void setTruncated(boolean truncated);
+
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.model.analysis;
+
+/**
+ * What the slicing search of one pattern did for one analysis.
+ *
+ * A register search scans one BB. If several patterns share a search, its
+ * work is counted for each of them.
+ */
+public interface SlicingProfileInterface {
+
+	/**
+	 * @return the pattern or null if unset
+	 */
+	public abstract BTPatternInterface getPattern();
+
+	/**
+	 * @return the number of invokes of the searched method where a search started
+	 */
+	public abstract int getCallSites();
+
+	/**
+	 * @return the number of register searches which were run
+	 */
+	public abstract int getSearches();
+
+	/**
+	 * @return the number of register searches which were added to the queue
+	 */
+	public abstract int getEnqueued();
+
+	/**
+	 * @return the number of jobs which were dropped b/c they were already queued or done
+	 */
+	public abstract int getDuplicates();
+
+	/**
+	 * @return the number of scanned BBs
+	 */
+	public abstract int getVisitedBBs();
+
+	/**
+	 * @return the number of tracked fields
+	 */
+	public abstract int getFields();
+
+	/**
+	 * @return the number of methods whose return values were tracked
+	 */
+	public abstract int getReturnValues();
+
+	/**
+	 * @return the number of tracked array fields
+	 */
+	public abstract int getArrays();
+
+	/**
+	 * @return the number of register searches per fuzzy level, the index is the level
+	 */
+	public abstract int[] getFuzzyLevels();
+
+	/**
+	 * @return the number of register searches per fuzzy level, eg, "0:12 1:3 3:1", levels w/o searches are left out
+	 */
+	public abstract String getFuzzyHistogram();
+
+	/**
+	 * @return the time spent searching in nanoseconds
+	 */
+	public abstract long getTime();
+
+	/**
+	 * @return the time spent searching in milliseconds
+	 */
+	public abstract long getTimeMillis();
+
+	/**
+	 * @return the number of found constants
+	 */
+	public abstract int getResults();
+
+	/**
+	 * @return true if the search exceeded its budget
+	 */
+	public abstract boolean isTruncated();
+
+}
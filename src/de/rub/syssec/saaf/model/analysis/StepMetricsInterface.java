@@ -0,0 +1,72 @@
+/* SAAF: A static analyzer for APK files.
+ * Copyright (C) 2013  syssec.rub.de
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.rub.syssec.saaf.model.analysis;
+
+/**
+ * What one step cost for one analysis. The CPU time and the allocated bytes
+ * are those of the thread which ran the step, work the step hands to other
+ * threads is not included. They are -1 if the JVM cannot measure them.
+ *
+ * The model size is a snapshot taken after the step finished.
+ */
+public interface StepMetricsInterface {
+
+	/**
+	 * @return the name of the step
+	 */
+	public abstract String getStep();
+
+	/**
+	 * @return the elapsed time in nanoseconds
+	 */
+	public abstract long getWallTime();
+
+	/**
+	 * @return the CPU time in nanoseconds or -1
+	 */
+	public abstract long getCpuTime();
+
+	/**
+	 * @return the number of allocated bytes or -1
+	 */
+	public abstract long getAllocatedBytes();
+
+	/**
+	 * @return the number of parsed classes after the step
+	 */
+	public abstract int getClasses();
+
+	/**
+	 * @return the number of code lines of the parsed classes after the step
+	 */
+	public abstract int getCodeLines();
+
+	/**
+	 * @return the number of heuristic results after the step
+	 */
+	public abstract int getHeuristicResults();
+
+	/**
+	 * @return the number of slicing results after the step
+	 */
+	public abstract int getSlicingResults();
+
+	/**
+	 * @return false if the step stopped the analysis
+	 */
+	public abstract boolean isProceed();
+}
@@ -23,6 +23,10 @@ import java.util.List;
 import java.util.Vector;
 
 import de.rub.syssec.saaf.analysis.steps.hash.GenerateHashesStep;
+import de.rub.syssec.saaf.application.DexDisassembler;
+import de.rub.syssec.saaf.application.FieldAccessIndex;
+import de.rub.syssec.saaf.application.InvokeIndex;
+import de.rub.syssec.saaf.application.SymbolTable;
 import de.rub.syssec.saaf.model.APICall;
 import de.rub.syssec.saaf.model.Entity;
 import de.rub.syssec.saaf.model.application.manifest.ComponentInterface;
@@ -63,7 +67,8 @@ public interface ApplicationInterface extends Entity {
 
 	/**
 	 * To work with smali classes, use the getSmaliClass method! this method
-	 * returns the actual file on the file system.
+	 * returns the actual file on the file system. If a {@link DexDisassembler}
+	 * is set, the files of its classes are returned, which need not exist.
 	 * 
 	 * @param includeFilesFromAdPackages
 	 * @return
@@ -115,6 +120,16 @@ public interface ApplicationInterface extends Entity {
 	 * @return the number of Codelines this application consists of
 	 */
 	public abstract int getNumberOfCodelines(boolean includeFilesFromAdPackages);
+
+	/**
+	 * @return the number of classes parsed so far, no classes are parsed by this method
+	 */
+	public abstract int getNumberOfParsedClasses();
+
+	/**
+	 * @return the number of codelines of the classes parsed so far, no classes are parsed by this method
+	 */
+	public abstract int getNumberOfParsedCodelines();
 	
 	
 	/**
@@ -166,6 +181,39 @@ public interface ApplicationInterface extends Entity {
 	public abstract void setAllSmaliClasss(
 			HashMap<String, ClassInterface> smaliClassMap);
 
+	/**
+	 * Read the smali classes from the dex file of the APK instead of the smali
+	 * files below the bytecode directory.
+	 * 
+	 * @param disassembler the disassembler for the dex file of this application
+	 */
+	public abstract void setDexDisassembler(DexDisassembler disassembler);
+
+	/**
+	 * The descriptors of all parsed instructions, eg, invoked classes and
+	 * methods or accessed fields, are interned in this table.
+	 * 
+	 * @return the symbol table of this application
+	 */
+	public abstract SymbolTable getSymbolTable();
+
+	/**
+	 * The invokes of all parsed classes. Classes are added when they are
+	 * parsed by the ParseSmaliStep or on demand by
+	 * {@link #getSmaliClass(File)}.
+	 * 
+	 * @return the invoke index of this application
+	 */
+	public abstract InvokeIndex getInvokeIndex();
+
+	/**
+	 * The field accesses of all classes which are not in an ad framework
+	 * package. The index is built on the first call.
+	 * 
+	 * @return the field access index of this application
+	 */
+	public abstract FieldAccessIndex getFieldAccessIndex();
+
 	public abstract int getSmaliClassLabel();
 
 	public abstract void setSmaliClassLabel(int smaliClassLabel);
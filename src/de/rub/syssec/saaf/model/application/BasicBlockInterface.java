@@ -17,6 +17,7 @@
 package de.rub.syssec.saaf.model.application;
 
 import java.util.LinkedList;
+import java.util.List;
 
 public interface BasicBlockInterface {
 
@@ -35,7 +36,7 @@ public interface BasicBlockInterface {
 
 	public abstract boolean isSwitchTable();
 
-	public abstract LinkedList<CodeLineInterface> getCodeLines();
+	public abstract List<CodeLineInterface> getCodeLines();
 
 	/**
 	 * @return the method this BB belongs to
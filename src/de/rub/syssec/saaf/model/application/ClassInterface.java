@@ -19,6 +19,7 @@ package de.rub.syssec.saaf.model.application;
 import java.io.File;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 
 import de.rub.syssec.saaf.model.Entity;
 import de.rub.syssec.saaf.model.application.instruction.InstructionType;
@@ -58,7 +59,7 @@ public interface ClassInterface extends Entity, Obfuscatable {
 	 */
 	public abstract LinkedList<MethodInterface> getEmptyMethods();
 
-	public abstract LinkedList<CodeLineInterface> getAllCodeLines();
+	public abstract List<CodeLineInterface> getAllCodeLines();
 
 	/**
 	 * Get all CodeLines which have a given opcode.
@@ -16,13 +16,54 @@
  */
 package de.rub.syssec.saaf.model.application;
 
+import java.util.LinkedList;
+
 import de.rub.syssec.saaf.application.manifest.permissions.Permission;
 import de.rub.syssec.saaf.model.application.instruction.InstructionInterface;
 
 public interface CodeLineInterface {
 
+	/**
+	 * @return the bytes of this line, a new copy on every call, prefer the
+	 *         accessors below which do not copy the line
+	 */
 	public abstract byte[] getLine();
 
+	/**
+	 * @return the number of bytes of this line
+	 */
+	public abstract int length();
+
+	/**
+	 * @param index the index in this line
+	 * @return the byte at the index
+	 */
+	public abstract byte byteAt(int index);
+
+	/**
+	 * @param pattern the bytes to search for
+	 * @return the index of the first occurrence of the pattern in this line or -1
+	 */
+	public abstract int indexOf(byte[] pattern);
+
+	/**
+	 * @param bytes the bytes to compare with
+	 * @return true if this line consists of exactly these bytes
+	 */
+	public abstract boolean lineEquals(byte[] bytes);
+
+	/**
+	 * @return the parts of this line as
+	 *         {@link de.rub.syssec.saaf.application.instructions.Instruction#split(byte[])}
+	 *         returns them, the line itself is not copied
+	 */
+	public abstract LinkedList<byte[]> split();
+
+	/**
+	 * @return this line as a String w/o the line number
+	 */
+	public abstract String getLineAsString();
+
 	public abstract int getLineNr();
 
 	public abstract String getNrAndLine();
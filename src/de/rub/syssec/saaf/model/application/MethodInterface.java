@@ -17,7 +17,9 @@
 package de.rub.syssec.saaf.model.application;
 
 import java.util.LinkedList;
+import java.util.List;
 
+import de.rub.syssec.saaf.application.methods.DefUse;
 import de.rub.syssec.saaf.model.Entity;
 
 public interface MethodInterface extends Entity, Obfuscatable {
@@ -33,6 +35,13 @@ public interface MethodInterface extends Entity, Obfuscatable {
 	//FIXME: crude hack to replace the autogeneration in parseNameAndType(), could perhaps still always be generated in parseNameAndType (for safety) and use this just for explicitly generating bbs anew
 	public abstract void generateBBs() throws DetectionLogicError, SmaliClassError;
 
+	/**
+	 * Parse the opcodes of all lines of this method if this was not done yet.
+	 * The lines of a lazily parsed class call this when their instruction is
+	 * accessed for the first time.
+	 */
+	public abstract void parseInstructions();
+
 	/**
 	 * Get the unparsed parameters of this method.
 	 * .method public constructor <init>(Landroid/content/Context;)V
@@ -63,6 +72,14 @@ public interface MethodInterface extends Entity, Obfuscatable {
 	public abstract BasicBlockInterface getFirstBasicBlock();
 
 	public abstract LinkedList<BasicBlockInterface> getBasicBlocks();
+
+	/**
+	 * Get the definitions and uses of the registers in the BBs of this
+	 * method and the definitions which reach them across BBs. They are
+	 * collected once per BB and method and shared by all searches.
+	 * @return the def-use information of this method
+	 */
+	public abstract DefUse getDefUse();
 	
 	public abstract void setBasicBlocks(LinkedList<BasicBlockInterface> blocks);
 
@@ -95,9 +112,16 @@ public interface MethodInterface extends Entity, Obfuscatable {
 	 */
 	public abstract float arithOps();
 
-	public abstract LinkedList<CodeLineInterface> getCodeLines();
+	public abstract List<CodeLineInterface> getCodeLines();
 	
-	public abstract void setCodeLines(LinkedList<CodeLineInterface> lines);
+	public abstract void setCodeLines(List<CodeLineInterface> lines);
+
+	/**
+	 * @return the fuzzy hash of this method, null if none was generated
+	 */
+	public abstract String getFuzzyHash();
+
+	public abstract void setFuzzyHash(String hash);
 
 	/**
 	 * 
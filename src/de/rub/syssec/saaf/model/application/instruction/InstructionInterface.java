@@ -16,7 +16,8 @@
  */
 package de.rub.syssec.saaf.model.application.instruction;
 
-import java.util.LinkedList;
+import de.rub.syssec.saaf.application.SymbolTable;
+import de.rub.syssec.saaf.application.instructions.Registers;
 
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
 import de.rub.syssec.saaf.model.application.SyntaxException;
@@ -50,41 +51,69 @@ public interface InstructionInterface {
 	/**
 	 * Get the register where the result is copied into
 	 * 
-	 * @return
+	 * @return the register as encoded by {@link Registers}, or
+	 *         {@link Registers#NONE}
 	 */
-	public abstract byte[] getResultRegister();
+	public abstract int getResultRegister();
 
 	/**
 	 * Get the field where the result is copied to. The first index is the class
 	 * name, the second the field name.
 	 * 
-	 * @return
+	 * @return the field or null, the arrays are shared and must not be modified
 	 */
 	public abstract byte[][] getResultField();
 
+	/**
+	 * The same as {@link #getResultField()}, but the IDs of the class and the
+	 * field name in the {@link SymbolTable} of the application.
+	 * 
+	 * @return the IDs or null
+	 */
+	public abstract int[] getResultFieldSymbols();
+
 	/**
 	 * Get all registers which are involved in a method call or all relevant
 	 * registers for eg, MATH opcodes, PUTs, RETURN-x etc.
 	 * 
-	 * @return
+	 * @return the registers as encoded by {@link Registers}, may be empty
 	 */
-	public abstract LinkedList<byte[]> getInvolvedRegisters();
+	public abstract int[] getInvolvedRegisters();
 
 	/**
-	 * Get all fields which are involved in a method call or a GET opcode etc.
+	 * Get the field which is copied into a register by a GET opcode. The first
+	 * index is the class name, the second the field name.
 	 * 
-	 * @return
+	 * @return the field or null, the arrays are shared and must not be modified
+	 */
+	public abstract byte[][] getInvolvedField();
+
+	/**
+	 * The same as {@link #getInvolvedField()}, but the IDs of the class and
+	 * the field name in the {@link SymbolTable} of the application.
+	 * 
+	 * @return the IDs or null
 	 */
-	public abstract LinkedList<byte[]> getInvolvedFields();
+	public abstract int[] getInvolvedFieldSymbols();
 
 	/**
 	 * Get the class, the method and its parameters for a call/invoke.
 	 * 
-	 * @return cm[0] is the class, cm[1] the method and cm[3] the unparsed
-	 *         parameters.
+	 * @return cm[0] is the class, cm[1] the method, cm[2] the unparsed
+	 *         parameters and cm[3] the return value. The arrays are shared
+	 *         and must not be modified.
 	 */
 	public abstract byte[][] getCalledClassAndMethodWithParameter();
 
+	/**
+	 * The same as {@link #getCalledClassAndMethodWithParameter()}, but the IDs
+	 * of the descriptors in the {@link SymbolTable} of the application.
+	 * Comparing IDs is much cheaper than comparing the descriptors.
+	 * 
+	 * @return the IDs or null if this is no call/invoke
+	 */
+	public abstract int[] getCalledSymbols();
+
 	/**
 	 * TODO: Use getCalledClassAndMethodWithParameter instead! Get the class,
 	 * the method and its parameters for a call/invoke.
@@ -0,0 +1,63 @@
+package de.rub.syssec.saaf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.rub.syssec.saaf.model.analysis.AnalysisException;
+
+public class SAAFThreadPoolExecutorTest {
+
+	/**
+	 * Streams tasks which only count how often they ran.
+	 */
+	private static class CountingExecutor extends SAAFThreadPoolExecutor {
+		private final AtomicInteger runs = new AtomicInteger();
+
+		CountingExecutor(int threads, int queueSize) {
+			super(threads, threads, 5, TimeUnit.SECONDS, queueSize);
+		}
+
+		@Override
+		AnalysisTask createTask(File apk) throws AnalysisException {
+			return new AnalysisTask(apk, true) {
+				@Override
+				public void run() {
+					runs.incrementAndGet();
+					Thread.yield();
+				}
+			};
+		}
+	}
+
+	@Test
+	public void testStreamMoreThanWindow() throws Exception {
+		for (int round = 0; round < 5; round++) {
+			CountingExecutor executor = new CountingExecutor(2, 2);
+			int submitted = 0;
+			for (int i = 0; i < 200; i++) {
+				if (executor.submitBlocking(new File("app" + i + ".apk"))) {
+					submitted++;
+				}
+			}
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+			assertEquals(200, submitted);
+			assertEquals(200, executor.runs.get());
+		}
+	}
+
+	@Test
+	public void testShutdown() throws Exception {
+		CountingExecutor executor = new CountingExecutor(1, 1);
+		executor.shutdown();
+		assertFalse(executor.submitBlocking(new File("app.apk")));
+		assertEquals(0, executor.runs.get());
+	}
+}
@@ -14,6 +14,8 @@ import de.rub.syssec.saaf.model.analysis.AnalysisException;
 import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
 import de.rub.syssec.saaf.model.analysis.BTResultInterface;
 import de.rub.syssec.saaf.model.analysis.HResultInterface;
+import de.rub.syssec.saaf.model.analysis.SlicingProfileInterface;
+import de.rub.syssec.saaf.model.analysis.StepMetricsInterface;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
 
 /**
@@ -27,6 +29,7 @@ public class MockAnalysis implements AnalysisInterface {
 	private ApplicationInterface app;
 	private boolean changed=true;
 	private Status status=Status.FINISHED;
+	private List<StepMetricsInterface> stepMetrics = new LinkedList<StepMetricsInterface>();
 
 	/* (non-Javadoc)
 	 * @see de.rub.syssec.saaf.saaf.db.Entity#getId()
@@ -157,6 +160,15 @@ public class MockAnalysis implements AnalysisInterface {
 		setChanged(true);
 	}
 
+	@Override
+	public List<SlicingProfileInterface> getSlicingProfiles() {
+		return new LinkedList<SlicingProfileInterface>();
+	}
+
+	@Override
+	public void setSlicingProfiles(List<SlicingProfileInterface> profiles) {
+	}
+
 	@Override
 	public void setHResults(List<HResultInterface> heuristicResults) {
 		setChanged(true);
@@ -193,6 +205,16 @@ public class MockAnalysis implements AnalysisInterface {
 	public void setReportFile(File report) {
 	}
 
+	@Override
+	public synchronized void addStepMetrics(StepMetricsInterface metrics) {
+		stepMetrics.add(metrics);
+	}
+
+	@Override
+	public synchronized List<StepMetricsInterface> getStepMetrics() {
+		return new LinkedList<StepMetricsInterface>(stepMetrics);
+	}
+
 	public File getReportFile() {
 		return null;
 	}
@@ -0,0 +1,137 @@
+package de.rub.syssec.saaf.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.analysis.steps.AnalysisData;
+import de.rub.syssec.saaf.analysis.steps.ProgressHandler;
+import de.rub.syssec.saaf.analysis.steps.Step;
+import de.rub.syssec.saaf.model.analysis.AnalysisException;
+import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
+
+public class StepSchedulerTest {
+
+	private ExecutorService pool;
+	private List<String> log;
+
+	private class RecordingStep extends AbstractStep {
+		private final boolean result;
+
+		RecordingStep(String name, EnumSet<AnalysisData> reads,
+				EnumSet<AnalysisData> writes, boolean result) {
+			this.name = name;
+			this.reads = reads;
+			this.writes = writes;
+			this.enabled = true;
+			this.result = result;
+		}
+
+		@Override
+		protected boolean doProcessing(AnalysisInterface analysis)
+				throws AnalysisException {
+			log.add(name);
+			return result;
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		pool = Executors.newFixedThreadPool(4);
+		log = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void testDependencies() {
+		Step parse = new RecordingStep("parse", EnumSet.noneOf(AnalysisData.class),
+				EnumSet.of(AnalysisData.CODE), true);
+		Step heuristic = new RecordingStep("heuristic", EnumSet.of(AnalysisData.CODE),
+				EnumSet.of(AnalysisData.HEURISTIC_RESULTS), true);
+		Step slicing = new RecordingStep("slicing", EnumSet.of(AnalysisData.CODE),
+				EnumSet.of(AnalysisData.SLICING_RESULTS), true);
+		Step report = new RecordingStep("report", EnumSet.of(AnalysisData.HEURISTIC_RESULTS,
+				AnalysisData.SLICING_RESULTS), EnumSet.of(AnalysisData.FILES), true);
+
+		List<List<Integer>> deps = StepScheduler.getDependencies(
+				Arrays.asList(parse, heuristic, slicing, report));
+		assertEquals(Collections.<Integer>emptyList(), deps.get(0));
+		assertEquals(Arrays.asList(0), deps.get(1));
+		assertEquals(Arrays.asList(0), deps.get(2));
+		assertEquals(Arrays.asList(1, 2), deps.get(3));
+	}
+
+	@Test
+	public void testUndeclaredStepIsBarrier() {
+		Step a = new RecordingStep("a", EnumSet.of(AnalysisData.CODE),
+				EnumSet.of(AnalysisData.OBFUSCATION), true);
+		Step barrier = new RecordingStep("barrier", EnumSet.allOf(AnalysisData.class),
+				EnumSet.allOf(AnalysisData.class), true);
+		Step b = new RecordingStep("b", EnumSet.of(AnalysisData.CODE),
+				EnumSet.of(AnalysisData.FILES), true);
+
+		List<List<Integer>> deps = StepScheduler.getDependencies(Arrays.asList(a, barrier, b));
+		assertEquals(Arrays.asList(0), deps.get(1));
+		assertEquals(Arrays.asList(1), deps.get(2));
+	}
+
+	@Test
+	public void testRunOrder() throws Exception {
+		Step parse = new RecordingStep("parse", EnumSet.noneOf(AnalysisData.class),
+				EnumSet.of(AnalysisData.CODE), true);
+		Step heuristic = new RecordingStep("heuristic", EnumSet.of(AnalysisData.CODE),
+				EnumSet.of(AnalysisData.HEURISTIC_RESULTS), true);
+		Step report = new RecordingStep("report", EnumSet.of(AnalysisData.HEURISTIC_RESULTS),
+				EnumSet.of(AnalysisData.FILES), true);
+
+		assertTrue(new StepScheduler(pool).run(Arrays.asList(parse, heuristic, report),
+				new MockAnalysis(), new ProgressHandler()));
+		assertEquals(Arrays.asList("parse", "heuristic", "report"), log);
+	}
+
+	@Test
+	public void testStopAfterFalse() throws Exception {
+		Step stop = new RecordingStep("stop", EnumSet.noneOf(AnalysisData.class),
+				EnumSet.of(AnalysisData.CODE), false);
+		Step after = new RecordingStep("after", EnumSet.of(AnalysisData.CODE),
+				EnumSet.of(AnalysisData.FILES), true);
+
+		assertFalse(new StepScheduler(pool).run(Arrays.asList(stop, after),
+				new MockAnalysis(), new ProgressHandler()));
+		assertEquals(Arrays.asList("stop"), log);
+	}
+
+	@Test(expected = AnalysisException.class)
+	public void testException() throws Exception {
+		Step failing = new AbstractStep() {
+			{
+				this.enabled = true;
+			}
+
+			@Override
+			protected boolean doProcessing(AnalysisInterface analysis)
+					throws AnalysisException {
+				throw new AnalysisException("failed");
+			}
+		};
+		new StepScheduler(pool).run(Arrays.asList(failing), new MockAnalysis(),
+				new ProgressHandler());
+	}
+}
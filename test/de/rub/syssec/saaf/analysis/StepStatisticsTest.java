@@ -0,0 +1,94 @@
+package de.rub.syssec.saaf.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.AbstractStep;
+import de.rub.syssec.saaf.model.analysis.AnalysisException;
+import de.rub.syssec.saaf.model.analysis.AnalysisInterface;
+import de.rub.syssec.saaf.model.analysis.StepMetricsInterface;
+
+public class StepStatisticsTest {
+
+	private File csv;
+
+	private static class SleepingStep extends AbstractStep {
+		SleepingStep(String name) {
+			this.name = name;
+			this.enabled = true;
+		}
+
+		@Override
+		protected boolean doProcessing(AnalysisInterface analysis)
+				throws AnalysisException {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				throw new AnalysisException(e);
+			}
+			return false;
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		csv = File.createTempFile("metrics", ".csv");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		csv.delete();
+	}
+
+	@Test
+	public void testStepRecordsMetrics() throws Exception {
+		MockAnalysis analysis = new MockAnalysis();
+		new SleepingStep("sleep").process(analysis);
+		List<StepMetricsInterface> metrics = analysis.getStepMetrics();
+		assertEquals(1, metrics.size());
+		assertEquals("sleep", metrics.get(0).getStep());
+		assertTrue(metrics.get(0).getWallTime() >= 20 * 1000000L);
+		assertEquals(false, metrics.get(0).isProceed());
+	}
+
+	@Test
+	public void testRecord() throws Exception {
+		StepStatistics statistics = new StepStatistics();
+		statistics.exportTo(csv);
+		for (int i = 0; i < 2; i++) {
+			MockAnalysis analysis = new MockAnalysis();
+			new SleepingStep("a").process(analysis);
+			new SleepingStep("b, c").process(analysis);
+			statistics.record(analysis);
+		}
+		statistics.close();
+
+		assertEquals(2, statistics.getAnalyses());
+		assertEquals(Long.valueOf(2), statistics.getInvocations().get("a"));
+		assertTrue(statistics.getWallTimeMillis().get("b, c") >= 40);
+		assertTrue(statistics.getSummary().contains("b, c"));
+
+		List<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(csv));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			in.close();
+		}
+		assertEquals(5, lines.size());
+		assertTrue(lines.get(2).startsWith(",,\"b, c\","));
+	}
+}
@@ -0,0 +1,111 @@
+package de.rub.syssec.saaf.analysis.steps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.MockAnalysis;
+import de.rub.syssec.saaf.application.Application;
+import de.rub.syssec.saaf.application.CodeSite;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.application.ClassInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+public class ParseSmaliStepTest {
+
+	private static final int CLASSES = 12;
+
+	private File dir;
+	private int threads;
+
+	@Before
+	public void setUp() throws Exception {
+		threads = Config.getInstance().getIntConfigValue(ConfigKeys.MULTITHREADING_PARSE_THREADS);
+		dir = File.createTempFile("smali", "");
+		dir.delete();
+		dir.mkdirs();
+		for (int i = 0; i < CLASSES; i++) {
+			String smali =
+					".class public Lcom/example/Foo" + i + ";\n" +
+					".super Ljava/lang/Object;\n" +
+					"\n" +
+					".method public run()V\n" +
+					"    .registers 2\n" +
+					"    new-instance v0, Lcom/example/Foo" + (i + 1) + ";\n" +
+					"    invoke-virtual {v0}, Lcom/example/Foo" + (i + 1) + ";->run()V\n" +
+					"    return-void\n" +
+					".end method\n";
+			FileOutputStream out = new FileOutputStream(new File(dir, "Foo" + i + ".smali"));
+			out.write(smali.getBytes());
+			out.close();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		Config.getInstance().setIntConfigValue(ConfigKeys.MULTITHREADING_PARSE_THREADS, threads);
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private Application parse(int threads) throws Exception {
+		Config.getInstance().setIntConfigValue(ConfigKeys.MULTITHREADING_PARSE_THREADS, threads);
+		Application app = new Application();
+		app.setBytecodeDirectory(dir);
+		MockAnalysis analysis = new MockAnalysis();
+		analysis.setApp(app);
+		assertTrue(new ParseSmaliStep(Config.getInstance(), true).doProcessing(analysis));
+		return app;
+	}
+
+	/**
+	 * @return the label, the name and the method labels of every class in file order
+	 */
+	private static List<String> describeClasses(Application app) {
+		List<String> classes = new ArrayList<String>();
+		for (File f : app.getAllRawSmaliFiles(true)) {
+			ClassInterface c = app.getSmaliClass(f);
+			StringBuilder sb = new StringBuilder();
+			sb.append(c.getUniqueId()).append(' ').append(c.getFullClassName(true));
+			for (MethodInterface m : c.getMethods()) {
+				sb.append(' ').append(m.getName()).append('#').append(m.getLabel());
+			}
+			classes.add(sb.toString());
+		}
+		return classes;
+	}
+
+	/**
+	 * @return the invokes in the order of the invoke index
+	 */
+	private static List<String> describeInvokes(Application app) {
+		List<String> invokes = new ArrayList<String>();
+		for (CodeSite site : app.getInvokeIndex().getAll()) {
+			invokes.add(site.getCodeLine().getSmaliClass().getUniqueId() + ":" + site.getCodeLine().getLineNr());
+		}
+		return invokes;
+	}
+
+	@Test
+	public void testParallelParsingMatchesSequential() throws Exception {
+		Application sequential = parse(1);
+		Application parallel = parse(4);
+		assertEquals(CLASSES, sequential.getNumberOfParsedClasses());
+		assertEquals(CLASSES, parallel.getNumberOfParsedClasses());
+		assertEquals(describeClasses(sequential), describeClasses(parallel));
+		assertEquals(describeInvokes(sequential), describeInvokes(parallel));
+		assertEquals(sequential.getSmaliClassLabel(), parallel.getSmaliClassLabel());
+		assertEquals(CLASSES, sequential.getInvokeIndex().size());
+	}
+}
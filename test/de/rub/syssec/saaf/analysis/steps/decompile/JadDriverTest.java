@@ -0,0 +1,174 @@
+package de.rub.syssec.saaf.analysis.steps.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.ProgressHandler;
+import de.rub.syssec.saaf.analysis.steps.ProgressListener;
+
+public class JadDriverTest {
+
+	private File dir;
+	private File jad;
+	private File calls;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("jad", "");
+		dir.delete();
+		dir.mkdirs();
+		calls = new File(dir, "calls.txt");
+		// a fake jad, it writes an empty class for every class file and logs the number of arguments
+		jad = new File(dir, "jad.sh");
+		write(jad, "#!/bin/sh\n"
+				+ "echo $# >> '" + calls.getAbsolutePath() + "'\n"
+				+ "while [ \"$1\" != \"-d\" ]; do shift; done\n"
+				+ "out=\"$2\"\n"
+				+ "shift 2\n"
+				+ "for f in \"$@\"; do\n"
+				+ "  name=`basename \"$f\" .class`\n"
+				+ "  echo \"Parsing $f... Generating $out/$name.java\"\n"
+				+ "  echo \"class $name {}\" > \"$out/$name.java\"\n"
+				+ "done\n");
+		jad.setExecutable(true);
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	private static void write(File f, String content) throws IOException {
+		f.getParentFile().mkdirs();
+		FileOutputStream out = new FileOutputStream(f);
+		try {
+			out.write(content.getBytes());
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		f.delete();
+	}
+
+	private List<String> readCalls() throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(calls));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			in.close();
+		}
+		return lines;
+	}
+
+	@Test
+	public void testDecompile() throws Exception {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+		List<File> classFiles = new ArrayList<File>();
+		for (int i = 0; i < 5; i++) {
+			classFiles.add(new File(dir, "a/C" + i + ".class"));
+		}
+		classFiles.add(new File(dir, "b/D.class"));
+		for (File f : classFiles) {
+			write(f, "");
+		}
+		final List<Integer> progress = new ArrayList<Integer>();
+		ProgressHandler handler = new ProgressHandler();
+		handler.addProgressListener(new ProgressListener() {
+			@Override
+			public void setMaximum(int maximum) {
+			}
+			@Override
+			public void setProgress(int p) {
+				progress.add(p);
+			}
+			@Override
+			public void setProgress(String note) {
+			}
+			@Override
+			public void started() {
+			}
+			@Override
+			public void finished() {
+			}
+			@Override
+			public void canceled() {
+			}
+		});
+
+		int decompiled = new JadDriver(jad.getAbsolutePath(), 2, 2).decompile(classFiles, handler);
+		assertEquals(6, decompiled);
+		for (File f : classFiles) {
+			assertFalse(f.exists());
+			String name = f.getName().replace(".class", ".java");
+			assertTrue(new File(f.getParentFile(), name).exists());
+		}
+		// the batches a/C0 C1, a/C2 C3, a/C4 and b/D, each after the 5 options
+		List<String> arguments = readCalls();
+		assertEquals(4, arguments.size());
+		assertEquals(Arrays.asList("6", "6", "7", "7"), sorted(arguments));
+		assertEquals(4, progress.size());
+		assertEquals(Integer.valueOf(6), progress.get(3));
+	}
+
+	private static List<String> sorted(List<String> list) {
+		List<String> copy = new ArrayList<String>(list);
+		Collections.sort(copy);
+		return copy;
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoJad() throws Exception {
+		File f = new File(dir, "a/C.class");
+		write(f, "");
+		new JadDriver(new File(dir, "missing").getAbsolutePath(), 1, 10).decompile(Arrays.asList(f), new ProgressHandler());
+	}
+
+	@Test
+	public void testCreateBatches() {
+		List<File> files = new ArrayList<File>();
+		for (int i = 0; i < 5; i++) {
+			files.add(new File("/tmp/a/C" + i + ".class"));
+		}
+		files.add(new File("/tmp/b/D.class"));
+		files.add(new File("/tmp/a/C5.class"));
+
+		List<List<File>> batches = JadDriver.createBatches(files, 3);
+		assertEquals(3, batches.size());
+		assertEquals(files.subList(0, 3), batches.get(0));
+		assertEquals(Arrays.asList(files.get(3), files.get(4), files.get(6)), batches.get(1));
+		assertEquals(Arrays.asList(files.get(5)), batches.get(2));
+	}
+
+	@Test
+	public void testCreateBatchesEmpty() {
+		assertEquals(0, JadDriver.createBatches(new ArrayList<File>(), 10).size());
+	}
+}
@@ -0,0 +1,89 @@
+package de.rub.syssec.saaf.analysis.steps.extract;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.extract.ApkDecoderInterface.Treatment;
+
+public class ApkDecoderProcessTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("decoder", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		new File(dir, "framework").delete();
+		new File(dir, "out").delete();
+		dir.delete();
+	}
+
+	private static List<String> exit(int code) {
+		return Arrays.asList("/bin/sh", "-c", "echo decoding; exit " + code);
+	}
+
+	private static void assertError(List<String> cmd, String message) {
+		try {
+			ApkDecoderProcess.run(cmd, new File("test.apk"));
+			fail("No DecoderException");
+		} catch (DecoderException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+	@Test
+	public void testExitCodes() throws Exception {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+		assertTrue(ApkDecoderProcess.run(exit(ApkDecoderProcess.EXIT_SUCCESS), new File("test.apk")));
+		assertFalse(ApkDecoderProcess.run(exit(ApkDecoderProcess.EXIT_FAILED), new File("test.apk")));
+		// the output of the child is part of the message
+		assertError(exit(ApkDecoderProcess.EXIT_ERROR), "decoding");
+		// an uncaught exception in the child
+		assertError(exit(1), "exit code 1");
+	}
+
+	@Test(expected = DecoderException.class)
+	public void testCannotStart() throws Exception {
+		ApkDecoderProcess.run(Arrays.asList(new File(dir, "missing").getAbsolutePath()), new File("test.apk"));
+	}
+
+	@Test
+	public void testCommand() {
+		File apk = new File(dir, "test.apk");
+		List<String> cmd = ApkDecoderProcess.getCommand(apk, new File(dir, "out"), new File(dir, "framework"),
+				false, Treatment.DELETE);
+		// the settings are passed to the child, it does not read saaf.conf
+		assertEquals(Arrays.asList(ApkDecoderProcess.class.getName(), apk.getAbsolutePath(),
+				new File(dir, "out").getAbsolutePath(), new File(dir, "framework").getAbsolutePath(),
+				"false", "DELETE"), cmd.subList(cmd.size() - 6, cmd.size()));
+	}
+
+	@Test
+	public void testChildUsage() throws Exception {
+		List<String> cmd = ApkDecoderProcess.getCommand(new File(dir, "test.apk"), new File(dir, "out"),
+				new File(dir, "framework"), true, Treatment.DONT_TOUCH);
+		assertError(cmd.subList(0, cmd.size() - 1), "Usage: ApkDecoderProcess");
+	}
+
+	@Test(expected = DecoderException.class)
+	public void testChildMissingApk() throws Exception {
+		ApkDecoderProcess.run(ApkDecoderProcess.getCommand(new File(dir, "missing.apk"), new File(dir, "out"),
+				new File(dir, "framework"), true, Treatment.DONT_TOUCH), new File(dir, "missing.apk"));
+	}
+}
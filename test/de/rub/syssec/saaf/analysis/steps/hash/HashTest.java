@@ -0,0 +1,101 @@
+package de.rub.syssec.saaf.analysis.steps.hash;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.EnumMap;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.application.Digest;
+
+public class HashTest {
+
+	private File file;
+	private byte[] content;
+
+	@Before
+	public void setUp() throws Exception {
+		content = new byte[300000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		file = File.createTempFile("hash", ".bin");
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		file.delete();
+	}
+
+	@Test
+	public void testCalculateHashesSinglePass() throws Exception {
+		EnumMap<Digest, String> hashes = Hash.calculateHashes(file, Digest.MD5, Digest.SHA1, Digest.SHA256);
+		assertEquals(3, hashes.size());
+		assertEquals(Hash.calculateHash(Digest.MD5, content), hashes.get(Digest.MD5));
+		assertEquals(Hash.calculateHash(Digest.SHA1, content), hashes.get(Digest.SHA1));
+		assertEquals(Hash.calculateHash(Digest.SHA256, content), hashes.get(Digest.SHA256));
+	}
+
+	@Test
+	public void testCalculateHashesSeveralMappings() throws Exception {
+		// the file does not end on a mapping boundary
+		EnumMap<Digest, String> hashes = Hash.calculateHashes(file, 70000, Digest.SHA1);
+		assertEquals(Hash.calculateHash(Digest.SHA1, content), hashes.get(Digest.SHA1));
+	}
+
+	@Test
+	public void testFuzzyHash() throws Exception {
+		assertEquals(SpamSum.calculate(content), Hash.calculateHash(Digest.FuzzyHash, file));
+	}
+
+	@Test
+	public void testFuzzyHashExternal() throws Exception {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+		Config config = Config.getInstance();
+		boolean external = config.getBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_EXTERNAL);
+		String ssdeep = config.getConfigValue(ConfigKeys.EXECUTABLE_SSDEEP);
+		// a fake ssdeep with the output format of the real one
+		File script = File.createTempFile("ssdeep", ".sh");
+		FileOutputStream out = new FileOutputStream(script);
+		try {
+			out.write(("#!/bin/sh\n"
+					+ "echo 'ssdeep,1.1--blocksize:hash:hash,filename'\n"
+					+ "echo \"3:abc:def,\\\"$1\\\"\"\n").getBytes());
+		} finally {
+			out.close();
+		}
+		script.setExecutable(true);
+		try {
+			config.setBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_EXTERNAL, true);
+			config.setConfigValue(ConfigKeys.EXECUTABLE_SSDEEP, script.getAbsolutePath());
+			assertEquals("3:abc:def", Hash.calculateHash(Digest.FuzzyHash, file));
+		} finally {
+			config.setBooleanConfigValue(ConfigKeys.ANALYSIS_FUZZYHASH_EXTERNAL, external);
+			config.setConfigValue(ConfigKeys.EXECUTABLE_SSDEEP, ssdeep);
+			script.delete();
+		}
+	}
+
+	@Test
+	public void testCalculateHashEmptyFile() throws Exception {
+		File empty = File.createTempFile("hash", ".bin");
+		try {
+			assertEquals("d41d8cd98f00b204e9800998ecf8427e", Hash.calculateHash(Digest.MD5, empty));
+		} finally {
+			empty.delete();
+		}
+	}
+}
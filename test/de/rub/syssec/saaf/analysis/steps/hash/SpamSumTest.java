@@ -0,0 +1,74 @@
+package de.rub.syssec.saaf.analysis.steps.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpamSumTest {
+
+	private byte[] data;
+
+	@Before
+	public void setUp() throws Exception {
+		data = new byte[100000];
+		new Random(42).nextBytes(data);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals("3::", SpamSum.calculate(new byte[0]));
+	}
+
+	/**
+	 * The examples of the python-ssdeep documentation, hashed by libfuzzy.
+	 */
+	@Test
+	public void testKnownHashes() {
+		assertEquals("3:AXGBicFlgVNhBGcL6wCrFQEv:AXGHsNhxLsr2C",
+				SpamSum.calculate("Also called fuzzy hashes, Ctph can match inputs that have homologies.".getBytes()));
+		assertEquals("3:AXGBicFlIHBGcL6wCrFQEv:AXGH6xLsr2C",
+				SpamSum.calculate("Also called fuzzy hashes, CTPH can match inputs that have homologies.".getBytes()));
+	}
+
+	@Test
+	public void testFormat() {
+		String[] parts = SpamSum.calculate(data).split(":");
+		assertEquals(3, parts.length);
+		int blockSize = Integer.parseInt(parts[0]);
+		// the block size is chosen such that the first signature has about 64 characters
+		assertTrue(blockSize * 64 >= data.length / 2);
+		assertTrue(parts[1].length() > 32 && parts[1].length() <= 64);
+		assertTrue(parts[2].length() <= 32);
+	}
+
+	@Test
+	public void testOffset() {
+		byte[] padded = new byte[data.length + 20];
+		System.arraycopy(data, 0, padded, 10, data.length);
+		assertEquals(SpamSum.calculate(data), SpamSum.calculate(padded, 10, data.length));
+	}
+
+	@Test
+	public void testSmallChangeIsLocal() {
+		String original = SpamSum.calculate(data);
+		data[data.length / 2] ^= 0x55;
+		String changed = SpamSum.calculate(data);
+		assertFalse(original.equals(changed));
+		String[] a = original.split(":");
+		String[] b = changed.split(":");
+		assertEquals(a[0], b[0]);
+		// only the piece containing the change differs
+		int differences = 0;
+		for (int i = 0; i < Math.min(a[1].length(), b[1].length()); i++) {
+			if (a[1].charAt(i) != b[1].charAt(i)) {
+				differences++;
+			}
+		}
+		assertTrue(differences <= 2);
+	}
+}
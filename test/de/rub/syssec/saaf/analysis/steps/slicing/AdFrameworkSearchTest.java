@@ -0,0 +1,77 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+
+public class AdFrameworkSearchTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public run()V\n" +
+			"    .registers 2\n" +
+			"    const-string v0, \"hello\"\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	/**
+	 * The only caller of the Sms class, its symbols are unknown until the ad classes are parsed.
+	 */
+	private static final String AD =
+			".class public Lcom/ads/Ad;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public show()V\n" +
+			"    .registers 2\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+	private boolean includeAds;
+
+	@Before
+	public void setUp() throws Exception {
+		includeAds = Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS, false);
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+		app.addAdClass("Ad.smali", AD);
+	}
+
+	@After
+	public void tearDown() {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS, includeAds);
+	}
+
+	private static SlicingCriterion send() {
+		return new SlicingCriterion("com/example/Sms", "send", "Ljava/lang/String;".getBytes(), 0, "send");
+	}
+
+	@Test
+	public void testAdOnlyCallerIsFound() throws Exception {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS, true);
+		SlicingCriterion send = send();
+		new DetectionLogic(app).search(send);
+		assertEquals(1, send.getResults().size());
+		assertEquals("\"1234\"", send.getResults().get(0).getValue());
+	}
+
+	@Test
+	public void testAdOnlyCallerIsIgnored() throws Exception {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_INCLUDE_AD_FRAMEWORKS, false);
+		SlicingCriterion send = send();
+		new DetectionLogic(app).search(send);
+		assertTrue(send.getResults().isEmpty());
+	}
+}
@@ -0,0 +1,132 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.model.application.ConstantInterface;
+
+public class GroupedSearchTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Z)V\n" +
+			"    .registers 4\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    const-string v1, \"hello\"\n" +
+			"    invoke-static {v0, v1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const-string v1, \"bye\"\n" +
+			"    :cond_0\n" +
+			"    invoke-static {v0, v1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    invoke-static {v1}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+	}
+
+	private static List<SlicingCriterion> criteria() {
+		byte[] sendParameters = "Ljava/lang/String;Ljava/lang/String;".getBytes();
+		List<SlicingCriterion> criteria = new ArrayList<SlicingCriterion>();
+		criteria.add(new SlicingCriterion("com/example/Sms", "send", sendParameters, 0, "number"));
+		criteria.add(new SlicingCriterion("com/example/Log", "log", "Ljava/lang/String;".getBytes(), 0, "log"));
+		criteria.add(new SlicingCriterion("com/example/Sms", "send", sendParameters, 1, "text"));
+		criteria.add(new SlicingCriterion("com/example/Sms", "send", sendParameters, 0, "number again"));
+		return criteria;
+	}
+
+	private static List<String> dump(SlicingCriterion criterion) {
+		List<String> lines = new ArrayList<String>();
+		for (ConstantInterface c : criterion.getResults()) {
+			lines.add(c.getValue() + " id=" + c.getSearchId() + " fuzzy=" + c.getFuzzyLevel() + " path=" + c.getPath());
+		}
+		return lines;
+	}
+
+	@Test
+	public void testGroups() {
+		List<List<SlicingCriterion>> groups = DetectionLogic.groupBySignature(criteria());
+		assertEquals(2, groups.size());
+		assertEquals(3, groups.get(0).size());
+		assertEquals("number", groups.get(0).get(0).getDescription());
+		assertEquals("text", groups.get(0).get(1).getDescription());
+		assertEquals("number again", groups.get(0).get(2).getDescription());
+		assertEquals("log", groups.get(1).get(0).getDescription());
+	}
+
+	@Test
+	public void testSameResults() throws Exception {
+		List<SlicingCriterion> separate = criteria();
+		DetectionLogic dl = new DetectionLogic(app);
+		for (SlicingCriterion criterion : separate) {
+			dl.search(criterion);
+		}
+		List<SlicingCriterion> grouped = criteria();
+		new DetectionLogic(app).search(grouped);
+		for (int i = 0; i < separate.size(); i++) {
+			assertEquals(dump(separate.get(i)), dump(grouped.get(i)));
+		}
+		assertEquals(2, grouped.get(0).getResults().size());
+		assertEquals(3, grouped.get(2).getResults().size());
+		assertEquals(dump(grouped.get(0)), dump(grouped.get(3)));
+		// the same invoke has the same ID for all parameters
+		assertEquals(grouped.get(0).getResults().getFirst().getSearchId(), grouped.get(2).getResults().getFirst().getSearchId());
+	}
+
+	private static List<String> profile(SlicingCriterion criterion) {
+		SlicingProfile profile = criterion.getProfile();
+		List<String> lines = new ArrayList<String>();
+		lines.add("callSites=" + profile.getCallSites() + " searches=" + profile.getSearches() + " enqueued=" + profile.getEnqueued()
+				+ " duplicates=" + profile.getDuplicates() + " bbs=" + profile.getVisitedBBs() + " truncated=" + profile.isTruncated());
+		lines.addAll(dump(criterion));
+		return lines;
+	}
+
+	@Test
+	public void testSameProfiles() throws Exception {
+		List<SlicingCriterion> separate = criteria();
+		DetectionLogic.SearchIds searchIds = new DetectionLogic.SearchIds();
+		for (SlicingCriterion criterion : separate) {
+			new DetectionLogic(app, new MethodSummaries(app), searchIds, new SlicingBudget()).search(criterion);
+		}
+		List<SlicingCriterion> grouped = criteria();
+		new DetectionLogic(app).search(grouped);
+		for (int i = 0; i < separate.size(); i++) {
+			assertEquals(profile(separate.get(i)), profile(grouped.get(i)));
+		}
+		assertEquals(4, grouped.get(2).getProfile().getSearches());
+	}
+
+	@Test
+	public void testInvokeBudget() throws Exception {
+		SlicingBudget budget = new SlicingBudget(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL, 1, 0, 0, 0, 0);
+		List<SlicingCriterion> separate = criteria();
+		DetectionLogic.SearchIds searchIds = new DetectionLogic.SearchIds();
+		for (SlicingCriterion criterion : separate) {
+			new DetectionLogic(app, new MethodSummaries(app), searchIds, budget).search(criterion);
+		}
+		List<SlicingCriterion> grouped = criteria();
+		new DetectionLogic(app, new MethodSummaries(app), new DetectionLogic.SearchIds(), budget).search(grouped);
+		for (int i = 0; i < separate.size(); i++) {
+			assertEquals(profile(separate.get(i)), profile(grouped.get(i)));
+		}
+		assertTrue(grouped.get(0).isTruncated());
+		assertEquals(1, grouped.get(0).getResults().size());
+		assertTrue(grouped.get(2).isTruncated());
+		assertEquals(2, grouped.get(2).getResults().size());
+	}
+}
@@ -0,0 +1,109 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.MockAnalysis;
+import de.rub.syssec.saaf.analysis.steps.ParseSmaliStep;
+import de.rub.syssec.saaf.application.Application;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.application.ConstantInterface;
+
+public class LazySearchTest {
+
+	/**
+	 * The number flows through a field and the text through a return value.
+	 */
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".field private static number:Ljava/lang/String;\n" +
+			"\n" +
+			".method static constructor <clinit>()V\n" +
+			"    .registers 1\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    sput-object v0, Lcom/example/Foo;->number:Ljava/lang/String;\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method private static text()Ljava/lang/String;\n" +
+			"    .registers 1\n" +
+			"    const-string v0, \"hello\"\n" +
+			"    return-object v0\n" +
+			".end method\n" +
+			"\n" +
+			".method public send()V\n" +
+			"    .registers 3\n" +
+			"    sget-object v0, Lcom/example/Foo;->number:Ljava/lang/String;\n" +
+			"    invoke-static {}, Lcom/example/Foo;->text()Ljava/lang/String;\n" +
+			"    move-result-object v1\n" +
+			"    invoke-static {v0, v1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private File dir;
+	private boolean lazy;
+
+	@Before
+	public void setUp() throws Exception {
+		lazy = Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY);
+		// the search looks up the classes of fields and invoked methods by their file
+		dir = File.createTempFile("smali", "");
+		dir.delete();
+		new File(dir, "com/example").mkdirs();
+		FileOutputStream out = new FileOutputStream(new File(dir, "com/example/Foo.smali"));
+		out.write(FOO.getBytes());
+		out.close();
+	}
+
+	@After
+	public void tearDown() {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, lazy);
+		new File(dir, "com/example/Foo.smali").delete();
+		new File(dir, "com/example").delete();
+		new File(dir, "com").delete();
+		dir.delete();
+	}
+
+	private List<String> search(boolean lazy, int parameterIndex) throws Exception {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, lazy);
+		Application app = new Application();
+		app.setBytecodeDirectory(dir);
+		MockAnalysis analysis = new MockAnalysis();
+		analysis.setApp(app);
+		assertTrue(new ParseSmaliStep(Config.getInstance(), true).doProcessing(analysis));
+		SlicingCriterion send = new SlicingCriterion("com/example/Sms", "send",
+				"Ljava/lang/String;Ljava/lang/String;".getBytes(), parameterIndex, "send");
+		new DetectionLogic(app).search(send);
+		List<String> lines = new ArrayList<String>();
+		for (ConstantInterface c : send.getResults()) {
+			lines.add(c.getValue() + " fuzzy=" + c.getFuzzyLevel() + " path=" + c.getPath());
+		}
+		return lines;
+	}
+
+	@Test
+	public void testField() throws Exception {
+		List<String> eager = search(false, 0);
+		assertEquals(1, eager.size());
+		assertEquals(eager, search(true, 0));
+	}
+
+	@Test
+	public void testReturnValue() throws Exception {
+		List<String> eager = search(false, 1);
+		assertEquals(1, eager.size());
+		assertEquals(eager, search(true, 1));
+	}
+}
@@ -0,0 +1,110 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.slicing.MethodSummaries.MethodSummary;
+import de.rub.syssec.saaf.analysis.steps.slicing.MethodSummaries.ReturnSite;
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.application.SmaliClass;
+import de.rub.syssec.saaf.model.application.ClassOrMethodNotFoundException;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+public class MethodSummariesTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public static key(I)Ljava/lang/String;\n" +
+			"    .registers 2\n" +
+			"    if-eqz p0, :cond_0\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    return-object v0\n" +
+			"    :cond_0\n" +
+			"    const-string v0, \"5678\"\n" +
+			"    return-object v0\n" +
+			".end method\n" +
+			"\n" +
+			".method public send()V\n" +
+			"    .registers 2\n" +
+			"    const/4 v0, 0x0\n" +
+			"    invoke-static {v0}, Lcom/example/Foo;->key(I)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private SmaliClass foo;
+	private int lookups;
+	private MethodSummaries summaries;
+
+	@Before
+	public void setUp() throws Exception {
+		MockApplication app = new MockApplication() {
+			@Override
+			public MethodInterface getMethodByClassAndName(String className, String methodName,
+					byte[] parameterDeclaration, byte[] returnValue) throws ClassOrMethodNotFoundException {
+				lookups++;
+				if (className.equals("com/example/Foo")) {
+					for (MethodInterface m : foo.getMethods()) {
+						if (m.getName().equals(methodName) && Arrays.equals(parameterDeclaration, m.getParameters())) return m;
+					}
+				}
+				throw new ClassOrMethodNotFoundException("Lost track: "+className+"->"+methodName);
+			}
+		};
+		foo = app.addClass("Foo.smali", FOO);
+		summaries = new MethodSummaries(app);
+	}
+
+	private int[] invoke(int n) {
+		int found = 0;
+		for (CodeLineInterface cl : foo.getAllCodeLines()) {
+			if (cl.getInstruction().getCalledSymbols() != null && found++ == n) return cl.getInstruction().getCalledSymbols();
+		}
+		throw new IllegalArgumentException();
+	}
+
+	@Test
+	public void testKnownMethod() throws Exception {
+		MethodSummary summary = summaries.get(invoke(0));
+		assertTrue(summary.isKnown());
+		assertSame(foo.getMethods().getFirst(), summary.getMethod());
+		List<ReturnSite> sites = summary.getReturnSites();
+		assertEquals(2, sites.size());
+		for (ReturnSite site : sites) {
+			assertEquals("return-object v0", new String(site.getBB().getCodeLines().get(site.getIndex()).getLine()).trim());
+		}
+		assertTrue(sites.get(0).getBB() != sites.get(1).getBB());
+	}
+
+	@Test(expected = ClassOrMethodNotFoundException.class)
+	public void testUnknownMethod() throws Exception {
+		MethodSummary summary = summaries.get(invoke(1));
+		assertFalse(summary.isKnown());
+		summary.getReturnSites();
+	}
+
+	@Test
+	public void testCached() throws Exception {
+		MethodSummary summary = summaries.get(invoke(0));
+		assertSame(summary, summaries.get(invoke(0)));
+		byte[][] cmpr = { "com/example/Foo".getBytes(), "key".getBytes(), "I".getBytes(), "Ljava/lang/String;".getBytes() };
+		assertSame(summary, summaries.get(cmpr));
+		assertSame(summary.getReturnSites(), summary.getReturnSites());
+		summaries.get(invoke(1));
+		summaries.get(invoke(1));
+		assertEquals(2, summaries.size());
+		assertEquals(2, lookups);
+	}
+}
@@ -0,0 +1,70 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+
+public class ReachingDefinitionsSearchTest {
+
+	/**
+	 * v0 is only defined if p1 is true, v1 and the branch do not access it.
+	 */
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Z)V\n" +
+			"    .registers 4\n" +
+			"    const/4 v1, 0x0\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    :cond_0\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public sendUsed(Z)V\n" +
+			"    .registers 4\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->init(Ljava/lang/String;)V\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const-string v0, \"5678\"\n" +
+			"    :cond_0\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->info(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+	}
+
+	private SlicingCriterion search(String method) throws Exception {
+		SlicingCriterion criterion = new SlicingCriterion("com/example/Log", method, "Ljava/lang/String;".getBytes(), 0);
+		new DetectionLogic(app).search(criterion);
+		return criterion;
+	}
+
+	@Test
+	public void testSkipped() throws Exception {
+		SlicingCriterion log = search("log");
+		assertEquals(1, log.getResults().size());
+		assertEquals("\"1234\"", log.getResults().getFirst().getValue());
+		// the first BB is skipped, no definition of v0 reaches its end
+		assertEquals(2, log.getProfile().getSearches());
+		assertEquals(2, log.getProfile().getVisitedBBs());
+	}
+
+	@Test
+	public void testUsed() throws Exception {
+		SlicingCriterion info = search("info");
+		assertEquals(1, info.getResults().size());
+		// the invoke in the first BB uses v0, it is still searched
+		assertEquals(3, info.getProfile().getSearches());
+	}
+}
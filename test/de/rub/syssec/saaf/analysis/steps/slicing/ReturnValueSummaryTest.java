@@ -0,0 +1,309 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.slicing.MethodSummaries.MethodSummary;
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.application.SmaliClass;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.ClassOrMethodNotFoundException;
+import de.rub.syssec.saaf.model.application.ConstantInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+public class ReturnValueSummaryTest {
+
+	/**
+	 * key() is invoked by two methods, wrap() returns its parameter.
+	 */
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public static key(I)Ljava/lang/String;\n" +
+			"    .registers 2\n" +
+			"    if-eqz p0, :cond_0\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    return-object v0\n" +
+			"    :cond_0\n" +
+			"    const-string v0, \"5678\"\n" +
+			"    return-object v0\n" +
+			".end method\n" +
+			"\n" +
+			".method public static wrap(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    .registers 1\n" +
+			"    return-object p0\n" +
+			".end method\n" +
+			"\n" +
+			".method public sendKey()V\n" +
+			"    .registers 2\n" +
+			"    const/4 v0, 0x0\n" +
+			"    invoke-static {v0}, Lcom/example/Foo;->key(I)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public sendKeyAgain()V\n" +
+			"    .registers 2\n" +
+			"    const/4 v0, 0x1\n" +
+			"    invoke-static {v0}, Lcom/example/Foo;->key(I)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public sendWrapped()V\n" +
+			"    .registers 2\n" +
+			"    const-string v0, \"hello\"\n" +
+			"    invoke-static {v0}, Lcom/example/Foo;->wrap(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	/**
+	 * id() and pick() return their parameter, so a search of their return values leaves them
+	 * and enters them again at the next invoke. rec() invokes itself.
+	 */
+	private static final String BAR =
+			".class public Lcom/example/Bar;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public static id(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    .registers 1\n" +
+			"    return-object p0\n" +
+			".end method\n" +
+			"\n" +
+			".method public static pick(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    .registers 2\n" +
+			"    if-eqz p0, :cond_0\n" +
+			"    return-object p0\n" +
+			"    :cond_0\n" +
+			"    const-string v0, \"default\"\n" +
+			"    return-object v0\n" +
+			".end method\n" +
+			"\n" +
+			".method public static rec(I)Ljava/lang/String;\n" +
+			"    .registers 2\n" +
+			"    if-eqz p0, :cond_0\n" +
+			"    add-int/lit8 p0, p0, -0x1\n" +
+			"    invoke-static {p0}, Lcom/example/Bar;->rec(I)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    return-object v0\n" +
+			"    :cond_0\n" +
+			"    const-string v0, \"base\"\n" +
+			"    return-object v0\n" +
+			".end method\n" +
+			"\n" +
+			".method public logTwice()V\n" +
+			"    .registers 2\n" +
+			"    const-string v0, \"twice\"\n" +
+			"    invoke-static {v0}, Lcom/example/Bar;->id(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Bar;->id(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public logPicked()V\n" +
+			"    .registers 2\n" +
+			"    const-string v0, \"first\"\n" +
+			"    invoke-static {v0}, Lcom/example/Bar;->pick(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Bar;->pick(Ljava/lang/String;)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public logRec()V\n" +
+			"    .registers 2\n" +
+			"    const/4 v0, 0x3\n" +
+			"    invoke-static {v0}, Lcom/example/Bar;->rec(I)Ljava/lang/String;\n" +
+			"    move-result-object v0\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private static final byte[][] KEY = { "com/example/Foo".getBytes(), "key".getBytes(), "I".getBytes(), "Ljava/lang/String;".getBytes() };
+	private static final byte[][] WRAP = { "com/example/Foo".getBytes(), "wrap".getBytes(), "Ljava/lang/String;".getBytes(), "Ljava/lang/String;".getBytes() };
+	private static final byte[][] ID = { "com/example/Bar".getBytes(), "id".getBytes(), "Ljava/lang/String;".getBytes(), "Ljava/lang/String;".getBytes() };
+	private static final byte[][] PICK = { "com/example/Bar".getBytes(), "pick".getBytes(), "Ljava/lang/String;".getBytes(), "Ljava/lang/String;".getBytes() };
+	private static final byte[][] REC = { "com/example/Bar".getBytes(), "rec".getBytes(), "I".getBytes(), "Ljava/lang/String;".getBytes() };
+
+	private SmaliClass foo;
+	private SmaliClass bar;
+	private MockApplication app;
+	private HashMap<String, MethodInterface> methodsByBB;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication() {
+			@Override
+			public MethodInterface getMethodByClassAndName(String className, String methodName,
+					byte[] parameterDeclaration, byte[] returnValue) throws ClassOrMethodNotFoundException {
+				SmaliClass c = className.equals("com/example/Foo") ? foo : className.equals("com/example/Bar") ? bar : null;
+				if (c != null) {
+					for (MethodInterface m : c.getMethods()) {
+						if (m.getName().equals(methodName) && Arrays.equals(parameterDeclaration, m.getParameters())) return m;
+					}
+				}
+				throw new ClassOrMethodNotFoundException("Lost track: "+className+"->"+methodName);
+			}
+		};
+		foo = app.addClass("Foo.smali", FOO);
+		bar = app.addClass("Bar.smali", BAR);
+		methodsByBB = new HashMap<String, MethodInterface>();
+		for (SmaliClass c : new SmaliClass[] { foo, bar }) {
+			for (MethodInterface m : c.getMethods()) {
+				for (BasicBlockInterface bb : m.getBasicBlocks()) {
+					methodsByBB.put(bb.getUniqueId(), m);
+				}
+			}
+		}
+	}
+
+	private static SlicingCriterion send() {
+		return new SlicingCriterion("com/example/Sms", "send", "Ljava/lang/String;".getBytes(), 0, "send");
+	}
+
+	private List<String> search(MethodSummaries summaries) throws Exception {
+		return search(summaries, send(), new SlicingBudget());
+	}
+
+	private List<String> search(MethodSummaries summaries, SlicingCriterion criterion, SlicingBudget budget) throws Exception {
+		new DetectionLogic(app, summaries, new DetectionLogic.SearchIds(), budget).search(criterion);
+		List<String> results = new ArrayList<String>();
+		for (ConstantInterface c : criterion.getResults()) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(c.getValue()).append(" fuzzy=").append(c.getFuzzyLevel()).append(" id=").append(c.getSearchId()).append(" path=");
+			for (String id : c.getPath().split("->")) {
+				sb.append(methodsByBB.get(id).getName()).append(' ');
+			}
+			results.add(sb.toString().trim());
+		}
+		return results;
+	}
+
+	@Test
+	public void testRebased() throws Exception {
+		List<String> results = search(new MethodSummaries(app));
+		// the summary of key() is recorded for sendKey() and rebased onto the path of sendKeyAgain(),
+		// the path of a criterion is passed from one invoke to the next
+		assertEquals(Arrays.asList(
+				"0 fuzzy=1 id=0 path=sendKey",
+				"\"5678\" fuzzy=0 id=0 path=sendKey key",
+				"\"1234\" fuzzy=0 id=0 path=sendKey key",
+				"1 fuzzy=1 id=1 path=sendKey sendKeyAgain",
+				"\"5678\" fuzzy=0 id=1 path=sendKey sendKeyAgain key",
+				"\"1234\" fuzzy=0 id=1 path=sendKey sendKeyAgain key",
+				"\"hello\" fuzzy=1 id=2 path=sendKey sendKeyAgain sendWrapped"), results);
+	}
+
+	@Test
+	public void testReused() throws Exception {
+		MethodSummaries summaries = new MethodSummaries(app);
+		MethodSummary key = summaries.get(KEY);
+		assertNull(key.getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL));
+		List<String> results = search(summaries);
+		ReturnValueSummary returnValues = key.getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL);
+		assertNotNull(returnValues);
+		assertEquals(2, returnValues.getVisitedBBs());
+		assertEquals(results, search(summaries));
+		assertSame(returnValues, key.getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL));
+	}
+
+	@Test
+	public void testRecordedPaths() throws Exception {
+		MethodSummaries summaries = new MethodSummaries(app);
+		search(summaries);
+		ReturnValueSummary returnValues = summaries.get(KEY).getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL);
+		int constants = 0;
+		for (ReturnValueSummary.Event e : returnValues.getEvents()) {
+			if (e.getKind() != ReturnValueSummary.Kind.CONSTANT) continue;
+			constants++;
+			// relative to the method entry, the path only contains the BB of the RETURN
+			assertEquals("key", methodsByBB.get(e.getConstant().getPath()).getName());
+			assertEquals(0, returnValues.rebase(e.getConstant().getFuzzyLevel(), 0));
+			assertEquals(3, returnValues.rebase(e.getConstant().getFuzzyLevel(), 3));
+		}
+		assertEquals(2, constants);
+	}
+
+	@Test
+	public void testLeavesMethod() throws Exception {
+		MethodSummaries summaries = new MethodSummaries(app);
+		// the results of a search which does not reuse any summary
+		List<String> expected = Arrays.asList(
+				"\"twice\" fuzzy=2 id=0 path=logTwice",
+				"\"first\" fuzzy=2 id=1 path=logTwice logPicked",
+				"\"default\" fuzzy=0 id=1 path=logTwice logPicked pick",
+				"3 fuzzy=1 id=2 path=logTwice logPicked logRec",
+				"\"base\" fuzzy=0 id=2 path=logTwice logPicked logRec rec",
+				"-1 fuzzy=1 id=2 path=logTwice logPicked logRec rec");
+		SlicingCriterion log = new SlicingCriterion("com/example/Log", "log", "Ljava/lang/String;".getBytes(), 0, "log");
+		assertEquals(expected, search(summaries, log, new SlicingBudget()));
+		// id() and pick() enter themselves again through their callers, they are searched as usual
+		assertTrue(summaries.get(ID).getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL).leavesMethod());
+		assertTrue(summaries.get(PICK).getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL).leavesMethod());
+		assertTrue(summaries.get(REC).getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL).leavesMethod());
+		log = new SlicingCriterion("com/example/Log", "log", "Ljava/lang/String;".getBytes(), 0, "log");
+		assertEquals(expected, search(summaries, log, new SlicingBudget()));
+	}
+
+	private static int countSearches(ReturnValueSummary returnValues) {
+		int searches = 0;
+		for (ReturnValueSummary.Event e : returnValues.getEvents()) {
+			if (e.getKind() == ReturnValueSummary.Kind.SEARCH) searches++;
+		}
+		return searches;
+	}
+
+	@Test
+	public void testCounts() throws Exception {
+		// a search of send() which reuses no summary runs 11 RS and visits 11 BBs
+		MethodSummaries summaries = new MethodSummaries(app);
+		SlicingCriterion first = send();
+		List<String> results = search(summaries, first, new SlicingBudget());
+		ReturnValueSummary key = summaries.get(KEY).getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL);
+		ReturnValueSummary wrap = summaries.get(WRAP).getReturnValues(0, 0, SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL);
+		assertEquals(2, countSearches(key));
+		assertTrue(wrap.leavesMethod());
+		// key() is recorded for sendKey() and reused for sendKeyAgain(), wrap() is recorded until it
+		// leaves the method and then searched as usual
+		assertEquals(11 - countSearches(key) + countSearches(wrap), first.getProfile().getSearches());
+		assertEquals(11 - key.getVisitedBBs() + wrap.getVisitedBBs(), first.getProfile().getVisitedBBs());
+
+		// key() is reused for both invokes, the reused RS and BBs are not counted
+		SlicingCriterion second = send();
+		assertEquals(results, search(summaries, second, new SlicingBudget()));
+		assertEquals(11 - 2 * countSearches(key), second.getProfile().getSearches());
+		assertEquals(11 - 2 * key.getVisitedBBs(), second.getProfile().getVisitedBBs());
+
+		// the budget of a criterion only counts the RS which were run
+		int searches = second.getProfile().getSearches();
+		SlicingCriterion bounded = send();
+		assertEquals(results, search(summaries, bounded, new SlicingBudget(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL,
+				SlicingBudget.DEFAULT_MAX_INVOKE_SEARCHES, searches + 1, 0, 0, 0)));
+		assertFalse(bounded.isTruncated());
+		assertEquals(searches, bounded.getProfile().getSearches());
+		bounded = send();
+		search(summaries, bounded, new SlicingBudget(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL,
+				SlicingBudget.DEFAULT_MAX_INVOKE_SEARCHES, searches - 1, 0, 0, 0));
+		assertTrue(bounded.isTruncated());
+	}
+}
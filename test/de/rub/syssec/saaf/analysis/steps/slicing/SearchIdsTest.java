@@ -0,0 +1,71 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.slicing.DetectionLogic.SearchIds;
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.model.application.ConstantInterface;
+
+public class SearchIdsTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send()V\n" +
+			"    .registers 2\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->number(Ljava/lang/String;)V\n" +
+			"    const-string v1, \"hello\"\n" +
+			"    invoke-static {v1}, Lcom/example/Sms;->text(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+	}
+
+	private static SlicingCriterion criterion(String method) {
+		return new SlicingCriterion("com/example/Sms", method, "Ljava/lang/String;".getBytes(), 0);
+	}
+
+	private static int searchId(SlicingCriterion criterion) {
+		assertEquals(1, criterion.getResults().size());
+		ConstantInterface constant = criterion.getResults().getFirst();
+		return constant.getSearchId();
+	}
+
+	@Test
+	public void testSequentialIds() throws Exception {
+		SlicingCriterion number = criterion("number");
+		SlicingCriterion text = criterion("text");
+		DetectionLogic dl = new DetectionLogic(app);
+		dl.search(text);
+		dl.search(number);
+		assertEquals(0, searchId(text));
+		assertEquals(1, searchId(number));
+	}
+
+	@Test
+	public void testAssignedIds() throws Exception {
+		SlicingCriterion number = criterion("number");
+		SlicingCriterion text = criterion("text");
+		MethodSummaries summaries = new MethodSummaries(app);
+		SearchIds searchIds = new SearchIds();
+		DetectionLogic planner = new DetectionLogic(app, summaries, searchIds);
+		planner.assignSearchIds(number);
+		planner.assignSearchIds(text);
+		// searched in the reverse order, but by other instances
+		new DetectionLogic(app, summaries, searchIds).search(text);
+		new DetectionLogic(app, summaries, searchIds).search(number);
+		assertEquals(0, searchId(number));
+		assertEquals(1, searchId(text));
+	}
+}
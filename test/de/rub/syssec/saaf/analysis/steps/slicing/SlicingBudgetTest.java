@@ -0,0 +1,95 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+
+public class SlicingBudgetTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Z)V\n" +
+			"    .registers 4\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const-string v0, \"5678\"\n" +
+			"    :cond_0\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    invoke-static {v0}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+	private SlicingCriterion send;
+	private SlicingCriterion log;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+		send = new SlicingCriterion("com/example/Sms", "send", "Ljava/lang/String;".getBytes(), 0);
+		log = new SlicingCriterion("com/example/Log", "log", "Ljava/lang/String;".getBytes(), 0);
+	}
+
+	private void search(SlicingBudget budget) throws Exception {
+		List<SlicingCriterion> criteria = new ArrayList<SlicingCriterion>();
+		criteria.add(send);
+		criteria.add(log);
+		new DetectionLogic(app, new MethodSummaries(app), new DetectionLogic.SearchIds(), budget).search(criteria);
+	}
+
+	@Test
+	public void testUnlimited() throws Exception {
+		search(new SlicingBudget());
+		assertFalse(send.isTruncated());
+		assertFalse(log.isTruncated());
+		assertEquals(3, send.getResults().size());
+		assertEquals(2, log.getResults().size());
+		assertTrue(send.getProfile().getSearches() > 2);
+		assertTrue(send.getProfile().getTime() > 0);
+	}
+
+	@Test
+	public void testCriterionSearches() throws Exception {
+		search(new SlicingBudget(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL, 0, 3, 0, 0, 0));
+		assertTrue(send.isTruncated());
+		// the constants found so far are kept
+		assertEquals(2, send.getResults().size());
+		assertEquals("\"1234\"", send.getResults().getFirst().getValue());
+		assertEquals(3, send.getProfile().getSearches());
+		// the budget of each criterion is separate
+		assertFalse(log.isTruncated());
+		assertEquals(2, log.getResults().size());
+		assertEquals(3, log.getProfile().getSearches());
+	}
+
+	@Test
+	public void testInvokeSearches() throws Exception {
+		search(new SlicingBudget(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL, 1, 0, 0, 0, 0));
+		// the first invoke needs one search, the second one is stopped
+		assertTrue(send.isTruncated());
+		assertEquals(2, send.getResults().size());
+		assertTrue(log.isTruncated());
+	}
+
+	@Test
+	public void testApkSearches() throws Exception {
+		search(new SlicingBudget(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL, 0, 0, 0, 2, 0));
+		assertTrue(send.isTruncated());
+		// nothing is left for the second criterion
+		assertTrue(log.isTruncated());
+		assertEquals(0, log.getResults().size());
+		assertEquals(0, log.getProfile().getSearches());
+	}
+}
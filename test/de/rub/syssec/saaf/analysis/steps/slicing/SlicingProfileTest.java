@@ -0,0 +1,100 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+
+public class SlicingProfileTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Z)V\n" +
+			"    .registers 4\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const-string v0, \"5678\"\n" +
+			"    :cond_0\n" +
+			"    invoke-static {v0}, Lcom/example/Sms;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+	}
+
+	private static SlicingCriterion criterion(String description) {
+		return new SlicingCriterion("com/example/Sms", "send", "Ljava/lang/String;".getBytes(), 0, description);
+	}
+
+	private static int sum(int[] values) {
+		int sum = 0;
+		for (int value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	@Test
+	public void testCounters() throws Exception {
+		SlicingCriterion send = criterion("send");
+		new DetectionLogic(app).search(send);
+		SlicingProfile profile = send.getProfile();
+		assertEquals(3, send.getResults().size());
+		assertEquals(2, profile.getCallSites());
+		assertEquals(0, profile.getFields());
+		assertEquals(0, profile.getReturnValues());
+		assertTrue(profile.getSearches() > 0);
+		assertTrue(profile.getTime() > 0);
+		assertFalse(profile.isTruncated());
+		assertTrue(profile.getEnqueued() >= profile.getSearches());
+		assertTrue(profile.getVisitedBBs() >= profile.getSearches());
+		assertEquals(profile.getSearches(), sum(profile.getFuzzyLevels()));
+		assertTrue(profile.getFuzzyHistogram().startsWith("0:"));
+	}
+
+	@Test
+	public void testSharedSearch() throws Exception {
+		List<SlicingCriterion> criteria = new ArrayList<SlicingCriterion>();
+		criteria.add(criterion("send"));
+		criteria.add(criterion("send again"));
+		new DetectionLogic(app).search(criteria);
+		SlicingCriterion alone = criterion("send");
+		new DetectionLogic(app).search(alone);
+		// the shared work is counted for both criteria
+		for (SlicingCriterion c : criteria) {
+			assertEquals(alone.getProfile().toString().replaceAll("time=\\d+", ""), c.getProfile().toString().replaceAll("time=\\d+", ""));
+		}
+	}
+
+	@Test
+	public void testCsv() {
+		SlicingProfile profile = new SlicingProfile();
+		profile.countCallSite();
+		profile.countEnqueued();
+		profile.countSearch(0);
+		profile.countSearch(2);
+		profile.countDuplicate();
+		profile.setResults(1);
+		profile.addTime(1000000);
+		profile.addTime(2000000);
+		profile.countSearch(2);
+		profile.countField();
+		assertEquals(",,,,,1,3,1,1,0,1,0,0,1,false,3,0:1 2:2", SlicingProfileWriter.toCsv(profile));
+		assertEquals(17, SlicingProfileWriter.CSV_HEADER.split(",").length);
+	}
+}
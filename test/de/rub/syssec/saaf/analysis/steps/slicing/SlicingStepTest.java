@@ -0,0 +1,106 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.MockAnalysis;
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.analysis.BTPatternInterface;
+import de.rub.syssec.saaf.model.analysis.BTResultInterface;
+import de.rub.syssec.saaf.model.application.ConstantInterface;
+
+public class SlicingStepTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Z)V\n" +
+			"    .registers 4\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    const-string v1, \"hello\"\n" +
+			"    invoke-static {v0, v1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const-string v1, \"bye\"\n" +
+			"    :cond_0\n" +
+			"    invoke-static {v0, v1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    invoke-static {v1}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public open()V\n" +
+			"    .registers 3\n" +
+			"    const-string v0, \"http://example.com\"\n" +
+			"    invoke-static {v0}, Lcom/example/Net;->open(Ljava/lang/String;)V\n" +
+			"    const-string v1, \"tag\"\n" +
+			"    invoke-static {v1}, Lcom/example/Log;->log(Ljava/lang/String;)V\n" +
+			"    invoke-static {v0}, Lcom/example/Net;->open(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+	private int threads;
+
+	@Before
+	public void setUp() throws Exception {
+		threads = Config.getInstance().getIntConfigValue(ConfigKeys.MULTITHREADING_SLICING_THREADS);
+		app = new MockApplication();
+		app.addClass("Foo.smali", FOO);
+	}
+
+	@After
+	public void tearDown() {
+		Config.getInstance().setIntConfigValue(ConfigKeys.MULTITHREADING_SLICING_THREADS, threads);
+	}
+
+	private static List<BTPatternInterface> patterns() {
+		String sendParameters = "Ljava/lang/String;Ljava/lang/String;";
+		List<BTPatternInterface> patterns = new ArrayList<BTPatternInterface>();
+		patterns.add(new BTPattern("com/example/Log", "log", "Ljava/lang/String;", 0, "log"));
+		patterns.add(new BTPattern("com/example/Sms", "send", sendParameters, 1, "text"));
+		patterns.add(new BTPattern("com/example/Net", "open", "Ljava/lang/String;", 0, "url"));
+		patterns.add(new BTPattern("com/example/Sms", "send", sendParameters, 0, "number"));
+		return patterns;
+	}
+
+	/**
+	 * @return the results of the step in the order of the step, with their search IDs
+	 */
+	private List<String> search(int threads) throws Exception {
+		Config.getInstance().setIntConfigValue(ConfigKeys.MULTITHREADING_SLICING_THREADS, threads);
+		final List<BTResultInterface> results = new ArrayList<BTResultInterface>();
+		MockAnalysis analysis = new MockAnalysis() {
+			@Override
+			public void setBTResults(List<BTResultInterface> btResults) {
+				results.addAll(btResults);
+			}
+		};
+		analysis.setApp(app);
+		assertTrue(new SlicingStep(Config.getInstance(), patterns(), true).doProcessing(analysis));
+		List<String> lines = new ArrayList<String>();
+		for (BTResultInterface r : results) {
+			ConstantInterface c = r.getConstant();
+			lines.add(r.getPattern().getDescription() + ": " + c.getValue() + " id=" + c.getSearchId()
+					+ " fuzzy=" + c.getFuzzyLevel() + " path=" + c.getPath());
+		}
+		return lines;
+	}
+
+	@Test
+	public void testParallelSearchMatchesSequential() throws Exception {
+		List<String> sequential = search(1);
+		assertEquals(13, sequential.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(sequential, search(4));
+		}
+	}
+}
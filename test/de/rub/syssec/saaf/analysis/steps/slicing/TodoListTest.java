@@ -0,0 +1,173 @@
+package de.rub.syssec.saaf.analysis.steps.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.analysis.steps.slicing.TodoList.ClassContentTracker;
+import de.rub.syssec.saaf.analysis.steps.slicing.TodoList.RegisterSearch;
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.application.SmaliClass;
+import de.rub.syssec.saaf.application.instructions.Registers;
+import de.rub.syssec.saaf.application.methods.BasicBlockPath;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+
+public class TodoListTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public abs(I)I\n" +
+			"    .registers 2\n" +
+			"    if-gez p1, :cond_0\n" +
+			"    neg-int p1, p1\n" +
+			"    :cond_0\n" +
+			"    return p1\n" +
+			".end method\n";
+
+	private TodoList todoList;
+	private BasicBlockInterface bb1;
+	private BasicBlockInterface bb2;
+
+	@Before
+	public void setUp() throws Exception {
+		todoList = new TodoList();
+		SmaliClass foo = new MockApplication().addClass("Foo.smali", FOO);
+		bb1 = foo.getMethods().getFirst().getBasicBlocks().get(0);
+		bb2 = foo.getMethods().getFirst().getBasicBlocks().get(1);
+	}
+
+	private RegisterSearch rs(int register, BasicBlockInterface bb, int index) {
+		return new RegisterSearch(register, bb, index, 0, 0, new BasicBlockPath());
+	}
+
+	private static byte[][] cf(String cls, String field) {
+		return new byte[][] { cls.getBytes(), field.getBytes() };
+	}
+
+	@Test
+	public void testRegisterDuplicates() {
+		int v0 = Registers.local(0);
+		assertTrue(todoList.addRegisterToTrack(rs(v0, bb1, 1)));
+		assertTrue(todoList.addRegisterToTrack(rs(v0, bb1, 1))); // pending, ignored
+		assertTrue(todoList.addRegisterToTrack(rs(v0, bb2, 1)));
+		assertTrue(todoList.addRegisterToTrack(rs(v0, bb1, 0)));
+		assertEquals(3, todoList.getRemainingRegistersToTrack());
+		todoList.getNextRegisterToTrack();
+		todoList.getNextRegisterToTrack();
+		todoList.getNextRegisterToTrack();
+		assertNull(todoList.getNextRegisterToTrack());
+		assertEquals(3, todoList.getFinishedRsCount());
+		assertFalse(todoList.addRegisterToTrack(rs(v0, bb1, 1))); // already searched
+		assertTrue(todoList.isFinished());
+	}
+
+	@Test
+	public void testRegisterOrder() {
+		RegisterSearch first = rs(Registers.local(0), bb1, 0);
+		RegisterSearch second = rs(Registers.local(1), bb1, 0);
+		todoList.addRegisterToTrack(first);
+		todoList.addRegisterToTrack(second);
+		// the last one added is searched first
+		assertSame(second, todoList.getNextRegisterToTrack());
+		assertSame(first, todoList.getNextRegisterToTrack());
+	}
+
+	@Test
+	public void testRegisterDone() {
+		int v0 = Registers.local(0);
+		RegisterSearch done = rs(v0, bb1, 1);
+		assertFalse(todoList.containsRegister(done));
+		todoList.markRegisterDone(done);
+		assertTrue(todoList.containsRegister(rs(v0, bb1, 1)));
+		assertEquals(0, todoList.getFinishedRsCount()); // it did not run
+		assertFalse(todoList.addRegisterToTrack(rs(v0, bb1, 1))); // already searched
+		assertEquals(0, todoList.getRemainingRegistersToTrack());
+
+		todoList.addRegisterToTrack(rs(v0, bb2, 1));
+		assertTrue(todoList.containsRegister(rs(v0, bb2, 1))); // queued
+		todoList.getNextRegisterToTrack();
+		assertEquals(1, todoList.getFinishedRsCount());
+		assertTrue(todoList.isFinished());
+	}
+
+	@Test
+	public void testCriteria() {
+		SlicingCriterion a = new SlicingCriterion("com/example/Sms", "send", null, 0);
+		SlicingCriterion b = new SlicingCriterion("com/example/Sms", "send", null, 1);
+		List<SlicingCriterion> active = new ArrayList<SlicingCriterion>(Arrays.asList(a, b));
+		TodoList tagged = new TodoList(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL, active);
+		List<SlicingCriterion> tagA = Arrays.asList(a);
+		List<SlicingCriterion> tagB = Arrays.asList(b);
+		int v0 = Registers.local(0);
+		tagged.setCriteria(tagA);
+		assertTrue(tagged.addRegisterToTrack(rs(v0, bb1, 1)));
+		tagged.addField(cf("com/example/Foo", "bar"), 0, 0, new BasicBlockPath());
+		tagged.setCriteria(tagB);
+		assertFalse(tagged.containsRegister(rs(v0, bb1, 1))); // only searched for a
+		assertTrue(tagged.addRegisterToTrack(rs(v0, bb1, 1)));
+		assertTrue(tagged.addField(cf("com/example/Foo", "bar"), 0, 0, new BasicBlockPath()));
+		assertEquals(2, tagged.getRemainingRegistersToTrack());
+		assertEquals(2, tagged.getRemainingFieldsToTrack());
+
+		tagged.getNextRegisterToTrack();
+		assertEquals(tagB, tagged.getCriteria());
+		active.remove(a); // truncated
+		tagged.getNextRegisterToTrack();
+		assertTrue(tagged.getCriteria().isEmpty());
+		assertEquals(1, tagged.getFinishedRsCount(b));
+		assertEquals(0, tagged.getFinishedRsCount(a));
+		assertEquals(2, tagged.getFinishedRsCount());
+		assertEquals(1, b.getProfile().getSearches());
+		assertEquals(0, a.getProfile().getSearches());
+
+		tagged.getNextField();
+		assertTrue(tagged.getCriteria().isEmpty());
+		tagged.getNextField();
+		assertEquals(tagB, tagged.getCriteria());
+	}
+
+	@Test
+	public void testFieldOrder() {
+		BasicBlockPath path = new BasicBlockPath();
+		for (int i = 0; i < 20; i++) {
+			assertTrue(todoList.addField(cf("com/example/Foo", "f" + i), 0, 0, path));
+		}
+		assertFalse(todoList.addField(cf("com/example/Foo", "f3"), 0, 0, path));
+		for (int i = 0; i < 20; i++) {
+			ClassContentTracker ctt = todoList.getNextField();
+			assertEquals("f" + i, new String(ctt.getCi()[1]));
+		}
+		assertEquals(0, todoList.getRemainingFieldsToTrack());
+		assertFalse(todoList.addField(cf("com/example/Foo", "f3"), 0, 0, path));
+	}
+
+	@Test
+	public void testHashCode() {
+		ClassContentTracker a = new ClassContentTracker(cf("com/example/Foo", "bar"), 0, 0, null);
+		ClassContentTracker b = new ClassContentTracker(cf("com/example/Fo", "obar"), 0, 0, null);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertFalse(a.equals(b));
+		assertEquals(a, new ClassContentTracker(cf("com/example/Foo", "bar"), 1, 0, null));
+	}
+
+	@Test
+	public void testMaxFuzzyLevel() {
+		TodoList shallow = new TodoList(1);
+		BasicBlockPath path = new BasicBlockPath();
+		assertTrue(shallow.addRegisterToTrack(new RegisterSearch(Registers.local(0), bb1, 0, 1, 0, path)));
+		assertFalse(shallow.addRegisterToTrack(new RegisterSearch(Registers.local(1), bb1, 0, 1, 1, path)));
+		assertFalse(shallow.addField(cf("com/example/Foo", "bar"), 2, 0, path));
+		assertEquals(SlicingBudget.DEFAULT_MAX_FUZZY_LEVEL, todoList.getMaxFuzzyLevel());
+	}
+}
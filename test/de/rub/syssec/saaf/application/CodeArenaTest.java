@@ -0,0 +1,109 @@
+package de.rub.syssec.saaf.application;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.instructions.Instruction;
+
+public class CodeArenaTest {
+
+	private static final String[] LINES = {
+		"    invoke-virtual {v0}, Ljava/lang/Object;->toString()Ljava/lang/String;\r",
+		"",
+		" \t ",
+		"    const-string v1, \"a\"",
+		".end method" };
+
+	private CodeArena arena;
+
+	@Before
+	public void setUp() throws Exception {
+		// a small arena, it has to grow
+		arena = new CodeArena(4);
+		for (String line : LINES) {
+			byte[] b = line.getBytes("UTF-8");
+			arena.add(b, 0, b.length);
+		}
+		arena.trimToSize();
+	}
+
+	@Test
+	public void testTrim() {
+		assertEquals(LINES.length, arena.getLines());
+		for (int i = 0; i < LINES.length; i++) {
+			String trimmed = LINES[i].trim();
+			assertEquals(trimmed, arena.toString(i));
+			assertArrayEquals(trimmed.getBytes(), arena.copyOf(i));
+			assertEquals(Arrays.hashCode(trimmed.getBytes()), arena.hashCode(i));
+		}
+		assertEquals(0, arena.length(1));
+		assertEquals(0, arena.length(2));
+	}
+
+	@Test
+	public void testAddRange() {
+		byte[] b = "xx  const/4 v0, 0x1  yy".getBytes();
+		int line = arena.add(b, 2, b.length - 4);
+		assertEquals("const/4 v0, 0x1", arena.toString(line));
+	}
+
+	@Test
+	public void testSearchStaysInLine() {
+		assertTrue(arena.startsWith(0, "invoke-".getBytes()));
+		assertTrue(arena.contains(0, "toString".getBytes()));
+		assertTrue(arena.contains(3, "\"a\"".getBytes()));
+		// the next line starts with const-string
+		assertFalse(arena.contains(0, "String;const".getBytes()));
+		assertFalse(arena.startsWith(1, ".".getBytes()));
+		assertFalse(arena.contains(2, "c".getBytes()));
+	}
+
+	@Test
+	public void testIndexOf() {
+		// the index is relative to the line
+		assertEquals(0, arena.indexOf(3, "const".getBytes()));
+		assertEquals(17, arena.indexOf(3, "\"a\"".getBytes()));
+		assertEquals(-1, arena.indexOf(0, "const".getBytes()));
+		assertEquals(-1, arena.indexOf(1, "c".getBytes()));
+		assertEquals('.', arena.byteAt(4, 0));
+	}
+
+	private static String toString(List<byte[]> parts) {
+		StringBuilder sb = new StringBuilder();
+		for (byte[] part : parts) {
+			sb.append('[').append(new String(part)).append(']');
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testSplit() {
+		// the same parts as a copy of the line, the neighbours are not included
+		for (int i = 0; i < LINES.length; i++) {
+			assertEquals(toString(Instruction.split(arena.copyOf(i))), toString(arena.split(i)));
+		}
+		assertEquals("[const-string][v1][\"a\"]", toString(arena.split(3)));
+		assertEquals("[invoke-virtual][v0][Ljava/lang/Object;->toString()Ljava/lang/String;]", toString(arena.split(0)));
+	}
+
+	@Test
+	public void testEquals() throws Exception {
+		CodeArena other = new CodeArena(0);
+		byte[] b = ".end method".getBytes();
+		other.add(b, 0, b.length);
+		assertTrue(arena.equals(4, other, 0));
+		assertFalse(arena.equals(3, other, 0));
+		assertTrue(arena.equals(4, b));
+		assertTrue(arena.equals(1, new byte[0]));
+		assertFalse(arena.equals(4, ".end".getBytes()));
+		assertFalse(arena.equals(4, null));
+	}
+}
@@ -0,0 +1,138 @@
+package de.rub.syssec.saaf.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DexDisassemblerTest {
+
+	/**
+	 * Both dex files contain com/example/Outer and com/example/Outer$Inner,
+	 * Outer.access$000 reads the field secret in one and other in the other.
+	 */
+	private static final String SECRET_GETTER = "#getter for: Lcom/example/Outer;->secret:I";
+	private static final String OTHER_GETTER = "#getter for: Lcom/example/Outer;->other:I";
+
+	private File secretDex;
+	private File otherDex;
+	private File smaliDir;
+
+	@Before
+	public void setUp() throws Exception {
+		secretDex = copy("Secret.dex");
+		otherDex = copy("Other.dex");
+		smaliDir = new File(secretDex.getParentFile(), "smali");
+	}
+
+	@After
+	public void tearDown() {
+		secretDex.delete();
+		otherDex.delete();
+	}
+
+	private File copy(String resource) throws IOException {
+		File f = File.createTempFile("classes", ".dex");
+		InputStream in = getClass().getResourceAsStream(resource);
+		FileOutputStream out = new FileOutputStream(f);
+		try {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+			out.close();
+		}
+		return f;
+	}
+
+	@Test
+	public void testFiles() throws Exception {
+		DexDisassembler dex = new DexDisassembler(secretDex, smaliDir);
+		Vector<File> files = dex.getFiles(true);
+		assertEquals(2, files.size());
+		assertEquals(new File(smaliDir, "com/example/Outer$Inner.smali").getAbsoluteFile(), files.get(0));
+		assertEquals(new File(smaliDir, "com/example/Outer.smali").getAbsoluteFile(), files.get(1));
+		assertTrue(dex.contains(files.get(1)));
+		assertFalse(dex.contains(new File(smaliDir, "com/example/Foo.smali")));
+	}
+
+	@Test
+	public void testDisassemble() throws Exception {
+		DexDisassembler dex = new DexDisassembler(secretDex, smaliDir);
+		String outer = new String(dex.disassemble(new File(smaliDir, "com/example/Outer.smali")), "UTF-8");
+		assertTrue(outer.startsWith(".class public Lcom/example/Outer;\n.super Ljava/lang/Object;\n"));
+		assertTrue(outer.contains(".method static synthetic access$000(Lcom/example/Outer;)I"));
+		assertTrue(outer.contains(SECRET_GETTER));
+		String inner = new String(dex.disassemble(new File(smaliDir, "com/example/Outer$Inner.smali")), "UTF-8");
+		assertTrue(inner.contains(SECRET_GETTER));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownClass() throws Exception {
+		new DexDisassembler(secretDex, smaliDir).disassemble(new File(smaliDir, "com/example/Foo.smali"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoDexFile() throws Exception {
+		new DexDisassembler(new File(smaliDir, "missing.apk"), smaliDir);
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		final DexDisassembler secret = new DexDisassembler(secretDex, smaliDir);
+		final DexDisassembler other = new DexDisassembler(otherDex, smaliDir);
+		final File inner = new File(smaliDir, "com/example/Outer$Inner.smali");
+		final String expectedSecret = new String(secret.disassemble(inner), "UTF-8");
+		final String expectedOther = new String(other.disassemble(inner), "UTF-8");
+		assertTrue(expectedSecret.contains(SECRET_GETTER));
+		assertTrue(expectedOther.contains(OTHER_GETTER));
+
+		// every thread has to see the accessors of its own dex file
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 8; i++) {
+				final boolean useSecret = i % 2 == 0;
+				results.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						DexDisassembler dex = useSecret ? secret : other;
+						String expected = useSecret ? expectedSecret : expectedOther;
+						for (int j = 0; j < 200; j++) {
+							if (!expected.equals(new String(dex.disassemble(inner), "UTF-8"))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				if (!result.get()) {
+					fail("A class was disassembled with the accessors of another dex file");
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
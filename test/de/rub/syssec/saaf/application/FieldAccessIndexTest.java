@@ -0,0 +1,109 @@
+package de.rub.syssec.saaf.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.model.application.instruction.InstructionType;
+
+public class FieldAccessIndexTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".field private static keys:[Ljava/lang/String;\n" +
+			".field private count:I\n" +
+			"\n" +
+			".method static constructor <clinit>()V\n" +
+			"    .registers 3\n" +
+			"    const/4 v0, 0x1\n" +
+			"    new-array v0, v0, [Ljava/lang/String;\n" +
+			"    sput-object v0, Lcom/example/Foo;->keys:[Ljava/lang/String;\n" +
+			"    const/4 v1, 0x0\n" +
+			"    const-string v2, \"secret\"\n" +
+			"    aput-object v2, v0, v1\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public count()I\n" +
+			"    .registers 2\n" +
+			"    iget v0, p0, Lcom/example/Foo;->count:I\n" +
+			"    if-eqz v0, :cond_0\n" +
+			"    sget-object v1, Lcom/example/Foo;->keys:[Ljava/lang/String;\n" +
+			"    :cond_0\n" +
+			"    iput v0, p0, Lcom/example/Foo;->count:I\n" +
+			"    return v0\n" +
+			".end method\n";
+
+	private static final String BAR =
+			".class public Lcom/example/Bar;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public run()V\n" +
+			"    .registers 2\n" +
+			"    sget-object v0, Lcom/example/Foo;->keys:[Ljava/lang/String;\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+	private FieldAccessIndex index;
+	private SmaliClass foo;
+	private SmaliClass bar;
+
+	@Before
+	public void setUp() throws Exception {
+		app = new MockApplication();
+		foo = app.addClass("Foo.smali", FOO);
+		bar = app.addClass("Bar.smali", BAR);
+		index = new FieldAccessIndex(Arrays.asList(foo, bar));
+	}
+
+	private int[] field(String cls, String name) {
+		SymbolTable symbols = app.getSymbolTable();
+		return new int[] { symbols.lookup(cls.getBytes()), symbols.lookup(name.getBytes()) };
+	}
+
+	@Test
+	public void testWrites() {
+		List<CodeSite> sites = index.getWrites(field("com/example/Foo", "keys"));
+		assertEquals(1, sites.size());
+		assertEquals(11, sites.get(0).getCodeLine().getLineNr());
+		sites = index.getWrites(field("com/example/Foo", "count"));
+		assertEquals(1, sites.size());
+		assertEquals(InstructionType.PUT, sites.get(0).getCodeLine().getInstruction().getType());
+	}
+
+	@Test
+	public void testReads() {
+		List<CodeSite> sites = index.getReads(field("com/example/Foo", "keys"));
+		assertEquals(2, sites.size());
+		// in the order of the classes
+		assertSame(foo, sites.get(0).getCodeLine().getSmaliClass());
+		assertSame(bar, sites.get(1).getCodeLine().getSmaliClass());
+		assertEquals(1, index.getReads(field("com/example/Foo", "count")).size());
+	}
+
+	@Test
+	public void testUnknownField() {
+		assertTrue(index.getWrites(field("com/example/Foo", "run")).isEmpty());
+		assertTrue(index.getReads(field("com/example/Bar", "keys")).isEmpty());
+		assertTrue(index.getReads(new int[] { SymbolTable.NONE, SymbolTable.NONE }).isEmpty());
+	}
+
+	@Test
+	public void testBasicBlock() {
+		for (CodeSite site : index.getReads(field("com/example/Foo", "keys"))) {
+			assertSame(site.getCodeLine(), site.getBasicBlock().getCodeLines().get(site.getIndex()));
+		}
+		CodeSite put = index.getWrites(field("com/example/Foo", "count")).get(0);
+		CodeSite get = index.getReads(field("com/example/Foo", "count")).get(0);
+		assertTrue(put.getBasicBlock() != get.getBasicBlock());
+	}
+}
@@ -0,0 +1,145 @@
+package de.rub.syssec.saaf.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+
+public class InvokeIndexTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Ljava/lang/String;)V\n" +
+			"    .registers 4\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    invoke-static {v0, p1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    invoke-virtual {p1}, Ljava/lang/String;->length()I\n" +
+			"    :cond_0\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private static final String BAR =
+			".class public Lcom/example/Bar;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public run()V\n" +
+			"    .registers 3\n" +
+			"    const-string v0, \"5678\"\n" +
+			"    invoke-static {v0}, Lcom/example/Other;->send(Ljava/lang/String;)V\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MockApplication app;
+	private InvokeIndex index;
+	private SmaliClass foo;
+	private SmaliClass bar;
+	private boolean lazy;
+
+	@Before
+	public void setUp() throws Exception {
+		lazy = Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY);
+		app = new MockApplication();
+		index = new InvokeIndex();
+		foo = app.addClass("Foo.smali", FOO);
+		bar = app.addClass("Bar.smali", BAR);
+		index.add(foo);
+		index.add(bar);
+	}
+
+	@After
+	public void tearDown() {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, lazy);
+	}
+
+	private int symbol(String descriptor) {
+		return app.getSymbolTable().lookup(descriptor.getBytes());
+	}
+
+	@Test
+	public void testFind() {
+		List<CodeSite> sites = index.find(symbol("com/example/Sms"), symbol("send"), InvokeIndex.ANY);
+		assertEquals(1, sites.size());
+		assertEquals(7, sites.get(0).getCodeLine().getLineNr());
+		assertEquals(1, index.find(symbol("com/example/Sms"), symbol("send"),
+				symbol("Ljava/lang/String;Ljava/lang/String;")).size());
+		assertEquals(0, index.find(symbol("com/example/Sms"), symbol("send"),
+				symbol("Ljava/lang/String;")).size());
+		assertEquals(0, index.find(symbol("com/example/Sms"), symbol("length"), InvokeIndex.ANY).size());
+		assertEquals(0, index.find(SymbolTable.NONE, symbol("send"), InvokeIndex.ANY).size());
+	}
+
+	@Test
+	public void testWildcard() {
+		List<CodeSite> sites = index.find(InvokeIndex.ANY, symbol("send"), InvokeIndex.ANY);
+		assertEquals(2, sites.size());
+		// in the order in which the classes were added
+		assertSame(foo, sites.get(0).getCodeLine().getSmaliClass());
+		assertSame(bar, sites.get(1).getCodeLine().getSmaliClass());
+		assertEquals(1, index.find(InvokeIndex.ANY, symbol("send"), symbol("Ljava/lang/String;")).size());
+	}
+
+	@Test
+	public void testAll() {
+		assertEquals(3, index.size());
+		index.add(foo); // classes are only added once
+		assertEquals(3, index.size());
+		assertTrue(index.contains(bar));
+		List<CodeSite> sites = index.getAll();
+		assertEquals(7, sites.get(0).getCodeLine().getLineNr());
+		assertEquals(9, sites.get(1).getCodeLine().getLineNr());
+	}
+
+	@Test
+	public void testBasicBlock() {
+		for (CodeSite site : index.getAll()) {
+			assertSame(site.getCodeLine(), site.getBasicBlock().getCodeLines().get(site.getIndex()));
+		}
+		CodeSite length = index.find(symbol("java/lang/String"), symbol("length"), InvokeIndex.ANY).get(0);
+		assertTrue(length.getBasicBlock() != index.getAll().get(0).getBasicBlock());
+	}
+
+	@Test
+	public void testNoBasicBlock() {
+		CodeSite site = new CodeSite(new MockCodeLine("nop".getBytes(), 1, null));
+		assertNull(site.getBasicBlock());
+		assertEquals(-1, site.getIndex());
+	}
+
+	@Test
+	public void testLazyClassOnlyParsesInvokes() throws Exception {
+		String baz =
+				".class public Lcom/example/Baz;\n" +
+				".super Ljava/lang/Object;\n" +
+				"\n" +
+				".method public run()V\n" +
+				"    .registers 2\n" +
+				"    sget-object v0, Lcom/example/Config;->number:Ljava/lang/String;\n" +
+				"    invoke-static {v0}, Lcom/example/Lazy;->send(Ljava/lang/String;)V\n" +
+				"    return-void\n" +
+				".end method\n";
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, true);
+		MockApplication lazyApp = new MockApplication();
+		lazyApp.addClass("Baz.smali", baz);
+		SymbolTable symbols = lazyApp.getSymbolTable();
+		// the invoke was parsed, the field access was not
+		assertEquals(1, lazyApp.getInvokeIndex().find(symbols.lookup("com/example/Lazy".getBytes()),
+				symbols.lookup("send".getBytes()), InvokeIndex.ANY).size());
+		assertEquals(SymbolTable.NONE, symbols.lookup("number".getBytes()));
+		// until the method is needed
+		assertFalse(lazyApp.getFieldAccessIndex().getReads(new int[] {
+				symbols.lookup("com/example/Config".getBytes()), symbols.lookup("number".getBytes()) }).isEmpty());
+	}
+}
@@ -4,11 +4,14 @@
 package de.rub.syssec.saaf.application;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import de.rub.syssec.saaf.model.APICall;
@@ -16,8 +19,10 @@ import de.rub.syssec.saaf.model.application.ApplicationInterface;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.ClassOrMethodNotFoundException;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.DetectionLogicError;
 import de.rub.syssec.saaf.model.application.Digest;
 import de.rub.syssec.saaf.model.application.MethodInterface;
+import de.rub.syssec.saaf.model.application.SmaliClassError;
 import de.rub.syssec.saaf.model.application.manifest.ComponentInterface;
 import de.rub.syssec.saaf.model.application.manifest.ManifestInterface;
 
@@ -36,6 +41,10 @@ public class MockApplication implements ApplicationInterface {
 	private boolean changed = true;
 
 	private ManifestInterface manifest;
+	private final SymbolTable symbolTable = new SymbolTable();
+	private final InvokeIndex invokeIndex = new InvokeIndex();
+	private final LinkedList<ClassInterface> classes = new LinkedList<ClassInterface>();
+	private final LinkedHashMap<String, String> unparsedAdClasses = new LinkedHashMap<String, String>();
 	
 	public MockApplication() {
 		digestMap.put(Digest.MD5, "0cbc6611f5540bd0809a388dc95a615b");
@@ -184,6 +193,16 @@ public class MockApplication implements ApplicationInterface {
 		return 0;
 	}
 
+	@Override
+	public int getNumberOfParsedClasses() {
+		return 0;
+	}
+
+	@Override
+	public int getNumberOfParsedCodelines() {
+		return 0;
+	}
+
 	public void setBytecodeDirectory(File bytecodeDirectory) {
 	}
 
@@ -247,16 +266,79 @@ public class MockApplication implements ApplicationInterface {
 		return this.changed;
 	}
 
+	/**
+	 * Parse a class from smali code and add it to the application and its
+	 * invoke index, like ParseSmaliStep does for the files of an APK. The
+	 * classes are labeled in the order in which they are added.
+	 * 
+	 * @param fileName the name of the smali file, eg, "Foo.smali"
+	 * @param smali the smali code
+	 * @return the class
+	 */
+	public SmaliClass addClass(String fileName, String smali) throws IOException, DetectionLogicError, SmaliClassError {
+		SmaliClass c = new SmaliClass(new File(fileName), smali.getBytes(), this, classes.size());
+		classes.add(c);
+		invokeIndex.add(c);
+		return c;
+	}
+
+	/**
+	 * Add a class of an ad framework. Like the Application does, it is only
+	 * parsed and added to the invoke index once all classes including the ad
+	 * frameworks are requested.
+	 * 
+	 * @param fileName the name of the smali file
+	 * @param smali the smali code
+	 */
+	public void addAdClass(String fileName, String smali) {
+		unparsedAdClasses.put(fileName, smali);
+	}
+
 	@Override
 	public LinkedList<ClassInterface> getAllSmaliClasss(
 			boolean includeFilesFromAdPackages) {
-		return new LinkedList<ClassInterface>();
+		LinkedList<ClassInterface> result = new LinkedList<ClassInterface>();
+		if (includeFilesFromAdPackages) {
+			for (Map.Entry<String, String> e : unparsedAdClasses.entrySet()) {
+				try {
+					addClass(e.getKey(), e.getValue()).setInAdFramework(true);
+				} catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+			unparsedAdClasses.clear();
+		}
+		for (ClassInterface c : classes) {
+			if (includeFilesFromAdPackages || !c.isInAdFrameworkPackage()) {
+				result.add(c);
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public void setAllSmaliClasss(HashMap<String, ClassInterface> smaliClassMap) {		
 	}
 
+	@Override
+	public void setDexDisassembler(DexDisassembler disassembler) {
+	}
+
+	@Override
+	public SymbolTable getSymbolTable() {
+		return symbolTable;
+	}
+
+	@Override
+	public InvokeIndex getInvokeIndex() {
+		return invokeIndex;
+	}
+
+	@Override
+	public FieldAccessIndex getFieldAccessIndex() {
+		return new FieldAccessIndex(getAllSmaliClasss(false));
+	}
+
 	@Override
 	public void setSmaliClassLabel(int smaliClassLabel) {
 	}
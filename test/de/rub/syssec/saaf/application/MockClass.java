@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 
 import de.rub.syssec.saaf.analysis.steps.obfuscation.Entropy;
 import de.rub.syssec.saaf.model.application.ApplicationInterface;
@@ -56,7 +57,7 @@ public class MockClass implements ClassInterface {
 	}
 
 	@Override
-	public LinkedList<CodeLineInterface> getAllCodeLines() {
+	public List<CodeLineInterface> getAllCodeLines() {
 		// TODO Auto-generated method stub
 		return null;
 	}
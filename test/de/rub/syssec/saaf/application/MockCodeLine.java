@@ -1,6 +1,12 @@
 package de.rub.syssec.saaf.application;
 
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import de.rub.syssec.saaf.application.instructions.Instruction;
 import de.rub.syssec.saaf.application.manifest.permissions.Permission;
+import de.rub.syssec.saaf.misc.ByteUtils;
+import de.rub.syssec.saaf.misc.KMP;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
 import de.rub.syssec.saaf.model.application.MethodInterface;
@@ -64,8 +70,7 @@ public class MockCodeLine implements CodeLineInterface {
 
 	@Override
 	public boolean startsWith(byte[] pattern) {
-		// TODO Auto-generated method stub
-		return false;
+		return ByteUtils.startsWith(line, pattern);
 	}
 
 	@Override
@@ -76,8 +81,37 @@ public class MockCodeLine implements CodeLineInterface {
 
 	@Override
 	public boolean contains(byte[] pattern) {
-		// TODO Auto-generated method stub
-		return false;
+		return KMP.indexOf(line, pattern) >= 0;
+	}
+
+	@Override
+	public int length() {
+		return line.length;
+	}
+
+	@Override
+	public byte byteAt(int index) {
+		return line[index];
+	}
+
+	@Override
+	public int indexOf(byte[] pattern) {
+		return KMP.indexOf(line, pattern);
+	}
+
+	@Override
+	public boolean lineEquals(byte[] bytes) {
+		return Arrays.equals(line, bytes);
+	}
+
+	@Override
+	public LinkedList<byte[]> split() {
+		return Instruction.split(line);
+	}
+
+	@Override
+	public String getLineAsString() {
+		return new String(line);
 	}
 
 	@Override
@@ -1,8 +1,10 @@
 package de.rub.syssec.saaf.application;
 
 import java.util.LinkedList;
+import java.util.List;
 
 import de.rub.syssec.saaf.analysis.steps.obfuscation.Entropy;
+import de.rub.syssec.saaf.application.methods.DefUse;
 import de.rub.syssec.saaf.model.application.BasicBlockInterface;
 import de.rub.syssec.saaf.model.application.ClassInterface;
 import de.rub.syssec.saaf.model.application.CodeLineInterface;
@@ -15,7 +17,7 @@ public class MockMethod implements MethodInterface {
 	int id;
 	private String name;
 	private ClassInterface classFile;
-	private LinkedList<CodeLineInterface> codelines;
+	private List<CodeLineInterface> codelines;
 	private boolean changed;
 	private String paramstring="";
 	private String returnValue;
@@ -59,6 +61,10 @@ public class MockMethod implements MethodInterface {
 		
 	}
 
+	@Override
+	public void parseInstructions() {
+	}
+
 	@Override
 	public byte[] getParameters() {
 		return new byte[1];
@@ -76,6 +82,11 @@ public class MockMethod implements MethodInterface {
 		return null;
 	}
 
+	@Override
+	public DefUse getDefUse() {
+		return new DefUse(this);
+	}
+
 	@Override
 	public void setBasicBlocks(LinkedList<BasicBlockInterface> blocks) {
 		// TODO Auto-generated method stub
@@ -116,12 +127,23 @@ public class MockMethod implements MethodInterface {
 	}
 
 	@Override
-	public LinkedList<CodeLineInterface> getCodeLines() {
+	public List<CodeLineInterface> getCodeLines() {
 		return this.codelines;
 	}
 
 	@Override
-	public void setCodeLines(LinkedList<CodeLineInterface> lines) {
+	public String getFuzzyHash() {
+		return null;
+	}
+
+	@Override
+	public void setFuzzyHash(String hash) {
+		// TODO Auto-generated method stub
+		
+	}
+
+	@Override
+	public void setCodeLines(List<CodeLineInterface> lines) {
 		this.codelines=lines;
 		
 	}
@@ -0,0 +1,124 @@
+package de.rub.syssec.saaf.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.methods.Method;
+import de.rub.syssec.saaf.misc.config.Config;
+import de.rub.syssec.saaf.misc.config.ConfigKeys;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+import de.rub.syssec.saaf.model.application.SmaliClassError;
+import de.rub.syssec.saaf.model.application.instruction.InstructionType;
+
+public class SmaliClassTest {
+
+	private static final String SMALI =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			".source \"Foo.java\"\n" +
+			"\n" +
+			".field private count:I\n" +
+			"\n" +
+			".method public abs(I)I\n" +
+			"    .registers 2\n" +
+			"    if-gez p1, :cond_0\n" +
+			"    neg-int p1, p1\n" +
+			"    :cond_0\n" +
+			"    return p1\n" +
+			".end method\n" +
+			"\n" +
+			".method public abstract run()V\n" +
+			".end method\n";
+
+	private boolean lazy;
+
+	@Before
+	public void setUp() {
+		lazy = Config.getInstance().getBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY);
+	}
+
+	@After
+	public void tearDown() {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, lazy);
+	}
+
+	private SmaliClass parse(boolean lazy) throws Exception {
+		Config.getInstance().setBooleanConfigValue(ConfigKeys.ANALYSIS_PARSE_LAZY, lazy);
+		return new MockApplication().addClass("Foo.smali", SMALI);
+	}
+
+	@Test
+	public void testHeader() throws Exception {
+		SmaliClass eager = parse(false);
+		SmaliClass lazy = parse(true);
+		assertEquals("java.lang.Object", lazy.getSuperClass());
+		assertEquals(eager.getSourceFile(), lazy.getSourceFile());
+		assertEquals(eager.getAllFields().size(), lazy.getAllFields().size());
+		assertEquals(2, lazy.getMethods().size());
+		assertEquals("abs", lazy.getMethods().getFirst().getName());
+		assertEquals(eager.getMethods().size(), lazy.getMethods().size());
+		assertEquals(eager.getEmptyMethods().size(), lazy.getEmptyMethods().size());
+	}
+
+	@Test
+	public void testInstructions() throws Exception {
+		List<CodeLineInterface> eager = parse(false).getAllCodeLines();
+		List<CodeLineInterface> lazy = parse(true).getAllCodeLines();
+		assertEquals(eager.size(), lazy.size());
+		for (int i = 0; i < eager.size(); i++) {
+			assertEquals(eager.get(i).getInstruction().getType(), lazy.get(i).getInstruction().getType());
+			assertEquals(eager.get(i).isCode(), lazy.get(i).isCode());
+		}
+		assertEquals(InstructionType.JMP, lazy.get(8).getInstruction().getType());
+		assertTrue(lazy.get(8).isCode());
+	}
+
+	@Test
+	public void testBasicBlocks() throws Exception {
+		MethodInterface eager = parse(false).getMethods().getFirst();
+		MethodInterface lazy = parse(true).getMethods().getFirst();
+		assertEquals(eager.getBasicBlocks().size(), lazy.getBasicBlocks().size());
+		for (int i = 0; i < eager.getBasicBlocks().size(); i++) {
+			BasicBlockInterface e = eager.getBasicBlocks().get(i);
+			BasicBlockInterface l = lazy.getBasicBlocks().get(i);
+			assertEquals(e.getLabel(), l.getLabel());
+			assertEquals(e.getCodeLines().size(), l.getCodeLines().size());
+			assertEquals(e.getNextBB().size(), l.getNextBB().size());
+		}
+		assertFalse(lazy.isEmpty());
+		assertFalse(lazy.hasUnlinkedBBs());
+	}
+
+	@Test
+	public void testBasicBlockErrorIsThrown() throws Exception {
+		SmaliClass foo = parse(true);
+		final SmaliClassError error = new SmaliClassError("broken");
+		Method broken = new Method(foo.getMethods().getFirst().getCodeLines(), foo, 2) {
+			@Override
+			public synchronized void generateBBs() throws SmaliClassError {
+				throw error;
+			}
+		};
+		for (int i = 0; i < 2; i++) { // the error is not forgotten
+			try {
+				broken.getBasicBlocks();
+				fail();
+			}
+			catch (IllegalStateException e) {
+				assertSame(error, e.getCause());
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package de.rub.syssec.saaf.application;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolTableTest {
+
+	private SymbolTable symbols;
+
+	@Before
+	public void setUp() {
+		symbols = new SymbolTable();
+	}
+
+	@Test
+	public void testIntern() {
+		int a = symbols.intern("java/lang/String".getBytes());
+		int b = symbols.intern("valueOf".getBytes());
+		assertTrue(a != b);
+		assertEquals(a, symbols.intern("java/lang/String".getBytes()));
+		assertEquals(2, symbols.size());
+		assertArrayEquals("valueOf".getBytes(), symbols.get(b));
+		assertEquals("java/lang/String", symbols.getString(a));
+		assertSame(symbols.getString(a), symbols.getString(a));
+	}
+
+	@Test
+	public void testInternRange() {
+		byte[] line = "Ljava/lang/String;->valueOf(I)".getBytes();
+		int id = symbols.intern(line, 1, 17);
+		assertEquals(id, symbols.intern("java/lang/String".getBytes()));
+		// the array is copied
+		line[1] = 'x';
+		assertEquals("java/lang/String", symbols.getString(id));
+		assertEquals(symbols.intern(new byte[0]), symbols.intern(line, 5, 5));
+	}
+
+	@Test
+	public void testLookup() {
+		int id = symbols.intern("toString".getBytes());
+		assertEquals(id, symbols.lookup("toString".getBytes()));
+		assertEquals(SymbolTable.NONE, symbols.lookup("hashCode".getBytes()));
+		assertEquals(SymbolTable.NONE, symbols.lookup(null));
+		assertEquals(1, symbols.size());
+	}
+
+	@Test
+	public void testGrow() {
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, symbols.intern(("s" + i).getBytes()));
+		}
+		assertEquals("s999", symbols.getString(999));
+	}
+}
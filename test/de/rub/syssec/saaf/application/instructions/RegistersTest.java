@@ -0,0 +1,51 @@
+package de.rub.syssec.saaf.application.instructions;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RegistersTest {
+
+	@Test
+	public void testParse() {
+		assertEquals(Registers.local(12), Registers.parse("v12".getBytes()));
+		assertEquals(Registers.parameter(0), Registers.parse("p0".getBytes()));
+		assertTrue(Registers.parse("v0".getBytes()) != Registers.parse("p0".getBytes()));
+		assertTrue(Registers.isParameter(Registers.parse("p3".getBytes())));
+		assertFalse(Registers.isParameter(Registers.parse("v3".getBytes())));
+		assertEquals(3, Registers.getIndex(Registers.parse("p3".getBytes())));
+		assertEquals("p3", Registers.toString(Registers.parse("p3".getBytes())));
+	}
+
+	@Test
+	public void testParseInvalid() {
+		assertEquals(Registers.NONE, Registers.parse((byte[]) null));
+		assertEquals(Registers.NONE, Registers.parse("v".getBytes()));
+		assertEquals(Registers.NONE, Registers.parse("x1".getBytes()));
+		assertEquals(Registers.NONE, Registers.parse("v1a".getBytes()));
+		assertEquals(Registers.NONE, Registers.parse("v70000".getBytes()));
+		assertFalse(Registers.isParameter(Registers.NONE));
+	}
+
+	@Test
+	public void testParseList() {
+		assertArrayEquals(new int[] { 7 }, Registers.parseList("{v7}".getBytes()));
+		assertArrayEquals(new int[] { 7, Registers.parameter(1) },
+				Registers.parseList("{v7, p1}".getBytes()));
+		assertArrayEquals(new int[] { 1, 2, 3 }, Registers.parseList("v1 v2 v3".getBytes()));
+		assertArrayEquals(new int[0], Registers.parseList("{}".getBytes()));
+		// bad names keep their position
+		assertArrayEquals(new int[] { 0, Registers.NONE, 2 },
+				Registers.parseList("{v0, x, v2}".getBytes()));
+	}
+
+	@Test
+	public void testParseRange() {
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, Registers.parseList("{v0 .. v5}".getBytes()));
+		assertArrayEquals(new int[] { Registers.parameter(1), Registers.parameter(2), Registers.parameter(3) },
+				Registers.parseList("{p1 .. p3}".getBytes()));
+	}
+}
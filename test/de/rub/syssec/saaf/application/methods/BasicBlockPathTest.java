@@ -0,0 +1,94 @@
+package de.rub.syssec.saaf.application.methods;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.application.SmaliClass;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+
+public class BasicBlockPathTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Z)V\n" +
+			"    .registers 2\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    return-void\n" +
+			"    :cond_0\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private BasicBlockInterface bb1;
+	private BasicBlockInterface bb2;
+	private BasicBlockInterface bb3;
+
+	@Before
+	public void setUp() throws Exception {
+		SmaliClass foo = new MockApplication().addClass("Foo.smali", FOO);
+		LinkedList<BasicBlockInterface> bbs = foo.getMethods().getFirst().getBasicBlocks();
+		assertEquals(3, bbs.size());
+		bb1 = bbs.get(0);
+		bb2 = bbs.get(1);
+		bb3 = bbs.get(2);
+	}
+
+	@Test
+	public void testAddAndRemove() {
+		BasicBlockPath path = new BasicBlockPath();
+		assertTrue(path.isEmpty());
+		path.addLast(bb1);
+		path.addLast(bb2);
+		assertEquals(2, path.size());
+		assertSame(bb1, path.get(0));
+		assertSame(bb2, path.getLast());
+		assertSame(bb2, path.removeLast());
+		assertSame(bb1, path.getLast());
+		assertEquals(1, path.size());
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		BasicBlockPath path = new BasicBlockPath();
+		path.addLast(bb1);
+		BasicBlockPath copy = new BasicBlockPath(path);
+		copy.addLast(bb2);
+		path.addLast(bb3);
+		assertSame(bb2, copy.getLast());
+		assertSame(bb3, path.getLast());
+		path.removeLast();
+		path.removeLast();
+		assertTrue(path.isEmpty());
+		assertEquals(2, copy.size());
+		Iterator<BasicBlockInterface> it = copy.iterator();
+		assertSame(bb1, it.next());
+		assertSame(bb2, it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testEquals() {
+		BasicBlockPath path = new BasicBlockPath();
+		path.addLast(bb1);
+		path.addLast(bb2);
+		BasicBlockPath other = new BasicBlockPath();
+		other.addLast(bb1);
+		assertFalse(path.equals(other));
+		other.addLast(bb2);
+		assertEquals(path, other);
+		assertEquals(path.hashCode(), other.hashCode());
+		other.removeLast();
+		other.addLast(bb3);
+		assertFalse(path.equals(other));
+	}
+}
@@ -0,0 +1,157 @@
+package de.rub.syssec.saaf.application.methods;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rub.syssec.saaf.application.MockApplication;
+import de.rub.syssec.saaf.application.SmaliClass;
+import de.rub.syssec.saaf.application.instructions.Registers;
+import de.rub.syssec.saaf.model.application.BasicBlockInterface;
+import de.rub.syssec.saaf.model.application.CodeLineInterface;
+import de.rub.syssec.saaf.model.application.MethodInterface;
+
+public class DefUseTest {
+
+	private static final String FOO =
+			".class public Lcom/example/Foo;\n" +
+			".super Ljava/lang/Object;\n" +
+			"\n" +
+			".method public send(Ljava/lang/String;)V\n" +
+			"    .registers 4\n" +
+			"    const-string v0, \"1234\"\n" +
+			"    # a comment\n" +
+			"    const/4 v1, 0x0\n" +
+			"    invoke-static {v0, p1}, Lcom/example/Sms;->send(Ljava/lang/String;Ljava/lang/String;)V\n" +
+			"    move-object v1, v0\n" +
+			"    if-eqz v1, :cond_0\n" +
+			"    return-void\n" +
+			"    :cond_0\n" +
+			"    return-void\n" +
+			".end method\n" +
+			"\n" +
+			".method public loop(Z)V\n" +
+			"    .registers 4\n" +
+			"    const/4 v0, 0x0\n" +
+			"    if-eqz p1, :cond_0\n" +
+			"    const/4 v0, 0x1\n" +
+			"    :cond_0\n" +
+			"    const/4 v1, 0x2\n" +
+			"    :goto_0\n" +
+			"    if-eqz v0, :cond_1\n" +
+			"    const/4 v1, 0x3\n" +
+			"    goto :goto_0\n" +
+			"    :cond_1\n" +
+			"    return-void\n" +
+			".end method\n";
+
+	private MethodInterface method;
+	private MethodInterface loop;
+	private BasicBlockInterface bb;
+
+	@Before
+	public void setUp() throws Exception {
+		SmaliClass foo = new MockApplication().addClass("Foo.smali", FOO);
+		method = foo.getMethods().getFirst();
+		loop = foo.getMethods().getLast();
+		bb = method.getFirstBasicBlock();
+	}
+
+	private int index(String code) {
+		for (int i = 0; i < bb.getCodeLines().size(); i++) {
+			if (new String(bb.getCodeLines().get(i).getLine()).trim().startsWith(code)) return i;
+		}
+		throw new IllegalArgumentException(code);
+	}
+
+	@Test
+	public void testPreviousAccess() {
+		DefUse defUse = method.getDefUse();
+		int v0 = Registers.local(0);
+		int v1 = Registers.local(1);
+		int end = bb.getCodeLines().size();
+		// the registers of a jump are not parsed
+		assertEquals(index("move-object"), defUse.getPreviousAccess(bb, v1, end));
+		assertEquals(index("const/4"), defUse.getPreviousAccess(bb, v1, index("move-object")));
+		assertEquals(-1, defUse.getPreviousAccess(bb, v1, index("const/4")));
+		assertEquals(index("move-object"), defUse.getPreviousAccess(bb, v0, end));
+		assertEquals(index("invoke-static"), defUse.getPreviousAccess(bb, v0, index("move-object")));
+		assertEquals(index("const-string"), defUse.getPreviousAccess(bb, v0, index("invoke-static")));
+		assertEquals(-1, defUse.getPreviousAccess(bb, Registers.local(2), end));
+	}
+
+	@Test
+	public void testReturn() {
+		BasicBlockInterface last = method.getBasicBlocks().getLast();
+		int end = last.getCodeLines().size();
+		int ret = method.getDefUse().getPreviousAccess(last, Registers.local(2), end);
+		assertEquals("return-void", new String(last.getCodeLines().get(ret).getLine()).trim());
+	}
+
+	private static List<String> lines(List<CodeLineInterface> codeLines) {
+		List<String> lines = new ArrayList<String>();
+		for (CodeLineInterface cl : codeLines) {
+			lines.add(new String(cl.getLine()).trim());
+		}
+		return lines;
+	}
+
+	/**
+	 * @return the first BB of the loop method which contains the line
+	 */
+	private BasicBlockInterface block(String code) {
+		for (BasicBlockInterface b : loop.getBasicBlocks()) {
+			if (b.containsLine(code)) return b;
+		}
+		throw new IllegalArgumentException(code);
+	}
+
+	@Test
+	public void testReachingDefinitions() {
+		DefUse defUse = loop.getDefUse();
+		int v0 = Registers.local(0);
+		int v1 = Registers.local(1);
+		// in the same BB only the last definition before the line reaches it
+		BasicBlockInterface first = loop.getFirstBasicBlock();
+		assertEquals(Arrays.asList("const/4 v0, 0x0"), lines(defUse.getReachingDefinitions(first, v0, first.getCodeLines().size())));
+		assertTrue(defUse.getReachingDefinitions(first, v0, 0).isEmpty());
+		// both branches define v0
+		BasicBlockInterface join = block(":cond_0");
+		assertEquals(Arrays.asList("const/4 v0, 0x0", "const/4 v0, 0x1"), lines(defUse.getReachingDefinitions(join, v0, 0)));
+		// the loop defines v1 again
+		BasicBlockInterface exit = block(":cond_1");
+		assertEquals(Arrays.asList("const/4 v1, 0x2", "const/4 v1, 0x3"), lines(defUse.getReachingDefinitions(exit, v1, 0)));
+		assertEquals(Arrays.asList("const/4 v0, 0x0", "const/4 v0, 0x1"), lines(defUse.getReachingDefinitions(exit, v0, 0)));
+		// the parameter is never defined
+		assertTrue(defUse.getReachingDefinitions(exit, Registers.parameter(1), 0).isEmpty());
+	}
+
+	@Test
+	public void testAccessedBefore() {
+		DefUse defUse = loop.getDefUse();
+		int v1 = Registers.local(1);
+		BasicBlockInterface first = loop.getFirstBasicBlock();
+		// the registers of a jump are not parsed
+		assertFalse(defUse.isAccessedBefore(first, v1, first.getCodeLines().size()));
+		assertFalse(defUse.isAccessedBefore(block(":cond_0"), v1, 0));
+		assertTrue(defUse.isAccessedBefore(block(":cond_0"), v1, block(":cond_0").getCodeLines().size()));
+		// the loop reaches its own definition
+		assertTrue(defUse.isAccessedBefore(block(":cond_1"), v1, 0));
+		assertFalse(defUse.isAccessedBefore(block(":cond_1"), Registers.local(2), 0));
+		// the RETURN ends the method
+		assertTrue(defUse.isAccessedBefore(block(":cond_1"), Registers.local(2), block(":cond_1").getCodeLines().size()));
+	}
+
+	@Test
+	public void testShared() {
+		assertSame(method.getDefUse(), method.getDefUse());
+	}
+}
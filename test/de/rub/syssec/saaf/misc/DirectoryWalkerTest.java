@@ -0,0 +1,56 @@
+package de.rub.syssec.saaf.misc;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.HashSet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DirectoryWalkerTest {
+
+	private File root;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new File(System.getProperty("java.io.tmpdir"), "walker"
+				+ System.currentTimeMillis());
+		new File(root, "sub/subsub").mkdirs();
+		new File(root, "a.apk").createNewFile();
+		new File(root, "b.apk").createNewFile();
+		new File(root, "sub/c.apk").createNewFile();
+		new File(root, "sub/subsub/d.apk").createNewFile();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(root);
+	}
+
+	@Test
+	public void testNonRecursive() {
+		DirectoryWalker walker = new DirectoryWalker(root, false);
+		HashSet<String> names = new HashSet<String>();
+		while (walker.hasNext()) {
+			names.add(walker.next().getName());
+		}
+		assertEquals(2, walker.getCount());
+		assertTrue(names.contains("a.apk"));
+		assertTrue(names.contains("b.apk"));
+	}
+
+	@Test
+	public void testRecursive() {
+		DirectoryWalker walker = new DirectoryWalker(root, true);
+		HashSet<String> names = new HashSet<String>();
+		while (walker.hasNext()) {
+			names.add(walker.next().getName());
+		}
+		assertEquals(4, names.size());
+		assertTrue(names.contains("d.apk"));
+		assertFalse(walker.hasNext());
+	}
+}
@@ -0,0 +1,86 @@
+package de.rub.syssec.saaf.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileListReaderTest {
+
+	private File dir;
+	private File list;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("apks", "");
+		dir.delete();
+		dir.mkdirs();
+		new File(dir, "a.apk").createNewFile();
+		new File(dir, "b.apk").createNewFile();
+		new File(dir, "c.apk").createNewFile();
+		list = new File(dir, "list.txt");
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private void writeList(byte[] content) throws Exception {
+		FileOutputStream out = new FileOutputStream(list);
+		out.write(content);
+		out.close();
+	}
+
+	@Test
+	public void testSkipsMissingFiles() throws Exception {
+		writeList("a.apk\nmissing.apk\n\nb.apk\n".getBytes());
+		FileListReader reader = new FileListReader(list, dir.getPath());
+		assertTrue(reader.hasNext());
+		assertTrue(reader.hasNext()); // does not skip a file
+		assertEquals(new File(dir, "a.apk"), reader.next());
+		assertEquals(new File(dir, "b.apk"), reader.next());
+		assertFalse(reader.hasNext());
+		assertEquals(2, reader.getCount());
+		try {
+			reader.next();
+			fail();
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRemovesByteOrderMark() throws Exception {
+		byte[] bom = new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+		byte[] lines = "c.apk\r\na.apk".getBytes();
+		byte[] content = new byte[bom.length + lines.length];
+		System.arraycopy(bom, 0, content, 0, bom.length);
+		System.arraycopy(lines, 0, content, bom.length, lines.length);
+		writeList(content);
+		FileListReader reader = new FileListReader(list, dir.getPath());
+		assertEquals(new File(dir, "c.apk"), reader.next());
+		assertEquals(new File(dir, "a.apk"), reader.next());
+		assertFalse(reader.hasNext());
+	}
+
+	@Test
+	public void testEmptyList() throws Exception {
+		writeList(new byte[0]);
+		FileListReader reader = new FileListReader(list, dir.getPath());
+		assertFalse(reader.hasNext());
+		assertEquals(0, reader.getCount());
+		reader.close(); // closing twice is fine
+	}
+}
@@ -0,0 +1,79 @@
+package de.rub.syssec.saaf.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LineReaderTest {
+
+	private static List<String> lines(String text, int maxLineLength) throws IOException {
+		LineReader reader = new LineReader(text.getBytes("UTF-8"), maxLineLength);
+		List<String> lines = new ArrayList<String>();
+		while (reader.next()) {
+			lines.add(new String(reader.getBuffer(), reader.getOffset(), reader.getLength(), "UTF-8"));
+		}
+		return lines;
+	}
+
+	@Test
+	public void testLineBreaks() throws IOException {
+		List<String> lines = lines("a\nbb\r\n\r\nc\rd\n\ne", 0);
+		assertEquals(6, lines.size());
+		assertEquals("a", lines.get(0));
+		assertEquals("bb", lines.get(1));
+		assertEquals("", lines.get(2));
+		assertEquals("c\rd", lines.get(3)); // a CR alone does not end a line
+		assertEquals("", lines.get(4));
+		assertEquals("e", lines.get(5));
+	}
+
+	@Test
+	public void testEnd() throws IOException {
+		assertEquals(0, lines("", 0).size());
+		assertEquals(1, lines("a\n", 0).size());
+		assertEquals(2, lines("a\n\n", 0).size());
+		assertEquals("a\r", lines("a\r", 0).get(0));
+	}
+
+	@Test
+	public void testMaxLineLength() throws IOException {
+		assertEquals(2, lines("abc\r\nde", 3).size());
+		try {
+			lines("abc\nabcd\n", 3);
+			assertTrue("no exception", false);
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReadFile() throws IOException {
+		File file = File.createTempFile("LineReaderTest", ".smali");
+		try {
+			FileOutputStream out = new FileOutputStream(file);
+			out.write(".class public LFoo;\r\n.super Ljava/lang/Object;\n".getBytes());
+			out.close();
+			LineReader reader = LineReader.read(file, 1000, 0);
+			assertTrue(reader.next());
+			assertEquals(".class public LFoo;".length(), reader.getLength());
+			assertTrue(reader.next());
+			assertFalse(reader.next());
+			try {
+				LineReader.read(file, 10, 0);
+				assertTrue("no exception", false);
+			} catch (IOException e) {
+				// expected
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}